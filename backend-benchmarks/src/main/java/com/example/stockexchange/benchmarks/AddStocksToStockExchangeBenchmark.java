@@ -0,0 +1,82 @@
+package com.example.stockexchange.benchmarks;
+
+import com.example.stockexchange.StockExchangeApplication;
+import com.example.stockexchange.dto.StockListingDto;
+import com.example.stockexchange.request.StockCreationRequest;
+import com.example.stockexchange.request.StockExchangeCreationRequest;
+import com.example.stockexchange.service.StockExchangeService;
+import com.example.stockexchange.service.StockService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// the full service path (transaction, repository lookups, inserts, live market update and events)
+// against an embedded in-memory H2 configured by application-benchmark.yml.
+// every invocation lists freshly created stocks on a fresh exchange, so the work does not drift
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AddStocksToStockExchangeBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private StockService stockService;
+    private StockExchangeService stockExchangeService;
+
+    private long sequence;
+    private Long stockExchangeId;
+    private List<Long> stockIds;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(StockExchangeApplication.class)
+                .run("--spring.profiles.active=benchmark");
+        stockService = context.getBean(StockService.class);
+        stockExchangeService = context.getBean(StockExchangeService.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void createStocks() {
+        long run = ++sequence;
+        stockExchangeId = stockExchangeService.createStockExchange(
+                new StockExchangeCreationRequest("Bench " + run, "Benchmark exchange " + run)).getStockExchangeId();
+
+        stockIds = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            stockIds.add(stockService.createStock(new StockCreationRequest(
+                    "B" + run + "-" + i, "Benchmark stock", BigDecimal.valueOf(10_000 + i, 2))).getStockId());
+        }
+    }
+
+    @Benchmark
+    public List<StockListingDto> addStocksToStockExchange() {
+        return stockExchangeService.addStocksToStockExchange(stockExchangeId, stockIds);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.stockexchange.benchmarks;
+
+import com.example.stockexchange.dto.StockDto;
+import com.example.stockexchange.response.ApiRespond;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JSON encoding of the ApiRespond envelope, with an ObjectMapper configured like Spring Boot's
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiRespondSerializationBenchmark {
+
+    @Param({"1", "20", "100"})
+    private int stockCount;
+
+    private ObjectMapper objectMapper;
+    private ApiRespond<StockDto> single;
+    private ApiRespond<List<StockDto>> list;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<StockDto> stocks = new ArrayList<>(stockCount);
+        for (long id = 1; id <= stockCount; id++) {
+            stocks.add(BenchmarkFixtures.stockDto(id));
+        }
+        single = new ApiRespond<>(HttpStatus.OK, "Stock retrieved successfully", stocks.get(0));
+        list = new ApiRespond<>(HttpStatus.OK, "Stocks retrieved successfully", stocks);
+    }
+
+    @Benchmark
+    public byte[] serializeSingle() throws Exception {
+        return objectMapper.writeValueAsBytes(single);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws Exception {
+        return objectMapper.writeValueAsBytes(list);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.stockexchange.benchmarks;
+
+import com.example.stockexchange.dto.StockDto;
+import com.example.stockexchange.entity.Authority;
+import com.example.stockexchange.entity.JwtPublicKey;
+import com.example.stockexchange.entity.Stock;
+import com.example.stockexchange.entity.StockExchange;
+import com.example.stockexchange.entity.User;
+import com.example.stockexchange.entity.UserCredintials;
+import com.example.stockexchange.repository.JwtPublicKeyRepository;
+import com.example.stockexchange.revocation.TokenRevocationList;
+import com.example.stockexchange.service.JwtKeyRing;
+import com.example.stockexchange.service.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiFunction;
+
+// deterministic inputs shared by the benchmarks, so results stay comparable between releases
+final class BenchmarkFixtures {
+
+    // same key as the default jwt.secret, so the token size matches production
+    static final String JWT_SECRET = "370fc2ad32927ff329d2807b020a92cbde3d349b44c19304d3c8e8b107365042";
+    static final long JWT_EXPIRATION = 14_400_000;
+    static final String USERNAME = "benchmark.user@example.com";
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtService jwtService() {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "SECRET_KEY", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtService, "JWT_EXPIRATION", JWT_EXPIRATION);
+        return jwtService;
+    }
+
+    // HS256 signs with the secret, RS256 and EdDSA with a started key ring over an in-memory jwt_public_key
+    static JwtService jwtService(String algorithm) {
+        JwtService jwtService = jwtService();
+        if (!algorithm.equals("HS256")) {
+            List<JwtPublicKey> published = new CopyOnWriteArrayList<>();
+            JwtPublicKeyRepository repository = repository(JwtPublicKeyRepository.class, (method, args) ->
+                    switch (method) {
+                        case "save" -> {
+                            published.add((JwtPublicKey) args[0]);
+                            yield args[0];
+                        }
+                        case "findByExpiresAtAfter" -> published;
+                        default -> null;
+                    });
+            JwtKeyRing keyRing = new JwtKeyRing(repository, algorithm, Duration.ofHours(24), JWT_EXPIRATION);
+            keyRing.start();
+            ReflectionTestUtils.setField(jwtService, "keyRing", keyRing);
+        }
+        return jwtService;
+    }
+
+    // an application user, so its tokens carry the user id the JWT filter authenticates with
+    static UserDetails userDetails() {
+        User user = new User();
+        user.setId(1L);
+        user.setFirstName("Benchmark");
+        user.setLastName("User");
+        user.setEmail(USERNAME);
+        user.setPassword("{noop}benchmark");
+        user.setAuthorities(List.of(new Authority("ROLE_USER")));
+        return new UserCredintials(user);
+    }
+
+    // an in-memory repository answering the methods a benchmark reaches (null: any other method fails). a JDK
+    // proxy rather than Mockito, which is not on this classpath and would add its invocation bookkeeping to
+    // every call on the measured path
+    static <T> T repository(Class<T> repository, BiFunction<String, Object[], Object> answer) {
+        return repository.cast(Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[]{repository},
+                (proxy, method, args) -> {
+                    Object result = answer.apply(method.getName(), args);
+                    if (result == null) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return result;
+                }));
+    }
+
+    // revocations are only added by the benchmarks, the database sync never runs
+    static TokenRevocationList revocationList() {
+        return new TokenRevocationList(null, new SimpleMeterRegistry(), JWT_EXPIRATION, 100_000, 0.01);
+    }
+
+    static Stock stock(long id) {
+        Stock stock = new Stock();
+        stock.setStockId(id);
+        stock.setName("Stock " + id);
+        stock.setDescription("Benchmark stock number " + id + " listed on several exchanges");
+        stock.setCurrentPrice(BigDecimal.valueOf(100 + id % 900, 2));
+        stock.setUpdatedAt(LocalDateTime.of(2025, 1, 1, 9, 30));
+        return stock;
+    }
+
+    static List<Stock> stocks(int count) {
+        List<Stock> stocks = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            stocks.add(stock(id));
+        }
+        return stocks;
+    }
+
+    static StockDto stockDto(long id) {
+        Stock stock = stock(id);
+        return new StockDto(stock.getStockId(), stock.getName(), stock.getDescription(),
+                stock.getCurrentPrice(), stock.getUpdatedAt());
+    }
+
+    static StockExchange stockExchange(long id) {
+        StockExchange stockExchange = new StockExchange();
+        stockExchange.setStockExchangeId(id);
+        stockExchange.setName("Exchange " + id);
+        stockExchange.setDescription("Benchmark exchange " + id);
+        stockExchange.setLiveInMarket(true);
+        return stockExchange;
+    }
+}
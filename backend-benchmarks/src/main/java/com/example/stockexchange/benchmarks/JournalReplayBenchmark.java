@@ -0,0 +1,92 @@
+package com.example.stockexchange.benchmarks;
+
+import com.example.stockexchange.engine.CancelOrder;
+import com.example.stockexchange.engine.EngineJournal;
+import com.example.stockexchange.engine.JournalRecovery;
+import com.example.stockexchange.engine.NewOrder;
+import com.example.stockexchange.engine.OrderCommand;
+import com.example.stockexchange.engine.OrderType;
+import com.example.stockexchange.engine.SequencedCommand;
+import com.example.stockexchange.engine.Side;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// startup replay of the engine journal: a million commands (limit orders around one price, a quarter
+// of them cancels) over 50 books, replayed from the segment files without a snapshot.
+// the score is the time per replayed command, its inverse the replay rate
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class JournalReplayBenchmark {
+
+    private static final int COMMANDS = 1_000_000;
+    private static final int STOCKS = 50;
+
+    private Path directory;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-replay");
+        EngineJournal journal = journal();
+        journal.start(journal.recover(1024, 128));
+
+        SplittableRandom random = new SplittableRandom(42);
+        long orderId = 0;
+        for (int sequence = 1; sequence <= COMMANDS; sequence++) {
+            long stockId = 1 + random.nextInt(STOCKS);
+            OrderCommand command;
+            if (orderId > 100 && random.nextInt(4) == 0) {
+                command = new CancelOrder(orderId - random.nextInt(100), 1, stockId, 1);
+            } else {
+                command = new NewOrder(++orderId, 1, stockId, 1 + random.nextInt(100),
+                        random.nextBoolean() ? Side.BUY : Side.SELL, OrderType.LIMIT,
+                        100_0000 + random.nextInt(-50, 50) * 100L, 1 + random.nextInt(100));
+            }
+            journal.append(new SequencedCommand(sequence, System.currentTimeMillis(), command));
+        }
+        journal.stop();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COMMANDS)
+    public JournalRecovery replay() {
+        return journal().recover(1024, 128);
+    }
+
+    private EngineJournal journal() {
+        return new EngineJournal(true, directory.toString(), DataSize.ofMegabytes(256), Duration.ofMillis(50),
+                262_144, 2, 64);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.stockexchange.benchmarks;
+
+import com.example.stockexchange.config.JwtAuthenticationFilter;
+import com.example.stockexchange.revocation.TokenRevocationList;
+import com.example.stockexchange.service.JwtService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// the whole per-request authentication path: header parsing, token validation, the revocation
+// check and security context population. The principal comes from the token's claims, there is
+// no user lookup. HS256 checks an HMAC, RS256 and EdDSA a public key signature with the key looked up by kid
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"HS256", "RS256", "EdDSA"})
+    public String algorithm;
+
+    private JwtAuthenticationFilter filter;
+    private String validHeader;
+    private String tamperedHeader;
+    private String revokedHeader;
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = BenchmarkFixtures.jwtService(algorithm);
+        UserDetails userDetails = BenchmarkFixtures.userDetails();
+        TokenRevocationList revocationList = BenchmarkFixtures.revocationList();
+        filter = new JwtAuthenticationFilter(jwtService, revocationList, "/api/v1/auth");
+
+        String token = jwtService.generateToken(Map.of(), userDetails);
+        validHeader = "Bearer " + token;
+        JwtService.AccessToken revoked = jwtService.issueToken(userDetails);
+        revocationList.revoke(revoked.id(), revoked.expiresAt());
+        revokedHeader = "Bearer " + revoked.value();
+        // flip the last signature character so parsing fails on the signature check
+        char last = token.charAt(token.length() - 1);
+        tamperedHeader = "Bearer " + token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+    }
+
+    @Benchmark
+    public int authenticatedRequest() throws Exception {
+        return filter(validHeader);
+    }
+
+    @Benchmark
+    public int anonymousRequest() throws Exception {
+        return filter(null);
+    }
+
+    @Benchmark
+    public int rejectedRequest() throws Exception {
+        return filter(tamperedHeader);
+    }
+
+    @Benchmark
+    public int revokedRequest() throws Exception {
+        return filter(revokedHeader);
+    }
+
+    private int filter(String authorization) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/stock");
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+            return response.getStatus();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
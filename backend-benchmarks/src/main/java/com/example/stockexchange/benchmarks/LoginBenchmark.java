@@ -0,0 +1,100 @@
+package com.example.stockexchange.benchmarks;
+
+import com.example.stockexchange.config.PasswordHashingEncoder;
+import com.example.stockexchange.entity.Authority;
+import com.example.stockexchange.entity.User;
+import com.example.stockexchange.repository.RefreshTokenRepository;
+import com.example.stockexchange.repository.UserRepository;
+import com.example.stockexchange.request.AuthenticationRequest;
+import com.example.stockexchange.response.AuthenticationResponse;
+import com.example.stockexchange.service.AuthenticationService;
+import com.example.stockexchange.service.RefreshTokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// login throughput with more callers than cores, hashing on the request threads ("caller") against the bounded
+// hashing pool ("pool"). The repositories are in-memory stubs, so the numbers are the cost of the hash and
+// the tokens; the pool should match the caller's throughput while keeping the other request threads free
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final String PASSWORD = "benchmark-password";
+
+    @Param({"10", "12"})
+    public int strength;
+
+    @Param({"caller", "pool"})
+    public String hashing;
+
+    private AuthenticationService authenticationService;
+    private PasswordHashingEncoder pooledEncoder;
+    private AuthenticationRequest request;
+
+    @Setup
+    public void setUp() {
+        PasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        PasswordEncoder encoder = bcrypt;
+        if (hashing.equals("pool")) {
+            pooledEncoder = new PasswordHashingEncoder(bcrypt, Runtime.getRuntime().availableProcessors(), 64,
+                    new SimpleMeterRegistry());
+            encoder = pooledEncoder;
+        }
+
+        User user = new User();
+        user.setId(1L);
+        user.setEmail(BenchmarkFixtures.USERNAME);
+        user.setPassword(bcrypt.encode(PASSWORD));
+        user.setAuthorities(List.of(new Authority("ROLE_USER")));
+
+        // the user lookup and the refresh token insert are all that is reached; the stored hash already has the
+        // benchmarked cost, so it is never rehashed
+        RefreshTokenService refreshTokenService = new RefreshTokenService(
+                BenchmarkFixtures.repository(RefreshTokenRepository.class,
+                        (method, args) -> method.equals("save") ? args[0] : null),
+                BenchmarkFixtures.revocationList(), 1_209_600_000);
+        authenticationService = new AuthenticationService(
+                BenchmarkFixtures.repository(UserRepository.class, (method, args) -> method.equals("findByEmail")
+                        ? Optional.of(user).filter(found -> found.getEmail().equals(args[0]))
+                        : null),
+                encoder, BenchmarkFixtures.jwtService(), refreshTokenService);
+        request = new AuthenticationRequest();
+        request.setEmail(BenchmarkFixtures.USERNAME);
+        request.setPassword(PASSWORD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pooledEncoder != null) {
+            pooledEncoder.destroy();
+        }
+    }
+
+    @Benchmark
+    public AuthenticationResponse login() {
+        return authenticationService.login(request);
+    }
+}
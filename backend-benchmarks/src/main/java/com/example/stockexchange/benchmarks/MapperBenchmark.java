@@ -0,0 +1,77 @@
+package com.example.stockexchange.benchmarks;
+
+import com.example.stockexchange.dto.StockDto;
+import com.example.stockexchange.dto.StockExchangeDto;
+import com.example.stockexchange.entity.Stock;
+import com.example.stockexchange.entity.StockExchange;
+import com.example.stockexchange.mapper.StockExchangeMapper;
+import com.example.stockexchange.mapper.StockMapper;
+import com.example.stockexchange.request.StockCreationRequest;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// MapStruct entity <-> DTO mapping, single objects and the page-sized lists the controllers return
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private StockMapper stockMapper;
+    private StockExchangeMapper stockExchangeMapper;
+
+    private Stock stock;
+    private List<Stock> stocks;
+    private StockExchange stockExchange;
+    private StockCreationRequest stockCreationRequest;
+
+    @Setup
+    public void setUp() {
+        stockMapper = Mappers.getMapper(StockMapper.class);
+        stockExchangeMapper = Mappers.getMapper(StockExchangeMapper.class);
+
+        stock = BenchmarkFixtures.stock(1);
+        stocks = BenchmarkFixtures.stocks(pageSize);
+        stockExchange = BenchmarkFixtures.stockExchange(1);
+        stockCreationRequest = new StockCreationRequest("Apple Inc.", "Consumer electronics", BigDecimal.valueOf(19_234, 2));
+    }
+
+    @Benchmark
+    public StockDto stockToDto() {
+        return stockMapper.map(stock);
+    }
+
+    @Benchmark
+    public List<StockDto> stockPageToDtos() {
+        return stockMapper.map(stocks);
+    }
+
+    @Benchmark
+    public Stock creationRequestToStock() {
+        return stockMapper.map(stockCreationRequest);
+    }
+
+    @Benchmark
+    public StockExchangeDto stockExchangeToDto() {
+        return stockExchangeMapper.map(stockExchange);
+    }
+}
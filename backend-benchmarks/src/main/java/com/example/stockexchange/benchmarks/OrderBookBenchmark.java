@@ -0,0 +1,125 @@
+package com.example.stockexchange.benchmarks;
+
+import com.example.stockexchange.engine.MatchListener;
+import com.example.stockexchange.engine.OrderBook;
+import com.example.stockexchange.engine.OrderType;
+import com.example.stockexchange.engine.RejectReason;
+import com.example.stockexchange.engine.Side;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// single book, single writer, as inside a MatchingEngine partition.
+// run with -bm thrpt for orders/second and -bm sample for the matching latency distribution
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class OrderBookBenchmark {
+
+    private static final long MID = 100_0000;
+    private static final long DEEP_QUANTITY = Long.MAX_VALUE / 4;
+
+    @Param({"10", "100"})
+    private int depth;
+
+    private OrderBook book;
+    private CountingListener listener;
+    private SplittableRandom random;
+    private long nextOrderId;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        book = new OrderBook(64 * 1024, 1024);
+        listener = new CountingListener(blackhole);
+        random = new SplittableRandom(42);
+        // resting liquidity so deep that takers never exhaust a level: every taker order is one trade
+        for (int level = 1; level <= depth; level++) {
+            book.submit(++nextOrderId, 1, Side.BUY, OrderType.LIMIT, MID - level, DEEP_QUANTITY, listener);
+            book.submit(++nextOrderId, 1, Side.SELL, OrderType.LIMIT, MID + level, DEEP_QUANTITY, listener);
+        }
+    }
+
+    // an aggressive order that trades against the best level
+    @Benchmark
+    public void crossingOrder() {
+        Side side = random.nextBoolean() ? Side.BUY : Side.SELL;
+        long price = side == Side.BUY ? MID + 1 : MID - 1;
+        book.submit(++nextOrderId, 2, side, OrderType.LIMIT, price, 1 + random.nextInt(100), listener);
+    }
+
+    // a passive order somewhere inside the book, then its cancel: the add/remove path without trades
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public void restAndCancel() {
+        long orderId = ++nextOrderId;
+        long offset = 1 + random.nextInt(depth);
+        boolean buy = random.nextBoolean();
+        book.submit(orderId, 2, buy ? Side.BUY : Side.SELL, OrderType.LIMIT, buy ? MID - offset : MID + offset,
+                1 + random.nextInt(100), listener);
+        book.cancel(orderId, listener);
+    }
+
+    // roughly the message mix of a busy listing: mostly adds and cancels, some trades and amends
+    @Benchmark
+    public void mixedFlow() {
+        int action = random.nextInt(100);
+        if (action < 20) {
+            crossingOrder();
+        } else {
+            long orderId = ++nextOrderId;
+            long offset = 1 + random.nextInt(depth);
+            boolean buy = random.nextBoolean();
+            long price = buy ? MID - offset : MID + offset;
+            book.submit(orderId, 2, buy ? Side.BUY : Side.SELL, OrderType.LIMIT, price, 1 + random.nextInt(100), listener);
+            if (action >= 60 && action < 70) {
+                book.amend(orderId, price, 1, listener);
+            }
+            book.cancel(orderId, listener);
+        }
+    }
+
+    private static final class CountingListener implements MatchListener {
+
+        private final Blackhole blackhole;
+
+        CountingListener(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void onTrade(long takerOrderId, long makerOrderId, long makerOwnerId, Side takerSide, long price, long quantity) {
+            blackhole.consume(price);
+        }
+
+        @Override
+        public void onRested(long orderId, long price, long remainingQuantity) {
+            blackhole.consume(orderId);
+        }
+
+        @Override
+        public void onCancelled(long orderId, long remainingQuantity) {
+            blackhole.consume(orderId);
+        }
+
+        @Override
+        public void onRejected(long orderId, RejectReason reason) {
+            blackhole.consume(reason);
+        }
+    }
+}
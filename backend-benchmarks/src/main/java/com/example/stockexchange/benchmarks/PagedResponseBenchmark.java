@@ -0,0 +1,78 @@
+package com.example.stockexchange.benchmarks;
+
+import com.example.stockexchange.dto.StockDto;
+import com.example.stockexchange.response.ApiRespond;
+import com.example.stockexchange.response.PageResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// a page of stocks as JSON, the whole Spring Page ("page") against PageResponse ("lean"), written as is or through
+// gzip the way server.compression does. the score is the CPU per response, the bytes on the wire of each
+// combination are printed once per trial
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PagedResponseBenchmark {
+
+    @Param({"10", "100"})
+    private int stockCount;
+
+    @Param({"page", "lean"})
+    private String envelope;
+
+    @Param({"identity", "gzip"})
+    private String encoding;
+
+    private ObjectMapper json;
+    private ApiRespond<?> respond;
+
+    @Setup
+    public void setUp() throws Exception {
+        json = Jackson2ObjectMapperBuilder.json().build();
+
+        List<StockDto> stocks = new ArrayList<>(stockCount);
+        for (long id = 1; id <= stockCount; id++) {
+            stocks.add(BenchmarkFixtures.stockDto(id));
+        }
+        Page<StockDto> page = new PageImpl<>(stocks, PageRequest.of(0, stockCount, Sort.by("name")), 100_000);
+        respond = new ApiRespond<>(HttpStatus.OK, "Stocks retrieved successfully",
+                envelope.equals("lean") ? PageResponse.of(page) : page);
+
+        System.out.printf("%n%d stocks, %s, %s: %d bytes%n", stockCount, envelope, encoding, write().length);
+    }
+
+    @Benchmark
+    public byte[] write() throws Exception {
+        ByteArrayOutputStream wire = new ByteArrayOutputStream(8192);
+        OutputStream body = encoding.equals("gzip") ? new GZIPOutputStream(wire, true) : wire;
+        // closes the body, which finishes the gzip stream
+        json.writeValue(body, respond);
+        return wire.toByteArray();
+    }
+}
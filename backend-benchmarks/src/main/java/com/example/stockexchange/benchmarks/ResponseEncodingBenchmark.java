@@ -0,0 +1,82 @@
+package com.example.stockexchange.benchmarks;
+
+import com.example.stockexchange.dto.StockDto;
+import com.example.stockexchange.response.ApiRespond;
+import com.example.stockexchange.response.ApiRespondProtobufConverter;
+import com.example.stockexchange.response.PageResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// a page of stocks in each negotiable response encoding, the CPU side is the score, the payload size of
+// every format is printed once per trial
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseEncodingBenchmark {
+
+    @Param({"20", "1000"})
+    private int stockCount;
+
+    private ObjectMapper json;
+    private ObjectMapper smile;
+    private ObjectMapper cbor;
+    private ApiRespond<PageResponse<StockDto>> page;
+
+    @Setup
+    public void setUp() throws Exception {
+        json = Jackson2ObjectMapperBuilder.json().build();
+        smile = Jackson2ObjectMapperBuilder.smile().build();
+        cbor = Jackson2ObjectMapperBuilder.cbor().build();
+
+        List<StockDto> stocks = new ArrayList<>(stockCount);
+        for (long id = 1; id <= stockCount; id++) {
+            stocks.add(BenchmarkFixtures.stockDto(id));
+        }
+        page = new ApiRespond<>(HttpStatus.OK, "Stocks retrieved successfully",
+                PageResponse.of(new PageImpl<>(stocks, PageRequest.of(0, stockCount), 100_000)));
+
+        System.out.printf("%n%d stocks: json %d bytes, smile %d, cbor %d, protobuf %d%n", stockCount,
+                json().length, smile().length, cbor().length, protobuf().length);
+    }
+
+    @Benchmark
+    public byte[] json() throws Exception {
+        return json.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] smile() throws Exception {
+        return smile.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] cbor() throws Exception {
+        return cbor.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] protobuf() {
+        return ApiRespondProtobufConverter.encode(page);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.stockexchange.benchmarks;
+
+import com.example.stockexchange.search.StockSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// StockSearchIndex at catalog scale: one and two letter prefixes cover a large share of the dictionary and
+// are what the candidate budget bounds; a full name, a typo and one exchange's listings for comparison.
+// names and descriptions are generated words, few of them shared, since every add copies the postings of
+// its tokens. run with -bm sample for the latency distribution
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class StockSearchBenchmark {
+
+    @Param({"1000000"})
+    private int symbols;
+
+    private StockSearchIndex index;
+    private Set<Long> exchangeListings;
+    private String name;
+    private String misspelledName;
+
+    @Setup
+    public void setUp() {
+        index = new StockSearchIndex();
+        SplittableRandom random = new SplittableRandom(42);
+        for (long id = 1; id <= symbols; id++) {
+            String stockName = word(random) + " " + word(random);
+            index.add(id, stockName, word(random) + " " + word(random) + " " + word(random));
+            if (id == 1) {
+                name = stockName;
+            }
+        }
+        // the first two letters swapped
+        misspelledName = "" + name.charAt(1) + name.charAt(0) + name.substring(2);
+        // a mid-sized exchange, a small share of the catalog
+        exchangeListings = new HashSet<>();
+        while (exchangeListings.size() < 2_000) {
+            exchangeListings.add(1 + random.nextLong(symbols));
+        }
+    }
+
+    @Benchmark
+    public List<StockSearchIndex.Hit> oneLetterPrefix() {
+        return index.search("b", 20, null);
+    }
+
+    @Benchmark
+    public List<StockSearchIndex.Hit> twoLetterPrefix() {
+        return index.search("ma", 20, null);
+    }
+
+    @Benchmark
+    public List<StockSearchIndex.Hit> fullName() {
+        return index.search(name, 20, null);
+    }
+
+    @Benchmark
+    public List<StockSearchIndex.Hit> typo() {
+        return index.search(misspelledName, 20, null);
+    }
+
+    @Benchmark
+    public List<StockSearchIndex.Hit> shortPrefixWithinExchange() {
+        return index.searchWithin("ma", 20, exchangeListings);
+    }
+
+    // pronounceable names of 4 to 9 letters, so prefixes spread like real tickers do
+    private static String word(SplittableRandom random) {
+        String consonants = "bcdfghklmnprstvz";
+        String vowels = "aeiou";
+        int length = 4 + random.nextInt(6);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            String letters = i % 2 == 0 ? consonants : vowels;
+            word.append(letters.charAt(random.nextInt(letters.length())));
+        }
+        word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+        return word.toString();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.stockexchange.loadtest;
+
+import com.example.stockexchange.loadtest.generator.MarketDataGenerator;
+import com.example.stockexchange.loadtest.replay.TrafficReplayer;
+
+public final class LoadTestMain {
+
+    private static final String USAGE = """
+            Usage: java -jar loadtest.jar <command> [options]
+
+            generate   bulk-load deterministic synthetic market data over JDBC
+              --jdbc-url      target database (default jdbc:h2:file:/tmp/stockexchangedb;AUTO_SERVER=TRUE;MODE=MySQL)
+              --user / --password
+              --schema        SQL script run first, e.g. backend/src/main/resources/schema.sql
+              --exchanges     number of stock exchanges (default 500)
+              --stocks        number of stocks (default 1M)
+              --listings      number of stock_exchange_stock rows (default 20M)
+              --seed          random seed, the same seed always produces the same data (default 42)
+              --batch-size    rows per JDBC batch / commit (default 5000)
+
+            replay     drive the REST API with a scripted traffic mix and report per-endpoint latency
+              --base-url      backend to test (default http://localhost:8080)
+              --users         concurrent virtual users (default 16)
+              --duration      measured run time (default 60s)
+              --warmup        unmeasured run time before that (default 10s)
+              --rate          requests per second per user, 0 = as fast as possible (default 0)
+              --exchanges / --stocks   id ranges to pick from, should match the generated data
+              --mix           weights, e.g. list-stocks=25,update-price=15 (see Operation for names)
+              --seed          random seed (default 42)
+              --report        JSON report file (default loadtest-report.json)
+            """;
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println(USAGE);
+            System.exit(1);
+        }
+        Options options = Options.parse(args, 1);
+        switch (args[0]) {
+            case "generate" -> new MarketDataGenerator(options).run();
+            case "replay" -> new TrafficReplayer(options).run();
+            default -> {
+                System.out.println(USAGE);
+                System.exit(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.stockexchange.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// "--key value" / "--flag" command line options with typed, defaulted accessors
+public final class Options {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    private Options() {
+    }
+
+    public static Options parse(String[] args, int from) {
+        Options options = new Options();
+        for (int i = from; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            String key = arg.substring(2);
+            int equals = key.indexOf('=');
+            if (equals >= 0) {
+                options.values.put(key.substring(0, equals), key.substring(equals + 1));
+            } else if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                options.values.put(key, args[++i]);
+            } else {
+                options.values.put(key, "true");
+            }
+        }
+        return options;
+    }
+
+    public String string(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+
+    public long number(String key, long defaultValue) {
+        String value = values.get(key);
+        // 1_000_000, 1M and 20m are all accepted
+        if (value == null) {
+            return defaultValue;
+        }
+        String normalized = value.replace("_", "").toLowerCase();
+        long multiplier = 1;
+        if (normalized.endsWith("k")) {
+            multiplier = 1_000;
+        } else if (normalized.endsWith("m")) {
+            multiplier = 1_000_000;
+        }
+        if (multiplier > 1) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return Long.parseLong(normalized) * multiplier;
+    }
+
+    public int integer(String key, int defaultValue) {
+        return Math.toIntExact(number(key, defaultValue));
+    }
+
+    public boolean flag(String key) {
+        return Boolean.parseBoolean(values.getOrDefault(key, "false"));
+    }
+
+    // 90s, 5m, 1h or plain seconds
+    public Duration duration(String key, Duration defaultValue) {
+        String value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        char unit = value.charAt(value.length() - 1);
+        if (Character.isDigit(unit)) {
+            return Duration.ofSeconds(Long.parseLong(value));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (unit) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Unknown duration unit in " + key + "=" + value);
+        };
+    }
+}
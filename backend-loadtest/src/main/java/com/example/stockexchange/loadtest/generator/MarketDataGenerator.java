@@ -0,0 +1,272 @@
+package com.example.stockexchange.loadtest.generator;
+
+import com.example.stockexchange.loadtest.Options;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+// Populates stock_exchange, stock and stock_exchange_stock at production scale with batched inserts.
+// Every row is derived from (seed, id) alone, so the same options always produce the same database,
+// no matter the batch size, and nothing is held in memory besides one batch.
+public class MarketDataGenerator {
+
+    static final String DEFAULT_JDBC_URL = "jdbc:h2:file:/tmp/stockexchangedb;AUTO_SERVER=TRUE;MODE=MySQL";
+
+    // fixed, so regenerating the data does not change a single byte
+    private static final Timestamp GENERATED_AT = Timestamp.valueOf(LocalDateTime.of(2025, 1, 1, 0, 0));
+
+    // an exchange goes live once it lists this many stocks, same rule as StockExchangeService
+    private static final int LIVE_IN_MARKET_THRESHOLD = 10;
+    private static final long PROGRESS_EVERY = 1_000_000;
+
+    private static final String[] NAME_PREFIXES = {
+            "Aurora", "Blue", "Cedar", "Delta", "Evergreen", "Frontier", "Granite", "Harbor", "Iron", "Juniper",
+            "Keystone", "Liberty", "Meridian", "Northern", "Orion", "Pacific", "Quantum", "Redwood", "Summit", "Titan",
+            "Union", "Vertex", "Westfield", "Xenon", "Yukon", "Zenith"};
+    private static final String[] NAME_SUFFIXES = {
+            "Holdings", "Industries", "Systems", "Energy", "Capital", "Pharmaceuticals", "Technologies", "Motors",
+            "Foods", "Logistics", "Materials", "Networks", "Semiconductors", "Retail", "Insurance", "Media"};
+    private static final String[] SECTORS = {
+            "technology", "healthcare", "financial services", "consumer goods", "utilities", "industrials",
+            "telecommunications", "real estate", "basic materials", "energy"};
+    private static final String[] REGIONS = {
+            "North America", "Europe", "Asia", "Latin America", "the Middle East", "Africa", "Oceania"};
+
+    private final String jdbcUrl;
+    private final String user;
+    private final String password;
+    private final String schema;
+    private final int exchanges;
+    private final long stocks;
+    private final long listings;
+    private final long seed;
+    private final int batchSize;
+
+    public MarketDataGenerator(Options options) {
+        this.jdbcUrl = options.string("jdbc-url", DEFAULT_JDBC_URL);
+        this.user = options.string("user", "sa");
+        this.password = options.string("password", "");
+        this.schema = options.string("schema", null);
+        this.exchanges = options.integer("exchanges", 500);
+        this.stocks = options.number("stocks", 1_000_000);
+        this.listings = options.number("listings", 20_000_000);
+        this.seed = options.number("seed", 42);
+        this.batchSize = options.integer("batch-size", 5_000);
+
+        if (exchanges <= 0 || stocks <= 0 || listings < 0) {
+            throw new IllegalArgumentException("exchanges and stocks must be positive, listings not negative");
+        }
+        if (listings > exchanges * stocks) {
+            throw new IllegalArgumentException("Cannot create " + listings + " distinct listings from "
+                    + exchanges + " exchanges x " + stocks + " stocks");
+        }
+    }
+
+    public void run() throws SQLException, IOException {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, user, password)) {
+            connection.setAutoCommit(false);
+            if (schema != null) {
+                runScript(connection, Path.of(schema));
+            }
+            requireEmpty(connection);
+
+            long started = System.nanoTime();
+            insertExchanges(connection);
+            insertStocks(connection);
+            insertListings(connection);
+            restartIdentities(connection);
+            System.out.printf("Generated %d exchanges, %d stocks and %d listings in %d s%n",
+                    exchanges, stocks, listings, (System.nanoTime() - started) / 1_000_000_000);
+        }
+    }
+
+    private void insertExchanges(Connection connection) throws SQLException {
+        String sql = "INSERT INTO stock_exchange (stock_exchange_id, name, description, live_in_market, version) "
+                + "VALUES (?, ?, ?, ?, 0)";
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            Progress progress = new Progress("stock_exchange", exchanges);
+            for (int id = 1; id <= exchanges; id++) {
+                SplittableRandom random = random(1, id);
+                insert.setLong(1, id);
+                insert.setString(2, pick(random, NAME_PREFIXES) + " Exchange " + id);
+                insert.setString(3, "Synthetic exchange serving " + pick(random, REGIONS));
+                insert.setBoolean(4, listingsOf(id) >= LIVE_IN_MARKET_THRESHOLD);
+                insert.addBatch();
+                flushIfFull(connection, insert, id, progress);
+            }
+            flush(connection, insert, progress);
+        }
+    }
+
+    private void insertStocks(Connection connection) throws SQLException {
+        String sql = "INSERT INTO stock (stock_id, name, description, current_price, updated_at, version) "
+                + "VALUES (?, ?, ?, ?, ?, 0)";
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            Progress progress = new Progress("stock", stocks);
+            for (long id = 1; id <= stocks; id++) {
+                SplittableRandom random = random(2, id);
+                insert.setLong(1, id);
+                // the id suffix keeps names unique, the words make prefix search realistic
+                insert.setString(2, pick(random, NAME_PREFIXES) + " " + pick(random, NAME_SUFFIXES) + " " + id);
+                insert.setString(3, "Synthetic " + pick(random, SECTORS) + " company operating in " + pick(random, REGIONS));
+                insert.setBigDecimal(4, price(random));
+                insert.setTimestamp(5, GENERATED_AT);
+                insert.addBatch();
+                flushIfFull(connection, insert, id, progress);
+            }
+            flush(connection, insert, progress);
+        }
+    }
+
+    // exchange e lists stocks (offset + i * stride) mod stocks for i < listingsOf(e). A stride coprime to
+    // the stock count makes that a permutation, so the listings are distinct without remembering any of them
+    private void insertListings(Connection connection) throws SQLException {
+        String sql = "INSERT INTO stock_exchange_stock (stock_exchange_id, stock_id) VALUES (?, ?)";
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            Progress progress = new Progress("stock_exchange_stock", listings);
+            long rows = 0;
+            for (int exchangeId = 1; exchangeId <= exchanges; exchangeId++) {
+                SplittableRandom random = random(3, exchangeId);
+                long offset = random.nextLong(stocks);
+                long stride = coprimeStride(random);
+                long count = listingsOf(exchangeId);
+                for (long i = 0; i < count; i++) {
+                    insert.setLong(1, exchangeId);
+                    insert.setLong(2, Math.floorMod(offset + i * stride, stocks) + 1);
+                    insert.addBatch();
+                    flushIfFull(connection, insert, ++rows, progress);
+                }
+            }
+            flush(connection, insert, progress);
+        }
+    }
+
+    // listings are spread evenly, the first (listings % exchanges) exchanges get one more
+    private long listingsOf(int exchangeId) {
+        long base = listings / exchanges;
+        return exchangeId <= listings % exchanges ? base + 1 : base;
+    }
+
+    private long coprimeStride(SplittableRandom random) {
+        if (stocks == 1) {
+            return 1;
+        }
+        long stride = 1 + random.nextLong(stocks - 1);
+        while (gcd(stride, stocks) != 1) {
+            stride = stride % (stocks - 1) + 1;
+        }
+        return stride;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    // log-normal around ~55 with a long tail, like real share prices
+    private static BigDecimal price(SplittableRandom random) {
+        double gaussian = Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+        double price = Math.exp(4 + 1.2 * gaussian);
+        return BigDecimal.valueOf(Math.max(price, 0.01)).setScale(4, RoundingMode.HALF_UP);
+    }
+
+    // one independent stream per (table, row), SplittableRandom mixes the seed so neighbouring ids do not correlate
+    private SplittableRandom random(long table, long id) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L ^ (table << 56) ^ id);
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private void flushIfFull(Connection connection, PreparedStatement insert, long rows, Progress progress) throws SQLException {
+        if (rows % batchSize == 0) {
+            flush(connection, insert, progress);
+        }
+    }
+
+    private void flush(Connection connection, PreparedStatement insert, Progress progress) throws SQLException {
+        int[] counts = insert.executeBatch();
+        connection.commit();
+        progress.advance(counts.length);
+    }
+
+    private static void requireEmpty(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM stock")) {
+            resultSet.next();
+            if (resultSet.getLong(1) > 0) {
+                throw new IllegalStateException("Table stock is not empty, pass --schema to recreate the tables");
+            }
+        }
+    }
+
+    // the ids were inserted explicitly, so the identity columns have to continue after them
+    private void restartIdentities(Connection connection) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName().toLowerCase();
+        try (Statement statement = connection.createStatement()) {
+            if (product.contains("h2")) {
+                statement.execute("ALTER TABLE stock_exchange ALTER COLUMN stock_exchange_id RESTART WITH " + (exchanges + 1));
+                statement.execute("ALTER TABLE stock ALTER COLUMN stock_id RESTART WITH " + (stocks + 1));
+            } else if (product.contains("mysql") || product.contains("mariadb")) {
+                statement.execute("ALTER TABLE stock_exchange AUTO_INCREMENT = " + (exchanges + 1));
+                statement.execute("ALTER TABLE stock AUTO_INCREMENT = " + (stocks + 1));
+            } else {
+                System.out.println("Unknown database " + product + ", identity columns were not restarted");
+            }
+        }
+        connection.commit();
+    }
+
+    private static void runScript(Connection connection, Path script) throws SQLException, IOException {
+        String sql = Files.readString(script).replaceAll("(?m)--.*$", "");
+        try (Statement statement = connection.createStatement()) {
+            for (String command : sql.split(";")) {
+                if (!command.isBlank()) {
+                    statement.execute(command);
+                }
+            }
+        }
+        connection.commit();
+        System.out.println("Schema recreated from " + script);
+    }
+
+    private static final class Progress {
+
+        private final String table;
+        private final long total;
+        private final long started = System.nanoTime();
+        private long done;
+        private long nextReport = PROGRESS_EVERY;
+
+        Progress(String table, long total) {
+            this.table = table;
+            this.total = total;
+        }
+
+        void advance(int rows) {
+            done += rows;
+            if (done >= nextReport || done == total) {
+                long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+                System.out.printf("%-22s %,d / %,d rows (%,d rows/s)%n", table, done, total, done * 1000 / elapsedMillis);
+                nextReport = done + PROGRESS_EVERY;
+            }
+        }
+    }
+}
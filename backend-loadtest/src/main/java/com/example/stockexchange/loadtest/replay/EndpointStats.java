@@ -0,0 +1,71 @@
+package com.example.stockexchange.loadtest.replay;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// latency histogram and status counters of one operation, safe to record from every virtual user at once
+class EndpointStats {
+
+    private final Operation operation;
+    private final Recorder latencyMicros = new Recorder(3);
+    private final LongAdder success = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder transportErrors = new LongAdder();
+
+    EndpointStats(Operation operation) {
+        this.operation = operation;
+    }
+
+    Operation operation() {
+        return operation;
+    }
+
+    void record(int status, long latencyNanos) {
+        latencyMicros.recordValue(Math.max(1, latencyNanos / 1_000));
+        if (status >= 500) {
+            serverErrors.increment();
+        } else if (status >= 400) {
+            // 409 on an already listed stock or 404 on a missing listing is expected in a random mix
+            clientErrors.increment();
+        } else {
+            success.increment();
+        }
+    }
+
+    void recordTransportError(long latencyNanos) {
+        latencyMicros.recordValue(Math.max(1, latencyNanos / 1_000));
+        transportErrors.increment();
+    }
+
+    // drops everything recorded during the warm-up
+    void reset() {
+        latencyMicros.reset();
+        success.reset();
+        clientErrors.reset();
+        serverErrors.reset();
+        transportErrors.reset();
+    }
+
+    Histogram histogram() {
+        return latencyMicros.getIntervalHistogram();
+    }
+
+    long success() {
+        return success.sum();
+    }
+
+    long clientErrors() {
+        return clientErrors.sum();
+    }
+
+    long serverErrors() {
+        return serverErrors.sum();
+    }
+
+    long transportErrors() {
+        return transportErrors.sum();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.stockexchange.loadtest.replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// per-endpoint throughput and latency percentiles of one measured run, printed as a table and
+// written as JSON so runs can be compared between releases
+record LoadReport(double durationSeconds, int users, List<EndpointResult> endpoints, EndpointResult total) {
+
+    static LoadReport of(Collection<EndpointStats> stats, Duration measured, int users) {
+        double seconds = measured.toNanos() / 1e9;
+        Histogram all = new Histogram(3);
+        long success = 0;
+        long clientErrors = 0;
+        long serverErrors = 0;
+        long transportErrors = 0;
+
+        List<EndpointResult> endpoints = new ArrayList<>();
+        for (EndpointStats endpoint : stats) {
+            Histogram histogram = endpoint.histogram();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            all.add(histogram);
+            success += endpoint.success();
+            clientErrors += endpoint.clientErrors();
+            serverErrors += endpoint.serverErrors();
+            transportErrors += endpoint.transportErrors();
+            endpoints.add(EndpointResult.of(endpoint.operation().key(), endpoint.operation().route(), histogram, seconds,
+                    endpoint.success(), endpoint.clientErrors(), endpoint.serverErrors(), endpoint.transportErrors()));
+        }
+        EndpointResult total = EndpointResult.of("total", "*", all, seconds,
+                success, clientErrors, serverErrors, transportErrors);
+        return new LoadReport(seconds, users, endpoints, total);
+    }
+
+    void print(PrintStream out) {
+        String format = "%-52s %9s %9s %6s %6s %6s %9s %9s %9s %9s %9s%n";
+        out.printf(format, "endpoint", "requests", "req/s", "4xx", "5xx", "io", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (EndpointResult endpoint : endpoints) {
+            endpoint.print(out);
+        }
+        total.print(out);
+    }
+
+    void write(Path file) throws IOException {
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), this);
+    }
+
+    record EndpointResult(String operation, String route, long requests, double throughputPerSecond,
+                          long success, long clientErrors, long serverErrors, long transportErrors,
+                          double meanMs, double p50Ms, double p90Ms, double p99Ms, double p999Ms, double maxMs) {
+
+        static EndpointResult of(String operation, String route, Histogram micros, double seconds,
+                                 long success, long clientErrors, long serverErrors, long transportErrors) {
+            return new EndpointResult(operation, route, micros.getTotalCount(), micros.getTotalCount() / seconds,
+                    success, clientErrors, serverErrors, transportErrors,
+                    micros.getMean() / 1_000,
+                    millis(micros, 50), millis(micros, 90), millis(micros, 99), millis(micros, 99.9),
+                    micros.getMaxValue() / 1_000.0);
+        }
+
+        private static double millis(Histogram micros, double percentile) {
+            return micros.getValueAtPercentile(percentile) / 1_000.0;
+        }
+
+        void print(PrintStream out) {
+            out.printf("%-52s %9d %9.1f %6d %6d %6d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    route, requests, throughputPerSecond, clientErrors, serverErrors, transportErrors,
+                    p50Ms, p90Ms, p99Ms, p999Ms, maxMs);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.stockexchange.loadtest.replay;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+// one kind of request in the traffic mix; the default weights approximate a read heavy trading UI
+// (browsing pages and exchanges, searching, some price updates and listing changes)
+public enum Operation {
+
+    LOGIN("login", 2, "POST /api/v1/auth/login"),
+    LIST_STOCKS("list-stocks", 20, "GET /api/v1/stock"),
+    LIST_EXCHANGES("list-exchanges", 8, "GET /api/v1/stockExchange"),
+    EXCHANGE_STOCKS("exchange-stocks", 20, "GET /api/v1/stockExchange/{id}/stocks"),
+    GET_STOCK("get-stock", 15, "GET /api/v1/stock/{id}"),
+    SEARCH_STOCKS("search", 5, "GET /api/v1/stock/search"),
+    TOP_MOVERS("top-movers", 5, "GET /api/v1/stockExchange/{id}/movers"),
+    UPDATE_PRICE("update-price", 15, "PUT /api/v1/stock/{id}/price"),
+    LIST_STOCK("list-stock", 5, "POST /api/v1/stockExchange/{id}/stocks/{stockId}"),
+    DELIST_STOCK("delist-stock", 5, "DELETE /api/v1/stockExchange/{id}/stocks/{stockId}");
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String[] SEARCH_TERMS = {
+            "aur", "blue", "ced", "delta", "ever", "fron", "gran", "harb", "iron", "summ", "tita", "vert",
+            "holdings", "energy", "tech", "motors", "logist", "semicon"};
+
+    private final String key;
+    private final int defaultWeight;
+    private final String route;
+
+    Operation(String key, int defaultWeight, String route) {
+        this.key = key;
+        this.defaultWeight = defaultWeight;
+        this.route = route;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public int defaultWeight() {
+        return defaultWeight;
+    }
+
+    public String route() {
+        return route;
+    }
+
+    public static Operation byKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation in --mix: " + key);
+    }
+
+    HttpRequest request(ReplayContext context, SplittableRandom random, String token, String credentialsJson) {
+        String api = context.baseUrl() + "/api/v1";
+        long stockId = 1 + random.nextLong(context.stocks());
+        long exchangeId = 1 + random.nextLong(context.exchanges());
+
+        return switch (this) {
+            case LOGIN -> json(api + "/auth/login", null)
+                    .POST(HttpRequest.BodyPublishers.ofString(credentialsJson))
+                    .build();
+            case LIST_STOCKS -> get(api + "/stock?size=20&sortBy=name&page=" + page(random, context.stocks() / 20), token);
+            case LIST_EXCHANGES -> get(api + "/stockExchange?size=10&page=" + page(random, context.exchanges() / 10), token);
+            case EXCHANGE_STOCKS -> get(api + "/stockExchange/" + exchangeId + "/stocks?size=20&page="
+                    + page(random, context.stocks() / context.exchanges() / 20), token);
+            case GET_STOCK -> get(api + "/stock/" + stockId, token);
+            case SEARCH_STOCKS -> get(api + "/stock/search?limit=20&q=" + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)], token);
+            case TOP_MOVERS -> get(api + "/stockExchange/" + exchangeId + "/movers?k=20&direction="
+                    + (random.nextBoolean() ? "gainers" : "losers"), token);
+            case UPDATE_PRICE -> json(api + "/stock/" + stockId + "/price", token)
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"currentPrice\":" + price(random) + "}"))
+                    .build();
+            case LIST_STOCK -> json(api + "/stockExchange/" + exchangeId + "/stocks/" + stockId, token)
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build();
+            case DELIST_STOCK -> json(api + "/stockExchange/" + exchangeId + "/stocks/" + stockId, token)
+                    .DELETE()
+                    .build();
+        };
+    }
+
+    // users mostly look at the first pages, deep pages get an exponentially smaller share
+    private static long page(SplittableRandom random, long pages) {
+        long page = (long) (-Math.log(1 - random.nextDouble()) * 3);
+        return Math.min(page, Math.max(0, pages - 1));
+    }
+
+    private static BigDecimal price(SplittableRandom random) {
+        return BigDecimal.valueOf(1 + random.nextDouble() * 500).setScale(4, RoundingMode.HALF_UP);
+    }
+
+    private static HttpRequest get(String uri, String token) {
+        return builder(uri, token).GET().build();
+    }
+
+    private static HttpRequest.Builder json(String uri, String token) {
+        return builder(uri, token).header("Content-Type", "application/json");
+    }
+
+    private static HttpRequest.Builder builder(String uri, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(uri))
+                .timeout(TIMEOUT)
+                .header("Accept", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.stockexchange.loadtest.replay;
+
+// what every virtual user needs to build requests: where the backend is and which ids exist
+record ReplayContext(String baseUrl, long exchanges, long stocks) {
+}
@@ -0,0 +1,193 @@
+package com.example.stockexchange.loadtest.replay;
+
+import com.example.stockexchange.loadtest.Options;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Closed-loop traffic replay against a running backend: every virtual user logs in once, then
+// repeatedly picks an operation from the weighted mix. With --rate the users follow a fixed schedule
+// and latency is measured from the intended start, so a stalled server is not hidden by users that
+// simply wait for it (coordinated omission).
+public class TrafficReplayer {
+
+    private static final String PASSWORD = "loadtest-password";
+
+    private final ReplayContext context;
+    private final int users;
+    private final Duration warmup;
+    private final Duration duration;
+    private final double ratePerUser;
+    private final long seed;
+    private final Path reportFile;
+    private final Operation[] mix;
+
+    private final HttpClient httpClient;
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+
+    private volatile boolean running = true;
+
+    public TrafficReplayer(Options options) {
+        this.context = new ReplayContext(
+                options.string("base-url", "http://localhost:8080"),
+                options.number("exchanges", 5),
+                options.number("stocks", 10));
+        this.users = options.integer("users", 16);
+        this.warmup = options.duration("warmup", Duration.ofSeconds(10));
+        this.duration = options.duration("duration", Duration.ofSeconds(60));
+        this.ratePerUser = options.number("rate", 0);
+        this.seed = options.number("seed", 42);
+        this.reportFile = Path.of(options.string("report", "loadtest-report.json"));
+        this.mix = weightedMix(options.string("mix", ""));
+
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new EndpointStats(operation));
+        }
+    }
+
+    public void run() throws InterruptedException, IOException {
+        System.out.printf("Replaying against %s with %d users, %s warm-up, %s measured%n",
+                context.baseUrl(), users, warmup, duration);
+
+        List<Thread> threads = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            VirtualUser user = new VirtualUser(i, new SplittableRandom(seed + i));
+            user.signIn();
+            Thread thread = new Thread(user, "virtual-user-" + i);
+            threads.add(thread);
+        }
+        threads.forEach(Thread::start);
+
+        Thread.sleep(warmup.toMillis());
+        stats.values().forEach(EndpointStats::reset);
+        long measuredFrom = System.nanoTime();
+
+        Thread.sleep(duration.toMillis());
+        running = false;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Duration measured = Duration.ofNanos(System.nanoTime() - measuredFrom);
+
+        LoadReport report = LoadReport.of(stats.values(), measured, users);
+        report.print(System.out);
+        report.write(reportFile);
+        System.out.println("Report written to " + reportFile.toAbsolutePath());
+    }
+
+    // expands the weights into a lookup table, so picking an operation is a single array access
+    private static Operation[] weightedMix(String overrides) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            weights.put(operation, operation.defaultWeight());
+        }
+        for (String entry : overrides.split(",")) {
+            if (!entry.isBlank()) {
+                String[] parts = entry.split("=");
+                weights.put(Operation.byKey(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+            }
+        }
+        List<Operation> table = new ArrayList<>();
+        weights.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                table.add(operation);
+            }
+        });
+        if (table.isEmpty()) {
+            throw new IllegalArgumentException("The traffic mix has no operation with a positive weight");
+        }
+        return table.toArray(Operation[]::new);
+    }
+
+    private final class VirtualUser implements Runnable {
+
+        private final SplittableRandom random;
+        private final String credentialsJson;
+        private final String registerJson;
+        private String token;
+
+        VirtualUser(int index, SplittableRandom random) {
+            this.random = random;
+            String email = "loadtest-user-" + index + "@example.com";
+            this.credentialsJson = "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}";
+            this.registerJson = "{\"firstName\":\"Load\",\"lastName\":\"User" + index + "\",\"email\":\"" + email
+                    + "\",\"password\":\"" + PASSWORD + "\"}";
+        }
+
+        // registration fails harmlessly when the user exists from an earlier run
+        void signIn() throws IOException, InterruptedException {
+            HttpRequest register = HttpRequest.newBuilder(URI.create(context.baseUrl() + "/api/v1/auth/register"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(registerJson))
+                    .build();
+            httpClient.send(register, HttpResponse.BodyHandlers.discarding());
+
+            HttpResponse<Void> login = httpClient.send(
+                    Operation.LOGIN.request(context, random, null, credentialsJson), HttpResponse.BodyHandlers.discarding());
+            updateToken(login);
+            if (token == null) {
+                throw new IllegalStateException("Login failed with status " + login.statusCode() + " for " + credentialsJson);
+            }
+        }
+
+        @Override
+        public void run() {
+            long interval = ratePerUser > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / ratePerUser) : 0;
+            long intendedStart = System.nanoTime();
+
+            while (running) {
+                if (interval > 0) {
+                    intendedStart += interval;
+                    long wait = intendedStart - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                } else {
+                    intendedStart = System.nanoTime();
+                }
+
+                Operation operation = mix[random.nextInt(mix.length)];
+                EndpointStats endpoint = stats.get(operation);
+                try {
+                    HttpResponse<Void> response = httpClient.send(
+                            operation.request(context, random, token, credentialsJson), HttpResponse.BodyHandlers.discarding());
+                    endpoint.record(response.statusCode(), System.nanoTime() - intendedStart);
+                    if (operation == Operation.LOGIN) {
+                        updateToken(response);
+                    }
+                } catch (IOException e) {
+                    endpoint.recordTransportError(System.nanoTime() - intendedStart);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        // the backend returns the JWT as the "jwt" cookie, the API accepts it back as a bearer token
+        private void updateToken(HttpResponse<?> response) {
+            for (String cookie : response.headers().allValues("set-cookie")) {
+                if (cookie.startsWith("jwt=")) {
+                    int end = cookie.indexOf(';');
+                    token = cookie.substring(4, end < 0 ? cookie.length() : end);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+#!/bin/sh
+# Records the class data sharing archive of the fast-startup image (mvn -Pfast-startup package).
+#   cds-training.sh <base image> <executable jar> <output dir>
+# The archive is only accepted by the JVM that wrote it and for jars at the same paths, with the same sizes
+# and modification times, so the training run happens inside the base image, on the layout the image runs
+# (/app/application/app.jar plus its lib/), with the timestamps Jib gives extra files (1970-01-01T00:00:01Z).
+set -eu
+
+IMAGE=$1
+JAR=$2
+OUT=$3
+
+rm -rf "$OUT"
+mkdir -p "$OUT"
+cp "$JAR" "$OUT/app.jar"
+
+# the context is refreshed (every class on the startup path is loaded) and the JVM exits before any
+# port opens or the engine starts; database and journal go to the container's /tmp
+docker run --rm --user "$(id -u):$(id -g)" -v "$OUT":/app -w /app -e JOURNAL_DIR=/tmp/journal \
+  --entrypoint sh "$IMAGE" -c '
+    set -e
+    java -Djarmode=tools -jar /app/app.jar extract --destination /app/application
+    rm /app/app.jar
+    find /app/application -name "*.jar" -exec env TZ=UTC touch -t 197001010000.01 {} +
+    java -XX:ArchiveClassesAtExit=/app/application.jsa -Dspring.aot.enabled=true \
+         -Dspring.context.exit=onRefresh -jar /app/application/app.jar
+  '
+
+test -s "$OUT/application.jsa"
+echo "CDS archive written to $OUT/application.jsa"
@@ -0,0 +1,41 @@
+#!/bin/sh
+# Builds an image that restores a warmed-up checkpoint of the application instead of starting it:
+#   crac-checkpoint.sh <crac jdk image> <executable jar> <image tag>
+# the application runs once in a CRaC JDK container with a throwaway database and journal (tmpfs, not committed),
+# warms itself up and checkpoints into /opt/crac (CheckpointCoordinator). the stopped container is then committed
+# with an entrypoint that restores from there. CRIU needs a privileged container (or CAP_CHECKPOINT_RESTORE and
+# CAP_SYS_PTRACE) for the checkpoint here and for the restore wherever the image runs
+set -eu
+
+BASE_IMAGE=$1
+JAR=$2
+IMAGE=$3
+CONTAINER=stock-exchange-checkpoint-$$
+
+trap 'docker rm -f "$CONTAINER" > /dev/null 2>&1 || true' EXIT
+
+# configuration is captured with the checkpoint, so everything the restored process needs is passed here
+docker create --name "$CONTAINER" --privileged \
+  --tmpfs /tmp --tmpfs /data/journal \
+  -e SPRING_PROFILES_ACTIVE=prod \
+  -e SQL_INIT_MODE=always \
+  -e JOURNAL_DIR=/data/journal \
+  -e APP_CRAC_CHECKPOINT_AFTER_WARM_UP=true \
+  ${JWT_SECRET:+-e JWT_SECRET="$JWT_SECRET"} \
+  "$BASE_IMAGE" \
+  java -XX:CRaCCheckpointTo=/opt/crac -XX:-UsePerfData -Xms256m -Xmx512m -jar /app.jar > /dev/null
+docker cp "$JAR" "$CONTAINER:/app.jar"
+
+# the JVM is gone once the checkpoint is written, so the exit status says nothing; the image files do
+docker start -a "$CONTAINER" || true
+if ! docker cp "$CONTAINER:/opt/crac" - > /dev/null 2>&1; then
+  echo "no checkpoint was written, see the output above" >&2
+  exit 1
+fi
+
+docker commit \
+  --change 'ENTRYPOINT ["java", "-XX:CRaCRestoreFrom=/opt/crac"]' \
+  --change 'CMD []' \
+  --change 'EXPOSE 8080' \
+  "$CONTAINER" "$IMAGE" > /dev/null
+echo "built $IMAGE"
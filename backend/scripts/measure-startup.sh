@@ -0,0 +1,25 @@
+#!/bin/sh
+# Time from container start to the first successful request and memory right after it, for comparing images:
+#   measure-startup.sh <image> [runs]
+# e.g. the default image (mvn package jib:dockerBuild) against the fast-startup one
+# (mvn -Pfast-startup package jib:dockerBuild), both tagged stock-exchange:0.0.1-SNAPSHOT in turn,
+# or against the native one (mvn -Pnative package jib:dockerBuild, tagged stock-exchange:0.0.1-SNAPSHOT-native)
+set -eu
+
+IMAGE=$1
+RUNS=${2:-5}
+PORT=18080
+
+for run in $(seq "$RUNS"); do
+  start=$(date +%s%N)
+  container=$(docker run -d -p "$PORT:8080" "$IMAGE")
+  until [ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/actuator/health")" = "200" ]; do
+    sleep 0.02
+  done
+  end=$(date +%s%N)
+  started=$(docker logs "$container" 2>&1 | grep -o 'Started .* in [0-9.]* seconds' | tail -1)
+  # memory of the container (cgroup usage minus inactive page cache, close to the RSS) after the first request
+  memory=$(docker stats --no-stream --format '{{.MemUsage}}' "$container" | cut -d/ -f1)
+  echo "run $run: first request after $(( (end - start) / 1000000 )) ms, memory $memory ($started)"
+  docker rm -f "$container" > /dev/null
+done
@@ -0,0 +1,83 @@
+package com.example.stockexchange.bulkhead;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// caps the Tomcat threads one workload can occupy. a request that finds every permit taken waits at most
+// maxWait, and only if fewer than maxQueue requests are waiting already; otherwise it is turned away at once,
+// so a storm of one workload queues in front of its own bulkhead instead of in the shared thread pool
+public class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter rejections;
+
+    public Bulkhead(String name, BulkheadLimits limits, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.maxConcurrent = limits.maxConcurrent();
+        this.maxQueue = limits.maxQueue();
+        this.maxWaitNanos = limits.maxWait().toNanos();
+        this.permits = new Semaphore(maxConcurrent);
+        this.rejections = Counter.builder("stockexchange.bulkhead.rejections")
+                .description("Requests turned away because the bulkhead was full")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        Gauge.builder("stockexchange.bulkhead.active", this, Bulkhead::active)
+                .description("Requests running inside the bulkhead")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        Gauge.builder("stockexchange.bulkhead.queued", queued, AtomicInteger::get)
+                .description("Requests waiting to enter the bulkhead")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        Gauge.builder("stockexchange.bulkhead.saturation", this, Bulkhead::saturation)
+                .description("Share of the bulkhead's permits in use")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+    }
+
+    // false when the request has to be turned away, exit() must follow a true
+    public boolean tryEnter() throws InterruptedException {
+        if (permits.tryAcquire() || awaitPermit()) {
+            return true;
+        }
+        rejections.increment();
+        return false;
+    }
+
+    private boolean awaitPermit() throws InterruptedException {
+        if (maxWaitNanos <= 0) {
+            return false;
+        }
+        try {
+            return queued.incrementAndGet() <= maxQueue && permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    public void exit() {
+        permits.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    int active() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    double saturation() {
+        return (double) active() / maxConcurrent;
+    }
+}
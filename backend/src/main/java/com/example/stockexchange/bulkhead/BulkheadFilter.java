@@ -0,0 +1,116 @@
+package com.example.stockexchange.bulkhead;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// sorts API requests into workloads and runs each inside its workload's bulkhead, with the workload set for the
+// connection routing. it runs ahead of the security chain, so authentication is already inside the bulkhead and
+// the database work of login and token refresh is on the right pool partition. a full bulkhead answers 503 with
+// Retry-After. actuator, API docs and the H2 console stay outside of every bulkhead
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    private final Bulkheads bulkheads;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final String apiBase;
+    private final String authBase;
+
+    public BulkheadFilter(Bulkheads bulkheads,
+                          ObjectMapper objectMapper,
+                          @Value("${app.bulkhead.enabled:true}") boolean enabled,
+                          @Value("${app.paths.api-base}") String apiBase,
+                          @Value("${app.paths.api-base}${app.paths.api-version}${app.paths.auth-base}") String authBase) {
+        this.bulkheads = bulkheads;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.apiBase = apiBase + "/";
+        this.authBase = authBase + "/";
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || !path(request).startsWith(apiBase);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        Workload workload = classify(request.getMethod(), path(request));
+        Bulkhead bulkhead = bulkheads.get(workload);
+        boolean entered;
+        try {
+            entered = bulkhead.tryEnter();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            entered = false;
+        }
+        if (!entered) {
+            if (log.isDebugEnabled()) {
+                log.debug("Bulkhead {} full, rejecting {} {}", bulkhead.getName(), request.getMethod(), request.getRequestURI());
+            }
+            sendServiceUnavailable(response, bulkhead);
+            return;
+        }
+
+        WorkloadContext.begin(workload);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            WorkloadContext.end();
+            bulkhead.exit();
+        }
+    }
+
+    Workload classify(String method, String path) {
+        if (path.startsWith(authBase)) {
+            return Workload.AUTH;
+        }
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method)) {
+            return Workload.READ;
+        }
+        return Workload.WRITE;
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private void sendServiceUnavailable(HttpServletResponse response, Bulkhead bulkhead) throws IOException {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        Map<String, Object> errorResponse = new LinkedHashMap<>();
+        errorResponse.put("error", "Service Unavailable");
+        errorResponse.put("message", "Too many " + bulkhead.getName() + " requests in progress, retry shortly");
+        errorResponse.put("status", status.value());
+        errorResponse.put("timestamp", Instant.now().toString());
+        objectMapper.writeValue(response.getWriter(), errorResponse);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.stockexchange.bulkhead;
+
+import java.time.Duration;
+
+// app.bulkhead.<workload>: requests running at once, requests allowed to wait for one of them to finish and for
+// how long, and the connection pool partition behind them
+public record BulkheadLimits(int maxConcurrent,
+                             int maxQueue,
+                             Duration maxWait,
+                             int poolSize,
+                             Duration connectionTimeout) {
+}
@@ -0,0 +1,18 @@
+package com.example.stockexchange.bulkhead;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// one bulkhead per workload, built by BulkheadConfig from app.bulkhead
+public class Bulkheads {
+
+    private final Map<Workload, Bulkhead> bulkheads = new EnumMap<>(Workload.class);
+
+    public Bulkheads(Map<Workload, Bulkhead> bulkheads) {
+        this.bulkheads.putAll(bulkheads);
+    }
+
+    public Bulkhead get(Workload workload) {
+        return bulkheads.get(workload);
+    }
+}
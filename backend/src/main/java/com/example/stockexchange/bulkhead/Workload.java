@@ -0,0 +1,15 @@
+package com.example.stockexchange.bulkhead;
+
+// the request classes that get a bulkhead and a connection pool partition of their own
+public enum Workload {
+    // sign-up and login, BCrypt bound
+    AUTH,
+    // GET, HEAD and OPTIONS under the API base
+    READ,
+    // every other API request, and the work that runs outside of a request (startup loaders, schedulers)
+    WRITE;
+
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
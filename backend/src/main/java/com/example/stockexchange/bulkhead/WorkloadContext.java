@@ -0,0 +1,45 @@
+package com.example.stockexchange.bulkhead;
+
+// the workload of the current request, set by BulkheadFilter and read by WorkloadRoutingDataSource when a
+// transaction asks for a connection. streamed responses carry it to the async thread (BulkheadConfig)
+public final class WorkloadContext {
+
+    private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    static void begin(Workload workload) {
+        CURRENT.set(workload);
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    // null outside of an API request
+    public static Workload current() {
+        return CURRENT.get();
+    }
+
+    // runs task with the workload of the calling thread
+    public static Runnable propagate(Runnable task) {
+        Workload workload = CURRENT.get();
+        if (workload == null) {
+            return task;
+        }
+        return () -> {
+            Workload previous = CURRENT.get();
+            CURRENT.set(workload);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.stockexchange.bulkhead;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+// hands every connection out of the pool partition of the current workload (WorkloadContext), so a login storm
+// can exhaust the auth pool but not the connections price updates and reads depend on. work outside of a
+// request uses the write partition
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    public WorkloadRoutingDataSource(Map<Workload, DataSource> partitions) {
+        setTargetDataSources(new HashMap<>(partitions));
+        setDefaultTargetDataSource(partitions.get(Workload.WRITE));
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Workload workload = WorkloadContext.current();
+        return workload != null ? workload : Workload.WRITE;
+    }
+}
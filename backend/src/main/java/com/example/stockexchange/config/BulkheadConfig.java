@@ -0,0 +1,110 @@
+package com.example.stockexchange.config;
+
+import com.example.stockexchange.bulkhead.Bulkhead;
+import com.example.stockexchange.bulkhead.BulkheadLimits;
+import com.example.stockexchange.bulkhead.Bulkheads;
+import com.example.stockexchange.bulkhead.Workload;
+import com.example.stockexchange.bulkhead.WorkloadContext;
+import com.example.stockexchange.bulkhead.WorkloadRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.HikariCheckpointRestoreLifecycle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskDecorator;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+
+// bulkheads and connection pool partitions per workload (app.bulkhead). the pools are beans of their own so
+// Boot's Hikari metrics (hikaricp.connections.*, tag pool) and health checks cover each of them; the
+// application itself only sees the routing data source
+@Configuration
+public class BulkheadConfig {
+
+    @Bean
+    public Bulkheads bulkheads(Environment environment, MeterRegistry meterRegistry) {
+        Map<Workload, Bulkhead> bulkheads = new EnumMap<>(Workload.class);
+        for (Workload workload : Workload.values()) {
+            bulkheads.put(workload, new Bulkhead(workload.tag(), limits(environment, workload), meterRegistry));
+        }
+        return new Bulkheads(bulkheads);
+    }
+
+    @Bean
+    public HikariDataSource authDataSource(DataSourceProperties properties, Environment environment) {
+        return pool(properties, environment, Workload.AUTH);
+    }
+
+    @Bean
+    public HikariDataSource readDataSource(DataSourceProperties properties, Environment environment) {
+        return pool(properties, environment, Workload.READ);
+    }
+
+    @Bean
+    public HikariDataSource writeDataSource(DataSourceProperties properties, Environment environment) {
+        return pool(properties, environment, Workload.WRITE);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource authDataSource,
+                                 HikariDataSource readDataSource,
+                                 HikariDataSource writeDataSource) {
+        return new WorkloadRoutingDataSource(Map.of(
+                Workload.AUTH, authDataSource,
+                Workload.READ, readDataSource,
+                Workload.WRITE, writeDataSource));
+    }
+
+    // Boot only registers these for the data source it creates itself; they suspend and reopen the pools
+    // around a CRaC checkpoint (see CheckpointCoordinator)
+    @Bean
+    public HikariCheckpointRestoreLifecycle authDataSourceCheckpointRestore(HikariDataSource authDataSource,
+                                                                            ConfigurableApplicationContext context) {
+        return new HikariCheckpointRestoreLifecycle(authDataSource, context);
+    }
+
+    @Bean
+    public HikariCheckpointRestoreLifecycle readDataSourceCheckpointRestore(HikariDataSource readDataSource,
+                                                                            ConfigurableApplicationContext context) {
+        return new HikariCheckpointRestoreLifecycle(readDataSource, context);
+    }
+
+    @Bean
+    public HikariCheckpointRestoreLifecycle writeDataSourceCheckpointRestore(HikariDataSource writeDataSource,
+                                                                             ConfigurableApplicationContext context) {
+        return new HikariCheckpointRestoreLifecycle(writeDataSource, context);
+    }
+
+    // streamed exports write their rows on the MVC async executor, which has to read from the request's partition
+    @Bean
+    public TaskDecorator workloadTaskDecorator() {
+        return WorkloadContext::propagate;
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment, Workload workload) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        // shared settings first, the partition's size and timeout win
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        BulkheadLimits limits = limits(environment, workload);
+        pool.setPoolName("stockexchange-" + workload.tag());
+        pool.setMaximumPoolSize(limits.poolSize());
+        pool.setMinimumIdle(Math.min(pool.getMinimumIdle(), limits.poolSize()));
+        pool.setConnectionTimeout(limits.connectionTimeout().toMillis());
+        return pool;
+    }
+
+    private static BulkheadLimits limits(Environment environment, Workload workload) {
+        return Binder.get(environment)
+                .bind("app.bulkhead." + workload.tag(), BulkheadLimits.class)
+                .orElseThrow(() -> new IllegalStateException("Missing app.bulkhead." + workload.tag()));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.stockexchange.config;
+
+import com.example.stockexchange.response.ApiRespondProtobufConverter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+// responses are JSON unless the client asks for application/x-jackson-smile, application/cbor
+// (same document as the JSON, binary encoded) or application/x-protobuf (stock, exchange and listing
+// endpoints, schema in src/main/proto). the converters come after the JSON one, so a missing or
+// wildcard Accept still gets JSON
+@Configuration
+public class ContentNegotiationConfig implements WebMvcConfigurer {
+
+    // the builders carry the spring.jackson.* settings of the JSON mapper, they replace the default
+    // Smile and CBOR converters in place
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new ApiRespondProtobufConverter());
+    }
+}
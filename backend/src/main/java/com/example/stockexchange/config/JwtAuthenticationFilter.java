@@ -1,8 +1,11 @@
 package com.example.stockexchange.config;
 
+import com.example.stockexchange.controller.JwksController;
 import com.example.stockexchange.exception.AuthenticationException;
+import com.example.stockexchange.revocation.TokenRevocationList;
 import com.example.stockexchange.service.JwtService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.security.SignatureException;
@@ -12,15 +15,13 @@ import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.ErrorResponse;
@@ -33,15 +34,28 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final TokenRevocationList revocationList;
+    private final String refreshPath;
+    private final String logoutPath;
 
     public JwtAuthenticationFilter(JwtService jwtService,
-                                   @Lazy UserDetailsService userDetailsService) {
+                                   TokenRevocationList revocationList,
+                                   @Value("${app.paths.api-base}${app.paths.api-version}${app.paths.auth-base}") String authBase) {
         this.jwtService = jwtService;
-        this.userDetailsService = userDetailsService;
+        this.revocationList = revocationList;
+        this.refreshPath = authBase + "/refresh";
+        this.logoutPath = authBase + "/logout";
         log.info("JwtAuthenticationFilter initialized");
     }
 
+    // refresh and logout work with the refresh token; the access token sent along may have expired or been
+    // revoked. the public keys need no authentication at all
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.equals(refreshPath) || path.equals(logoutPath) || path.equals(JwksController.JWKS_PATH);
+    }
+
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
@@ -52,37 +66,39 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String jwt = extractJwtFromRequest(request);
 
         if (jwt == null) {
-            log.debug("No JWT token found, continuing filter chain");
+            if (log.isDebugEnabled()) {
+                log.debug("No JWT token found, continuing filter chain");
+            }
             filterChain.doFilter(request, response);
             return;
         }
 
         try {
-            String userEmail = jwtService.extractUsername(jwt);
-
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
-
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                    log.debug("Authentication set for user: {}", userEmail);
+            // the token is verified and read once, the principal comes from its claims: access tokens are
+            // short-lived and revocable, so there is no user lookup per request
+            Claims claims = jwtService.parseToken(jwt);
+
+            if (revocationList.isRevoked(claims.getId())) {
+                log.warn("Revoked JWT token presented for user: {}", claims.getSubject());
+                sendErrorResponse(response, "Token Revoked", "JWT token has been revoked", HttpStatus.UNAUTHORIZED);
+                return;
+            }
 
-                } else {
-                    log.debug("JWT token is not valid");
+            if (claims.getSubject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails userDetails = jwtService.toUserDetails(claims);
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities()
+                );
+
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+                if (log.isDebugEnabled()) {
+                    log.debug("Authentication set for user: {}", claims.getSubject());
                 }
             }
 
-        } catch (UsernameNotFoundException ex) {
-            log.warn("User not found: {}", ex.getMessage());
-            sendErrorResponse(response, "User not found", ex.getMessage(), HttpStatus.UNAUTHORIZED);
-            return;
         } catch (ExpiredJwtException ex) {
             log.warn("JWT token has expired: {}", ex.getMessage());
             sendErrorResponse(response, "Token Expired", "JWT token has expired", HttpStatus.UNAUTHORIZED);
@@ -131,7 +147,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Check Authorization header
         final String authHeader = request.getHeader("authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            log.debug("JWT found in Authorization header");
+            if (log.isDebugEnabled()) {
+                log.debug("JWT found in Authorization header");
+            }
             return authHeader.substring(7);
         }
 
@@ -139,7 +157,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (request.getCookies() != null) {
             for (Cookie cookie : request.getCookies()) {
                 if ("jwt".equals(cookie.getName())) {
-                    log.debug("JWT found in cookie");
+                    if (log.isDebugEnabled()) {
+                        log.debug("JWT found in cookie");
+                    }
                     return cookie.getValue();
                 }
             }
@@ -0,0 +1,38 @@
+package com.example.stockexchange.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // timer shared by every @Timed service class, split by the class/method/exception tags
+    public static final String SERVICE_TIMER = "stockexchange.service";
+
+    // makes @Timed on the service classes effective
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    // TimedAspect only tags the exception type ("none" on success), so derive a success/error outcome from it
+    @Bean
+    public MeterFilter serviceOutcomeMeterFilter() {
+        return new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+                if (!SERVICE_TIMER.equals(id.getName())) {
+                    return id;
+                }
+                String exception = id.getTag("exception");
+                String outcome = exception == null || "none".equals(exception) ? "SUCCESS" : "ERROR";
+                return id.withTag(Tag.of("outcome", outcome));
+            }
+        };
+    }
+}
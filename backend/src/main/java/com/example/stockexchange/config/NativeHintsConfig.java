@@ -0,0 +1,130 @@
+package com.example.stockexchange.config;
+
+import com.example.stockexchange.bulkhead.BulkheadLimits;
+import com.example.stockexchange.dto.OrderExecutionDto;
+import com.example.stockexchange.dto.RiskExposureDto;
+import com.example.stockexchange.dto.StockDto;
+import com.example.stockexchange.dto.StockExchangeDto;
+import com.example.stockexchange.dto.StockListingDto;
+import com.example.stockexchange.dto.StockMoverDto;
+import com.example.stockexchange.dto.StockSearchHitDto;
+import com.example.stockexchange.dto.UserDto;
+import com.example.stockexchange.logging.AsyncRingAppender;
+import com.example.stockexchange.logging.SampledDebugTurboFilter;
+import com.example.stockexchange.mapper.StockExchangeMapper;
+import com.example.stockexchange.mapper.StockMapper;
+import com.example.stockexchange.mapper.UserMapper;
+import com.example.stockexchange.monitoring.SqlTimingSessionListener;
+import com.example.stockexchange.ratelimit.RateLimitRoute;
+import com.example.stockexchange.repository.ListedStockView;
+import com.example.stockexchange.repository.StockExportView;
+import com.example.stockexchange.repository.StockSummaryView;
+import com.example.stockexchange.response.AuthenticationResponse;
+import com.example.stockexchange.response.CreateStockResponse;
+import com.example.stockexchange.response.PageResponse;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aop.SpringProxy;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.data.projection.TargetAware;
+
+import java.util.List;
+
+// what the AOT engine cannot see on its own when the backend is compiled to a native image (mvn -Pnative).
+// beans, entities, repositories and request bodies are covered by Spring AOT; this adds what is only
+// reached by reflection at runtime
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.Hints.class)
+public class NativeHintsConfig {
+
+    // jjwt-api creates its implementation through Classes.newInstance, jjwt-jackson comes in through ServiceLoader
+    private static final List<String> JJWT_TYPES = List.of(
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationPolicyBuilder",
+            "io.jsonwebtoken.impl.security.JwksBridge",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.StandardCurves",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer");
+
+    // ApiRespond carries its data untyped, so the payloads are not discovered from the controller signatures
+    private static final List<Class<?>> RESPONSE_TYPES = List.of(
+            OrderExecutionDto.class,
+            RiskExposureDto.class,
+            StockDto.class,
+            StockExchangeDto.class,
+            StockListingDto.class,
+            StockMoverDto.class,
+            StockSearchHitDto.class,
+            UserDto.class,
+            AuthenticationResponse.class,
+            CreateStockResponse.class,
+            PageResponse.class);
+
+    // interface projections are JDK proxies created by Spring Data
+    private static final List<Class<?>> PROJECTIONS = List.of(
+            ListedStockView.class,
+            StockExportView.class,
+            StockSummaryView.class);
+
+    // MapStruct implementations are generated next to their interface
+    private static final List<Class<?>> MAPPERS = List.of(
+            StockMapper.class,
+            StockExchangeMapper.class,
+            UserMapper.class);
+
+    static class Hints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (String type : JJWT_TYPES) {
+                hints.reflection().registerType(TypeReference.of(type), MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+            }
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.*");
+
+            new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                    RESPONSE_TYPES.toArray(Class<?>[]::new));
+
+            for (Class<?> projection : PROJECTIONS) {
+                hints.reflection().registerType(projection, MemberCategory.INVOKE_PUBLIC_METHODS);
+                hints.proxies().registerJdkProxy(projection, TargetAware.class, SpringProxy.class, DecoratingProxy.class);
+            }
+
+            for (Class<?> mapper : MAPPERS) {
+                hints.reflection().registerType(TypeReference.of(mapper.getName() + "Impl"),
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+
+            // hibernate instantiates the session listener from its class name (see SqlMonitoringConfig)
+            hints.reflection().registerType(SqlTimingSessionListener.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+            // the Binder creates these records through their constructor (see RateLimitConfig, BulkheadConfig)
+            new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                    RateLimitRoute.class, BulkheadLimits.class);
+
+            // logback-spring.xml creates the appender and turbo filter by class name and calls the setters
+            hints.reflection().registerType(AsyncRingAppender.class,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.reflection().registerType(SampledDebugTurboFilter.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.stockexchange.config;
+
+import com.example.stockexchange.ratelimit.RateLimitRoute;
+import com.example.stockexchange.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+
+@Configuration
+public class RateLimitConfig {
+
+    // routes are checked in the order of app.rate-limit.routes, the first match applies
+    @Bean
+    public RateLimiter rateLimiter(Environment environment,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.rate-limit.max-buckets:100000}") int maxBuckets) {
+        List<RateLimitRoute> routes = Binder.get(environment)
+                .bind("app.rate-limit.routes", Bindable.listOf(RateLimitRoute.class))
+                .orElse(List.of());
+        return new RateLimiter(routes, maxBuckets, meterRegistry);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.stockexchange.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+// socket buffers of the connector (app.server), Boot has no properties for them. Tomcat keeps up to buffer-pool
+// closed connections' channels with their buffers for reuse, so a new connection does not allocate its own.
+// the write buffer takes a gzipped page (server.compression) in one socket write
+@Configuration
+public class TomcatConfig {
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> socketBuffers(
+            @Value("${app.server.write-buffer-size:16KB}") DataSize writeBufferSize,
+            @Value("${app.server.buffer-pool:500}") int bufferPool,
+            @Value("${app.server.buffer-pool-size:64MB}") DataSize bufferPoolSize) {
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            connector.setProperty("socket.appWriteBufSize", String.valueOf(writeBufferSize.toBytes()));
+            connector.setProperty("socket.bufferPool", String.valueOf(bufferPool));
+            connector.setProperty("socket.bufferPoolSize", String.valueOf(bufferPoolSize.toBytes()));
+        });
+    }
+}
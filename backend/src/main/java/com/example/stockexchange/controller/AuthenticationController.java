@@ -25,15 +25,27 @@ import java.util.Map;
 @Tag(name = "Authentication REST API Endpoints", description = "Operations related to register & login")
 public class AuthenticationController {
 
+    private static final String ACCESS_COOKIE = "jwt";
+    private static final String REFRESH_COOKIE = "refresh_token";
+
     private final AuthenticationService authenticationService;
 
     private final long jwtExpirationSeconds;
 
+    private final long refreshExpirationSeconds;
+
+    // the refresh token is only sent to the auth endpoints, never with the other requests
+    private final String refreshCookiePath;
+
 
     public AuthenticationController(AuthenticationService authenticationService,
-                                    @Value("${jwt.expiration}") long jwtExpirationSeconds) {
+                                    @Value("${jwt.expiration}") long jwtExpirationSeconds,
+                                    @Value("${jwt.refresh-expiration}") long refreshExpirationSeconds,
+                                    @Value("${app.paths.api-base}${app.paths.api-version}${app.paths.auth-base}") String refreshCookiePath) {
         this.authenticationService = authenticationService;
         this.jwtExpirationSeconds = jwtExpirationSeconds;
+        this.refreshExpirationSeconds = refreshExpirationSeconds;
+        this.refreshCookiePath = refreshCookiePath;
     }
 
     @Operation(summary = "Register a User", description = "register a new User")
@@ -51,35 +63,56 @@ public class AuthenticationController {
     @PostMapping("/login")
     public ResponseEntity<ApiRespond> login(@Valid @RequestBody AuthenticationRequest authenticationRequest) throws AuthenticationException {
 
-        AuthenticationResponse token = authenticationService.login(authenticationRequest);
-
-        ResponseCookie cookie = ResponseCookie.from("jwt", token.getToken())
-                .httpOnly(true)
-                .secure(false)
-                .path("/")
-                .maxAge(jwtExpirationSeconds / 1000)
-                .sameSite("Lax")
-                .build();
+        AuthenticationResponse tokens = authenticationService.login(authenticationRequest);
 
         return ResponseEntity.ok()
-                .header(HttpHeaders.SET_COOKIE, cookie.toString())
+                .headers(tokenCookies(tokens))
                 .body(new ApiRespond(HttpStatus.OK, "login successfully",
                         null));
     }
 
+    @Operation(summary = "Refresh the tokens", description = "Swap the refresh token cookie for a new access token and refresh token")
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiRespond> refresh(@CookieValue(name = REFRESH_COOKIE, required = false) String refreshToken) {
+        if (refreshToken == null) {
+            throw new AuthenticationException("No refresh token");
+        }
+
+        AuthenticationResponse tokens = authenticationService.refresh(refreshToken);
+
+        return ResponseEntity.ok()
+                .headers(tokenCookies(tokens))
+                .body(new ApiRespond(HttpStatus.OK, "Tokens refreshed", null));
+    }
+
     @Operation(summary = "Logout", description = "Logout user")
     @PostMapping("/logout")
-    public ResponseEntity<Void> logout(HttpServletResponse response) {
+    public ResponseEntity<Void> logout(@CookieValue(name = REFRESH_COOKIE, required = false) String refreshToken,
+                                       HttpServletResponse response) {
+
+        authenticationService.logout(refreshToken);
+
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie(ACCESS_COOKIE, "", "/", 0).toString());
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie(REFRESH_COOKIE, "", refreshCookiePath, 0).toString());
+        return ResponseEntity.noContent().build();
+    }
+
+    private HttpHeaders tokenCookies(AuthenticationResponse tokens) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.SET_COOKIE,
+                cookie(ACCESS_COOKIE, tokens.getToken(), "/", jwtExpirationSeconds / 1000).toString());
+        headers.add(HttpHeaders.SET_COOKIE,
+                cookie(REFRESH_COOKIE, tokens.getRefreshToken(), refreshCookiePath, refreshExpirationSeconds / 1000).toString());
+        return headers;
+    }
 
-        ResponseCookie cookie = ResponseCookie.from("jwt", "")
+    private static ResponseCookie cookie(String name, String value, String path, long maxAgeSeconds) {
+        return ResponseCookie.from(name, value)
                 .httpOnly(true)
                 .secure(false)
-                .path("/")
-                .maxAge(0) // 1 day
+                .path(path)
+                .maxAge(maxAgeSeconds)
                 .sameSite("Lax")
                 .build();
-
-        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
-        return ResponseEntity.noContent().build();
     }
 }
@@ -0,0 +1,42 @@
+package com.example.stockexchange.controller;
+
+import com.example.stockexchange.service.JwtKeyRing;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+// the public keys tokens are verified with, for services that check tokens themselves. a client that meets an
+// unknown kid fetches the set again, so it can be cached for a while. with HS256 there is no public key to hand out
+@RequiredArgsConstructor
+@RestController
+@Tag(name = "JWKS Endpoint", description = "Public keys of the token signatures")
+public class JwksController {
+
+    public static final String JWKS_PATH = "/.well-known/jwks.json";
+
+    private static final String EMPTY = "{\"keys\":[]}";
+
+    private final ObjectProvider<JwtKeyRing> keyRing;
+
+    @Operation(summary = "Get the JSON Web Key Set",
+            description = "The public keys of every instance that can still have a valid token signed with them, by kid")
+    @ApiResponse(responseCode = "200", description = "A JWK set, empty when tokens are signed with a shared secret")
+    @GetMapping(value = JWKS_PATH, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> getJwks() {
+
+        JwtKeyRing ring = keyRing.getIfAvailable();
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(ring == null ? EMPTY : ring.jwks());
+    }
+}
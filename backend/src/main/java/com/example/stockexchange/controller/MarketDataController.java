@@ -0,0 +1,59 @@
+package com.example.stockexchange.controller;
+
+import com.example.stockexchange.market.MarketDataCodec;
+import com.example.stockexchange.service.MarketDataService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+// binary frames as described in MarketDataCodec, errors are the usual JSON responses
+@RequestMapping("${app.paths.api-base}${app.paths.api-version}/stockExchange/{stockExchangeId}/market-data")
+@RequiredArgsConstructor
+@Validated
+@RestController
+@Tag(name = "Market Data Rest API Endpoints", description = "Snapshot and sequenced deltas of the listed stocks and prices of an exchange")
+public class MarketDataController {
+
+    private static final MediaType MARKET_DATA = MediaType.parseMediaType(MarketDataCodec.MEDIA_TYPE);
+
+    private final MarketDataService marketDataService;
+
+    @Operation(summary = "Get a market data snapshot",
+            description = "Every listed stock with its current price, tagged with the epoch and sequence the deltas continue from")
+    @ApiResponse(responseCode = "200", description = "A SNAPSHOT frame")
+    @ApiResponse(responseCode = "404", description = "Stock exchange not found")
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping("/snapshot")
+    public ResponseEntity<byte[]> getSnapshot(@PathVariable @Positive Long stockExchangeId) {
+
+        byte[] snapshot = marketDataService.getSnapshot(stockExchangeId);
+
+        return ResponseEntity.ok().contentType(MARKET_DATA).body(snapshot);
+    }
+
+    @Operation(summary = "Stream market data",
+            description = "A snapshot followed by sequenced deltas and heartbeats. Passing the epoch and the last sequence seen "
+                    + "resumes after it, a new snapshot is sent whenever the deltas since then are no longer available")
+    @ApiResponse(responseCode = "200", description = "A stream of SNAPSHOT, DELTAS and HEARTBEAT frames")
+    @ApiResponse(responseCode = "404", description = "Stock exchange not found")
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping("/stream")
+    public ResponseEntity<ResponseBodyEmitter> stream(
+            @PathVariable @Positive Long stockExchangeId,
+            @RequestParam(required = false) Long epoch,
+            @RequestParam(required = false) @PositiveOrZero Long fromSequence) {
+
+        ResponseBodyEmitter emitter = marketDataService.subscribe(stockExchangeId, epoch, fromSequence);
+
+        return ResponseEntity.ok().contentType(MARKET_DATA).body(emitter);
+    }
+}
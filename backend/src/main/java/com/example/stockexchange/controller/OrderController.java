@@ -0,0 +1,77 @@
+package com.example.stockexchange.controller;
+
+import com.example.stockexchange.entity.UserCredintials;
+import com.example.stockexchange.dto.OrderExecutionDto;
+import com.example.stockexchange.request.OrderAmendRequest;
+import com.example.stockexchange.request.OrderRequest;
+import com.example.stockexchange.response.ApiRespond;
+import com.example.stockexchange.service.OrderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RequestMapping("${app.paths.api-base}${app.paths.api-version}/stockExchange/{stockExchangeId}/orders")
+@RequiredArgsConstructor
+@Validated
+@RestController
+@Tag(name = "Order Rest API Endpoints", description = "Order entry for stocks listed on a Stock Exchange")
+public class OrderController {
+
+    private final OrderService orderService;
+
+    @Operation(summary = "Place an order", description = "Submits a LIMIT or MARKET order for a stock listed on the exchange")
+    @ApiResponse(responseCode = "201", description = "Order accepted, the body holds its execution report")
+    @ApiResponse(responseCode = "422", description = "Stock not listed on a live exchange or invalid order")
+    @PreAuthorize("hasRole('USER')")
+    @PostMapping
+    public ResponseEntity<ApiRespond> placeOrder(
+            @PathVariable @Positive long stockExchangeId,
+            @AuthenticationPrincipal UserCredintials user,
+            @Valid @RequestBody OrderRequest request) {
+
+        OrderExecutionDto execution = orderService.placeOrder(stockExchangeId, user.getId(), request);
+
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(new ApiRespond(HttpStatus.CREATED, "Order accepted", execution));
+    }
+
+    @Operation(summary = "Amend an order", description = "Changes the price and/or quantity of one of your resting orders")
+    @ApiResponse(responseCode = "404", description = "Order not found")
+    @PreAuthorize("hasRole('USER')")
+    @PutMapping("/{orderId}")
+    public ResponseEntity<ApiRespond> amendOrder(
+            @PathVariable @Positive long stockExchangeId,
+            @PathVariable @Positive long orderId,
+            @AuthenticationPrincipal UserCredintials user,
+            @Valid @RequestBody OrderAmendRequest request) {
+
+        OrderExecutionDto execution = orderService.amendOrder(stockExchangeId, orderId, user.getId(), request);
+
+        return ResponseEntity.ok(new ApiRespond(HttpStatus.OK, "Order amended", execution));
+    }
+
+    @Operation(summary = "Cancel an order", description = "Removes one of your resting orders from the book")
+    @ApiResponse(responseCode = "404", description = "Order not found")
+    @PreAuthorize("hasRole('USER')")
+    @DeleteMapping("/{orderId}")
+    public ResponseEntity<ApiRespond> cancelOrder(
+            @PathVariable @Positive long stockExchangeId,
+            @PathVariable @Positive long orderId,
+            @RequestParam @Positive long stockId,
+            @AuthenticationPrincipal UserCredintials user) {
+
+        OrderExecutionDto execution = orderService.cancelOrder(stockExchangeId, orderId, user.getId(), stockId);
+
+        return ResponseEntity.ok(new ApiRespond(HttpStatus.OK, "Order cancelled", execution));
+    }
+}
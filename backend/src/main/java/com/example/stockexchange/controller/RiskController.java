@@ -0,0 +1,51 @@
+package com.example.stockexchange.controller;
+
+import com.example.stockexchange.dto.RiskExposureDto;
+import com.example.stockexchange.request.RiskLimitRequest;
+import com.example.stockexchange.response.ApiRespond;
+import com.example.stockexchange.service.RiskService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RequestMapping("${app.paths.api-base}${app.paths.api-version}/risk/users/{userId}")
+@RequiredArgsConstructor
+@Validated
+@RestController
+@Tag(name = "Risk Rest API Endpoints", description = "Pre-trade risk limits and exposure of users")
+public class RiskController {
+
+    private final RiskService riskService;
+
+    @Operation(summary = "Get the exposure of a user", description = "Limits, open orders and positions per stock with their utilization")
+    @ApiResponse(responseCode = "404", description = "User not found")
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping
+    public ResponseEntity<ApiRespond> getExposure(@PathVariable @Positive Long userId) {
+
+        RiskExposureDto exposure = riskService.getExposure(userId);
+
+        return ResponseEntity.ok(new ApiRespond(HttpStatus.OK, "Risk exposure retrieved successfully", exposure));
+    }
+
+    @Operation(summary = "Change the limits of a user", description = "Takes effect for the next order, a missing limit falls back to the default")
+    @ApiResponse(responseCode = "404", description = "User not found")
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping("/limits")
+    public ResponseEntity<ApiRespond> updateLimits(
+            @PathVariable @Positive Long userId,
+            @Valid @RequestBody RiskLimitRequest request) {
+
+        RiskExposureDto exposure = riskService.updateLimits(userId, request);
+
+        return ResponseEntity.ok(new ApiRespond(HttpStatus.OK, "Risk limits updated successfully", exposure));
+    }
+}
@@ -2,22 +2,35 @@ package com.example.stockexchange.controller;
 
 import com.example.stockexchange.dto.StockDto;
 import com.example.stockexchange.dto.StockExchangeDto;
+import com.example.stockexchange.dto.StockSearchHitDto;
+import com.example.stockexchange.export.ExportFormat;
 import com.example.stockexchange.request.StockCreationRequest;
 import com.example.stockexchange.request.StockPriceUpdateRequest;
 import com.example.stockexchange.response.ApiRespond;
+import com.example.stockexchange.response.PageResponse;
+import com.example.stockexchange.service.StockExportService;
+import com.example.stockexchange.service.StockSearchService;
 import com.example.stockexchange.service.StockService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
 
 @RequestMapping("${app.paths.api-base}${app.paths.api-version}/stock")
 @RequiredArgsConstructor
@@ -27,6 +40,8 @@ import org.springframework.web.bind.annotation.*;
 public class StockController {
 
     private final StockService stockService;
+    private final StockSearchService stockSearchService;
+    private final StockExportService stockExportService;
 
     @Operation(summary = "Get stock by ID", description = "Retrieves a single stock by its ID")
     @ApiResponse(responseCode = "200", description = "Stock found and returned")
@@ -56,10 +71,49 @@ public class StockController {
         return ResponseEntity.ok(new ApiRespond(
                 HttpStatus.OK,
                 "Stocks retrieved successfully",
-                stocks
+                PageResponse.of(stocks)
+        ));
+    }
+
+    @Operation(summary = "Search stocks",
+            description = "Case-insensitive, typo-tolerant prefix search over stock names and descriptions, " +
+                    "optionally restricted to the stocks listed on one exchange")
+    @ApiResponse(responseCode = "200", description = "Ranked matches returned")
+    @ApiResponse(responseCode = "404", description = "Stock exchange not found")
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping("/search")
+    public ResponseEntity<ApiRespond> searchStocks(
+            @RequestParam @NotBlank @Size(max = 100) String q,
+            @RequestParam(required = false) @Positive Long exchangeId,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+
+        List<StockSearchHitDto> hits = stockSearchService.search(q, exchangeId, limit);
+
+        return ResponseEntity.ok(new ApiRespond(
+                HttpStatus.OK,
+                "Stocks matching the query retrieved successfully",
+                hits
         ));
     }
 
+    @Operation(summary = "Export all Stocks",
+            description = "Streams the whole catalog ordered by id as NDJSON (one stock per line) or CSV, " +
+                    "gzip compressed when the client accepts it")
+    @ApiResponse(responseCode = "200", description = "Catalog streamed")
+    @ApiResponse(responseCode = "400", description = "Unsupported format")
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportStocks(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        ExportFormat exportFormat = ExportFormat.of(format);
+        boolean gzip = ExportFormat.acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = stockExportService.exportStocks(exportFormat, gzip);
+
+        return ResponseEntity.ok().headers(exportFormat.headers("stocks", gzip)).body(body);
+    }
+
     @Operation(summary = "Get all Stock Exchanges for a Stock",
             description = "Retrieves all Stock Exchanges where a specific stock is listed")
     @PreAuthorize("hasRole('USER')")
@@ -74,7 +128,7 @@ public class StockController {
         return ResponseEntity.ok(new ApiRespond(
                 HttpStatus.OK,
                 "Stock Exchanges retrieved successfully",
-                stockExchanges
+                PageResponse.of(stockExchanges)
         ));
     }
 
@@ -4,23 +4,33 @@ package com.example.stockexchange.controller;
 import com.example.stockexchange.dto.StockDto;
 import com.example.stockexchange.dto.StockExchangeDto;
 import com.example.stockexchange.dto.StockListingDto;
+import com.example.stockexchange.dto.StockMoverDto;
+import com.example.stockexchange.export.ExportFormat;
+import com.example.stockexchange.market.MoversDirection;
 import com.example.stockexchange.request.AddStocksToExchangeRequest;
 import com.example.stockexchange.request.StockExchangeCreationRequest;
 import com.example.stockexchange.request.StockExchangeUpdateRequest;
 import com.example.stockexchange.response.ApiRespond;
+import com.example.stockexchange.response.PageResponse;
+import com.example.stockexchange.service.MarketMoversService;
 import com.example.stockexchange.service.StockExchangeService;
+import com.example.stockexchange.service.StockExportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -32,6 +42,8 @@ import java.util.List;
 public class StockExchangeController {
 
     private final StockExchangeService stockExchangeService;
+    private final MarketMoversService marketMoversService;
+    private final StockExportService stockExportService;
 
     @Operation(summary = "Get all Stock Exchanges", description = "Retrieves a paginated list of all Stock Exchanges")
     @PreAuthorize("hasRole('USER')")
@@ -45,7 +57,7 @@ public class StockExchangeController {
         return ResponseEntity.ok(new ApiRespond(
                 HttpStatus.OK,
                 "Stock Exchanges retrieved successfully",
-                stockExchanges
+                PageResponse.of(stockExchanges)
         ));
     }
     
@@ -65,7 +77,7 @@ public class StockExchangeController {
         return ResponseEntity.ok(new ApiRespond(
                 HttpStatus.OK,
                 "Stocks not listed in exchange retrieved successfully",
-                stocks
+                PageResponse.of(stocks)
         ));
     }
 
@@ -96,7 +108,7 @@ public class StockExchangeController {
         return ResponseEntity.ok(new ApiRespond(
                 HttpStatus.OK,
                 "Live Stock Exchanges retrieved successfully",
-                liveExchanges
+                PageResponse.of(liveExchanges)
         ));
     }
 
@@ -110,7 +122,48 @@ public class StockExchangeController {
             @RequestParam(defaultValue = "") String sortBy) {
 
         Page<StockDto> stocks = stockExchangeService.getAllStocksByExchange(id, page, size, sortBy);
-        return ResponseEntity.ok(new ApiRespond(HttpStatus.OK, "All Available Stocks In StockExchange", stocks));
+        return ResponseEntity.ok(new ApiRespond(HttpStatus.OK, "All Available Stocks In StockExchange", PageResponse.of(stocks)));
+    }
+
+    @Operation(summary = "Export the stocks of a Stock Exchange",
+            description = "Streams every stock listed on the exchange ordered by id as NDJSON (one stock per line) or CSV, " +
+                    "gzip compressed when the client accepts it")
+    @ApiResponse(responseCode = "200", description = "Listed stocks streamed")
+    @ApiResponse(responseCode = "400", description = "Unsupported format")
+    @ApiResponse(responseCode = "404", description = "Stock exchange not found")
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping("/{id}/export")
+    public ResponseEntity<StreamingResponseBody> exportListedStocks(
+            @PathVariable @Positive Long id,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        ExportFormat exportFormat = ExportFormat.of(format);
+        boolean gzip = ExportFormat.acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = stockExportService.exportListedStocks(id, exportFormat, gzip);
+
+        return ResponseEntity.ok().headers(exportFormat.headers("stock-exchange-" + id + "-stocks", gzip)).body(body);
+    }
+
+    @Operation(summary = "Get top movers of a Stock Exchange",
+            description = "Retrieves the top k gainers or losers since the session open, served from memory")
+    @ApiResponse(responseCode = "200", description = "Top movers retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Direction is neither gainers nor losers")
+    @ApiResponse(responseCode = "404", description = "Stock exchange not found")
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping("/{id}/movers")
+    public ResponseEntity<ApiRespond> getTopMovers(
+            @PathVariable @Positive Long id,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int k,
+            @RequestParam(defaultValue = "gainers") String direction) {
+
+        List<StockMoverDto> movers = marketMoversService.getTopMovers(id, k, MoversDirection.of(direction));
+
+        return ResponseEntity.ok(new ApiRespond(
+                HttpStatus.OK,
+                "Top movers retrieved successfully",
+                movers
+        ));
     }
 
     @Operation(summary = "Create a new stock exchange", description = "Creates a new stock exchange in the system")
@@ -0,0 +1,42 @@
+package com.example.stockexchange.dto;
+
+import com.example.stockexchange.engine.ExecutionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderExecutionDto {
+
+    private Long orderId;
+
+    private Long stockExchangeId;
+
+    private Long stockId;
+
+    private ExecutionStatus status;
+
+    private Long filledQuantity;
+
+    private Long remainingQuantity;
+
+    // null when nothing was filled
+    private BigDecimal averagePrice;
+
+    private List<FillDto> fills;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class FillDto {
+
+        private BigDecimal price;
+
+        private Long quantity;
+    }
+}
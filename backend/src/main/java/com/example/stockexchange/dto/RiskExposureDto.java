@@ -0,0 +1,47 @@
+package com.example.stockexchange.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RiskExposureDto {
+
+    private Long userId;
+
+    private BigDecimal maxOrderNotional;
+
+    private Integer maxOpenOrders;
+
+    private Long maxPosition;
+
+    private Integer openOrders;
+
+    // share of maxOpenOrders in use, 1.0 is at the limit
+    private Double openOrdersUtilization;
+
+    private List<PositionDto> positions;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class PositionDto {
+
+        private Long stockId;
+
+        // shares bought minus shares sold
+        private Long position;
+
+        private Long openBuy;
+
+        private Long openSell;
+
+        // worst case share of maxPosition in use, counting every open order as filled
+        private Double utilization;
+    }
+}
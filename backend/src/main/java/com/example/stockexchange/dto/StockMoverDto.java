@@ -0,0 +1,24 @@
+package com.example.stockexchange.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockMoverDto {
+
+    private Long stockId;
+
+    private String name;
+
+    private BigDecimal openPrice;
+
+    private BigDecimal currentPrice;
+
+    // percentage change since the session open, e.g. 2.5 for +2.5%
+    private BigDecimal changePercent;
+}
@@ -0,0 +1,20 @@
+package com.example.stockexchange.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockSearchHitDto {
+
+    private Long stockId;
+
+    private String name;
+
+    private String description;
+
+    // relevance, higher is better; only meaningful within one result list
+    private int score;
+}
@@ -0,0 +1,6 @@
+package com.example.stockexchange.engine;
+
+// price in ticks, quantity is the new open quantity
+public record AmendOrder(long orderId, long stockExchangeId, long stockId, long ownerId,
+                         long price, long quantity) implements OrderCommand {
+}
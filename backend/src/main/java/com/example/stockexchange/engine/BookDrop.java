@@ -0,0 +1,25 @@
+package com.example.stockexchange.engine;
+
+import com.example.stockexchange.entity.StockListingId;
+
+// removes books from the engine when listings disappear; 0 matches any exchange / any stock.
+// goes through the sequencer like an order command so a replay drops books at the same point
+public record BookDrop(long stockExchangeId, long stockId) {
+
+    public static BookDrop listing(long stockExchangeId, long stockId) {
+        return new BookDrop(stockExchangeId, stockId);
+    }
+
+    public static BookDrop stock(long stockId) {
+        return new BookDrop(0, stockId);
+    }
+
+    public static BookDrop exchange(long stockExchangeId) {
+        return new BookDrop(stockExchangeId, 0);
+    }
+
+    boolean covers(StockListingId listingId) {
+        return (stockExchangeId == 0 || stockExchangeId == listingId.getStockExchangeId())
+                && (stockId == 0 || stockId == listingId.getStockId());
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.stockexchange.engine;
+
+import com.example.stockexchange.entity.StockListingId;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// the books of one engine partition (or of a journal replay), keyed by listing. applying a command
+// here is the single definition of what a command does to the books, shared by live matching and replay.
+// not thread safe, owned by one thread
+final class BookSet {
+
+    private static final MatchListener IGNORE = new MatchListener() {
+        @Override
+        public void onTrade(long takerOrderId, long makerOrderId, long makerOwnerId, Side takerSide, long price, long quantity) {
+        }
+
+        @Override
+        public void onRested(long orderId, long price, long remainingQuantity) {
+        }
+
+        @Override
+        public void onCancelled(long orderId, long remainingQuantity) {
+        }
+
+        @Override
+        public void onRejected(long orderId, RejectReason reason) {
+        }
+    };
+
+    private final int orderCapacity;
+    private final int levelCapacity;
+    final Map<StockListingId, OrderBook> books = new HashMap<>();
+
+    BookSet(int orderCapacity, int levelCapacity) {
+        this.orderCapacity = orderCapacity;
+        this.levelCapacity = levelCapacity;
+    }
+
+    // null when the command reached its book, otherwise why it did not
+    RejectReason apply(OrderCommand command, MatchListener listener) {
+        StockListingId listingId = new StockListingId(command.stockExchangeId(), command.stockId());
+
+        if (command instanceof NewOrder order) {
+            OrderBook book = books.computeIfAbsent(listingId, id -> new OrderBook(orderCapacity, levelCapacity));
+            book.submit(order.orderId(), order.ownerId(), order.side(), order.type(), order.price(), order.quantity(),
+                    listener);
+            return null;
+        }
+
+        OrderBook book = books.get(listingId);
+        long ownerId = book == null ? 0 : book.ownerOf(command.orderId());
+        if (ownerId == 0) {
+            return RejectReason.UNKNOWN_ORDER;
+        }
+        if (ownerId != command.ownerId()) {
+            return RejectReason.NOT_ORDER_OWNER;
+        }
+        if (command instanceof AmendOrder amend) {
+            book.amend(amend.orderId(), amend.price(), amend.quantity(), listener);
+        } else {
+            book.cancel(command.orderId(), listener);
+        }
+        return null;
+    }
+
+    void drop(BookDrop drop) {
+        if (drop.stockExchangeId() != 0 && drop.stockId() != 0) {
+            books.remove(new StockListingId(drop.stockExchangeId(), drop.stockId()));
+        } else {
+            books.keySet().removeIf(drop::covers);
+        }
+    }
+
+    List<BookSnapshot> snapshot() {
+        List<BookSnapshot> snapshots = new ArrayList<>(books.size());
+        books.forEach((listingId, book) -> {
+            long[] orders = new long[book.orderCount() * BookSnapshot.ORDER_FIELDS];
+            int[] next = {0};
+            book.forEachOrder((orderId, ownerId, side, price, remaining) -> {
+                int at = next[0];
+                orders[at] = orderId;
+                orders[at + 1] = ownerId;
+                orders[at + 2] = side.ordinal();
+                orders[at + 3] = price;
+                orders[at + 4] = remaining;
+                next[0] = at + BookSnapshot.ORDER_FIELDS;
+            });
+            snapshots.add(new BookSnapshot(listingId.getStockExchangeId(), listingId.getStockId(),
+                    book.lastTradePrice(), orders));
+        });
+        return snapshots;
+    }
+
+    // resubmitting the resting orders in priority order rebuilds the same levels and queues, they cannot cross
+    void restore(BookSnapshot snapshot) {
+        OrderBook book = new OrderBook(Math.max(orderCapacity, snapshot.orderCount()), levelCapacity);
+        long[] orders = snapshot.orders();
+        for (int at = 0; at < orders.length; at += BookSnapshot.ORDER_FIELDS) {
+            book.submit(orders[at], orders[at + 1], Side.values()[(int) orders[at + 2]], OrderType.LIMIT,
+                    orders[at + 3], orders[at + 4], IGNORE);
+        }
+        book.restoreLastTradePrice(snapshot.lastTradePrice());
+        books.put(new StockListingId(snapshot.stockExchangeId(), snapshot.stockId()), book);
+    }
+
+    int size() {
+        return books.size();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.stockexchange.engine;
+
+import java.util.Arrays;
+
+// price levels of one side, sorted so the best level is the last element: taking the best level
+// is O(1) and new levels, which mostly arrive near the top of the book, shift only a few entries
+final class BookSide {
+
+    private final Side side;
+    private PriceLevel[] levels;
+    private int size;
+
+    BookSide(Side side, int initialLevels) {
+        this.side = side;
+        this.levels = new PriceLevel[Math.max(initialLevels, 4)];
+    }
+
+    PriceLevel best() {
+        return size == 0 ? null : levels[size - 1];
+    }
+
+    int size() {
+        return size;
+    }
+
+    // i-th level counted from the best one
+    PriceLevel levelFromBest(int depth) {
+        return depth < size ? levels[size - 1 - depth] : null;
+    }
+
+    // whether an incoming order on the other side at this limit price trades against the best level
+    boolean crosses(long limitPrice) {
+        PriceLevel best = best();
+        if (best == null) {
+            return false;
+        }
+        return side == Side.SELL ? best.price <= limitPrice : best.price >= limitPrice;
+    }
+
+    PriceLevel find(long price) {
+        int index = indexOf(price);
+        return index >= 0 ? levels[index] : null;
+    }
+
+    PriceLevel findOrInsert(long price, PriceLevel fresh) {
+        int index = indexOf(price);
+        if (index >= 0) {
+            return levels[index];
+        }
+        int insertAt = -index - 1;
+        if (size == levels.length) {
+            levels = Arrays.copyOf(levels, size * 2);
+        }
+        System.arraycopy(levels, insertAt, levels, insertAt + 1, size - insertAt);
+        fresh.price = price;
+        levels[insertAt] = fresh;
+        size++;
+        return fresh;
+    }
+
+    void remove(PriceLevel level) {
+        int index = size > 0 && levels[size - 1] == level ? size - 1 : indexOf(level.price);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(levels, index + 1, levels, index, size - index - 1);
+        levels[--size] = null;
+    }
+
+    // binary search over the sort key: bids ascend by price, asks descend, so the best is always last
+    private int indexOf(long price) {
+        long key = key(price);
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleKey = key(levels[middle].price);
+            if (middleKey < key) {
+                low = middle + 1;
+            } else if (middleKey > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private long key(long price) {
+        return side == Side.BUY ? price : -price;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.stockexchange.engine;
+
+// resting orders of one book in time priority, packed as ORDER_FIELDS longs per order:
+// orderId, ownerId, side ordinal, price, remaining quantity
+public record BookSnapshot(long stockExchangeId, long stockId, long lastTradePrice, long[] orders) {
+
+    public static final int ORDER_FIELDS = 5;
+
+    public int orderCount() {
+        return orders.length / ORDER_FIELDS;
+    }
+}
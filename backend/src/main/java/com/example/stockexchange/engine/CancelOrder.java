@@ -0,0 +1,4 @@
+package com.example.stockexchange.engine;
+
+public record CancelOrder(long orderId, long stockExchangeId, long stockId, long ownerId) implements OrderCommand {
+}
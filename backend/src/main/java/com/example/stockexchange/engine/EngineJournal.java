@@ -0,0 +1,482 @@
+package com.example.stockexchange.engine;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Event sourced journal of the matching stage: every sequenced command and book drop, every execution
+// report, and periodic snapshots of the books. Producers (the sequencer and the partition threads) only
+// enqueue, a single writer thread encodes records (JournalCodec) into segment files and forces them to disk
+// every fsync-interval. Journaling is asynchronous: the sequencer answers a command without waiting for its
+// record, so a process crash loses whatever was still in the queue or the write buffer (acknowledged commands
+// included) and a machine crash additionally loses up to one fsync-interval of written records.
+// After a snapshot at sequence N the journal rolls to a segment starting at N + 1,
+// which is what lets old segments and snapshots be deleted.
+// A command the matching engine fails on after it was journaled gets a skip record, so replay leaves it out.
+// recover() rebuilds the engine from the newest readable snapshot plus the segments after it.
+@Slf4j
+@Component
+public class EngineJournal {
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final int WRITE_BUFFER = 1 << 20;
+    private static final int WRITE_BATCH = 4096;
+    private static final Object STOP = new Object();
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long segmentSize;
+    private final long fsyncIntervalNanos;
+    private final int retainedSnapshots;
+    private final BlockingQueue<Object> queue;
+    private final SequencedCommand[] ring;
+
+    private volatile long lastSequence;
+    private volatile boolean running;
+    private volatile boolean failed;
+    private Thread writer;
+
+    // writer thread state
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER);
+    private final CRC32C crc = new CRC32C();
+    private LastTrades lastTrades = new LastTrades();
+    private FileChannel segment;
+    private long segmentBytes;
+    private long unforcedSince;
+    private boolean dirty;
+
+    public EngineJournal(@Value("${app.journal.enabled:false}") boolean enabled,
+                         @Value("${app.journal.dir:./data/journal}") String directory,
+                         @Value("${app.journal.segment-size:256MB}") DataSize segmentSize,
+                         @Value("${app.journal.fsync-interval:50ms}") Duration fsyncInterval,
+                         @Value("${app.journal.queue-capacity:262144}") int queueCapacity,
+                         @Value("${app.journal.retained-snapshots:2}") int retainedSnapshots,
+                         @Value("${app.engine.journal-ring-size:8192}") int ringSize) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSize.toBytes();
+        this.fsyncIntervalNanos = fsyncInterval.toNanos();
+        this.retainedSnapshots = Math.max(1, retainedSnapshots);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.ring = new SequencedCommand[ringSize];
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // a journal that can no longer write must stop the engine from accepting commands it cannot recover
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    // up to limit most recent commands, oldest first
+    public List<SequencedCommand> recent(int limit) {
+        long last = lastSequence;
+        long first = Math.max(1, last - Math.min(limit, ring.length) + 1);
+        List<SequencedCommand> commands = new ArrayList<>();
+        for (long sequence = first; sequence <= last; sequence++) {
+            SequencedCommand command = ring[(int) (sequence % ring.length)];
+            if (command != null && command.sequence() == sequence) {
+                commands.add(command);
+            }
+        }
+        return commands;
+    }
+
+    // rebuilds books, last trades and the sequence from disk; an empty recovery when the journal is disabled
+    public JournalRecovery recover(int orderCapacity, int levelCapacity) {
+        return recover(new BookSet(orderCapacity, levelCapacity));
+    }
+
+    JournalRecovery recover(BookSet books) {
+        long started = System.nanoTime();
+        if (!enabled) {
+            return new JournalReplayer(books, null, Set.of()).result(0);
+        }
+        try {
+            Files.createDirectories(directory);
+            EngineSnapshot snapshot = null;
+            for (Path file : files(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX, true)) {
+                try {
+                    snapshot = SnapshotFile.read(file);
+                    break;
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Skipping unreadable journal snapshot {}: {}", file.getFileName(), e.getMessage());
+                }
+            }
+            long snapshotSequence = snapshot == null ? 0 : snapshot.sequence();
+
+            List<Path> segments = files(SEGMENT_PREFIX, SEGMENT_SUFFIX, false);
+            List<Path> replayed = new ArrayList<>();
+            for (int i = 0; i < segments.size(); i++) {
+                // a segment followed by one starting at or before snapshot + 1 holds nothing newer than the snapshot
+                if (i == segments.size() - 1
+                        || sequenceOf(segments.get(i + 1), SEGMENT_PREFIX, SEGMENT_SUFFIX) > snapshotSequence + 1) {
+                    replayed.add(segments.get(i));
+                }
+            }
+            // a skip record is written after the command it voids, possibly in a later segment
+            Set<Long> skipped = new HashSet<>();
+            for (Path segment : replayed) {
+                readSkips(segment, skipped);
+            }
+            JournalReplayer replayer = new JournalReplayer(books, snapshot, skipped);
+            for (int i = 0; i < replayed.size(); i++) {
+                replaySegment(replayed.get(i), replayer, i == replayed.size() - 1);
+            }
+
+            JournalRecovery recovery = replayer.result(System.nanoTime() - started);
+            if (recovery.gaps() > 0) {
+                log.error("Journal replay found {} missing sequence numbers, some commands were lost", recovery.gaps());
+            }
+            log.info("Journal replayed {} records after snapshot {} in {} ms: {} books, sequence {}",
+                    recovery.replayedRecords(), recovery.snapshotSequence(), recovery.elapsedMillis(),
+                    recovery.bookCount(), recovery.sequence());
+            return recovery;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not recover the engine journal from " + directory, e);
+        }
+    }
+
+    // starts writing after the recovered state; the sequencer calls this before it sequences anything,
+    // tools writing a journal of their own call it with an empty recovery
+    public void start(JournalRecovery recovery) {
+        if (!enabled || running) {
+            return;
+        }
+        lastSequence = recovery.sequence();
+        lastTrades = recovery.lastTrades();
+        try {
+            openSegment(recovery.sequence() + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the engine journal in " + directory, e);
+        }
+        running = true;
+        writer = new Thread(this::run, "engine-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // drains everything queued so far to disk and closes the segment
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        enqueue(STOP);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void append(SequencedCommand command) {
+        ring[(int) (command.sequence() % ring.length)] = command;
+        lastSequence = command.sequence();
+        if (running) {
+            enqueue(command);
+        }
+    }
+
+    void appendDrop(long sequence, long timestampMillis, BookDrop drop) {
+        lastSequence = sequence;
+        if (running) {
+            enqueue(new DropEntry(sequence, timestampMillis, drop));
+        }
+    }
+
+    void appendExecution(long sequence, long timestampMillis, OrderCommand command, ExecutionReport report) {
+        if (running) {
+            enqueue(new ExecutionEntry(sequence, timestampMillis, command, report));
+        }
+    }
+
+    // the engine failed on the command journaled at sequence, replay must not apply it either
+    void appendSkip(long sequence) {
+        if (running) {
+            enqueue(new SkipEntry(sequence));
+        }
+    }
+
+    // the books and positions must reflect exactly the commands up to sequence, and every execution of those
+    // commands must already be queued, so the writer's last trades match the books when it reaches this entry
+    void snapshot(long sequence, long lastOrderId, List<BookSnapshot> books, Positions positions) {
+        if (running) {
+            enqueue(new SnapshotEntry(sequence, lastOrderId, books, positions));
+        }
+    }
+
+    // blocks when the disk falls behind, which slows the engine down instead of losing records
+    private void enqueue(Object entry) {
+        try {
+            queue.put(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while journaling", e);
+        }
+    }
+
+    private void run() {
+        List<Object> batch = new ArrayList<>(WRITE_BATCH);
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                Object first = queue.poll(Math.max(fsyncIntervalNanos, TimeUnit.MILLISECONDS.toNanos(1)), TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, WRITE_BATCH - 1);
+                }
+                for (Object entry : batch) {
+                    if (entry == STOP) {
+                        stopping = true;
+                    } else if (!failed) {
+                        write(entry);
+                    }
+                }
+                if (!failed) {
+                    flushBuffer();
+                    if (stopping || System.nanoTime() - unforcedSince >= fsyncIntervalNanos) {
+                        force();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                // from here on nothing is written, the sequencer rejects new commands (see isFailed)
+                failed = true;
+                log.error("Engine journal write failed, the engine stops accepting commands", e);
+            } finally {
+                batch.clear();
+            }
+        }
+        closeSegment();
+    }
+
+    private void write(Object entry) throws IOException {
+        if (entry instanceof SequencedCommand command) {
+            rollIfFull(command.sequence());
+            ensureRoom(JournalCodec.commandLength(command.command()));
+            JournalCodec.encodeCommand(buffer, crc, command.sequence(), command.timestampMillis(), command.command());
+        } else if (entry instanceof DropEntry drop) {
+            rollIfFull(drop.sequence());
+            ensureRoom(JournalCodec.dropLength());
+            JournalCodec.encodeDrop(buffer, crc, drop.sequence(), drop.timestampMillis(), drop.drop());
+        } else if (entry instanceof ExecutionEntry execution) {
+            List<ExecutionReport.Fill> fills = execution.report().fills();
+            if (!fills.isEmpty()) {
+                lastTrades.record(execution.command().stockId(), execution.sequence(), fills.get(fills.size() - 1).price(),
+                        execution.timestampMillis());
+            }
+            writeExecution(execution);
+        } else if (entry instanceof SkipEntry skip) {
+            ensureRoom(JournalCodec.skipLength());
+            JournalCodec.encodeSkip(buffer, crc, skip.sequence());
+        } else if (entry instanceof SnapshotEntry snapshot) {
+            writeSnapshot(snapshot);
+        }
+    }
+
+    private void writeExecution(ExecutionEntry execution) throws IOException {
+        int length = JournalCodec.executionLength(execution.report());
+        if (length <= buffer.capacity()) {
+            ensureRoom(length);
+            JournalCodec.encodeExecution(buffer, crc, execution.sequence(), execution.command(), execution.report());
+            return;
+        }
+        // a market order that swept a very deep book, written on its own
+        flushBuffer();
+        ByteBuffer large = ByteBuffer.allocate(length);
+        JournalCodec.encodeExecution(large, crc, execution.sequence(), execution.command(), execution.report());
+        large.flip();
+        writeFully(large);
+    }
+
+    private void writeSnapshot(SnapshotEntry entry) throws IOException {
+        flushBuffer();
+        force();
+        openSegment(entry.sequence() + 1);
+        long started = System.nanoTime();
+        SnapshotFile.write(directory.resolve(fileName(SNAPSHOT_PREFIX, entry.sequence(), SNAPSHOT_SUFFIX)),
+                new EngineSnapshot(entry.sequence(), entry.lastOrderId(), lastTrades.copy(), entry.positions(),
+                        entry.books()));
+        log.info("Engine snapshot at sequence {} written in {} ms ({} books)", entry.sequence(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), entry.books().size());
+        prune();
+    }
+
+    // keeps the newest retained snapshots and every segment a replay from the oldest of them still needs
+    private void prune() throws IOException {
+        List<Path> snapshots = files(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX, true);
+        if (snapshots.size() < retainedSnapshots) {
+            return;
+        }
+        for (Path stale : snapshots.subList(retainedSnapshots, snapshots.size())) {
+            Files.deleteIfExists(stale);
+        }
+        long oldestKept = sequenceOf(snapshots.get(retainedSnapshots - 1), SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        List<Path> segments = files(SEGMENT_PREFIX, SEGMENT_SUFFIX, false);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (sequenceOf(segments.get(i + 1), SEGMENT_PREFIX, SEGMENT_SUFFIX) <= oldestKept + 1) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    private void rollIfFull(long nextSequence) throws IOException {
+        if (segmentBytes + buffer.position() >= segmentSize) {
+            flushBuffer();
+            force();
+            openSegment(nextSequence);
+        }
+    }
+
+    private void ensureRoom(int length) throws IOException {
+        if (buffer.remaining() < length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer data) throws IOException {
+        if (!dirty) {
+            unforcedSince = System.nanoTime();
+            dirty = true;
+        }
+        while (data.hasRemaining()) {
+            segmentBytes += segment.write(data);
+        }
+    }
+
+    private void force() throws IOException {
+        if (dirty) {
+            segment.force(false);
+            dirty = false;
+        }
+    }
+
+    // appends when the segment already exists: recovery cut any torn tail off the last one
+    private void openSegment(long firstSequence) throws IOException {
+        closeSegment();
+        segment = FileChannel.open(directory.resolve(fileName(SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentBytes = segment.size();
+    }
+
+    private void closeSegment() {
+        if (segment == null) {
+            return;
+        }
+        try {
+            flushBuffer();
+            force();
+            segment.close();
+        } catch (IOException e) {
+            log.error("Could not close engine journal segment", e);
+        }
+        segment = null;
+    }
+
+    private void readSkips(Path file, Set<Long> skipped) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > 0) {
+                JournalCodec.readSkips(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), new CRC32C(), skipped);
+            }
+        }
+    }
+
+    private void replaySegment(Path file, JournalReplayer replayer, boolean last) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size == 0) {
+                return;
+            }
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int valid = JournalCodec.read(mapped, new CRC32C(), replayer);
+            if (valid == size) {
+                return;
+            }
+            if (last) {
+                // a torn write from the crash that ended the previous run
+                log.warn("Truncating torn tail of journal segment {} at byte {} of {}", file.getFileName(), valid, size);
+                channel.truncate(valid);
+            } else {
+                log.error("Journal segment {} is corrupt after byte {} of {}, the rest of it is skipped",
+                        file.getFileName(), valid, size);
+            }
+        }
+    }
+
+    private List<Path> files(String prefix, String suffix, boolean newestFirst) throws IOException {
+        Comparator<Path> bySequence = Comparator.comparingLong(file -> sequenceOf(file, prefix, suffix));
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(prefix) && name.endsWith(suffix);
+                    })
+                    .sorted(newestFirst ? bySequence.reversed() : bySequence)
+                    .toList();
+        }
+    }
+
+    private static long sequenceOf(Path file, String prefix, String suffix) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    private static String fileName(String prefix, long sequence, String suffix) {
+        return String.format("%s%020d%s", prefix, sequence, suffix);
+    }
+
+    private record DropEntry(long sequence, long timestampMillis, BookDrop drop) {
+    }
+
+    private record ExecutionEntry(long sequence, long timestampMillis, OrderCommand command, ExecutionReport report) {
+    }
+
+    private record SkipEntry(long sequence) {
+    }
+
+    private record SnapshotEntry(long sequence, long lastOrderId, List<BookSnapshot> books, Positions positions) {
+    }
+}
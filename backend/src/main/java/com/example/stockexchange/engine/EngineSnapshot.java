@@ -0,0 +1,9 @@
+package com.example.stockexchange.engine;
+
+import java.util.List;
+
+// the engine state after the command with this sequence: every book, the last trade per stock and the
+// positions of the pre-trade checks
+record EngineSnapshot(long sequence, long lastOrderId, LastTrades lastTrades, Positions positions,
+                      List<BookSnapshot> books) {
+}
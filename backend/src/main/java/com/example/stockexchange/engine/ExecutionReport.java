@@ -0,0 +1,15 @@
+package com.example.stockexchange.engine;
+
+import java.util.List;
+
+// outcome of one command; fills are the trades the command took part in as the taker, in order
+public record ExecutionReport(long orderId, ExecutionStatus status, long filledQuantity, long remainingQuantity,
+                              List<Fill> fills, RejectReason rejectReason) {
+
+    public static ExecutionReport rejected(long orderId, RejectReason reason) {
+        return new ExecutionReport(orderId, ExecutionStatus.REJECTED, 0, 0, List.of(), reason);
+    }
+
+    public record Fill(long makerOrderId, long price, long quantity) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.stockexchange.engine;
+
+public enum ExecutionStatus {
+    // resting on the book without any fill
+    ACCEPTED,
+    // resting on the book after some fills
+    PARTIALLY_FILLED,
+    FILLED,
+    // cancelled on request, or the unfilled rest of a market order
+    CANCELLED,
+    REJECTED
+}
@@ -0,0 +1,220 @@
+package com.example.stockexchange.engine;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32C;
+
+// Record layout of the engine journal. A segment is a run of records
+//   int bodyLength, int crc32c(body), body
+// and every body starts with a kind byte and the sequence of the command it belongs to:
+//   NEW_ORDER  1  seq, timestamp, orderId, exchangeId, stockId, ownerId, byte side, byte type, price, quantity
+//   CANCEL     2  seq, timestamp, orderId, exchangeId, stockId, ownerId
+//   AMEND      3  seq, timestamp, orderId, exchangeId, stockId, ownerId, price, quantity
+//   DROP       4  seq, timestamp, exchangeId, stockId
+//   EXECUTION  5  seq, orderId, exchangeId, stockId, byte status, byte rejectReason (ordinal + 1, 0 = none),
+//                 filled, remaining, int fillCount, fillCount * (makerOrderId, price, quantity)
+//   SKIP       6  seq  (the engine failed on the command, replay leaves it out)
+// A record that is cut short or fails its checksum ends the readable part of a segment (a torn write).
+final class JournalCodec {
+
+    static final int HEADER = 2 * Integer.BYTES;
+
+    static final byte NEW_ORDER = 1;
+    static final byte CANCEL = 2;
+    static final byte AMEND = 3;
+    static final byte DROP = 4;
+    static final byte EXECUTION = 5;
+    static final byte SKIP = 6;
+
+    private static final int NEW_ORDER_BODY = 1 + 6 * Long.BYTES + 2 + 2 * Long.BYTES;
+    private static final int CANCEL_BODY = 1 + 6 * Long.BYTES;
+    private static final int AMEND_BODY = 1 + 8 * Long.BYTES;
+    private static final int DROP_BODY = 1 + 4 * Long.BYTES;
+    private static final int EXECUTION_BODY = 1 + 4 * Long.BYTES + 2 + 2 * Long.BYTES + Integer.BYTES;
+    private static final int SKIP_BODY = 1 + Long.BYTES;
+    private static final int FILL = 3 * Long.BYTES;
+
+    private static final Side[] SIDES = Side.values();
+    private static final OrderType[] TYPES = OrderType.values();
+    private static final ExecutionStatus[] STATUSES = ExecutionStatus.values();
+    private static final RejectReason[] REJECT_REASONS = RejectReason.values();
+
+    private JournalCodec() {
+    }
+
+    static int commandLength(OrderCommand command) {
+        if (command instanceof NewOrder) {
+            return HEADER + NEW_ORDER_BODY;
+        }
+        return HEADER + (command instanceof AmendOrder ? AMEND_BODY : CANCEL_BODY);
+    }
+
+    static int dropLength() {
+        return HEADER + DROP_BODY;
+    }
+
+    static int skipLength() {
+        return HEADER + SKIP_BODY;
+    }
+
+    static int executionLength(ExecutionReport report) {
+        return HEADER + EXECUTION_BODY + report.fills().size() * FILL;
+    }
+
+    static void encodeCommand(ByteBuffer out, CRC32C crc, long sequence, long timestampMillis, OrderCommand command) {
+        int start = begin(out);
+        byte kind = command instanceof NewOrder ? NEW_ORDER : command instanceof AmendOrder ? AMEND : CANCEL;
+        out.put(kind).putLong(sequence).putLong(timestampMillis)
+                .putLong(command.orderId()).putLong(command.stockExchangeId()).putLong(command.stockId()).putLong(command.ownerId());
+        if (command instanceof NewOrder order) {
+            out.put((byte) order.side().ordinal()).put((byte) order.type().ordinal())
+                    .putLong(order.price()).putLong(order.quantity());
+        } else if (command instanceof AmendOrder amend) {
+            out.putLong(amend.price()).putLong(amend.quantity());
+        }
+        end(out, crc, start);
+    }
+
+    static void encodeDrop(ByteBuffer out, CRC32C crc, long sequence, long timestampMillis, BookDrop drop) {
+        int start = begin(out);
+        out.put(DROP).putLong(sequence).putLong(timestampMillis).putLong(drop.stockExchangeId()).putLong(drop.stockId());
+        end(out, crc, start);
+    }
+
+    static void encodeExecution(ByteBuffer out, CRC32C crc, long sequence, OrderCommand command, ExecutionReport report) {
+        int start = begin(out);
+        out.put(EXECUTION).putLong(sequence).putLong(report.orderId())
+                .putLong(command.stockExchangeId()).putLong(command.stockId())
+                .put((byte) report.status().ordinal())
+                .put(report.rejectReason() == null ? 0 : (byte) (report.rejectReason().ordinal() + 1))
+                .putLong(report.filledQuantity()).putLong(report.remainingQuantity())
+                .putInt(report.fills().size());
+        for (ExecutionReport.Fill fill : report.fills()) {
+            out.putLong(fill.makerOrderId()).putLong(fill.price()).putLong(fill.quantity());
+        }
+        end(out, crc, start);
+    }
+
+    static void encodeSkip(ByteBuffer out, CRC32C crc, long sequence) {
+        int start = begin(out);
+        out.put(SKIP).putLong(sequence);
+        end(out, crc, start);
+    }
+
+    // visits every intact record from the buffer's position and returns the offset after the last one
+    static int read(ByteBuffer in, CRC32C crc, JournalVisitor visitor) {
+        int at = in.position();
+        int limit = in.limit();
+        while (limit - at >= HEADER) {
+            int length = in.getInt(at);
+            if (length <= 0 || length > limit - at - HEADER) {
+                break;
+            }
+            int body = at + HEADER;
+            crc.reset();
+            crc.update(in.duplicate().position(body).limit(body + length));
+            if ((int) crc.getValue() != in.getInt(at + Integer.BYTES) || !visit(in, body, length, visitor)) {
+                break;
+            }
+            at = body + length;
+        }
+        return at;
+    }
+
+    // the sequences of every intact skip record from the buffer's position. only skip records are checksummed,
+    // so a recovery can learn them in a cheap pass before it replays the commands they void
+    static void readSkips(ByteBuffer in, CRC32C crc, Set<Long> skipped) {
+        int at = in.position();
+        int limit = in.limit();
+        while (limit - at >= HEADER) {
+            int length = in.getInt(at);
+            if (length <= 0 || length > limit - at - HEADER) {
+                break;
+            }
+            int body = at + HEADER;
+            if (length == SKIP_BODY && in.get(body) == SKIP) {
+                crc.reset();
+                crc.update(in.duplicate().position(body).limit(body + length));
+                if ((int) crc.getValue() == in.getInt(at + Integer.BYTES)) {
+                    skipped.add(in.getLong(body + 1));
+                }
+            }
+            at = body + length;
+        }
+    }
+
+    private static boolean visit(ByteBuffer in, int body, int length, JournalVisitor visitor) {
+        byte kind = in.get(body);
+        long sequence = in.getLong(body + 1);
+        switch (kind) {
+            case NEW_ORDER -> {
+                if (length != NEW_ORDER_BODY) {
+                    return false;
+                }
+                visitor.onCommand(sequence, in.getLong(body + 9), new NewOrder(
+                        in.getLong(body + 17), in.getLong(body + 25), in.getLong(body + 33), in.getLong(body + 41),
+                        SIDES[in.get(body + 49)], TYPES[in.get(body + 50)], in.getLong(body + 51), in.getLong(body + 59)));
+            }
+            case CANCEL -> {
+                if (length != CANCEL_BODY) {
+                    return false;
+                }
+                visitor.onCommand(sequence, in.getLong(body + 9), new CancelOrder(
+                        in.getLong(body + 17), in.getLong(body + 25), in.getLong(body + 33), in.getLong(body + 41)));
+            }
+            case AMEND -> {
+                if (length != AMEND_BODY) {
+                    return false;
+                }
+                visitor.onCommand(sequence, in.getLong(body + 9), new AmendOrder(
+                        in.getLong(body + 17), in.getLong(body + 25), in.getLong(body + 33), in.getLong(body + 41),
+                        in.getLong(body + 49), in.getLong(body + 57)));
+            }
+            case DROP -> {
+                if (length != DROP_BODY) {
+                    return false;
+                }
+                visitor.onDrop(sequence, in.getLong(body + 9), new BookDrop(in.getLong(body + 17), in.getLong(body + 25)));
+            }
+            case EXECUTION -> {
+                int fillCount = in.getInt(body + EXECUTION_BODY - Integer.BYTES);
+                if (fillCount < 0 || length != EXECUTION_BODY + fillCount * FILL) {
+                    return false;
+                }
+                List<ExecutionReport.Fill> fills = new ArrayList<>(fillCount);
+                for (int i = 0, at = body + EXECUTION_BODY; i < fillCount; i++, at += FILL) {
+                    fills.add(new ExecutionReport.Fill(in.getLong(at), in.getLong(at + 8), in.getLong(at + 16)));
+                }
+                byte rejectCode = in.get(body + 34);
+                visitor.onExecution(sequence, in.getLong(body + 17), in.getLong(body + 25), new ExecutionReport(
+                        in.getLong(body + 9), STATUSES[in.get(body + 33)], in.getLong(body + 35), in.getLong(body + 43),
+                        fills, rejectCode == 0 ? null : REJECT_REASONS[rejectCode - 1]));
+            }
+            case SKIP -> {
+                if (length != SKIP_BODY) {
+                    return false;
+                }
+                visitor.onSkip(sequence);
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int begin(ByteBuffer out) {
+        int start = out.position();
+        out.position(start + HEADER);
+        return start;
+    }
+
+    private static void end(ByteBuffer out, CRC32C crc, int start) {
+        int end = out.position();
+        crc.reset();
+        crc.update(out.duplicate().position(start + HEADER).limit(end));
+        out.putInt(start, end - start - HEADER).putInt(start + Integer.BYTES, (int) crc.getValue());
+    }
+}
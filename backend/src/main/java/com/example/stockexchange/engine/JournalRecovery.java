@@ -0,0 +1,78 @@
+package com.example.stockexchange.engine;
+
+import com.example.stockexchange.event.EngineRecoveredEvent;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// what a startup replay rebuilt: the books, the last trade per stock, the positions and where the sequence continues
+public final class JournalRecovery {
+
+    private final BookSet books;
+    private final LastTrades lastTrades;
+    private final Positions positions;
+    private final long snapshotSequence;
+    private final long sequence;
+    private final long lastOrderId;
+    private final long replayedRecords;
+    private final long gaps;
+    private final long elapsedNanos;
+
+    JournalRecovery(BookSet books, LastTrades lastTrades, Positions positions, long snapshotSequence, long sequence,
+                    long lastOrderId, long replayedRecords, long gaps, long elapsedNanos) {
+        this.books = books;
+        this.lastTrades = lastTrades;
+        this.positions = positions;
+        this.snapshotSequence = snapshotSequence;
+        this.sequence = sequence;
+        this.lastOrderId = lastOrderId;
+        this.replayedRecords = replayedRecords;
+        this.gaps = gaps;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    BookSet books() {
+        return books;
+    }
+
+    LastTrades lastTrades() {
+        return lastTrades;
+    }
+
+    Positions positions() {
+        return positions;
+    }
+
+    public long snapshotSequence() {
+        return snapshotSequence;
+    }
+
+    public long sequence() {
+        return sequence;
+    }
+
+    public long lastOrderId() {
+        return lastOrderId;
+    }
+
+    public long replayedRecords() {
+        return replayedRecords;
+    }
+
+    // sequence numbers missing from the journal, non zero means records were lost
+    public long gaps() {
+        return gaps;
+    }
+
+    public int bookCount() {
+        return books.size();
+    }
+
+    public Map<Long, EngineRecoveredEvent.LastTrade> lastTradePrices() {
+        return lastTrades.prices();
+    }
+
+    public long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.stockexchange.engine;
+
+import java.util.Set;
+
+// re-applies journaled commands on top of a snapshot on a single thread, straight into the books:
+// no partitions, no futures and no reports, which keeps replay in the millions of commands per second.
+// executions are not needed, a deterministic book produces them again, and with them the positions.
+// commands the engine failed on are known up front (a skip record follows them) and left out
+final class JournalReplayer implements JournalVisitor, MatchListener {
+
+    private final BookSet books;
+    private final LastTrades lastTrades;
+    private final Positions positions;
+    private final long snapshotSequence;
+    private final Set<Long> skipped;
+
+    private long sequence;
+    private long lastOrderId;
+    private long replayed;
+    private long gaps;
+    private long currentStockId;
+    private long currentOwnerId;
+    private long currentTimestampMillis;
+
+    JournalReplayer(BookSet books, EngineSnapshot snapshot, Set<Long> skipped) {
+        this.books = books;
+        this.skipped = skipped;
+        if (snapshot == null) {
+            this.lastTrades = new LastTrades();
+            this.positions = new Positions();
+            this.snapshotSequence = 0;
+        } else {
+            snapshot.books().forEach(books::restore);
+            this.lastTrades = snapshot.lastTrades();
+            this.positions = snapshot.positions();
+            this.snapshotSequence = snapshot.sequence();
+            this.sequence = snapshot.sequence();
+            this.lastOrderId = snapshot.lastOrderId();
+        }
+    }
+
+    @Override
+    public void onCommand(long sequence, long timestampMillis, OrderCommand command) {
+        if (advance(sequence)) {
+            if (!skipped.contains(sequence)) {
+                currentStockId = command.stockId();
+                currentOwnerId = command.ownerId();
+                currentTimestampMillis = timestampMillis;
+                books.apply(command, this);
+            }
+            // the id was handed out either way, so it is never given to another order
+            if (command instanceof NewOrder) {
+                lastOrderId = Math.max(lastOrderId, command.orderId());
+            }
+        }
+    }
+
+    @Override
+    public void onDrop(long sequence, long timestampMillis, BookDrop drop) {
+        if (advance(sequence)) {
+            books.drop(drop);
+        }
+    }
+
+    @Override
+    public void onExecution(long sequence, long stockExchangeId, long stockId, ExecutionReport report) {
+    }
+
+    // already collected before the replay started
+    @Override
+    public void onSkip(long sequence) {
+    }
+
+    @Override
+    public void onTrade(long takerOrderId, long makerOrderId, long makerOwnerId, Side takerSide, long price, long quantity) {
+        lastTrades.record(currentStockId, sequence, price, currentTimestampMillis);
+        long bought = takerSide == Side.BUY ? quantity : -quantity;
+        positions.add(currentOwnerId, currentStockId, bought);
+        positions.add(makerOwnerId, currentStockId, -bought);
+    }
+
+    @Override
+    public void onRested(long orderId, long price, long remainingQuantity) {
+    }
+
+    @Override
+    public void onCancelled(long orderId, long remainingQuantity) {
+    }
+
+    @Override
+    public void onRejected(long orderId, RejectReason reason) {
+    }
+
+    // records at or below the snapshot (or repeated ones) are already part of the state
+    private boolean advance(long next) {
+        if (next <= sequence) {
+            return false;
+        }
+        if (next != sequence + 1) {
+            gaps++;
+        }
+        sequence = next;
+        replayed++;
+        return true;
+    }
+
+    JournalRecovery result(long elapsedNanos) {
+        return new JournalRecovery(books, lastTrades, positions, snapshotSequence, sequence, lastOrderId, replayed, gaps,
+                elapsedNanos);
+    }
+}
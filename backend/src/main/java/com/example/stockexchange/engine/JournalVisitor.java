@@ -0,0 +1,13 @@
+package com.example.stockexchange.engine;
+
+// receives the records of a journal segment in file order
+interface JournalVisitor {
+
+    void onCommand(long sequence, long timestampMillis, OrderCommand command);
+
+    void onDrop(long sequence, long timestampMillis, BookDrop drop);
+
+    void onExecution(long sequence, long stockExchangeId, long stockId, ExecutionReport report);
+
+    void onSkip(long sequence);
+}
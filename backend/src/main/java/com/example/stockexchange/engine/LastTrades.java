@@ -0,0 +1,57 @@
+package com.example.stockexchange.engine;
+
+import com.example.stockexchange.event.EngineRecoveredEvent;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+
+// last trade price per stock across every exchange listing it. executions reach the journal out of
+// sequence order (partitions complete independently), so the trade with the highest sequence wins.
+// the trade time is the time its command was sequenced, the same on the live path and in replay
+final class LastTrades {
+
+    // stockId -> {sequence, price, tradedAtMillis}
+    private final Map<Long, long[]> trades = new HashMap<>();
+
+    void record(long stockId, long sequence, long price, long tradedAtMillis) {
+        long[] trade = trades.get(stockId);
+        if (trade == null) {
+            trades.put(stockId, new long[]{sequence, price, tradedAtMillis});
+        } else if (sequence >= trade[0]) {
+            trade[0] = sequence;
+            trade[1] = price;
+            trade[2] = tradedAtMillis;
+        }
+    }
+
+    void forEach(TradeConsumer consumer) {
+        trades.forEach((stockId, trade) -> consumer.accept(stockId, trade[0], trade[1], trade[2]));
+    }
+
+    int size() {
+        return trades.size();
+    }
+
+    // trade times in the zone the stock timestamps are written in, so they compare with manual updates
+    Map<Long, EngineRecoveredEvent.LastTrade> prices() {
+        Map<Long, EngineRecoveredEvent.LastTrade> prices = new HashMap<>(trades.size() * 2);
+        ZoneId zone = ZoneId.systemDefault();
+        trades.forEach((stockId, trade) -> prices.put(stockId, new EngineRecoveredEvent.LastTrade(
+                Prices.toPrice(trade[1]), LocalDateTime.ofInstant(Instant.ofEpochMilli(trade[2]), zone))));
+        return prices;
+    }
+
+    LastTrades copy() {
+        LastTrades copy = new LastTrades();
+        forEach(copy::record);
+        return copy;
+    }
+
+    @FunctionalInterface
+    interface TradeConsumer {
+        void accept(long stockId, long sequence, long price, long tradedAtMillis);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.stockexchange.engine;
+
+// callbacks of one OrderBook call, with primitives only so matching itself never allocates.
+// invoked on the book's writer thread, implementations must not block
+public interface MatchListener {
+
+    void onTrade(long takerOrderId, long makerOrderId, long makerOwnerId, Side takerSide, long price, long quantity);
+
+    // the order (or what is left of it) rests on the book
+    void onRested(long orderId, long price, long remainingQuantity);
+
+    // explicit cancel, or the unfilled rest of a market order
+    void onCancelled(long orderId, long remainingQuantity);
+
+    void onRejected(long orderId, RejectReason reason);
+}
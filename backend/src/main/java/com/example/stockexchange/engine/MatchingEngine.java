@@ -0,0 +1,225 @@
+package com.example.stockexchange.engine;
+
+import com.example.stockexchange.entity.StockListingId;
+import com.example.stockexchange.market.ListingRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Routes order commands to one OrderBook per listing. Listings are partitioned over a fixed set of
+// single-threaded executors by StockListingId, so every book has exactly one writer and needs no
+// locks, while different listings match in parallel.
+@Slf4j
+@Component
+public class MatchingEngine {
+
+    private final ListingRegistry listingRegistry;
+    private final ObjectProvider<TradeListener> tradeListeners;
+    private final Partition[] partitions;
+    private final int orderCapacity;
+    private final int levelCapacity;
+    private final AtomicLong orderIds = new AtomicLong();
+
+    public MatchingEngine(ListingRegistry listingRegistry,
+                          ObjectProvider<TradeListener> tradeListeners,
+                          @Value("${app.engine.partitions:4}") int partitionCount,
+                          @Value("${app.engine.order-capacity:1024}") int orderCapacity,
+                          @Value("${app.engine.level-capacity:128}") int levelCapacity) {
+        this.listingRegistry = listingRegistry;
+        this.tradeListeners = tradeListeners;
+        this.orderCapacity = orderCapacity;
+        this.levelCapacity = levelCapacity;
+        this.partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(i, orderCapacity, levelCapacity);
+        }
+        log.info("Matching engine started with {} partitions", partitionCount);
+    }
+
+    // trade listeners usually depend on beans that depend on the engine, so they are wired once the
+    // context is complete instead of through the constructor
+    @EventListener(ContextRefreshedEvent.class)
+    public void registerTradeListeners() {
+        List<TradeListener> listeners = tradeListeners.orderedStream().toList();
+        for (Partition partition : partitions) {
+            partition.call(() -> {
+                partition.collector.setTradeListeners(listeners);
+                return null;
+            });
+        }
+    }
+
+    // completes on the partition thread once the command has been applied to the book.
+    // new orders are only accepted for listed stocks on live exchanges
+    public CompletableFuture<ExecutionReport> submit(OrderCommand command) {
+        OrderCommand prepared = prepare(command);
+        RejectReason rejectReason = validate(prepared);
+        if (rejectReason != null) {
+            return CompletableFuture.completedFuture(ExecutionReport.rejected(prepared.orderId(), rejectReason));
+        }
+        return execute(prepared);
+    }
+
+    // gives a new order without an id the next engine-wide order id
+    public OrderCommand prepare(OrderCommand command) {
+        if (command instanceof NewOrder order && order.orderId() == 0) {
+            return order.withOrderId(orderIds.incrementAndGet());
+        }
+        return command;
+    }
+
+    // null when the command may go to the book
+    public RejectReason validate(OrderCommand command) {
+        if (command instanceof NewOrder && !listingRegistry.isTradable(command.stockExchangeId(), command.stockId())) {
+            return RejectReason.NOT_TRADABLE;
+        }
+        return null;
+    }
+
+    // applies an already prepared and validated command, in submission order per listing
+    public CompletableFuture<ExecutionReport> execute(OrderCommand command) {
+        return partitionOf(command.stockExchangeId(), command.stockId()).apply(command);
+    }
+
+    // runs a read (or a restore) against the book of one listing on its writer thread,
+    // the function receives null when the listing has no book yet
+    public <T> CompletableFuture<T> query(long stockExchangeId, long stockId, Function<OrderBook, T> query) {
+        Partition partition = partitionOf(stockExchangeId, stockId);
+        StockListingId listingId = new StockListingId(stockExchangeId, stockId);
+        return partition.call(() -> query.apply(partition.bookSet.books.get(listingId)));
+    }
+
+    // order ids handed out so far; restored after a restart so ids never repeat
+    public long lastOrderId() {
+        return orderIds.get();
+    }
+
+    public void restoreLastOrderId(long orderId) {
+        orderIds.accumulateAndGet(orderId, Math::max);
+    }
+
+    // removes the books the drop covers, ordered with the commands already submitted to each partition
+    public CompletableFuture<Void> drop(BookDrop drop) {
+        if (drop.stockExchangeId() != 0 && drop.stockId() != 0) {
+            Partition partition = partitionOf(drop.stockExchangeId(), drop.stockId());
+            return partition.call(() -> {
+                partition.bookSet.drop(drop);
+                return null;
+            });
+        }
+        return CompletableFuture.allOf(Arrays.stream(partitions)
+                .map(partition -> partition.call(() -> {
+                    partition.bookSet.drop(drop);
+                    return null;
+                }))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    // the state of every book once all commands submitted before this call have been applied
+    public CompletableFuture<List<BookSnapshot>> snapshotBooks() {
+        List<CompletableFuture<List<BookSnapshot>>> parts = Arrays.stream(partitions)
+                .map(partition -> partition.call(partition.bookSet::snapshot))
+                .toList();
+        return CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new))
+                .thenApply(done -> parts.stream().flatMap(part -> part.join().stream()).toList());
+    }
+
+    // completes once every partition has applied what was submitted before this call
+    public CompletableFuture<Void> drain() {
+        return CompletableFuture.allOf(Arrays.stream(partitions)
+                .map(partition -> partition.call(() -> null))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    // an empty book set with the engine's capacities, for rebuilding books off the partition threads
+    BookSet newBookSet() {
+        return new BookSet(orderCapacity, levelCapacity);
+    }
+
+    // hands books rebuilt by a replay to the partitions that own them, replacing what they had
+    void adopt(BookSet replayed) {
+        List<CompletableFuture<Object>> handovers = new ArrayList<>();
+        replayed.books.forEach((listingId, book) -> {
+            Partition partition = partitionOf(listingId.getStockExchangeId(), listingId.getStockId());
+            handovers.add(partition.call(() -> partition.bookSet.books.put(listingId, book)));
+        });
+        CompletableFuture.allOf(handovers.toArray(CompletableFuture[]::new)).join();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (Partition partition : partitions) {
+            partition.executor.shutdown();
+        }
+        for (Partition partition : partitions) {
+            if (!partition.executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                partition.executor.shutdownNow();
+            }
+        }
+    }
+
+    private Partition partitionOf(long stockExchangeId, long stockId) {
+        long hash = (stockExchangeId * 31 + stockId) * 0x9E3779B97F4A7C15L;
+        return partitions[(int) Math.floorMod(hash ^ (hash >>> 32), (long) partitions.length)];
+    }
+
+    private static final class Partition {
+
+        private final ExecutorService executor;
+        private final ReportCollector collector;
+        // only touched on the partition thread
+        private final BookSet bookSet;
+
+        Partition(int index, int orderCapacity, int levelCapacity) {
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "matching-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.collector = new ReportCollector();
+            this.bookSet = new BookSet(orderCapacity, levelCapacity);
+        }
+
+        CompletableFuture<ExecutionReport> apply(OrderCommand command) {
+            return call(() -> execute(command));
+        }
+
+        <T> CompletableFuture<T> call(Callable<T> task) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            try {
+                executor.execute(() -> {
+                    try {
+                        result.complete(task.call());
+                    } catch (Exception e) {
+                        result.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(e);
+            }
+            return result;
+        }
+
+        private ExecutionReport execute(OrderCommand command) {
+            collector.reset(command);
+            RejectReason rejectReason = bookSet.apply(command, collector);
+            return rejectReason == null ? collector.report() : ExecutionReport.rejected(command.orderId(), rejectReason);
+        }
+    }
+}
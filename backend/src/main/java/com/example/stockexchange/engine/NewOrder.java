@@ -0,0 +1,10 @@
+package com.example.stockexchange.engine;
+
+// price in ticks (see Prices), ignored for market orders; orderId 0 lets the engine assign one
+public record NewOrder(long orderId, long stockExchangeId, long stockId, long ownerId,
+                       Side side, OrderType type, long price, long quantity) implements OrderCommand {
+
+    public NewOrder withOrderId(long orderId) {
+        return new NewOrder(orderId, stockExchangeId, stockId, ownerId, side, type, price, quantity);
+    }
+}
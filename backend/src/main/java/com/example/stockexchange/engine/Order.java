@@ -0,0 +1,26 @@
+package com.example.stockexchange.engine;
+
+// a resting order, pooled and reused, linked into its price level in time priority
+final class Order {
+
+    long orderId;
+    long ownerId;
+    Side side;
+    long price;
+    long remaining;
+
+    PriceLevel level;
+    Order previous;
+    Order next;
+
+    void clear() {
+        orderId = 0;
+        ownerId = 0;
+        side = null;
+        price = 0;
+        remaining = 0;
+        level = null;
+        previous = null;
+        next = null;
+    }
+}
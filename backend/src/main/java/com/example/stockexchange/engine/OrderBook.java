@@ -0,0 +1,297 @@
+package com.example.stockexchange.engine;
+
+import java.util.Arrays;
+
+// central limit order book of one listing with price-time priority.
+// - prices and quantities are longs (see Prices), orders and levels come from pre-allocated pools,
+//   so submit/cancel/amend do not allocate once the pools are warm
+// - not thread safe: every book has exactly one writer, the MatchingEngine partition that owns it
+public final class OrderBook {
+
+    private final BookSide bids;
+    private final BookSide asks;
+    private final OrderIndex orders;
+
+    private Order[] freeOrders;
+    private int freeOrderCount;
+    private PriceLevel[] freeLevels;
+    private int freeLevelCount;
+
+    private long lastTradePrice;
+    private long tradeCount;
+    private long poolMisses;
+
+    public OrderBook(int orderCapacity, int levelCapacity) {
+        bids = new BookSide(Side.BUY, levelCapacity);
+        asks = new BookSide(Side.SELL, levelCapacity);
+        orders = new OrderIndex(orderCapacity);
+
+        freeOrders = new Order[orderCapacity];
+        for (int i = 0; i < orderCapacity; i++) {
+            freeOrders[i] = new Order();
+        }
+        freeOrderCount = orderCapacity;
+
+        // both sides together, a level is only ever on one of them
+        freeLevels = new PriceLevel[levelCapacity * 2];
+        for (int i = 0; i < freeLevels.length; i++) {
+            freeLevels[i] = new PriceLevel();
+        }
+        freeLevelCount = freeLevels.length;
+    }
+
+    // matches the incoming order against the opposite side; a limit order rests with what is left,
+    // a market order cancels it. price is ignored for market orders
+    public void submit(long orderId, long ownerId, Side side, OrderType type, long price, long quantity,
+                       MatchListener listener) {
+        if (quantity <= 0) {
+            listener.onRejected(orderId, RejectReason.INVALID_QUANTITY);
+            return;
+        }
+        if (type == OrderType.LIMIT && price <= 0) {
+            listener.onRejected(orderId, RejectReason.INVALID_PRICE);
+            return;
+        }
+        if (orderId <= 0 || orders.get(orderId) != null) {
+            listener.onRejected(orderId, RejectReason.DUPLICATE_ORDER_ID);
+            return;
+        }
+
+        long remaining = match(orderId, side, type, price, quantity, listener);
+        if (remaining == 0) {
+            return;
+        }
+        if (type == OrderType.MARKET) {
+            listener.onCancelled(orderId, remaining);
+            return;
+        }
+        rest(orderId, ownerId, side, price, remaining);
+        listener.onRested(orderId, price, remaining);
+    }
+
+    public boolean cancel(long orderId, MatchListener listener) {
+        Order order = orders.get(orderId);
+        if (order == null) {
+            listener.onRejected(orderId, RejectReason.UNKNOWN_ORDER);
+            return false;
+        }
+        long remaining = order.remaining;
+        removeResting(order);
+        listener.onCancelled(orderId, remaining);
+        return true;
+    }
+
+    // reducing the quantity at the same price keeps the time priority; a new price or a larger
+    // quantity re-enters the book as a new order (and may trade immediately)
+    public boolean amend(long orderId, long newPrice, long newQuantity, MatchListener listener) {
+        Order order = orders.get(orderId);
+        if (order == null) {
+            listener.onRejected(orderId, RejectReason.UNKNOWN_ORDER);
+            return false;
+        }
+        if (newQuantity <= 0) {
+            listener.onRejected(orderId, RejectReason.INVALID_QUANTITY);
+            return false;
+        }
+        if (newPrice <= 0) {
+            listener.onRejected(orderId, RejectReason.INVALID_PRICE);
+            return false;
+        }
+
+        if (newPrice == order.price && newQuantity <= order.remaining) {
+            PriceLevel level = order.level;
+            level.quantity -= order.remaining - newQuantity;
+            order.remaining = newQuantity;
+            listener.onRested(orderId, newPrice, newQuantity);
+            return true;
+        }
+
+        long ownerId = order.ownerId;
+        Side side = order.side;
+        removeResting(order);
+        submit(orderId, ownerId, side, OrderType.LIMIT, newPrice, newQuantity, listener);
+        return true;
+    }
+
+    public long bestBid() {
+        PriceLevel best = bids.best();
+        return best == null ? 0 : best.price;
+    }
+
+    public long bestAsk() {
+        PriceLevel best = asks.best();
+        return best == null ? 0 : best.price;
+    }
+
+    public long lastTradePrice() {
+        return lastTradePrice;
+    }
+
+    public long tradeCount() {
+        return tradeCount;
+    }
+
+    public int orderCount() {
+        return orders.size();
+    }
+
+    public int levelCount(Side side) {
+        return sideOf(side).size();
+    }
+
+    // price of the level at this depth (0 = best), or 0 when the book is not that deep
+    public long priceAt(Side side, int depth) {
+        PriceLevel level = sideOf(side).levelFromBest(depth);
+        return level == null ? 0 : level.price;
+    }
+
+    public long quantityAt(Side side, int depth) {
+        PriceLevel level = sideOf(side).levelFromBest(depth);
+        return level == null ? 0 : level.quantity;
+    }
+
+    public boolean contains(long orderId) {
+        return orders.get(orderId) != null;
+    }
+
+    // 0 when the order is not resting on this book
+    public long ownerOf(long orderId) {
+        Order order = orders.get(orderId);
+        return order == null ? 0 : order.ownerId;
+    }
+
+    public long remainingOf(long orderId) {
+        Order order = orders.get(orderId);
+        return order == null ? 0 : order.remaining;
+    }
+
+    // orders or levels that had to be allocated because a pool ran dry, a sizing signal
+    public long poolMisses() {
+        return poolMisses;
+    }
+
+    // walks resting orders in price-time priority, best bid level first then best ask level first
+    public void forEachOrder(RestingOrderConsumer consumer) {
+        forEachOrder(bids, consumer);
+        forEachOrder(asks, consumer);
+    }
+
+    public void restoreLastTradePrice(long price) {
+        lastTradePrice = price;
+    }
+
+    private long match(long orderId, Side side, OrderType type, long price, long quantity, MatchListener listener) {
+        BookSide opposite = sideOf(side.opposite());
+        long remaining = quantity;
+        while (remaining > 0) {
+            PriceLevel level = opposite.best();
+            if (level == null || (type == OrderType.LIMIT && !opposite.crosses(price))) {
+                break;
+            }
+            Order maker = level.head;
+            while (maker != null && remaining > 0) {
+                long fill = Math.min(remaining, maker.remaining);
+                remaining -= fill;
+                maker.remaining -= fill;
+                level.quantity -= fill;
+                lastTradePrice = level.price;
+                tradeCount++;
+                listener.onTrade(orderId, maker.orderId, maker.ownerId, side, level.price, fill);
+
+                Order next = maker.next;
+                if (maker.remaining == 0) {
+                    level.remove(maker);
+                    orders.remove(maker.orderId);
+                    releaseOrder(maker);
+                }
+                maker = next;
+            }
+            if (level.isEmpty()) {
+                opposite.remove(level);
+                releaseLevel(level);
+            }
+        }
+        return remaining;
+    }
+
+    private void rest(long orderId, long ownerId, Side side, long price, long remaining) {
+        Order order = acquireOrder();
+        order.orderId = orderId;
+        order.ownerId = ownerId;
+        order.side = side;
+        order.price = price;
+        order.remaining = remaining;
+
+        BookSide bookSide = sideOf(side);
+        PriceLevel level = bookSide.find(price);
+        if (level == null) {
+            level = bookSide.findOrInsert(price, acquireLevel());
+        }
+        level.append(order);
+        orders.put(orderId, order);
+    }
+
+    private void removeResting(Order order) {
+        PriceLevel level = order.level;
+        level.remove(order);
+        if (level.isEmpty()) {
+            sideOf(order.side).remove(level);
+            releaseLevel(level);
+        }
+        orders.remove(order.orderId);
+        releaseOrder(order);
+    }
+
+    private void forEachOrder(BookSide side, RestingOrderConsumer consumer) {
+        for (int depth = 0; depth < side.size(); depth++) {
+            for (Order order = side.levelFromBest(depth).head; order != null; order = order.next) {
+                consumer.accept(order.orderId, order.ownerId, order.side, order.price, order.remaining);
+            }
+        }
+    }
+
+    private BookSide sideOf(Side side) {
+        return side == Side.BUY ? bids : asks;
+    }
+
+    private Order acquireOrder() {
+        if (freeOrderCount == 0) {
+            poolMisses++;
+            return new Order();
+        }
+        Order order = freeOrders[--freeOrderCount];
+        freeOrders[freeOrderCount] = null;
+        return order;
+    }
+
+    private void releaseOrder(Order order) {
+        order.clear();
+        if (freeOrderCount == freeOrders.length) {
+            freeOrders = Arrays.copyOf(freeOrders, freeOrders.length * 2);
+        }
+        freeOrders[freeOrderCount++] = order;
+    }
+
+    private PriceLevel acquireLevel() {
+        if (freeLevelCount == 0) {
+            poolMisses++;
+            return new PriceLevel();
+        }
+        PriceLevel level = freeLevels[--freeLevelCount];
+        freeLevels[freeLevelCount] = null;
+        return level;
+    }
+
+    private void releaseLevel(PriceLevel level) {
+        level.clear();
+        if (freeLevelCount == freeLevels.length) {
+            freeLevels = Arrays.copyOf(freeLevels, freeLevels.length * 2);
+        }
+        freeLevels[freeLevelCount++] = level;
+    }
+
+    @FunctionalInterface
+    public interface RestingOrderConsumer {
+        void accept(long orderId, long ownerId, Side side, long price, long remainingQuantity);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.stockexchange.engine;
+
+// instruction for the book of one listing; the engine routes it by (stockExchangeId, stockId)
+public sealed interface OrderCommand permits NewOrder, CancelOrder, AmendOrder {
+
+    long stockExchangeId();
+
+    long stockId();
+
+    long ownerId();
+
+    long orderId();
+}
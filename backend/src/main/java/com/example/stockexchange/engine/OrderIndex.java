@@ -0,0 +1,103 @@
+package com.example.stockexchange.engine;
+
+// open addressing long -> Order map (linear probing, backward shift delete), so looking up an
+// order for cancel/amend neither boxes the id nor allocates map entries
+final class OrderIndex {
+
+    private static final long EMPTY = 0; // order ids start at 1
+
+    private long[] keys;
+    private Order[] values;
+    private int mask;
+    private int size;
+
+    OrderIndex(int expectedOrders) {
+        int capacity = Integer.highestOneBit(Math.max(expectedOrders, 8) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new Order[capacity];
+        mask = capacity - 1;
+    }
+
+    Order get(long orderId) {
+        int index = slot(orderId);
+        while (keys[index] != EMPTY) {
+            if (keys[index] == orderId) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    void put(long orderId, Order order) {
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int index = slot(orderId);
+        while (keys[index] != EMPTY && keys[index] != orderId) {
+            index = (index + 1) & mask;
+        }
+        if (keys[index] == EMPTY) {
+            size++;
+        }
+        keys[index] = orderId;
+        values[index] = order;
+    }
+
+    Order remove(long orderId) {
+        int index = slot(orderId);
+        while (keys[index] != EMPTY) {
+            if (keys[index] == orderId) {
+                Order removed = values[index];
+                shiftBack(index);
+                size--;
+                return removed;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // refills the hole left by a removal so later probes still find their keys
+    private void shiftBack(int hole) {
+        int index = hole;
+        while (true) {
+            index = (index + 1) & mask;
+            if (keys[index] == EMPTY) {
+                break;
+            }
+            int home = slot(keys[index]);
+            boolean movable = hole <= index ? (home <= hole || home > index) : (home <= hole && home > index);
+            if (movable) {
+                keys[hole] = keys[index];
+                values[hole] = values[index];
+                hole = index;
+            }
+        }
+        keys[hole] = EMPTY;
+        values[hole] = null;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Order[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Order[oldKeys.length * 2];
+        mask = keys.length - 1;
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private int slot(long orderId) {
+        long hash = orderId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,280 @@
+package com.example.stockexchange.engine;
+
+import com.example.stockexchange.event.EngineRecoveredEvent;
+import com.example.stockexchange.event.StockDelistedEvent;
+import com.example.stockexchange.event.StockDeletedEvent;
+import com.example.stockexchange.event.StockExchangeDeletedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Single entry point for order commands from every surface (REST, binary gateway). One thread
+// drains the inbound queue, validates, assigns the global sequence and order ids, journals the
+// command and hands it to the matching engine, so the matching stage sees one totally ordered stream.
+// Pre-trade risk (PreTradeCheck) is answered inline on the same thread, right before a command is sequenced.
+// Book drops (delisting, deletions) go through the same stream, so replaying the journal reproduces them.
+// On start the engine is rebuilt from the journal before anything new is sequenced.
+@Slf4j
+@Component
+public class OrderSequencer implements SmartLifecycle {
+
+    // before the web server and the gateway, so nothing is submitted before recovery
+    public static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 2048;
+
+    private static final int DRAIN_BATCH = 256;
+
+    private final MatchingEngine matchingEngine;
+    private final EngineJournal engineJournal;
+    private final PreTradeCheck preTradeCheck;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BlockingQueue<Inbound> inbound;
+    private final long snapshotEveryCommands;
+    private final long snapshotIntervalNanos;
+
+    private long sequence;
+    private long snapshotSequence;
+    private long snapshotTakenAt;
+    private volatile boolean running;
+    private Thread thread;
+
+    public OrderSequencer(MatchingEngine matchingEngine,
+                          EngineJournal engineJournal,
+                          PreTradeCheck preTradeCheck,
+                          ApplicationEventPublisher eventPublisher,
+                          @Value("${app.engine.inbound-capacity:65536}") int inboundCapacity,
+                          @Value("${app.journal.snapshot-every-commands:1000000}") long snapshotEveryCommands,
+                          @Value("${app.journal.snapshot-interval:5m}") Duration snapshotInterval) {
+        this.matchingEngine = matchingEngine;
+        this.engineJournal = engineJournal;
+        this.preTradeCheck = preTradeCheck;
+        this.eventPublisher = eventPublisher;
+        this.inbound = new ArrayBlockingQueue<>(inboundCapacity);
+        this.snapshotEveryCommands = snapshotEveryCommands;
+        this.snapshotIntervalNanos = snapshotInterval.toNanos();
+    }
+
+    // never blocks the caller: a full inbound queue rejects the command instead
+    public CompletableFuture<ExecutionReport> submit(OrderCommand command) {
+        CompletableFuture<ExecutionReport> result = new CompletableFuture<>();
+        if (!running || !inbound.offer(new Command(command, result))) {
+            result.complete(ExecutionReport.rejected(command.orderId(), RejectReason.ENGINE_UNAVAILABLE));
+        }
+        return result;
+    }
+
+    public int queuedCommands() {
+        return inbound.size();
+    }
+
+    public long lastSequence() {
+        return engineJournal.lastSequence();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDelisted(StockDelistedEvent event) {
+        submitDrop(BookDrop.listing(event.getStockExchangeId(), event.getStockId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDeleted(StockDeletedEvent event) {
+        submitDrop(BookDrop.stock(event.getStockId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockExchangeDeleted(StockExchangeDeletedEvent event) {
+        submitDrop(BookDrop.exchange(event.getStockExchangeId()));
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        JournalRecovery recovery = engineJournal.recover(matchingEngine.newBookSet());
+        matchingEngine.adopt(recovery.books());
+        matchingEngine.restoreLastOrderId(recovery.lastOrderId());
+        preTradeCheck.restore(recovery.books().snapshot(), recovery.positions());
+        sequence = recovery.sequence();
+        snapshotSequence = recovery.sequence();
+        snapshotTakenAt = System.nanoTime();
+        engineJournal.start(recovery);
+        if (recovery.sequence() > 0) {
+            eventPublisher.publishEvent(new EngineRecoveredEvent(recovery.sequence(), recovery.replayedRecords(),
+                    recovery.lastTradePrices()));
+        }
+
+        running = true;
+        thread = new Thread(this::run, "order-sequencer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // stops sequencing, waits for the books to settle and leaves a snapshot so the next start replays nothing
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            // the thread notices within one poll timeout; interrupting it could cut a command in half
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+            matchingEngine.drain().get(5, TimeUnit.SECONDS);
+            if (engineJournal.isEnabled() && sequence > snapshotSequence) {
+                snapshot();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Matching engine did not settle before shutdown, skipping the final snapshot", e);
+        }
+        engineJournal.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    // drops must never be lost, so unlike commands they wait for room in the queue
+    private void submitDrop(BookDrop drop) {
+        if (!running) {
+            matchingEngine.drop(drop);
+            return;
+        }
+        try {
+            inbound.put(new Drop(drop));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Inbound> batch = new ArrayList<>(DRAIN_BATCH);
+        while (running) {
+            try {
+                Inbound first = inbound.poll(1, TimeUnit.SECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    inbound.drainTo(batch, DRAIN_BATCH - 1);
+                    // one failing command must not leave the rest of the batch waiting forever
+                    for (Inbound item : batch) {
+                        try {
+                            sequence(item);
+                        } catch (RuntimeException e) {
+                            log.error("Order sequencer failed on {}", item, e);
+                            abandon(item);
+                        }
+                    }
+                }
+                if (snapshotDue()) {
+                    snapshot();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException | TimeoutException | RuntimeException e) {
+                log.error("Engine snapshot failed, retrying after the next interval", e);
+                snapshotSequence = sequence;
+                snapshotTakenAt = System.nanoTime();
+            } finally {
+                batch.clear();
+            }
+        }
+        Inbound item;
+        while ((item = inbound.poll()) != null) {
+            abandon(item);
+        }
+    }
+
+    private void abandon(Inbound item) {
+        if (item instanceof Command command) {
+            command.result().complete(ExecutionReport.rejected(command.command().orderId(), RejectReason.ENGINE_UNAVAILABLE));
+        } else if (item instanceof Drop drop) {
+            matchingEngine.drop(drop.drop());
+        }
+    }
+
+    private void sequence(Inbound item) {
+        long now = System.currentTimeMillis();
+        if (item instanceof Drop drop) {
+            engineJournal.appendDrop(++sequence, now, drop.drop());
+            preTradeCheck.drop(drop.drop());
+            matchingEngine.drop(drop.drop());
+            return;
+        }
+        Command pending = (Command) item;
+        OrderCommand command = matchingEngine.prepare(pending.command());
+        RejectReason rejectReason = engineJournal.isFailed() ? RejectReason.ENGINE_UNAVAILABLE : matchingEngine.validate(command);
+        if (rejectReason == null) {
+            rejectReason = preTradeCheck.check(command);
+        }
+        if (rejectReason != null) {
+            // rejected commands never enter the stream, so replaying it needs no validation
+            pending.result().complete(ExecutionReport.rejected(command.orderId(), rejectReason));
+            return;
+        }
+        long commandSequence = ++sequence;
+        engineJournal.append(new SequencedCommand(commandSequence, now, command));
+        matchingEngine.execute(command).whenComplete((report, failure) -> {
+            if (failure != null) {
+                // answered like every other failure, callers never see the future fail. the command is already
+                // journaled, the skip record keeps a replay from applying what the caller was told was rejected
+                log.error("Matching engine failed on {}", command, failure);
+                engineJournal.appendSkip(commandSequence);
+                ExecutionReport unavailable = ExecutionReport.rejected(command.orderId(), RejectReason.ENGINE_UNAVAILABLE);
+                preTradeCheck.settle(command, unavailable);
+                pending.result().complete(unavailable);
+                return;
+            }
+            engineJournal.appendExecution(commandSequence, now, command, report);
+            preTradeCheck.settle(command, report);
+            pending.result().complete(report);
+        });
+    }
+
+    private boolean snapshotDue() {
+        if (!engineJournal.isEnabled() || sequence == snapshotSequence) {
+            return false;
+        }
+        return sequence - snapshotSequence >= snapshotEveryCommands
+                || System.nanoTime() - snapshotTakenAt >= snapshotIntervalNanos;
+    }
+
+    // the snapshot task queues behind every command already handed to a partition, so the books it sees
+    // are exactly the state after the current sequence. new commands wait meanwhile
+    private void snapshot() throws InterruptedException, ExecutionException, TimeoutException {
+        List<BookSnapshot> books = matchingEngine.snapshotBooks().get(30, TimeUnit.SECONDS);
+        // every command up to here has been settled as well, so are the positions of the pre-trade checks
+        engineJournal.snapshot(sequence, matchingEngine.lastOrderId(), books, preTradeCheck.positions());
+        snapshotSequence = sequence;
+        snapshotTakenAt = System.nanoTime();
+    }
+
+    private sealed interface Inbound permits Command, Drop {
+    }
+
+    private record Command(OrderCommand command, CompletableFuture<ExecutionReport> result) implements Inbound {
+    }
+
+    private record Drop(BookDrop drop) implements Inbound {
+    }
+}
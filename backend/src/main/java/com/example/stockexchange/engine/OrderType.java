@@ -0,0 +1,8 @@
+package com.example.stockexchange.engine;
+
+public enum OrderType {
+    // rests on the book at its limit price once it stops crossing
+    LIMIT,
+    // takes whatever liquidity there is, the unfilled rest is cancelled
+    MARKET
+}
@@ -0,0 +1,39 @@
+package com.example.stockexchange.engine;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// net filled quantity (bought minus sold) per user and stock across every exchange listing it. the pre-trade
+// checks hand theirs to every snapshot and a replay adds the trades after it, so the position limits
+// survive a restart. not thread safe
+public final class Positions {
+
+    // ownerId -> stockId -> {position}
+    private final Map<Long, Map<Long, long[]>> positions = new HashMap<>();
+
+    public void add(long ownerId, long stockId, long quantity) {
+        long[] position = positions.computeIfAbsent(ownerId, owner -> new HashMap<>())
+                .computeIfAbsent(stockId, stock -> new long[1]);
+        position[0] += quantity;
+    }
+
+    // flat positions are skipped
+    public void forEach(PositionConsumer consumer) {
+        positions.forEach((ownerId, stocks) -> stocks.forEach((stockId, position) -> {
+            if (position[0] != 0) {
+                consumer.accept(ownerId, stockId, position[0]);
+            }
+        }));
+    }
+
+    public int size() {
+        int[] size = {0};
+        forEach((ownerId, stockId, position) -> size[0]++);
+        return size[0];
+    }
+
+    @FunctionalInterface
+    public interface PositionConsumer {
+        void accept(long ownerId, long stockId, long position);
+    }
+}
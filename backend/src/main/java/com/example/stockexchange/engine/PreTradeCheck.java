@@ -0,0 +1,38 @@
+package com.example.stockexchange.engine;
+
+import java.util.List;
+
+// pre-trade risk hook of the sequencer. check runs on the sequencer thread for every command that is about
+// to be sequenced and may reserve what the command can add to its owner's exposure; settle receives the
+// outcome on the partition thread that executed it. both run inline, so implementations must not block
+public interface PreTradeCheck {
+
+    PreTradeCheck NONE = new PreTradeCheck() {
+        @Override
+        public RejectReason check(OrderCommand command) {
+            return null;
+        }
+
+        @Override
+        public void settle(OrderCommand command, ExecutionReport report) {
+        }
+    };
+
+    // null accepts the command
+    RejectReason check(OrderCommand command);
+
+    void settle(OrderCommand command, ExecutionReport report);
+
+    // resting orders and positions recovered from the journal, before anything new is sequenced
+    default void restore(List<BookSnapshot> books, Positions positions) {
+    }
+
+    // the positions after every command settled so far, written with each snapshot of the books
+    default Positions positions() {
+        return new Positions();
+    }
+
+    // the books the drop covers disappear without execution reports
+    default void drop(BookDrop drop) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.stockexchange.engine;
+
+// FIFO queue of the orders resting at one price, an intrusive linked list so add/remove never allocate
+final class PriceLevel {
+
+    long price;
+    long quantity;
+    int orderCount;
+    Order head;
+    Order tail;
+
+    void append(Order order) {
+        order.level = this;
+        order.previous = tail;
+        order.next = null;
+        if (tail == null) {
+            head = order;
+        } else {
+            tail.next = order;
+        }
+        tail = order;
+        quantity += order.remaining;
+        orderCount++;
+    }
+
+    void remove(Order order) {
+        if (order.previous == null) {
+            head = order.next;
+        } else {
+            order.previous.next = order.next;
+        }
+        if (order.next == null) {
+            tail = order.previous;
+        } else {
+            order.next.previous = order.previous;
+        }
+        quantity -= order.remaining;
+        orderCount--;
+        order.level = null;
+        order.previous = null;
+        order.next = null;
+    }
+
+    boolean isEmpty() {
+        return head == null;
+    }
+
+    void clear() {
+        price = 0;
+        quantity = 0;
+        orderCount = 0;
+        head = null;
+        tail = null;
+    }
+}
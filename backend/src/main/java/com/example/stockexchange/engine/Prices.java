@@ -0,0 +1,29 @@
+package com.example.stockexchange.engine;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// prices inside the engine are longs in ticks of 1/10_000, the precision of stock.current_price
+// (DECIMAL(19, 4)), so matching compares and adds plain longs instead of BigDecimals
+public final class Prices {
+
+    public static final int SCALE = 4;
+    public static final long TICKS_PER_UNIT = 10_000;
+
+    private Prices() {
+    }
+
+    // throws ArithmeticException for prices with more than four decimals or out of long range
+    public static long toTicks(BigDecimal price) {
+        return price.movePointRight(SCALE).longValueExact();
+    }
+
+    // a manual price may carry more decimals than the engine, stock.current_price rounds it the same way
+    public static long roundToTicks(BigDecimal price) {
+        return toTicks(price.setScale(SCALE, RoundingMode.HALF_UP));
+    }
+
+    public static BigDecimal toPrice(long ticks) {
+        return BigDecimal.valueOf(ticks, SCALE);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.stockexchange.engine;
+
+public enum RejectReason {
+    NOT_TRADABLE,
+    INVALID_QUANTITY,
+    INVALID_PRICE,
+    DUPLICATE_ORDER_ID,
+    UNKNOWN_ORDER,
+    NOT_ORDER_OWNER,
+    ENGINE_UNAVAILABLE,
+    // pre-trade risk limits of the order owner (appended, wire and journal codes are ordinals)
+    RISK_ORDER_NOTIONAL,
+    RISK_OPEN_ORDERS,
+    RISK_POSITION
+}
@@ -0,0 +1,89 @@
+package com.example.stockexchange.engine;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// turns the primitive MatchListener callbacks of one command into an ExecutionReport and Trades.
+// one instance per partition, reset before every command, only used on the partition thread
+@Slf4j
+final class ReportCollector implements MatchListener {
+
+    private List<TradeListener> tradeListeners = List.of();
+
+    private long stockExchangeId;
+    private long stockId;
+    private long takerOwnerId;
+    private long orderId;
+    private ExecutionStatus status;
+    private long filled;
+    private long remaining;
+    private RejectReason rejectReason;
+    private List<ExecutionReport.Fill> fills;
+
+    void setTradeListeners(List<TradeListener> tradeListeners) {
+        this.tradeListeners = tradeListeners;
+    }
+
+    void reset(OrderCommand command) {
+        stockExchangeId = command.stockExchangeId();
+        stockId = command.stockId();
+        takerOwnerId = command.ownerId();
+        orderId = command.orderId();
+        status = null;
+        filled = 0;
+        remaining = 0;
+        rejectReason = null;
+        fills = null;
+    }
+
+    ExecutionReport report() {
+        ExecutionStatus finalStatus = status;
+        if (finalStatus == null) {
+            // only trades were reported, so the order was filled completely
+            finalStatus = ExecutionStatus.FILLED;
+        }
+        return new ExecutionReport(orderId, finalStatus, filled, remaining,
+                fills == null ? List.of() : fills, rejectReason);
+    }
+
+    @Override
+    public void onTrade(long takerOrderId, long makerOrderId, long makerOwnerId, Side takerSide, long price, long quantity) {
+        if (fills == null) {
+            fills = new ArrayList<>(4);
+        }
+        fills.add(new ExecutionReport.Fill(makerOrderId, price, quantity));
+        filled += quantity;
+        if (!tradeListeners.isEmpty()) {
+            Trade trade = new Trade(stockExchangeId, stockId, takerOrderId, takerOwnerId, makerOrderId, makerOwnerId,
+                    takerSide, price, quantity, System.currentTimeMillis());
+            for (TradeListener listener : tradeListeners) {
+                try {
+                    listener.onTrade(trade);
+                } catch (RuntimeException e) {
+                    // a broken listener must not stop matching
+                    log.error("Trade listener {} failed", listener.getClass().getSimpleName(), e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onRested(long orderId, long price, long remainingQuantity) {
+        remaining = remainingQuantity;
+        status = filled > 0 ? ExecutionStatus.PARTIALLY_FILLED : ExecutionStatus.ACCEPTED;
+    }
+
+    @Override
+    public void onCancelled(long orderId, long remainingQuantity) {
+        remaining = 0;
+        status = ExecutionStatus.CANCELLED;
+    }
+
+    @Override
+    public void onRejected(long orderId, RejectReason reason) {
+        status = ExecutionStatus.REJECTED;
+        rejectReason = reason;
+    }
+}
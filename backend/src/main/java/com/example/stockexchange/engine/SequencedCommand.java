@@ -0,0 +1,5 @@
+package com.example.stockexchange.engine;
+
+// an accepted command with its position in the single inbound order stream
+public record SequencedCommand(long sequence, long timestampMillis, OrderCommand command) {
+}
@@ -0,0 +1,159 @@
+package com.example.stockexchange.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+// Snapshot file layout, big-endian:
+//   int magic, int version, long sequence, long lastOrderId,
+//   int tradeCount, tradeCount * (long stockId, long sequence, long price, long tradedAtMillis),
+//   int bookCount, bookCount * (long exchangeId, long stockId, long lastTradePrice, int orderCount,
+//                               orderCount * (long orderId, long ownerId, byte side, long price, long remaining)),
+//   int positionCount, positionCount * (long ownerId, long stockId, long position),
+//   int crc32c of everything before it
+// written to a temporary file and moved into place, so a crash never leaves a half written snapshot
+final class SnapshotFile {
+
+    private static final int MAGIC = 0x5358534E;
+    private static final int VERSION = 3;
+    // version 1 had no trade times, its trades read as older than any manual price
+    private static final int VERSION_WITHOUT_TRADE_TIMES = 1;
+    // versions 1 and 2 had no positions, they restore flat
+    private static final int VERSION_WITHOUT_POSITIONS = 2;
+
+    private SnapshotFile() {
+    }
+
+    static void write(Path file, EngineSnapshot snapshot) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (OutputStream stream = Files.newOutputStream(temporary);
+             CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(stream, 1 << 16), crc);
+             DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(snapshot.sequence());
+            out.writeLong(snapshot.lastOrderId());
+
+            out.writeInt(snapshot.lastTrades().size());
+            IOException[] failure = {null};
+            snapshot.lastTrades().forEach((stockId, sequence, price, tradedAtMillis) -> {
+                try {
+                    out.writeLong(stockId);
+                    out.writeLong(sequence);
+                    out.writeLong(price);
+                    out.writeLong(tradedAtMillis);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+
+            out.writeInt(snapshot.books().size());
+            for (BookSnapshot book : snapshot.books()) {
+                out.writeLong(book.stockExchangeId());
+                out.writeLong(book.stockId());
+                out.writeLong(book.lastTradePrice());
+                out.writeInt(book.orderCount());
+                long[] orders = book.orders();
+                for (int at = 0; at < orders.length; at += BookSnapshot.ORDER_FIELDS) {
+                    out.writeLong(orders[at]);
+                    out.writeLong(orders[at + 1]);
+                    out.writeByte((int) orders[at + 2]);
+                    out.writeLong(orders[at + 3]);
+                    out.writeLong(orders[at + 4]);
+                }
+            }
+
+            out.writeInt(snapshot.positions().size());
+            snapshot.positions().forEach((ownerId, stockId, position) -> {
+                try {
+                    out.writeLong(ownerId);
+                    out.writeLong(stockId);
+                    out.writeLong(position);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            out.flush();
+            // the checksum covers everything written so far and is not part of itself
+            stream.write(ByteBuffer.allocate(Integer.BYTES).putInt((int) crc.getValue()).array());
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    static EngineSnapshot read(Path file) throws IOException {
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int checked = in.limit() - Integer.BYTES;
+        if (checked < 0) {
+            throw new IOException("Snapshot " + file + " is truncated");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(in.duplicate().limit(checked));
+        if ((int) crc.getValue() != in.getInt(checked)) {
+            throw new IOException("Snapshot " + file + " fails its checksum");
+        }
+        if (in.getInt() != MAGIC) {
+            throw new IOException("Snapshot " + file + " has an unknown format");
+        }
+        int version = in.getInt();
+        if (version < VERSION_WITHOUT_TRADE_TIMES || version > VERSION) {
+            throw new IOException("Snapshot " + file + " has an unknown format");
+        }
+        long sequence = in.getLong();
+        long lastOrderId = in.getLong();
+
+        LastTrades lastTrades = new LastTrades();
+        for (int i = in.getInt(); i > 0; i--) {
+            lastTrades.record(in.getLong(), in.getLong(), in.getLong(),
+                    version == VERSION_WITHOUT_TRADE_TIMES ? 0 : in.getLong());
+        }
+
+        int bookCount = in.getInt();
+        List<BookSnapshot> books = new ArrayList<>(bookCount);
+        for (int i = 0; i < bookCount; i++) {
+            long stockExchangeId = in.getLong();
+            long stockId = in.getLong();
+            long lastTradePrice = in.getLong();
+            long[] orders = new long[in.getInt() * BookSnapshot.ORDER_FIELDS];
+            for (int at = 0; at < orders.length; at += BookSnapshot.ORDER_FIELDS) {
+                orders[at] = in.getLong();
+                orders[at + 1] = in.getLong();
+                orders[at + 2] = in.get();
+                orders[at + 3] = in.getLong();
+                orders[at + 4] = in.getLong();
+            }
+            books.add(new BookSnapshot(stockExchangeId, stockId, lastTradePrice, orders));
+        }
+
+        Positions positions = new Positions();
+        if (version > VERSION_WITHOUT_POSITIONS) {
+            for (int i = in.getInt(); i > 0; i--) {
+                positions.add(in.getLong(), in.getLong(), in.getLong());
+            }
+        }
+        return new EngineSnapshot(sequence, lastOrderId, lastTrades, positions, books);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.stockexchange.engine;
+
+// one execution between a resting (maker) and an incoming (taker) order, price in ticks
+public record Trade(long stockExchangeId, long stockId, long takerOrderId, long takerOwnerId,
+                    long makerOrderId, long makerOwnerId, Side takerSide, long price, long quantity,
+                    long executedAtMillis) {
+}
@@ -0,0 +1,8 @@
+package com.example.stockexchange.engine;
+
+// receives every trade on the writer thread of the book it happened on, so trades of one listing
+// arrive in execution order; implementations must hand work off rather than block
+public interface TradeListener {
+
+    void onTrade(Trade trade);
+}
@@ -0,0 +1,37 @@
+package com.example.stockexchange.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// the public half of a signing key of some instance (JwtKeyRing), X.509 encoded. the private half never
+// leaves the instance; every instance reads the others' keys from here to verify what they signed
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+@Table(name = "jwt_public_key", indexes = {
+        @Index(name = "idx_jwt_public_key_expires", columnList = "expires_at")
+})
+public class JwtPublicKey {
+
+    @Id
+    @Column(length = 36)
+    private String kid;
+
+    @Column(nullable = false, length = 16)
+    private String algorithm;
+
+    @Column(name = "encoded_key", nullable = false, length = 1024)
+    private String encodedKey;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // no token signed with it is valid any more
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,40 @@
+package com.example.stockexchange.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// pre-trade limits of one user, a null limit falls back to the app.risk defaults
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+@EntityListeners(AuditingEntityListener.class)
+@Table(name = "risk_limit")
+public class RiskLimit {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "max_order_notional", precision = 19, scale = 4)
+    private BigDecimal maxOrderNotional;
+
+    @Column(name = "max_open_orders")
+    private Integer maxOpenOrders;
+
+    @Column(name = "max_position")
+    private Long maxPosition;
+
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+
+    @Version
+    private int version;
+}
@@ -0,0 +1,22 @@
+package com.example.stockexchange.event;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// published once the matching engine has been rebuilt from its journal at startup,
+// with the price and time of the last trade of every stock that traded
+@Value
+public class EngineRecoveredEvent {
+
+    long sequence;
+
+    long replayedRecords;
+
+    Map<Long, LastTrade> lastTradePrices;
+
+    public record LastTrade(BigDecimal price, LocalDateTime tradedAt) {
+    }
+}
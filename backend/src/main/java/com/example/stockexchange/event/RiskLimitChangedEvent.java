@@ -0,0 +1,18 @@
+package com.example.stockexchange.event;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+// published after the limits of a user have been changed, null limits mean the defaults
+@Value
+public class RiskLimitChangedEvent {
+
+    Long userId;
+
+    BigDecimal maxOrderNotional;
+
+    Integer maxOpenOrders;
+
+    Long maxPosition;
+}
@@ -0,0 +1,18 @@
+package com.example.stockexchange.event;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+// published after a new stock has been created
+@Value
+public class StockCreatedEvent {
+
+    Long stockId;
+
+    String name;
+
+    String description;
+
+    BigDecimal currentPrice;
+}
@@ -0,0 +1,10 @@
+package com.example.stockexchange.event;
+
+import lombok.Value;
+
+// published after a stock (and all of its listings) has been deleted
+@Value
+public class StockDeletedEvent {
+
+    Long stockId;
+}
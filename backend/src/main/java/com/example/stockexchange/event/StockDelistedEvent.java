@@ -0,0 +1,12 @@
+package com.example.stockexchange.event;
+
+import lombok.Value;
+
+// published after a stock has been removed from a stock exchange
+@Value
+public class StockDelistedEvent {
+
+    Long stockExchangeId;
+
+    Long stockId;
+}
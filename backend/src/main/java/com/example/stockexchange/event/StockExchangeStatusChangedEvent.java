@@ -0,0 +1,12 @@
+package com.example.stockexchange.event;
+
+import lombok.Value;
+
+// published when a stock exchange goes live in the market or stops being live
+@Value
+public class StockExchangeStatusChangedEvent {
+
+    Long stockExchangeId;
+
+    boolean liveInMarket;
+}
@@ -0,0 +1,18 @@
+package com.example.stockexchange.event;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+// published after a stock has been added to a stock exchange
+@Value
+public class StockListedEvent {
+
+    Long stockExchangeId;
+
+    Long stockId;
+
+    String stockName;
+
+    BigDecimal currentPrice;
+}
@@ -0,0 +1,21 @@
+package com.example.stockexchange.event;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+// published after a stock price has been changed (manual update or trade)
+@Value
+public class StockPriceChangedEvent {
+
+    Long stockId;
+
+    BigDecimal currentPrice;
+
+    Source source;
+
+    public enum Source {
+        MANUAL,
+        TRADE
+    }
+}
@@ -6,10 +6,13 @@ package com.example.stockexchange.exception.ExceptionsAdvice;
 
 import com.example.stockexchange.exception.AuthenticationException;
 import com.example.stockexchange.exception.DuplicateResourceException;
+import com.example.stockexchange.exception.OrderRejectedException;
+import com.example.stockexchange.exception.PasswordHashingBusyException;
 import com.example.stockexchange.exception.ResourceNotFoundException;
 import com.example.stockexchange.response.ApiRespond;
 import jakarta.persistence.OptimisticLockException;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -63,6 +66,18 @@ public class GlobalExceptionHandler {
     }
 
 
+    @ExceptionHandler(OrderRejectedException.class)
+    public ResponseEntity<ApiRespond> handleOrderRejectedException(OrderRejectedException ex) {
+        HttpStatus status = switch (ex.getReason()) {
+            case UNKNOWN_ORDER -> HttpStatus.NOT_FOUND;
+            case NOT_ORDER_OWNER -> HttpStatus.FORBIDDEN;
+            case ENGINE_UNAVAILABLE -> HttpStatus.SERVICE_UNAVAILABLE;
+            default -> HttpStatus.UNPROCESSABLE_ENTITY;
+        };
+        return buildResponsibility(ex, status);
+    }
+
+
     // field validations handler
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiRespond> handleValidationException(MethodArgumentNotValidException ex) {
@@ -81,6 +96,16 @@ public class GlobalExceptionHandler {
     }
 
 
+    // the password hashing queue is full (PasswordHashingEncoder)
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<ApiRespond> handlePasswordHashingBusyException(PasswordHashingBusyException ex) {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ApiRespond(status, ex.getMessage(), null));
+    }
+
+
     // Generic exception handler (catch-all)
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiRespond> handleGeneralExceptions(Exception ex) {
@@ -0,0 +1,19 @@
+package com.example.stockexchange.exception;
+
+import com.example.stockexchange.engine.RejectReason;
+import lombok.Getter;
+
+@Getter
+public class OrderRejectedException extends RuntimeException {
+
+    private final RejectReason reason;
+
+    public OrderRejectedException(RejectReason reason) {
+        this(reason, "Order rejected: " + reason);
+    }
+
+    public OrderRejectedException(RejectReason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.stockexchange.exception;
+
+// the password hashing queue is full (PasswordHashingEncoder), answered with 503 and Retry-After
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException() {
+        this("Too many logins in progress, retry shortly");
+    }
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.stockexchange.exception;
+
+public class SqlStatementBudgetException extends RuntimeException{
+    public SqlStatementBudgetException() {
+        this("SQL statement budget exceeded");
+    }
+
+    public SqlStatementBudgetException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.stockexchange.export;
+
+import com.example.stockexchange.repository.StockExportView;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// writes one exported stock at a time, nothing but the output buffer is held between rows.
+// closing flushes the rows still buffered but leaves the underlying stream open
+public abstract class StockExportWriter implements Closeable {
+
+    static final String[] COLUMNS = {"stockId", "name", "description", "currentPrice", "updatedAt"};
+
+    public static StockExportWriter of(ExportFormat format, OutputStream output, JsonFactory jsonFactory) throws IOException {
+        return format == ExportFormat.CSV ? new Csv(output) : new Ndjson(output, jsonFactory);
+    }
+
+    public abstract void write(StockExportView stock) throws IOException;
+
+    // the same text the JSON responses use for LocalDateTime
+    static String format(LocalDateTime dateTime) {
+        return dateTime == null ? null : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(dateTime);
+    }
+
+    // one JSON object per line, fields named like StockDto
+    private static final class Ndjson extends StockExportWriter {
+
+        private final JsonGenerator generator;
+
+        private Ndjson(OutputStream output, JsonFactory jsonFactory) throws IOException {
+            this.generator = jsonFactory.createGenerator(output);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // lines are separated by the newline written after every object, not by the default space
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(StockExportView stock) throws IOException {
+            generator.writeStartObject();
+            if (stock.getStockId() == null) {
+                generator.writeNullField(COLUMNS[0]);
+            } else {
+                generator.writeNumberField(COLUMNS[0], stock.getStockId());
+            }
+            generator.writeStringField(COLUMNS[1], stock.getName());
+            generator.writeStringField(COLUMNS[2], stock.getDescription());
+            generator.writeNumberField(COLUMNS[3], stock.getCurrentPrice());
+            generator.writeStringField(COLUMNS[4], format(stock.getUpdatedAt()));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    // RFC 4180: a header line, CRLF line ends, fields quoted when they contain a separator, quote or line break
+    private static final class Csv extends StockExportWriter {
+
+        private final Writer writer;
+
+        private Csv(OutputStream output) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 16 * 1024);
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(StockExportView stock) throws IOException {
+            writer.write(stock.getStockId() == null ? "" : stock.getStockId().toString());
+            writer.write(',');
+            field(stock.getName());
+            writer.write(',');
+            field(stock.getDescription());
+            writer.write(',');
+            writer.write(stock.getCurrentPrice() == null ? "" : stock.getCurrentPrice().toPlainString());
+            writer.write(',');
+            field(format(stock.getUpdatedAt()));
+            writer.write("\r\n");
+        }
+
+        private void field(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        // flushes without closing the response stream underneath
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.stockexchange.gateway;
+
+import com.example.stockexchange.engine.AmendOrder;
+import com.example.stockexchange.engine.CancelOrder;
+import com.example.stockexchange.engine.ExecutionReport;
+import com.example.stockexchange.engine.NewOrder;
+import com.example.stockexchange.engine.OrderType;
+import com.example.stockexchange.engine.RejectReason;
+import com.example.stockexchange.engine.Side;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Binary order entry protocol, big-endian. Every frame is
+//   int32 length (of everything after it), byte type, body
+// Client -> gateway
+//   LOGON       1  short tokenLength, byte[] JWT (the same token the REST API accepts)
+//   NEW_ORDER   2  long clientOrderId, long stockExchangeId, long stockId, byte side, byte type, long price, long quantity
+//   CANCEL      3  long clientOrderId, long stockExchangeId, long stockId, long orderId
+//   AMEND       4  long clientOrderId, long stockExchangeId, long stockId, long orderId, long price, long quantity
+// Gateway -> client
+//   LOGON_ACK        101  long userId
+//   EXECUTION_REPORT 102  long clientOrderId, long orderId, byte status, byte rejectReason, long filled, long remaining,
+//                         short fillCount, fillCount * (long makerOrderId, long price, long quantity)
+//   REJECT           103  long clientOrderId, byte code (a session level error, the connection is closed after it)
+// Prices are engine ticks (see Prices), side is 1 BUY / 2 SELL, type is 1 LIMIT / 2 MARKET,
+// status is the ExecutionStatus ordinal and rejectReason is 0 or the RejectReason ordinal + 1.
+// Decoding reads the fields straight out of the receive buffer with absolute gets, nothing is copied.
+public final class GatewayProtocol {
+
+    public static final byte LOGON = 1;
+    public static final byte NEW_ORDER = 2;
+    public static final byte CANCEL = 3;
+    public static final byte AMEND = 4;
+    public static final byte LOGON_ACK = 101;
+    public static final byte EXECUTION_REPORT = 102;
+    public static final byte REJECT = 103;
+
+    public static final byte REJECT_NOT_LOGGED_ON = 1;
+    public static final byte REJECT_MALFORMED = 2;
+    public static final byte REJECT_LOGON_FAILED = 3;
+    public static final byte REJECT_SLOW_CONSUMER = 4;
+
+    public static final int LENGTH_FIELD = Integer.BYTES;
+    public static final int MAX_FRAME_LENGTH = 4096;
+
+    static final int NEW_ORDER_LENGTH = 1 + 3 * Long.BYTES + 2 + 2 * Long.BYTES;
+    static final int CANCEL_LENGTH = 1 + 4 * Long.BYTES;
+    static final int AMEND_LENGTH = 1 + 6 * Long.BYTES;
+    static final int FILL_LENGTH = 3 * Long.BYTES;
+    // a report never carries more fills than fit one frame, the remaining ones are still reflected in filled
+    static final int MAX_FILLS_PER_REPORT = (MAX_FRAME_LENGTH - 1 - 2 * Long.BYTES - 2 - 2 * Long.BYTES - Short.BYTES) / FILL_LENGTH;
+
+    private static final Side[] SIDES = {null, Side.BUY, Side.SELL};
+    private static final OrderType[] TYPES = {null, OrderType.LIMIT, OrderType.MARKET};
+
+    private GatewayProtocol() {
+    }
+
+    // length of the complete frame starting at position, or -1 while it has not fully arrived.
+    // throws for a length no valid frame can have
+    public static int frameLength(ByteBuffer buffer) {
+        if (buffer.remaining() < LENGTH_FIELD) {
+            return -1;
+        }
+        int length = buffer.getInt(buffer.position());
+        if (length < 1 || length > MAX_FRAME_LENGTH) {
+            throw new IllegalArgumentException("Invalid frame length " + length);
+        }
+        return buffer.remaining() < LENGTH_FIELD + length ? -1 : LENGTH_FIELD + length;
+    }
+
+    public static byte typeOf(ByteBuffer buffer) {
+        return buffer.get(buffer.position() + LENGTH_FIELD);
+    }
+
+    // client order id of an order entry frame
+    public static long clientOrderIdOf(ByteBuffer buffer) {
+        return buffer.getLong(body(buffer));
+    }
+
+    public static String decodeLogon(ByteBuffer buffer) {
+        int body = body(buffer);
+        int tokenLength = buffer.getShort(body) & 0xFFFF;
+        expect(buffer, 1 + Short.BYTES + tokenLength);
+        byte[] token = new byte[tokenLength];
+        buffer.get(body + Short.BYTES, token);
+        return new String(token, StandardCharsets.US_ASCII);
+    }
+
+    public static NewOrder decodeNewOrder(ByteBuffer buffer, long ownerId) {
+        expect(buffer, NEW_ORDER_LENGTH);
+        int body = body(buffer);
+        return new NewOrder(0,
+                buffer.getLong(body + 8),
+                buffer.getLong(body + 16),
+                ownerId,
+                code(SIDES, buffer.get(body + 24)),
+                code(TYPES, buffer.get(body + 25)),
+                buffer.getLong(body + 26),
+                buffer.getLong(body + 34));
+    }
+
+    public static CancelOrder decodeCancel(ByteBuffer buffer, long ownerId) {
+        expect(buffer, CANCEL_LENGTH);
+        int body = body(buffer);
+        return new CancelOrder(buffer.getLong(body + 24), buffer.getLong(body + 8), buffer.getLong(body + 16), ownerId);
+    }
+
+    public static AmendOrder decodeAmend(ByteBuffer buffer, long ownerId) {
+        expect(buffer, AMEND_LENGTH);
+        int body = body(buffer);
+        return new AmendOrder(buffer.getLong(body + 24), buffer.getLong(body + 8), buffer.getLong(body + 16), ownerId,
+                buffer.getLong(body + 32), buffer.getLong(body + 40));
+    }
+
+    public static int executionReportFrameLength(ExecutionReport report) {
+        int fills = Math.min(report.fills().size(), MAX_FILLS_PER_REPORT);
+        return LENGTH_FIELD + 1 + 2 * Long.BYTES + 2 + 2 * Long.BYTES + Short.BYTES + fills * FILL_LENGTH;
+    }
+
+    public static void encodeExecutionReport(ByteBuffer out, long clientOrderId, ExecutionReport report) {
+        int fills = Math.min(report.fills().size(), MAX_FILLS_PER_REPORT);
+        out.putInt(executionReportFrameLength(report) - LENGTH_FIELD)
+                .put(EXECUTION_REPORT)
+                .putLong(clientOrderId)
+                .putLong(report.orderId())
+                .put((byte) report.status().ordinal())
+                .put(rejectCode(report.rejectReason()))
+                .putLong(report.filledQuantity())
+                .putLong(report.remainingQuantity())
+                .putShort((short) fills);
+        for (int i = 0; i < fills; i++) {
+            ExecutionReport.Fill fill = report.fills().get(i);
+            out.putLong(fill.makerOrderId()).putLong(fill.price()).putLong(fill.quantity());
+        }
+    }
+
+    public static void encodeLogonAck(ByteBuffer out, long userId) {
+        out.putInt(1 + Long.BYTES).put(LOGON_ACK).putLong(userId);
+    }
+
+    public static void encodeReject(ByteBuffer out, long clientOrderId, byte code) {
+        out.putInt(1 + Long.BYTES + 1).put(REJECT).putLong(clientOrderId).put(code);
+    }
+
+    // client side encoders
+
+    public static void encodeLogon(ByteBuffer out, String token) {
+        byte[] bytes = token.getBytes(StandardCharsets.US_ASCII);
+        out.putInt(1 + Short.BYTES + bytes.length).put(LOGON).putShort((short) bytes.length).put(bytes);
+    }
+
+    public static void encodeNewOrder(ByteBuffer out, long clientOrderId, long stockExchangeId, long stockId,
+                                      Side side, OrderType type, long price, long quantity) {
+        out.putInt(NEW_ORDER_LENGTH).put(NEW_ORDER)
+                .putLong(clientOrderId).putLong(stockExchangeId).putLong(stockId)
+                .put((byte) (side.ordinal() + 1)).put((byte) (type.ordinal() + 1))
+                .putLong(price).putLong(quantity);
+    }
+
+    public static void encodeCancel(ByteBuffer out, long clientOrderId, long stockExchangeId, long stockId, long orderId) {
+        out.putInt(CANCEL_LENGTH).put(CANCEL)
+                .putLong(clientOrderId).putLong(stockExchangeId).putLong(stockId).putLong(orderId);
+    }
+
+    public static void encodeAmend(ByteBuffer out, long clientOrderId, long stockExchangeId, long stockId, long orderId,
+                                   long price, long quantity) {
+        out.putInt(AMEND_LENGTH).put(AMEND)
+                .putLong(clientOrderId).putLong(stockExchangeId).putLong(stockId).putLong(orderId)
+                .putLong(price).putLong(quantity);
+    }
+
+    public static RejectReason rejectReasonOf(byte code) {
+        return code == 0 ? null : RejectReason.values()[code - 1];
+    }
+
+    private static byte rejectCode(RejectReason reason) {
+        return reason == null ? 0 : (byte) (reason.ordinal() + 1);
+    }
+
+    private static int body(ByteBuffer buffer) {
+        return buffer.position() + LENGTH_FIELD + 1;
+    }
+
+    private static void expect(ByteBuffer buffer, int length) {
+        if (buffer.getInt(buffer.position()) != length) {
+            throw new IllegalArgumentException("Unexpected length for frame type " + typeOf(buffer));
+        }
+    }
+
+    private static <T> T code(T[] values, byte code) {
+        if (code < 1 || code >= values.length) {
+            throw new IllegalArgumentException("Unknown code " + code);
+        }
+        return values[code];
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.stockexchange.gateway;
+
+import com.example.stockexchange.engine.ExecutionReport;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// one client connection. buffers and the logon state belong to the selector thread, execution reports
+// arrive from the matching threads through the outbound queue and are encoded by the selector thread
+final class GatewaySession {
+
+    final SocketChannel channel;
+    final SelectionKey key;
+    final ByteBuffer readBuffer;
+    final ByteBuffer writeBuffer;
+
+    final Queue<Outbound> outbound = new ConcurrentLinkedQueue<>();
+    final AtomicInteger pending = new AtomicInteger();
+    // set while the session waits in the gateway's flush queue, so a burst of reports queues it once
+    final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    long userId;
+    boolean loggedOn;
+    volatile boolean closed;
+
+    GatewaySession(SocketChannel channel, SelectionKey key, int bufferSize) {
+        this.channel = channel;
+        this.key = key;
+        this.readBuffer = ByteBuffer.allocateDirect(bufferSize);
+        this.writeBuffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    record Outbound(long clientOrderId, ExecutionReport report) {
+    }
+}
@@ -0,0 +1,369 @@
+package com.example.stockexchange.gateway;
+
+import com.example.stockexchange.engine.ExecutionReport;
+import com.example.stockexchange.engine.OrderCommand;
+import com.example.stockexchange.engine.OrderSequencer;
+import com.example.stockexchange.engine.RejectReason;
+import com.example.stockexchange.entity.UserCredintials;
+import com.example.stockexchange.revocation.TokenRevocationList;
+import com.example.stockexchange.service.JwtService;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Non-blocking TCP order entry for high-rate clients (protocol in GatewayProtocol). A single selector
+// thread owns every connection: it decodes frames in place from direct buffers, hands the commands to the
+// same OrderSequencer the REST API uses, and writes back the execution reports the matching threads queue up.
+@Slf4j
+@Component
+public class OrderGateway implements SmartLifecycle {
+
+    private final OrderSequencer orderSequencer;
+    private final JwtService jwtService;
+    private final UserDetailsService userDetailsService;
+    private final TokenRevocationList revocationList;
+    private final boolean enabled;
+    private final String host;
+    private final int port;
+    private final int bufferSize;
+    private final int maxPendingReports;
+
+    private final Queue<GatewaySession> flushQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+
+    private volatile Selector selector;
+    private volatile ServerSocketChannel serverChannel;
+    private volatile Thread thread;
+    private volatile boolean running;
+
+    public OrderGateway(OrderSequencer orderSequencer,
+                        JwtService jwtService,
+                        UserDetailsService userDetailsService,
+                        TokenRevocationList revocationList,
+                        @Value("${app.gateway.enabled:true}") boolean enabled,
+                        @Value("${app.gateway.host:127.0.0.1}") String host,
+                        @Value("${app.gateway.port:9091}") int port,
+                        @Value("${app.gateway.buffer-size:65536}") int bufferSize,
+                        @Value("${app.gateway.max-pending-reports:100000}") int maxPendingReports) {
+        this.orderSequencer = orderSequencer;
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.revocationList = revocationList;
+        this.enabled = enabled;
+        this.host = host;
+        this.port = port;
+        this.bufferSize = Math.max(bufferSize, GatewayProtocol.LENGTH_FIELD + GatewayProtocol.MAX_FRAME_LENGTH);
+        this.maxPendingReports = maxPendingReports;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        try {
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(host, port));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open the order gateway on " + host + ":" + port, e);
+        }
+        running = true;
+        thread = new Thread(this::run, "order-gateway");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Order gateway listening on {}:{}", host, getLocalPort());
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Order gateway stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // the bound port, useful when configured with port 0
+    public int getLocalPort() {
+        try {
+            ServerSocketChannel channel = serverChannel;
+            return channel == null ? -1 : ((InetSocketAddress) channel.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                wakeupPending.set(false);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+                flushPending();
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            log.error("Order gateway selector failed", e);
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        GatewaySession session = (GatewaySession) key.attachment();
+        try {
+            if (key.isReadable()) {
+                read(session);
+            }
+            if (key.isValid() && key.isWritable()) {
+                flush(session);
+            }
+        } catch (IOException e) {
+            log.debug("Gateway connection closed: {}", e.getMessage());
+            close(session);
+        }
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel = serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new GatewaySession(channel, key, bufferSize));
+        } catch (IOException e) {
+            log.warn("Could not accept a gateway connection", e);
+        }
+    }
+
+    private void read(GatewaySession session) throws IOException {
+        ByteBuffer buffer = session.readBuffer;
+        if (session.channel.read(buffer) < 0) {
+            close(session);
+            return;
+        }
+        buffer.flip();
+        try {
+            int frameLength;
+            while (!session.closed && (frameLength = GatewayProtocol.frameLength(buffer)) > 0) {
+                dispatch(session, buffer);
+                buffer.position(buffer.position() + frameLength);
+            }
+        } catch (RuntimeException e) {
+            // a frame we cannot decode leaves the stream out of sync, so the connection is dropped
+            log.debug("Malformed gateway frame: {}", e.getMessage());
+            rejectAndClose(session, 0, GatewayProtocol.REJECT_MALFORMED);
+            return;
+        }
+        buffer.compact();
+    }
+
+    private void dispatch(GatewaySession session, ByteBuffer frame) throws IOException {
+        byte type = GatewayProtocol.typeOf(frame);
+        if (type == GatewayProtocol.LOGON) {
+            logon(session, GatewayProtocol.decodeLogon(frame));
+            return;
+        }
+        long clientOrderId = GatewayProtocol.clientOrderIdOf(frame);
+        if (!session.loggedOn) {
+            rejectAndClose(session, clientOrderId, GatewayProtocol.REJECT_NOT_LOGGED_ON);
+            return;
+        }
+        OrderCommand command = switch (type) {
+            case GatewayProtocol.NEW_ORDER -> GatewayProtocol.decodeNewOrder(frame, session.userId);
+            case GatewayProtocol.CANCEL -> GatewayProtocol.decodeCancel(frame, session.userId);
+            case GatewayProtocol.AMEND -> GatewayProtocol.decodeAmend(frame, session.userId);
+            default -> throw new IllegalArgumentException("Unknown frame type " + type);
+        };
+        orderSequencer.submit(command).whenComplete((report, failure) -> enqueue(session, clientOrderId,
+                failure == null ? report : ExecutionReport.rejected(command.orderId(), RejectReason.ENGINE_UNAVAILABLE)));
+    }
+
+    // the token is checked like JwtAuthenticationFilter does, plus a user lookup: this runs once per
+    // connection, so the lookup on the selector thread is acceptable
+    private void logon(GatewaySession session, String token) throws IOException {
+        try {
+            Claims claims = jwtService.parseToken(token);
+            UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+            if (!revocationList.isRevoked(claims.getId())
+                    && jwtService.isTokenValid(token, userDetails)
+                    && userDetails instanceof UserCredintials credentials
+                    && userDetails.getAuthorities().stream().anyMatch(a -> "ROLE_USER".equals(a.getAuthority()))) {
+                session.userId = credentials.getId();
+                session.loggedOn = true;
+                ensureCapacity(session, 1 + Long.BYTES + GatewayProtocol.LENGTH_FIELD);
+                GatewayProtocol.encodeLogonAck(session.writeBuffer, session.userId);
+                flush(session);
+                return;
+            }
+        } catch (RuntimeException e) {
+            log.debug("Gateway logon failed: {}", e.getMessage());
+        }
+        rejectAndClose(session, 0, GatewayProtocol.REJECT_LOGON_FAILED);
+    }
+
+    // called from the matching threads
+    private void enqueue(GatewaySession session, long clientOrderId, ExecutionReport report) {
+        if (session.closed) {
+            return;
+        }
+        session.outbound.add(new GatewaySession.Outbound(clientOrderId, report));
+        if (session.pending.incrementAndGet() > maxPendingReports) {
+            // a client that stops reading must not hold on to unbounded memory
+            session.closed = true;
+        }
+        if (session.flushScheduled.compareAndSet(false, true)) {
+            flushQueue.add(session);
+            if (wakeupPending.compareAndSet(false, true)) {
+                selector.wakeup();
+            }
+        }
+    }
+
+    private void flushPending() {
+        GatewaySession session;
+        while ((session = flushQueue.poll()) != null) {
+            session.flushScheduled.set(false);
+            if (session.closed && session.key.isValid()) {
+                log.warn("Dropping slow gateway client {}", session.userId);
+                encodeReject(session, 0, GatewayProtocol.REJECT_SLOW_CONSUMER);
+                close(session);
+                continue;
+            }
+            try {
+                flush(session);
+            } catch (IOException e) {
+                close(session);
+            }
+        }
+    }
+
+    // encodes queued reports into the write buffer and writes as much as the socket takes; whatever is left
+    // waits for OP_WRITE
+    private void flush(GatewaySession session) throws IOException {
+        if (!session.key.isValid()) {
+            return;
+        }
+        ByteBuffer out = session.writeBuffer;
+        GatewaySession.Outbound next;
+        while ((next = session.outbound.peek()) != null) {
+            if (out.remaining() < GatewayProtocol.executionReportFrameLength(next.report())) {
+                if (out.position() == 0) {
+                    break;
+                }
+                writeOut(session);
+                if (out.remaining() < GatewayProtocol.executionReportFrameLength(next.report())) {
+                    break;
+                }
+            }
+            GatewayProtocol.encodeExecutionReport(out, next.clientOrderId(), next.report());
+            session.outbound.poll();
+            session.pending.decrementAndGet();
+        }
+        writeOut(session);
+        boolean backlog = out.position() > 0 || !session.outbound.isEmpty();
+        session.key.interestOps(backlog
+                ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+                : SelectionKey.OP_READ);
+    }
+
+    private void writeOut(GatewaySession session) throws IOException {
+        ByteBuffer out = session.writeBuffer;
+        out.flip();
+        session.channel.write(out);
+        out.compact();
+    }
+
+    private void ensureCapacity(GatewaySession session, int length) throws IOException {
+        if (session.writeBuffer.remaining() < length) {
+            writeOut(session);
+        }
+        if (session.writeBuffer.remaining() < length) {
+            throw new IOException("Gateway client is not reading");
+        }
+    }
+
+    private void rejectAndClose(GatewaySession session, long clientOrderId, byte code) {
+        encodeReject(session, clientOrderId, code);
+        close(session);
+    }
+
+    private void encodeReject(GatewaySession session, long clientOrderId, byte code) {
+        try {
+            ensureCapacity(session, GatewayProtocol.LENGTH_FIELD + 1 + Long.BYTES + 1);
+            GatewayProtocol.encodeReject(session.writeBuffer, clientOrderId, code);
+            writeOut(session);
+        } catch (IOException e) {
+            log.debug("Could not send gateway reject: {}", e.getMessage());
+        }
+    }
+
+    private void close(GatewaySession session) {
+        session.closed = true;
+        session.key.cancel();
+        try {
+            session.channel.close();
+        } catch (IOException e) {
+            log.debug("Error closing gateway connection", e);
+        }
+    }
+
+    private void closeAll() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof GatewaySession session) {
+                close(session);
+            }
+        }
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException e) {
+            log.debug("Error closing order gateway", e);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.stockexchange.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// logback's AsyncAppender on a lock-free ring instead of an ArrayBlockingQueue: a logging thread claims a slot
+// with one CAS and never takes a lock, a single worker thread hands the events to the attached appenders.
+// - DEBUG and TRACE are dropped once the ring is fuller than discardingThreshold (a share of the capacity)
+// - INFO and above wait for a free slot, they are never lost
+// the dropped events are counted per level and exported as logback.events.dropped (LoggingMetrics)
+public class AsyncRingAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder droppedDebug = new LongAdder();
+    private final LongAdder droppedTrace = new LongAdder();
+
+    private int capacity = 8192;
+    private double discardingThreshold = 0.8;
+    private int maxFlushTime = 1000;
+
+    private AtomicReferenceArray<ILoggingEvent> slots;
+    private int mask;
+    private long discardAbove;
+    // next slot the worker reads, only written by the worker
+    private volatile long head;
+    private volatile long flushDeadline = Long.MAX_VALUE;
+    private Thread worker;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (!appenders.iteratorForAppenders().hasNext()) {
+            addError("No appender attached to " + getName());
+            return;
+        }
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        slots = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+        discardAbove = (long) (size * discardingThreshold);
+        head = 0;
+        tail.set(0);
+        flushDeadline = Long.MAX_VALUE;
+        super.start();
+        worker = new Thread(this::drain, "async-log-" + getName());
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        flushDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxFlushTime);
+        super.stop();
+        try {
+            worker.join(maxFlushTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (head != tail.get()) {
+            addWarn("Dropped " + (tail.get() - head) + " events of " + getName() + " that were not flushed in time");
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        boolean discardable = !event.getLevel().isGreaterOrEqual(Level.INFO);
+        if (discardable && tail.get() - head >= discardAbove) {
+            drop(event);
+            return;
+        }
+        // message, MDC and thread name are taken now, they are gone by the time the worker writes the event.
+        // before the claim: a claimed slot that is never written would stall the worker
+        event.prepareForDeferredProcessing();
+        long claimed;
+        while (true) {
+            long next = tail.get();
+            long used = next - head;
+            if (discardable && used >= discardAbove) {
+                drop(event);
+                return;
+            }
+            if (used >= slots.length()) {
+                if (!isStarted()) {
+                    return;
+                }
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+                continue;
+            }
+            if (tail.compareAndSet(next, next + 1)) {
+                claimed = next;
+                break;
+            }
+        }
+        slots.lazySet((int) (claimed & mask), event);
+    }
+
+    private void drop(ILoggingEvent event) {
+        (event.getLevel() == Level.DEBUG ? droppedDebug : droppedTrace).increment();
+    }
+
+    private void drain() {
+        while (true) {
+            long next = head;
+            int slot = (int) (next & mask);
+            ILoggingEvent event = slots.get(slot);
+            if (event != null) {
+                slots.lazySet(slot, null);
+                head = next + 1;
+                appenders.appendLoopOnAppenders(event);
+                continue;
+            }
+            if (!isStarted() && (next == tail.get() || System.nanoTime() > flushDeadline)) {
+                return;
+            }
+            // a claimed slot is written right after the claim, so an empty slot behind the tail is filled shortly
+            LockSupport.parkNanos(next == tail.get() ? IDLE_PARK_NANOS : FULL_PARK_NANOS);
+        }
+    }
+
+    public long getDropped(Level level) {
+        if (level == Level.DEBUG) {
+            return droppedDebug.sum();
+        }
+        return level == Level.TRACE ? droppedTrace.sum() : 0;
+    }
+
+    public int getQueued() {
+        return (int) (tail.get() - head);
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void setDiscardingThreshold(double discardingThreshold) {
+        this.discardingThreshold = discardingThreshold;
+    }
+
+    public void setMaxFlushTime(int maxFlushTime) {
+        this.maxFlushTime = maxFlushTime;
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> appender) {
+        appenders.addAppender(appender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
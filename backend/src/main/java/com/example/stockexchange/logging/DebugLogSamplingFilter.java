@@ -0,0 +1,54 @@
+package com.example.stockexchange.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+// picks debug-sample-rate of the requests whose DEBUG and TRACE logs are written (SampledDebugTurboFilter), so
+// production keeps complete debug traces of a few requests instead of every line of every request
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DebugLogSamplingFilter extends OncePerRequestFilter {
+
+    public static final String SAMPLED = "sampled";
+
+    private final double sampleRate;
+
+    public DebugLogSamplingFilter(@Value("${app.logging.debug-sample-rate:0.01}") double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return sampleRate <= 0;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        if (ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        MDC.put(SAMPLED, "true");
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(SAMPLED);
+        }
+    }
+}
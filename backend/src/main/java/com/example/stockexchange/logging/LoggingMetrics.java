@@ -0,0 +1,48 @@
+package com.example.stockexchange.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+
+// exports the events the async appenders of the root logger dropped and how many are waiting to be written
+@Component
+public class LoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return;
+        }
+        Iterator<Appender<ILoggingEvent>> appenders =
+                context.getLogger(Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+        while (appenders.hasNext()) {
+            if (appenders.next() instanceof AsyncRingAppender appender) {
+                bind(registry, appender);
+            }
+        }
+    }
+
+    private static void bind(MeterRegistry registry, AsyncRingAppender appender) {
+        for (Level level : new Level[]{Level.DEBUG, Level.TRACE}) {
+            FunctionCounter.builder("logback.events.dropped", appender, a -> a.getDropped(level))
+                    .description("Logging events dropped because the async appender was full")
+                    .tag("appender", appender.getName())
+                    .tag("level", level.toString().toLowerCase())
+                    .register(registry);
+        }
+        Gauge.builder("logback.events.queued", appender, AsyncRingAppender::getQueued)
+                .description("Logging events waiting to be written by the async appender")
+                .tag("appender", appender.getName())
+                .register(registry);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.stockexchange.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+// lets DEBUG and TRACE through only for the requests DebugLogSamplingFilter picked. a turbo filter runs before
+// the logging event is created, so an unsampled debug call costs a level comparison and an MDC lookup, and
+// isDebugEnabled() guards in the code skip building their arguments as well
+public class SampledDebugTurboFilter extends TurboFilter {
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level == null || level.isGreaterOrEqual(Level.INFO)) {
+            return FilterReply.NEUTRAL;
+        }
+        return MDC.get(DebugLogSamplingFilter.SAMPLED) != null ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.stockexchange.market;
+
+import com.example.stockexchange.entity.StockListingId;
+import com.example.stockexchange.event.StockDelistedEvent;
+import com.example.stockexchange.event.StockDeletedEvent;
+import com.example.stockexchange.event.StockExchangeDeletedEvent;
+import com.example.stockexchange.event.StockExchangeStatusChangedEvent;
+import com.example.stockexchange.event.StockListedEvent;
+import com.example.stockexchange.repository.StockExchangeRepository;
+import com.example.stockexchange.repository.StockListingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// in-memory copy of stock_exchange_stock (and of which exchanges are live) so hot paths can answer
+// "which exchanges list this stock" or "can this listing trade" without a database round trip,
+// loaded once at startup and kept in sync from the listing and status events
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ListingRegistry {
+
+    private final StockListingRepository stockListingRepository;
+    private final StockExchangeRepository stockExchangeRepository;
+
+    private final ConcurrentHashMap<Long, Set<Long>> exchangesByStock = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<Long>> stocksByExchange = new ConcurrentHashMap<>();
+    private final Set<Long> liveExchanges = ConcurrentHashMap.newKeySet();
+
+    @Order(0)
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        exchangesByStock.clear();
+        stocksByExchange.clear();
+        liveExchanges.clear();
+        liveExchanges.addAll(stockExchangeRepository.findLiveStockExchangeIds());
+        for (StockListingId id : stockListingRepository.findAllListingIds()) {
+            add(id.getStockExchangeId(), id.getStockId());
+        }
+        log.info("Listing registry loaded {} exchanges, {} live", stocksByExchange.size(), liveExchanges.size());
+    }
+
+    public boolean isListed(long stockExchangeId, long stockId) {
+        Set<Long> stocks = stocksByExchange.get(stockExchangeId);
+        return stocks != null && stocks.contains(stockId);
+    }
+
+    public boolean isLive(long stockExchangeId) {
+        return liveExchanges.contains(stockExchangeId);
+    }
+
+    // orders are only accepted for listed stocks on exchanges that are live in the market
+    public boolean isTradable(long stockExchangeId, long stockId) {
+        return isLive(stockExchangeId) && isListed(stockExchangeId, stockId);
+    }
+
+    public Set<Long> exchangesOf(long stockId) {
+        return Collections.unmodifiableSet(exchangesByStock.getOrDefault(stockId, Set.of()));
+    }
+
+    public Set<Long> stocksOf(long stockExchangeId) {
+        return Collections.unmodifiableSet(stocksByExchange.getOrDefault(stockExchangeId, Set.of()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockListed(StockListedEvent event) {
+        add(event.getStockExchangeId(), event.getStockId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDelisted(StockDelistedEvent event) {
+        remove(event.getStockExchangeId(), event.getStockId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDeleted(StockDeletedEvent event) {
+        Set<Long> exchanges = exchangesByStock.remove(event.getStockId());
+        if (exchanges != null) {
+            exchanges.forEach(exchangeId -> stocksByExchange.computeIfPresent(exchangeId, (id, stocks) -> {
+                stocks.remove(event.getStockId());
+                return stocks.isEmpty() ? null : stocks;
+            }));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockExchangeStatusChanged(StockExchangeStatusChangedEvent event) {
+        if (event.isLiveInMarket()) {
+            liveExchanges.add(event.getStockExchangeId());
+        } else {
+            liveExchanges.remove(event.getStockExchangeId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockExchangeDeleted(StockExchangeDeletedEvent event) {
+        liveExchanges.remove(event.getStockExchangeId());
+        Set<Long> stocks = stocksByExchange.remove(event.getStockExchangeId());
+        if (stocks != null) {
+            stocks.forEach(stockId -> exchangesByStock.computeIfPresent(stockId, (id, exchanges) -> {
+                exchanges.remove(event.getStockExchangeId());
+                return exchanges.isEmpty() ? null : exchanges;
+            }));
+        }
+    }
+
+    private void add(Long stockExchangeId, Long stockId) {
+        stocksByExchange.computeIfAbsent(stockExchangeId, id -> ConcurrentHashMap.newKeySet()).add(stockId);
+        exchangesByStock.computeIfAbsent(stockId, id -> ConcurrentHashMap.newKeySet()).add(stockExchangeId);
+    }
+
+    private void remove(Long stockExchangeId, Long stockId) {
+        stocksByExchange.computeIfPresent(stockExchangeId, (id, stocks) -> {
+            stocks.remove(stockId);
+            return stocks.isEmpty() ? null : stocks;
+        });
+        exchangesByStock.computeIfPresent(stockId, (id, exchanges) -> {
+            exchanges.remove(stockExchangeId);
+            return exchanges.isEmpty() ? null : exchanges;
+        });
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.stockexchange.market;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+// sequenced market data of one exchange: the current state (listed stocks and their prices) plus a ring of
+// the most recent deltas. every change gets the next sequence number, so a snapshot tagged with sequence n
+// followed by the deltas n+1, n+2, ... reproduces the state exactly; a subscriber that fell further behind
+// than the ring reaches starts over from a new snapshot.
+// the epoch tells one incarnation of the channel from the next (a restart starts the sequence over)
+public class MarketDataChannel {
+
+    private final long stockExchangeId;
+    private final long epoch;
+    private final MarketDataDelta[] ring;
+    private final TreeMap<Long, StockState> stocks = new TreeMap<>(); // guarded by this
+    private long sequence; // guarded by this
+
+    public MarketDataChannel(long stockExchangeId, long epoch, int replayCapacity) {
+        this.stockExchangeId = stockExchangeId;
+        this.epoch = epoch;
+        this.ring = new MarketDataDelta[replayCapacity];
+    }
+
+    public long stockExchangeId() {
+        return stockExchangeId;
+    }
+
+    public long epoch() {
+        return epoch;
+    }
+
+    public synchronized long sequence() {
+        return sequence;
+    }
+
+    public synchronized void listed(long stockId, String name, long price) {
+        stocks.put(stockId, new StockState(name, price));
+        append(MarketDataDelta.Kind.LISTED, stockId, price, name);
+    }
+
+    // a price equal to the current one is not a change and costs no sequence number
+    public synchronized void priceChanged(long stockId, long price) {
+        StockState state = stocks.get(stockId);
+        if (state == null || state.price() == price) {
+            return;
+        }
+        stocks.put(stockId, new StockState(state.name(), price));
+        append(MarketDataDelta.Kind.PRICE, stockId, price, null);
+    }
+
+    public synchronized void delisted(long stockId) {
+        if (stocks.remove(stockId) != null) {
+            append(MarketDataDelta.Kind.DELISTED, stockId, 0, null);
+        }
+    }
+
+    public synchronized MarketDataSnapshot snapshot() {
+        List<MarketDataSnapshot.Entry> entries = new ArrayList<>(stocks.size());
+        stocks.forEach((stockId, state) -> entries.add(new MarketDataSnapshot.Entry(stockId, state.name(), state.price())));
+        return new MarketDataSnapshot(stockExchangeId, epoch, sequence, entries);
+    }
+
+    // up to max deltas after the given sequence, empty when there is nothing new, null when they are no
+    // longer (or never were) in the ring and only a snapshot can bring the subscriber back
+    public synchronized List<MarketDataDelta> since(long after, int max) {
+        if (after > sequence || after < sequence - Math.min(sequence, ring.length)) {
+            return null;
+        }
+        int count = (int) Math.min(sequence - after, max);
+        List<MarketDataDelta> deltas = new ArrayList<>(count);
+        for (long next = after + 1; next <= after + count; next++) {
+            deltas.add(ring[(int) (next % ring.length)]);
+        }
+        return deltas;
+    }
+
+    private void append(MarketDataDelta.Kind kind, long stockId, long price, String name) {
+        long next = ++sequence;
+        ring[(int) (next % ring.length)] = new MarketDataDelta(next, kind, stockId, price, name);
+    }
+
+    private record StockState(String name, long price) {
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.stockexchange.market;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Binary market data encoding (application/x-market-data). Every frame is
+//   varint length (of everything after it), byte type, body
+// with every number an unsigned LEB128 varint, so the ids and prices of a typical exchange take 2 - 5 bytes
+//   SNAPSHOT   1  stockExchangeId, epoch, sequence, count,
+//                 count * (stockId - previous stockId, price, nameLength, byte[] UTF-8 name)
+//   DELTAS     2  stockExchangeId, epoch, firstSequence, count,
+//                 count * (byte kind, stockId, then price for PRICE, price nameLength name for LISTED)
+//   HEARTBEAT  3  stockExchangeId, epoch, sequence
+// Deltas of one frame carry consecutive sequence numbers starting at firstSequence, kind is the
+// MarketDataDelta.Kind ordinal and prices are engine ticks (see Prices).
+public final class MarketDataCodec {
+
+    public static final String MEDIA_TYPE = "application/x-market-data";
+
+    public static final byte SNAPSHOT = 1;
+    public static final byte DELTAS = 2;
+    public static final byte HEARTBEAT = 3;
+
+    private static final MarketDataDelta.Kind[] KINDS = MarketDataDelta.Kind.values();
+
+    private MarketDataCodec() {
+    }
+
+    public static byte[] encodeSnapshot(MarketDataSnapshot snapshot) {
+        Writer writer = new Writer(32 + snapshot.entries().size() * 24);
+        writer.header(SNAPSHOT);
+        writer.varint(snapshot.stockExchangeId());
+        writer.varint(snapshot.epoch());
+        writer.varint(snapshot.sequence());
+        writer.varint(snapshot.entries().size());
+        long previous = 0;
+        for (MarketDataSnapshot.Entry entry : snapshot.entries()) {
+            // entries are ordered by stock id, the gaps between them are small
+            writer.varint(entry.stockId() - previous);
+            writer.varint(entry.price());
+            writer.string(entry.name());
+            previous = entry.stockId();
+        }
+        return writer.frame();
+    }
+
+    public static byte[] encodeDeltas(long stockExchangeId, long epoch, List<MarketDataDelta> deltas) {
+        Writer writer = new Writer(32 + deltas.size() * 12);
+        writer.header(DELTAS);
+        writer.varint(stockExchangeId);
+        writer.varint(epoch);
+        writer.varint(deltas.get(0).sequence());
+        writer.varint(deltas.size());
+        for (MarketDataDelta delta : deltas) {
+            writer.put((byte) delta.kind().ordinal());
+            writer.varint(delta.stockId());
+            if (delta.kind() != MarketDataDelta.Kind.DELISTED) {
+                writer.varint(delta.price());
+            }
+            if (delta.kind() == MarketDataDelta.Kind.LISTED) {
+                writer.string(delta.name());
+            }
+        }
+        return writer.frame();
+    }
+
+    public static byte[] encodeHeartbeat(long stockExchangeId, long epoch, long sequence) {
+        Writer writer = new Writer(32);
+        writer.header(HEARTBEAT);
+        writer.varint(stockExchangeId);
+        writer.varint(epoch);
+        writer.varint(sequence);
+        return writer.frame();
+    }
+
+    // decodes the frame at position and moves past it, false (and the position unchanged) while the frame
+    // has not fully arrived. throws for a frame that is not valid
+    public static boolean decode(ByteBuffer buffer, Listener listener) {
+        int start = buffer.position();
+        try {
+            int length = (int) readVarint(buffer);
+            if (buffer.remaining() < length) {
+                buffer.position(start);
+                return false;
+            }
+            ByteBuffer frame = buffer.slice(buffer.position(), length);
+            buffer.position(buffer.position() + length);
+            decodeFrame(frame, listener);
+            return true;
+        } catch (BufferUnderflowException e) {
+            // the length itself is incomplete
+            buffer.position(start);
+            return false;
+        }
+    }
+
+    private static void decodeFrame(ByteBuffer frame, Listener listener) {
+        try {
+            byte type = frame.get();
+            long stockExchangeId = readVarint(frame);
+            long epoch = readVarint(frame);
+            long sequence = readVarint(frame);
+            if (type == SNAPSHOT) {
+                int count = (int) readVarint(frame);
+                List<MarketDataSnapshot.Entry> entries = new ArrayList<>(count);
+                long stockId = 0;
+                for (int i = 0; i < count; i++) {
+                    stockId += readVarint(frame);
+                    long price = readVarint(frame);
+                    entries.add(new MarketDataSnapshot.Entry(stockId, readString(frame), price));
+                }
+                listener.onSnapshot(new MarketDataSnapshot(stockExchangeId, epoch, sequence, entries));
+            } else if (type == DELTAS) {
+                int count = (int) readVarint(frame);
+                List<MarketDataDelta> deltas = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    MarketDataDelta.Kind kind = KINDS[frame.get()];
+                    long stockId = readVarint(frame);
+                    long price = kind == MarketDataDelta.Kind.DELISTED ? 0 : readVarint(frame);
+                    String name = kind == MarketDataDelta.Kind.LISTED ? readString(frame) : null;
+                    deltas.add(new MarketDataDelta(sequence + i, kind, stockId, price, name));
+                }
+                listener.onDeltas(stockExchangeId, epoch, deltas);
+            } else if (type == HEARTBEAT) {
+                listener.onHeartbeat(stockExchangeId, epoch, sequence);
+            } else {
+                throw new IllegalArgumentException("Unknown market data frame type " + type);
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed market data frame", e);
+        }
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint longer than 64 bits");
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = (int) readVarint(buffer);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public interface Listener {
+
+        void onSnapshot(MarketDataSnapshot snapshot);
+
+        void onDeltas(long stockExchangeId, long epoch, List<MarketDataDelta> deltas);
+
+        void onHeartbeat(long stockExchangeId, long epoch, long sequence);
+    }
+
+    // writes the body after room for the longest length prefix, which is filled in once the body length
+    // is known, so the prefix does not have to be measured up front
+    private static final class Writer {
+
+        private static final int LENGTH_ROOM = 5;
+
+        private byte[] bytes;
+        private int position = LENGTH_ROOM;
+
+        private Writer(int capacity) {
+            bytes = new byte[LENGTH_ROOM + capacity];
+        }
+
+        private void header(byte type) {
+            put(type);
+        }
+
+        private void put(byte b) {
+            ensure(1);
+            bytes[position++] = b;
+        }
+
+        private void varint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[position++] = (byte) value;
+        }
+
+        private void string(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            varint(utf8.length);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, bytes, position, utf8.length);
+            position += utf8.length;
+        }
+
+        private byte[] frame() {
+            int length = position - LENGTH_ROOM;
+            int prefix = 1;
+            for (int rest = length >>> 7; rest != 0; rest >>>= 7) {
+                prefix++;
+            }
+            int start = LENGTH_ROOM - prefix;
+            int at = start;
+            int value = length;
+            while ((value & ~0x7F) != 0) {
+                bytes[at++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[at] = (byte) value;
+            return Arrays.copyOfRange(bytes, start, position);
+        }
+
+        private void ensure(int needed) {
+            if (position + needed > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, position + needed));
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.stockexchange.market;
+
+// one sequenced change of an exchange's market data, price in engine ticks, name only for LISTED
+public record MarketDataDelta(long sequence, Kind kind, long stockId, long price, String name) {
+
+    public enum Kind {
+        PRICE,
+        LISTED,
+        DELISTED
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.stockexchange.market;
+
+import java.util.List;
+
+// every listed stock of an exchange as of sequence, ordered by stock id, prices in engine ticks
+public record MarketDataSnapshot(long stockExchangeId, long epoch, long sequence, List<Entry> entries) {
+
+    public record Entry(long stockId, String name, long price) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.stockexchange.market;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+public enum MoversDirection {
+
+    GAINERS,
+    LOSERS;
+
+    public List<TopMoversBoard.Entry> top(TopMoversBoard board, int k) {
+        return this == LOSERS ? board.topLosers(k) : board.topGainers(k);
+    }
+
+    // an unknown direction is a bad request, not the gainers
+    public static MoversDirection of(String direction) {
+        for (MoversDirection candidate : values()) {
+            if (candidate.name().equalsIgnoreCase(direction)) {
+                return candidate;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Unsupported movers direction: " + direction + ", expected gainers or losers");
+    }
+}
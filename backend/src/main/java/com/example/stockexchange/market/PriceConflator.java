@@ -0,0 +1,92 @@
+package com.example.stockexchange.market;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// keeps only the latest trade price per stock between two drains, so a stock trading ten thousand times
+// a second still costs one write per drain. stamps are System.nanoTime() values, the latest stamp wins
+// no matter which exchange (partition thread) the trade happened on.
+// precedence: a manual price update supersedes every trade stamped before it plus the manual hold,
+// with a zero hold that is plain last writer wins
+public class PriceConflator {
+
+    private final long manualHoldNanos;
+
+    private final ConcurrentHashMap<Long, PriceUpdate> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> manualUpdates = new ConcurrentHashMap<>();
+    // last price written per stock, so trades at an unchanged price write nothing
+    private final ConcurrentHashMap<Long, Long> published = new ConcurrentHashMap<>();
+    private long previousDrainAt = Long.MIN_VALUE; // only touched by the draining thread
+
+    public PriceConflator(long manualHoldNanos) {
+        this.manualHoldNanos = manualHoldNanos;
+    }
+
+    // called on the matching threads: one map merge, no locks held across stocks
+    public void onTrade(long stockId, long ticks, long stamp) {
+        pending.merge(stockId, new PriceUpdate(stockId, ticks, stamp), PriceConflator::latest);
+    }
+
+    public void onManualUpdate(long stockId, long stamp) {
+        manualUpdates.merge(stockId, stamp, Math::max);
+        // the stored price is no longer the last trade price, so the next trade must be written even if equal
+        published.remove(stockId);
+    }
+
+    public void forget(long stockId) {
+        pending.remove(stockId);
+        manualUpdates.remove(stockId);
+        published.remove(stockId);
+    }
+
+    // takes every pending price that is neither superseded by a manual update nor already written
+    public List<PriceUpdate> drain(long now) {
+        List<PriceUpdate> updates = new ArrayList<>();
+        for (Long stockId : pending.keySet()) {
+            PriceUpdate update = pending.remove(stockId);
+            if (update == null || supersededByManual(update)) {
+                continue;
+            }
+            Long written = published.get(stockId);
+            if (written == null || written != update.ticks()) {
+                updates.add(update);
+            }
+        }
+        // a trade stamped before a manual update can still be merging while we drain, so manual entries
+        // are kept until one full drain after their hold has passed
+        long expiredBefore = previousDrainAt;
+        manualUpdates.values().removeIf(manualAt -> manualAt + manualHoldNanos < expiredBefore);
+        previousDrainAt = now;
+        return updates;
+    }
+
+    public void published(List<PriceUpdate> updates) {
+        for (PriceUpdate update : updates) {
+            published.put(update.stockId(), update.ticks());
+        }
+    }
+
+    // puts back updates whose write failed, unless a newer trade arrived meanwhile
+    public void requeue(List<PriceUpdate> updates) {
+        for (PriceUpdate update : updates) {
+            pending.merge(update.stockId(), update, PriceConflator::latest);
+        }
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    private boolean supersededByManual(PriceUpdate update) {
+        Long manualAt = manualUpdates.get(update.stockId());
+        return manualAt != null && update.stamp() - (manualAt + manualHoldNanos) < 0;
+    }
+
+    private static PriceUpdate latest(PriceUpdate current, PriceUpdate candidate) {
+        return candidate.stamp() - current.stamp() >= 0 ? candidate : current;
+    }
+
+    public record PriceUpdate(long stockId, long ticks, long stamp) {
+    }
+}
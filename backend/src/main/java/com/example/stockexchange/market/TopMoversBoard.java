@@ -0,0 +1,102 @@
+package com.example.stockexchange.market;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// continuously ranked view of one exchange's stocks by change since the session open.
+// writers reposition a single entry in O(log n), readers walk the first k entries of the skip list
+// without locking, so a top-k query costs O(k) no matter how many stocks are listed
+public class TopMoversBoard {
+
+    // change is kept as parts-per-million of the open price so ranking compares longs, not BigDecimals
+    private static final BigDecimal PPM = BigDecimal.valueOf(1_000_000);
+
+    private static final Comparator<Entry> BY_CHANGE_DESC = Comparator
+            .comparingLong(Entry::changePpm).reversed()
+            .thenComparingLong(Entry::stockId);
+
+    private final Map<Long, Entry> entries = new HashMap<>(); // guarded by this
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(BY_CHANGE_DESC);
+
+    public synchronized void put(long stockId, String name, BigDecimal price) {
+        Entry previous = entries.get(stockId);
+        BigDecimal openPrice = previous != null ? previous.openPrice() : price;
+        replace(previous, new Entry(stockId, name, openPrice, price, changePpm(openPrice, price)));
+    }
+
+    public synchronized void updatePrice(long stockId, BigDecimal price) {
+        Entry previous = entries.get(stockId);
+        if (previous == null) {
+            return;
+        }
+        replace(previous, new Entry(stockId, previous.name(), previous.openPrice(), price,
+                changePpm(previous.openPrice(), price)));
+    }
+
+    public synchronized void remove(long stockId) {
+        Entry previous = entries.remove(stockId);
+        if (previous != null) {
+            ranking.remove(previous);
+        }
+    }
+
+    // starts a new session: the last seen price becomes the open price of every stock
+    public synchronized void resetSession() {
+        for (Entry entry : List.copyOf(entries.values())) {
+            replace(entry, new Entry(entry.stockId(), entry.name(), entry.currentPrice(), entry.currentPrice(), 0));
+        }
+    }
+
+    public List<Entry> topGainers(int k) {
+        return top(ranking.iterator(), k, true);
+    }
+
+    public List<Entry> topLosers(int k) {
+        return top(ranking.descendingIterator(), k, false);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private List<Entry> top(Iterator<Entry> iterator, int k, boolean gainers) {
+        List<Entry> result = new ArrayList<>(Math.min(k, 64));
+        while (result.size() < k && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            // the ranking is sorted, so the first unchanged entry ends the walk
+            if (gainers ? entry.changePpm() <= 0 : entry.changePpm() >= 0) {
+                break;
+            }
+            result.add(entry);
+        }
+        return result;
+    }
+
+    private void replace(Entry previous, Entry next) {
+        if (previous != null) {
+            ranking.remove(previous);
+        }
+        entries.put(next.stockId(), next);
+        ranking.add(next);
+    }
+
+    private static long changePpm(BigDecimal openPrice, BigDecimal price) {
+        if (openPrice == null || price == null || openPrice.signum() == 0) {
+            return 0;
+        }
+        return price.subtract(openPrice)
+                .multiply(PPM)
+                .divide(openPrice, 0, RoundingMode.HALF_UP)
+                .longValue();
+    }
+
+    public record Entry(long stockId, String name, BigDecimal openPrice, BigDecimal currentPrice, long changePpm) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.stockexchange.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// counts every statement Hibernate prepares and remembers its shape, leaving the SQL untouched
+public class SqlStatementInspector implements StatementInspector {
+
+    private static final Pattern COMMENTS = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+    private static final Pattern STRING_LITERALS = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERALS = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LISTS = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @Override
+    public String inspect(String sql) {
+        SqlStatementStats stats = SqlStatementTracker.current();
+        if (stats != null) {
+            stats.recordStatement(shapeOf(sql));
+        }
+        return sql;
+    }
+
+    // the same query with different parameters or IN-list sizes has the same shape
+    static String shapeOf(String sql) {
+        String shape = COMMENTS.matcher(sql).replaceAll(" ");
+        shape = STRING_LITERALS.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERALS.matcher(shape).replaceAll("?");
+        shape = PARAMETER_LISTS.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.stockexchange.monitoring;
+
+import com.example.stockexchange.exception.SqlStatementBudgetException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// counts the SQL statements and JDBC time of every request (including the security filters),
+// records them as metrics, optionally exposes them as response headers and flags requests that
+// exceed the statement budget or repeat one statement shape (the N+1 signature).
+// with fail-on-violation the budget is checked again right before the response commits, so a violating
+// request turns into an error response instead of an exception nobody sees after the body went out
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class SqlStatementMonitoringFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENT_COUNT_HEADER = "X-SQL-Statement-Count";
+    public static final String JDBC_TIME_HEADER = "X-SQL-Time-Ms";
+    // the violation type ("budget" or "repeated") of the request, for tests that assert on it
+    public static final String VIOLATION_ATTRIBUTE = SqlStatementMonitoringFilter.class.getName() + ".violation";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final boolean exposeHeaders;
+    private final int statementBudget;
+    private final int repeatedStatementThreshold;
+    private final boolean failOnViolation;
+
+    public SqlStatementMonitoringFilter(MeterRegistry meterRegistry,
+                                        @Value("${app.sql-monitor.enabled:true}") boolean enabled,
+                                        @Value("${app.sql-monitor.expose-headers:false}") boolean exposeHeaders,
+                                        @Value("${app.sql-monitor.statement-budget:20}") int statementBudget,
+                                        @Value("${app.sql-monitor.repeated-statement-threshold:5}") int repeatedStatementThreshold,
+                                        @Value("${app.sql-monitor.fail-on-violation:false}") boolean failOnViolation) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.exposeHeaders = exposeHeaders;
+        this.statementBudget = statementBudget;
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+        this.failOnViolation = failOnViolation;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        SqlStatementStats stats = SqlStatementTracker.begin();
+        try {
+            filterChain.doFilter(request, exposeHeaders || failOnViolation
+                    ? new BeforeCommitResponse(request, response, stats) : response);
+        } finally {
+            SqlStatementTracker.end();
+            if (exposeHeaders && !response.isCommitted()) {
+                writeHeaders(response, stats);
+            }
+            record(request, stats);
+        }
+        checkBudget(request, response, stats);
+    }
+
+    private void record(HttpServletRequest request, SqlStatementStats stats) {
+        String uri = uriTag(request);
+        DistributionSummary.builder("http.server.sql.statements")
+                .description("SQL statements executed per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(stats.getStatementCount());
+        Timer.builder("http.server.sql.time")
+                .description("Time spent in JDBC calls per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private String violation(SqlStatementStats stats) {
+        if (stats.getStatementCount() > statementBudget) {
+            return "budget";
+        }
+        Map.Entry<String, Integer> mostRepeated = stats.mostRepeated();
+        return mostRepeated != null && mostRepeated.getValue() >= repeatedStatementThreshold ? "repeated" : null;
+    }
+
+    // a response that committed already keeps its status, the violation is still logged, counted and recorded
+    private void checkBudget(HttpServletRequest request, HttpServletResponse response, SqlStatementStats stats) {
+        String violation = violation(stats);
+        if (violation == null) {
+            return;
+        }
+        if (stats.getStatementCount() > statementBudget) {
+            log.warn("{} {} executed {} SQL statements (budget {})",
+                    request.getMethod(), request.getRequestURI(), stats.getStatementCount(), statementBudget);
+        }
+
+        Map.Entry<String, Integer> mostRepeated = stats.mostRepeated();
+        if (mostRepeated != null && mostRepeated.getValue() >= repeatedStatementThreshold) {
+            log.warn("Possible N+1 in {} {}: statement executed {} times: {}",
+                    request.getMethod(), request.getRequestURI(), mostRepeated.getValue(), mostRepeated.getKey());
+        }
+
+        request.setAttribute(VIOLATION_ATTRIBUTE, violation);
+        meterRegistry.counter("http.server.sql.violations", "type", violation, "uri", uriTag(request)).increment();
+        if (failOnViolation && !response.isCommitted()) {
+            throw budgetException(request, violation);
+        }
+    }
+
+    private static SqlStatementBudgetException budgetException(HttpServletRequest request, String violation) {
+        return new SqlStatementBudgetException("SQL statement budget violated (" + violation + ") by "
+                + request.getMethod() + " " + request.getRequestURI());
+    }
+
+    // the matched route pattern keeps the tag cardinality bounded (ids are not part of it)
+    private static String uriTag(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    private static void writeHeaders(HttpServletResponse response, SqlStatementStats stats) {
+        response.setHeader(STATEMENT_COUNT_HEADER, String.valueOf(stats.getStatementCount()));
+        response.setHeader(JDBC_TIME_HEADER, String.valueOf(TimeUnit.NANOSECONDS.toMillis(stats.getJdbcNanos())));
+    }
+
+    // headers and the fail-on-violation check have to happen before the response commits, which is the first
+    // time the body is touched. the check throws once, the error response written for it goes through
+    private final class BeforeCommitResponse extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+        private final SqlStatementStats stats;
+        private boolean done;
+
+        BeforeCommitResponse(HttpServletRequest request, HttpServletResponse response, SqlStatementStats stats) {
+            super(response);
+            this.request = request;
+            this.stats = stats;
+        }
+
+        private void beforeCommit() {
+            if (done || isCommitted()) {
+                return;
+            }
+            done = true;
+            if (exposeHeaders) {
+                writeHeaders((HttpServletResponse) getResponse(), stats);
+            }
+            String violation = failOnViolation ? violation(stats) : null;
+            if (violation != null) {
+                throw budgetException(request, violation);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            beforeCommit();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            beforeCommit();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            beforeCommit();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            beforeCommit();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            beforeCommit();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            beforeCommit();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.stockexchange.monitoring;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// statements executed on behalf of one HTTP request; only ever touched by the request thread
+public class SqlStatementStats {
+
+    private int statementCount;
+    private long jdbcNanos;
+    private long executionStartedAt;
+    private final Map<String, Integer> countByShape = new HashMap<>();
+
+    void recordStatement(String shape) {
+        statementCount++;
+        countByShape.merge(shape, 1, Integer::sum);
+    }
+
+    void executionStarted() {
+        executionStartedAt = System.nanoTime();
+    }
+
+    void executionEnded() {
+        if (executionStartedAt != 0) {
+            jdbcNanos += System.nanoTime() - executionStartedAt;
+            executionStartedAt = 0;
+        }
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    // the statement shape executed most often and how many times, or null when nothing ran
+    public Map.Entry<String, Integer> mostRepeated() {
+        return countByShape.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .orElse(null);
+    }
+}
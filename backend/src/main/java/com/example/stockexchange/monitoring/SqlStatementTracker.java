@@ -0,0 +1,26 @@
+package com.example.stockexchange.monitoring;
+
+// Hibernate instantiates the inspector and the session listener itself, so the per-request
+// stats are handed over through a thread local opened and closed by SqlStatementMonitoringFilter
+public final class SqlStatementTracker {
+
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementTracker() {
+    }
+
+    static SqlStatementStats begin() {
+        SqlStatementStats stats = new SqlStatementStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    // null outside of a tracked request (startup, schedulers, background threads)
+    public static SqlStatementStats current() {
+        return CURRENT.get();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.stockexchange.ratelimit;
+
+import java.time.Duration;
+
+// one entry of app.rate-limit.routes: requests matching method (any when empty) and pattern share a bucket per
+// key. capacity requests may come at once, after that one more every refill-interval
+public record RateLimitRoute(String name,
+                             String method,
+                             String pattern,
+                             Key key,
+                             int capacity,
+                             Duration refillInterval) {
+
+    public enum Key {
+        // the authenticated user (JWT subject), the client address for anonymous requests
+        USER,
+        // the client address
+        IP
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.stockexchange.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// token buckets per route and key (user or client address), see RateLimitRoute. the first matching route
+// applies. full buckets are evicted on every sweep, they carry no state; beyond max-buckets new keys of a route
+// share one overflow bucket, so a flood of distinct addresses cannot grow the map without bound
+@Slf4j
+public class RateLimiter {
+
+    private static final String REJECTIONS = "stockexchange.ratelimit.rejections";
+
+    private final List<Route> routes;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final int maxBuckets;
+
+    public RateLimiter(List<RateLimitRoute> routes, int maxBuckets, MeterRegistry meterRegistry) {
+        PathPatternParser parser = new PathPatternParser();
+        this.routes = routes.stream()
+                .map(route -> new Route(route, parser.parse(route.pattern()),
+                        route.refillInterval().toNanos(),
+                        new TokenBucket(route.capacity(), route.refillInterval().toNanos(), System.nanoTime()),
+                        Counter.builder(REJECTIONS)
+                                .description("Requests rejected with 429 because their bucket was empty")
+                                .tag("route", route.name())
+                                .register(meterRegistry)))
+                .toList();
+        this.maxBuckets = maxBuckets;
+        Gauge.builder("stockexchange.ratelimit.buckets", buckets, Map::size)
+                .description("Rate limit buckets currently held")
+                .register(meterRegistry);
+        log.info("Rate limiting {} routes", routes.size());
+    }
+
+    // null when no route applies
+    Route match(String method, String path) {
+        PathContainer container = null;
+        for (Route route : routes) {
+            String routeMethod = route.config().method();
+            if (routeMethod != null && !routeMethod.isEmpty() && !routeMethod.equalsIgnoreCase(method)) {
+                continue;
+            }
+            if (container == null) {
+                container = PathContainer.parsePath(path);
+            }
+            if (route.pattern().matches(container)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    // 0 when the request may go on, otherwise the nanos until the bucket has a token again
+    long tryAcquire(Route route, String key, long now) {
+        String bucketKey = route.config().name() + '|' + key;
+        TokenBucket bucket = buckets.get(bucketKey);
+        if (bucket == null) {
+            bucket = buckets.size() < maxBuckets
+                    ? buckets.computeIfAbsent(bucketKey, k -> new TokenBucket(route.config().capacity(), route.intervalNanos(), now))
+                    : route.overflow();
+        }
+        long wait = bucket.tryTake(now);
+        if (wait > 0) {
+            route.rejections().increment();
+        }
+        return wait;
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval:30s}")
+    public void evictFullBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    record Route(RateLimitRoute config, PathPattern pattern, long intervalNanos, TokenBucket overflow,
+                        Counter rejections) {
+    }
+}
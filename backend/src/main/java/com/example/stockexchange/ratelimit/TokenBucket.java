@@ -0,0 +1,40 @@
+package com.example.stockexchange.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// a token bucket in its virtual scheduling form (GCRA): instead of a token count and a refill timestamp it keeps
+// a single number, the time at which the bucket is full again. taking a token moves that time one refill
+// interval later, which is refused once it would be more than capacity intervals ahead of now.
+// one CAS per request, no lock and no refill timer
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(int capacity, long intervalNanos, long now) {
+        this.intervalNanos = intervalNanos;
+        this.burstNanos = capacity * intervalNanos;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    // 0 when a token was taken, otherwise the nanos until the next one
+    long tryTake(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long ahead = next - now;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // a full bucket behaves exactly like a new one, so it can be dropped without losing anything
+    boolean isFull(long now) {
+        return fullAt.get() - now <= 0;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.stockexchange.repository;
+
+import com.example.stockexchange.entity.JwtPublicKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface JwtPublicKeyRepository extends JpaRepository<JwtPublicKey, String> {
+
+    List<JwtPublicKey> findByExpiresAtAfter(Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM JwtPublicKey k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
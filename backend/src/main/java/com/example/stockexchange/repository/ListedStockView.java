@@ -0,0 +1,15 @@
+package com.example.stockexchange.repository;
+
+import java.math.BigDecimal;
+
+// lightweight projection of a listing joined with its stock (no entity state is loaded)
+public interface ListedStockView {
+
+    Long getStockExchangeId();
+
+    Long getStockId();
+
+    String getName();
+
+    BigDecimal getCurrentPrice();
+}
@@ -0,0 +1,9 @@
+package com.example.stockexchange.repository;
+
+import com.example.stockexchange.entity.RiskLimit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RiskLimitRepository extends JpaRepository<RiskLimit, Long> {
+}
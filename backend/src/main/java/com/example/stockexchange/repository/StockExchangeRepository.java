@@ -14,4 +14,7 @@ import java.util.List;
 public interface StockExchangeRepository extends JpaRepository<StockExchange, Long> {
 
     Page<StockExchange> findByLiveInMarketTrue(Pageable pageable);
+
+    @Query("SELECT e.stockExchangeId FROM StockExchange e WHERE e.liveInMarket = true")
+    List<Long> findLiveStockExchangeIds();
 }
@@ -0,0 +1,18 @@
+package com.example.stockexchange.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// projection of the exported columns of a stock, rows of an export never become managed entities
+public interface StockExportView {
+
+    Long getStockId();
+
+    String getName();
+
+    String getDescription();
+
+    BigDecimal getCurrentPrice();
+
+    LocalDateTime getUpdatedAt();
+}
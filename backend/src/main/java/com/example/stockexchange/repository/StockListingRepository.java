@@ -4,16 +4,20 @@ import com.example.stockexchange.entity.Stock;
 import com.example.stockexchange.entity.StockExchange;
 import com.example.stockexchange.entity.StockListing;
 import com.example.stockexchange.entity.StockListingId;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface StockListingRepository extends JpaRepository<StockListing, StockListingId> {
@@ -38,6 +42,23 @@ public interface StockListingRepository extends JpaRepository<StockListing, Stoc
             @Param("stockIds") List<Long> stockIds
     );
 
+    @Query("SELECT sl.stockListingId FROM stock_listing sl")
+    List<StockListingId> findAllListingIds();
+
+    @Query("SELECT sl.stockExchange.stockExchangeId AS stockExchangeId, s.stockId AS stockId, " +
+           "s.name AS name, s.currentPrice AS currentPrice FROM stock_listing sl JOIN sl.stock s")
+    List<ListedStockView> findAllListedStocks();
+
+    // forward-only cursor over the stocks of one exchange for exports, see StockRepository.streamAllForExport
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s.stockId AS stockId, s.name AS name, s.description AS description, " +
+           "s.currentPrice AS currentPrice, s.updatedAt AS updatedAt " +
+           "FROM stock_listing sl JOIN sl.stock s WHERE sl.stockExchange.stockExchangeId = :id ORDER BY s.stockId")
+    Stream<StockExportView> streamListedStocksForExport(@Param("id") Long stockExchangeId);
+
     @Modifying
     @Transactional
     @Query("DELETE FROM stock_listing sl WHERE sl.stockExchange.stockExchangeId = :stockExchangeId")
@@ -1,11 +1,45 @@
 package com.example.stockexchange.repository;
 
 import com.example.stockexchange.entity.Stock;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface StockRepository extends JpaRepository<Stock, Long> {
 
     boolean existsByName(String stockName);
+
+    List<StockSummaryView> findAllProjectedBy();
+
+    // forward-only cursor over the whole catalog for exports, read inside a (read-only) transaction
+    // and closed by the caller
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s.stockId AS stockId, s.name AS name, s.description AS description, " +
+           "s.currentPrice AS currentPrice, s.updatedAt AS updatedAt FROM Stock s ORDER BY s.stockId")
+    Stream<StockExportView> streamAllForExport();
+
+    // last trade price written by the matching engine: a bulk update, so it neither loads the entity nor bumps
+    // @Version and a concurrent manual update never fails with an optimistic lock conflict because of a trade.
+    // only written over a price that is not newer than the trade: a manual update that committed while the
+    // trade price was waiting for its flush, or before a restart replayed the trade, keeps its price. the stamp
+    // is the trade time, so later trades of the same flush backlog still pass
+    @Modifying
+    @Query("UPDATE Stock s SET s.currentPrice = :price, s.updatedAt = :tradedAt WHERE s.stockId = :stockId " +
+           "AND (s.updatedAt IS NULL OR s.updatedAt <= :tradedAt)")
+    int updateTradePrice(@Param("stockId") Long stockId, @Param("price") BigDecimal price,
+                         @Param("tradedAt") LocalDateTime tradedAt);
 }
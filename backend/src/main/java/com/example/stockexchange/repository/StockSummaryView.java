@@ -0,0 +1,11 @@
+package com.example.stockexchange.repository;
+
+// projection of the searchable columns of a stock (no listings, no price)
+public interface StockSummaryView {
+
+    Long getStockId();
+
+    String getName();
+
+    String getDescription();
+}
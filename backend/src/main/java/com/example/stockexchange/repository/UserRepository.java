@@ -2,8 +2,11 @@ package com.example.stockexchange.repository;
 
 import com.example.stockexchange.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -12,6 +15,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmail(String email);
 
+    // compare-and-set of the password hash, 0 when it changed since it was read
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :newHash, u.version = u.version + 1 WHERE u.id = :id AND u.password = :oldHash")
+    int updatePassword(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
     @Query("SELECT COUNT(s) from User s JOIN s.authorities a where a.authority = 'ROLE_ADMIN' ")
     long countAdminUser();
 }
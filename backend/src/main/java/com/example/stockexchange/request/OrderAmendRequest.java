@@ -0,0 +1,30 @@
+package com.example.stockexchange.request;
+
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderAmendRequest {
+
+    @NotNull(message = "Stock ID is required")
+    @Positive(message = "Stock ID must be positive")
+    private Long stockId;
+
+    @NotNull(message = "Price is required")
+    @Positive(message = "Price must be positive")
+    @Digits(integer = 15, fraction = 4, message = "Price must have at most 4 decimal places")
+    private BigDecimal price;
+
+    // lowering only the quantity keeps the order's time priority
+    @NotNull(message = "Quantity is required")
+    @Positive(message = "Quantity must be positive")
+    private Long quantity;
+}
@@ -0,0 +1,37 @@
+package com.example.stockexchange.request;
+
+import com.example.stockexchange.engine.OrderType;
+import com.example.stockexchange.engine.Side;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderRequest {
+
+    @NotNull(message = "Stock ID is required")
+    @Positive(message = "Stock ID must be positive")
+    private Long stockId;
+
+    @NotNull(message = "Side is required")
+    private Side side;
+
+    @NotNull(message = "Order type is required")
+    private OrderType type;
+
+    // required for LIMIT orders, ignored for MARKET orders
+    @Positive(message = "Price must be positive")
+    @Digits(integer = 15, fraction = 4, message = "Price must have at most 4 decimal places")
+    private BigDecimal price;
+
+    @NotNull(message = "Quantity is required")
+    @Positive(message = "Quantity must be positive")
+    private Long quantity;
+}
@@ -0,0 +1,26 @@
+package com.example.stockexchange.request;
+
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// a missing limit falls back to the default limit
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RiskLimitRequest {
+
+    @Positive(message = "Max order notional must be positive")
+    @Digits(integer = 15, fraction = 4, message = "Max order notional must have at most 4 decimal places")
+    private BigDecimal maxOrderNotional;
+
+    @Positive(message = "Max open orders must be positive")
+    private Integer maxOpenOrders;
+
+    @Positive(message = "Max position must be positive")
+    private Long maxPosition;
+}
@@ -0,0 +1,320 @@
+package com.example.stockexchange.response;
+
+import com.example.stockexchange.dto.StockDto;
+import com.example.stockexchange.dto.StockExchangeDto;
+import com.example.stockexchange.dto.StockListingDto;
+import com.example.stockexchange.engine.Prices;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+// writes ApiRespond as the Response message of src/main/proto/stock_exchange.proto, for the stock, exchange
+// and listing endpoints. encoded straight from the DTOs (sizes first, then fields, like generated code does)
+// so there is no second object model to map into. responses carrying other data are answered with 406 by
+// ProtobufPayloadAdvice, which sees the payload this converter's canWrite is never shown
+public class ApiRespondProtobufConverter extends AbstractHttpMessageConverter<ApiRespond<?>> {
+
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    // Response
+    private static final int STATUS = 1;
+    private static final int MESSAGE = 2;
+    private static final int TIMESTAMP = 3;
+    private static final int DATA_STOCK = 4;
+    private static final int DATA_STOCK_EXCHANGE = 5;
+    private static final int DATA_STOCK_LISTING = 6;
+    private static final int DATA_PAGE = 7;
+    private static final int DATA_DETAIL = 8;
+    // Page
+    private static final int PAGE_NUMBER = 1;
+    private static final int PAGE_SIZE = 2;
+    private static final int PAGE_TOTAL_ELEMENTS = 3;
+    private static final int PAGE_TOTAL_PAGES = 4;
+    private static final int PAGE_STOCKS = 5;
+    private static final int PAGE_STOCK_EXCHANGES = 6;
+    private static final int PAGE_STOCK_LISTINGS = 7;
+
+    public ApiRespondProtobufConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ApiRespond.class.isAssignableFrom(clazz);
+    }
+
+    // requests stay JSON
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ApiRespond<?> readInternal(Class<? extends ApiRespond<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(ApiRespond<?> respond, HttpOutputMessage outputMessage) throws IOException {
+        Object data = respond.getData();
+        if (!canEncode(data)) {
+            throw new HttpMessageNotWritableException("No protobuf schema for " + data.getClass().getName());
+        }
+        CodedOutputStream output = CodedOutputStream.newInstance(outputMessage.getBody());
+        write(output, respond);
+        output.flush();
+    }
+
+    public static byte[] encode(ApiRespond<?> respond) {
+        if (!canEncode(respond.getData())) {
+            throw new IllegalArgumentException("No protobuf schema for " + respond.getData().getClass().getName());
+        }
+        byte[] bytes = new byte[size(respond)];
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        try {
+            write(output, respond);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        output.checkNoSpaceLeft();
+        return bytes;
+    }
+
+    // whether the data has a field in Response
+    public static boolean canEncode(Object data) {
+        if (data instanceof PageResponse<?> page) {
+            return page.content().stream().allMatch(ApiRespondProtobufConverter::isElement);
+        }
+        if (data instanceof List<?> list) {
+            return list.stream().allMatch(ApiRespondProtobufConverter::isElement);
+        }
+        return data == null || data instanceof String || isElement(data);
+    }
+
+    private static boolean isElement(Object value) {
+        return value instanceof StockDto || value instanceof StockExchangeDto || value instanceof StockListingDto;
+    }
+
+    private static int size(ApiRespond<?> respond) {
+        int size = CodedOutputStream.computeInt32Size(STATUS, respond.getStatus())
+                + stringSize(MESSAGE, respond.getMessage())
+                + CodedOutputStream.computeInt64Size(TIMESTAMP, respond.getTimestamp());
+        Object data = respond.getData();
+        if (data instanceof String detail) {
+            size += stringSize(DATA_DETAIL, detail);
+        } else if (data != null) {
+            size += messageSize(dataField(data), dataSize(data));
+        }
+        return size;
+    }
+
+    private static void write(CodedOutputStream output, ApiRespond<?> respond) throws IOException {
+        output.writeInt32(STATUS, respond.getStatus());
+        writeString(output, MESSAGE, respond.getMessage());
+        output.writeInt64(TIMESTAMP, respond.getTimestamp());
+        Object data = respond.getData();
+        if (data instanceof String detail) {
+            writeString(output, DATA_DETAIL, detail);
+        } else if (data != null) {
+            writeMessageHeader(output, dataField(data), dataSize(data));
+            writeData(output, data);
+        }
+    }
+
+    private static int dataField(Object data) {
+        if (data instanceof StockDto) {
+            return DATA_STOCK;
+        }
+        if (data instanceof StockExchangeDto) {
+            return DATA_STOCK_EXCHANGE;
+        }
+        if (data instanceof StockListingDto) {
+            return DATA_STOCK_LISTING;
+        }
+        return DATA_PAGE;
+    }
+
+    private static int dataSize(Object data) {
+        if (data instanceof StockDto stock) {
+            return stockSize(stock);
+        }
+        if (data instanceof StockExchangeDto exchange) {
+            return exchangeSize(exchange);
+        }
+        if (data instanceof StockListingDto listing) {
+            return listingSize(listing);
+        }
+        return pageSize(data);
+    }
+
+    private static void writeData(CodedOutputStream output, Object data) throws IOException {
+        if (data instanceof StockDto stock) {
+            writeStock(output, stock);
+        } else if (data instanceof StockExchangeDto exchange) {
+            writeExchange(output, exchange);
+        } else if (data instanceof StockListingDto listing) {
+            writeListing(output, listing);
+        } else {
+            writePage(output, data);
+        }
+    }
+
+    private static int pageSize(Object data) {
+        List<?> content = contentOf(data);
+        int size = 0;
+        if (data instanceof PageResponse<?> page) {
+            size += CodedOutputStream.computeInt32Size(PAGE_NUMBER, page.number())
+                    + CodedOutputStream.computeInt32Size(PAGE_SIZE, page.size())
+                    + CodedOutputStream.computeInt64Size(PAGE_TOTAL_ELEMENTS, page.totalElements())
+                    + CodedOutputStream.computeInt32Size(PAGE_TOTAL_PAGES, page.totalPages());
+        } else {
+            size += CodedOutputStream.computeInt32Size(PAGE_SIZE, content.size())
+                    + CodedOutputStream.computeInt64Size(PAGE_TOTAL_ELEMENTS, content.size())
+                    + CodedOutputStream.computeInt32Size(PAGE_TOTAL_PAGES, 1);
+        }
+        for (Object element : content) {
+            size += messageSize(elementField(element), dataSize(element));
+        }
+        return size;
+    }
+
+    private static void writePage(CodedOutputStream output, Object data) throws IOException {
+        List<?> content = contentOf(data);
+        if (data instanceof PageResponse<?> page) {
+            output.writeInt32(PAGE_NUMBER, page.number());
+            output.writeInt32(PAGE_SIZE, page.size());
+            output.writeInt64(PAGE_TOTAL_ELEMENTS, page.totalElements());
+            output.writeInt32(PAGE_TOTAL_PAGES, page.totalPages());
+        } else {
+            output.writeInt32(PAGE_SIZE, content.size());
+            output.writeInt64(PAGE_TOTAL_ELEMENTS, content.size());
+            output.writeInt32(PAGE_TOTAL_PAGES, 1);
+        }
+        for (Object element : content) {
+            writeMessageHeader(output, elementField(element), dataSize(element));
+            writeData(output, element);
+        }
+    }
+
+    private static List<?> contentOf(Object data) {
+        return data instanceof PageResponse<?> page ? page.content() : (List<?>) data;
+    }
+
+    private static int elementField(Object element) {
+        if (element instanceof StockDto) {
+            return PAGE_STOCKS;
+        }
+        return element instanceof StockExchangeDto ? PAGE_STOCK_EXCHANGES : PAGE_STOCK_LISTINGS;
+    }
+
+    // Stock
+    private static int stockSize(StockDto stock) {
+        int size = longSize(1, stock.getStockId())
+                + stringSize(2, stock.getName())
+                + stringSize(3, stock.getDescription());
+        if (stock.getCurrentPrice() != null) {
+            size += CodedOutputStream.computeInt64Size(4, Prices.roundToTicks(stock.getCurrentPrice()));
+        }
+        if (stock.getUpdatedAt() != null) {
+            size += CodedOutputStream.computeInt64Size(5, toEpochMillis(stock.getUpdatedAt()));
+        }
+        return size;
+    }
+
+    private static void writeStock(CodedOutputStream output, StockDto stock) throws IOException {
+        writeLong(output, 1, stock.getStockId());
+        writeString(output, 2, stock.getName());
+        writeString(output, 3, stock.getDescription());
+        if (stock.getCurrentPrice() != null) {
+            output.writeInt64(4, Prices.roundToTicks(stock.getCurrentPrice()));
+        }
+        if (stock.getUpdatedAt() != null) {
+            output.writeInt64(5, toEpochMillis(stock.getUpdatedAt()));
+        }
+    }
+
+    // StockExchange
+    private static int exchangeSize(StockExchangeDto exchange) {
+        return longSize(1, exchange.getStockExchangeId())
+                + stringSize(2, exchange.getName())
+                + stringSize(3, exchange.getDescription())
+                + (exchange.isLiveInMarket() ? CodedOutputStream.computeBoolSize(4, true) : 0);
+    }
+
+    private static void writeExchange(CodedOutputStream output, StockExchangeDto exchange) throws IOException {
+        writeLong(output, 1, exchange.getStockExchangeId());
+        writeString(output, 2, exchange.getName());
+        writeString(output, 3, exchange.getDescription());
+        if (exchange.isLiveInMarket()) {
+            output.writeBool(4, true);
+        }
+    }
+
+    // StockListing
+    private static int listingSize(StockListingDto listing) {
+        int size = 0;
+        if (listing.getStockExchangeDto() != null) {
+            size += messageSize(1, exchangeSize(listing.getStockExchangeDto()));
+        }
+        if (listing.getStockDto() != null) {
+            size += messageSize(2, stockSize(listing.getStockDto()));
+        }
+        return size;
+    }
+
+    private static void writeListing(CodedOutputStream output, StockListingDto listing) throws IOException {
+        if (listing.getStockExchangeDto() != null) {
+            writeMessageHeader(output, 1, exchangeSize(listing.getStockExchangeDto()));
+            writeExchange(output, listing.getStockExchangeDto());
+        }
+        if (listing.getStockDto() != null) {
+            writeMessageHeader(output, 2, stockSize(listing.getStockDto()));
+            writeStock(output, listing.getStockDto());
+        }
+    }
+
+    // proto3 leaves out unset fields, so do nulls
+    private static int longSize(int field, Long value) {
+        return value == null ? 0 : CodedOutputStream.computeInt64Size(field, value);
+    }
+
+    private static void writeLong(CodedOutputStream output, int field, Long value) throws IOException {
+        if (value != null) {
+            output.writeInt64(field, value);
+        }
+    }
+
+    private static int stringSize(int field, String value) {
+        return value == null ? 0 : CodedOutputStream.computeStringSize(field, value);
+    }
+
+    private static void writeString(CodedOutputStream output, int field, String value) throws IOException {
+        if (value != null) {
+            output.writeString(field, value);
+        }
+    }
+
+    private static int messageSize(int field, int size) {
+        return CodedOutputStream.computeTagSize(field) + CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+    }
+
+    private static void writeMessageHeader(CodedOutputStream output, int field, int size) throws IOException {
+        output.writeTag(field, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        output.writeUInt32NoTag(size);
+    }
+
+    // updatedAt is written in the server's zone
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
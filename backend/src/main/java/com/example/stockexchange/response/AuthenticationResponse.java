@@ -11,4 +11,6 @@ import lombok.NoArgsConstructor;
 public class AuthenticationResponse {
 
     private String token;
+
+    private String refreshToken;
 }
\ No newline at end of file
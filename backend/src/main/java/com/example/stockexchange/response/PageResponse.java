@@ -0,0 +1,15 @@
+package com.example.stockexchange.response;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+// what a paged list response carries: the content, where it is (number, size) and the totals to page on.
+// serializing the Spring Page itself adds its pageable, sort and first/last/empty flags to every response
+public record PageResponse<T>(List<T> content, int number, int size, long totalElements, int totalPages) {
+
+    public static <T> PageResponse<T> of(Page<T> page) {
+        return new PageResponse<>(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements(),
+                page.getTotalPages());
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.stockexchange.response;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// the controllers return a raw ApiRespond, so converter selection only ever sees that class and picks
+// ApiRespondProtobufConverter for every endpoint. once it is picked, the payload decides: data without a
+// schema is a 406 (answered with a protobuf error envelope) instead of a 500 from the converter
+@ControllerAdvice
+public class ProtobufPayloadAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(@NonNull MethodParameter returnType,
+                            @NonNull Class<? extends HttpMessageConverter<?>> converterType) {
+        return ApiRespondProtobufConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body,
+                                  @NonNull MethodParameter returnType,
+                                  @NonNull MediaType selectedContentType,
+                                  @NonNull Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  @NonNull ServerHttpRequest request,
+                                  @NonNull ServerHttpResponse response) {
+        if (body instanceof ApiRespond<?> respond && !ApiRespondProtobufConverter.canEncode(respond.getData())) {
+            throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE,
+                    "No protobuf schema for " + respond.getData().getClass().getSimpleName());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.stockexchange.revocation;
+
+import com.example.stockexchange.entity.RefreshToken;
+import com.example.stockexchange.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// ids of access tokens revoked before they expire, checked by JwtAuthenticationFilter on every request instead
+// of a user lookup. a Bloom filter answers for almost every token, which was never revoked; only its rare
+// positives (a revoked token, or about false-positive-rate of the others) go on to the exact set.
+// revocations are stored with the refresh tokens (revokedAt), every instance picks up the ones written
+// anywhere on each sync; an entry is dropped once its access token has expired anyway
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    // revocations written by an instance whose clock is ahead by up to this are still picked up
+    private static final Duration CLOCK_SKEW = Duration.ofSeconds(2);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+    // token id -> expiry of the access token
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    // only touched by sync
+    private Instant syncedFrom;
+
+    public TokenRevocationList(RefreshTokenRepository refreshTokenRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${jwt.expiration}") long accessExpiration,
+                               @Value("${app.token-revocation.expected-revocations:100000}") int expectedRevocations,
+                               @Value("${app.token-revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+        // anything revoked longer ago than an access token lives has expired
+        this.syncedFrom = Instant.now().minusMillis(accessExpiration);
+        Gauge.builder("stockexchange.token.revoked", revoked, Map::size)
+                .description("Revoked access tokens that have not expired yet")
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && filter.mightContain(tokenId) && revoked.containsKey(tokenId);
+    }
+
+    public synchronized void revoke(String tokenId, Instant expiresAt) {
+        if (!expiresAt.isAfter(Instant.now()) || revoked.put(tokenId, expiresAt) != null) {
+            return;
+        }
+        if (revoked.size() > filter.capacity()) {
+            rebuild(revoked.size() * 2);
+        } else {
+            filter.put(tokenId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.token-revocation.sync-interval:5s}")
+    public void sync() {
+        Instant now = Instant.now();
+        List<RefreshToken> revocations =
+                refreshTokenRepository.findByRevokedAtGreaterThanEqualAndAccessExpiresAtAfter(syncedFrom, now);
+        for (RefreshToken token : revocations) {
+            revoke(token.getAccessTokenId(), token.getAccessExpiresAt());
+        }
+        syncedFrom = now.minus(CLOCK_SKEW);
+        if (log.isDebugEnabled() && !revocations.isEmpty()) {
+            log.debug("Synced {} token revocations, {} listed", revocations.size(), revoked.size());
+        }
+    }
+
+    // a Bloom filter cannot forget, so dropping the expired ids means building a new one
+    @Scheduled(fixedDelayString = "${app.token-revocation.sweep-interval:1m}")
+    public synchronized void sweep() {
+        Instant now = Instant.now();
+        if (revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now))) {
+            rebuild(Math.max(expectedRevocations, revoked.size() * 2));
+        }
+    }
+
+    int size() {
+        return revoked.size();
+    }
+
+    // the new filter holds every listed id before it replaces the old one, so no revoked id is ever missed
+    private void rebuild(int capacity) {
+        BloomFilter rebuilt = new BloomFilter(capacity, falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+    }
+}
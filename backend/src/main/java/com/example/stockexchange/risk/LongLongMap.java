@@ -0,0 +1,73 @@
+package com.example.stockexchange.risk;
+
+// open addressing long -> long map (linear probing) for the per-stock reference prices, so neither the key
+// nor the price is boxed. entries are only ever overwritten, never removed. not thread safe
+final class LongLongMap {
+
+    private long[] keys;
+    private long[] values;
+    private boolean[] used;
+    private int mask;
+    private int size;
+
+    LongLongMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        allocate(capacity);
+    }
+
+    long get(long key, long missing) {
+        int index = slot(key);
+        while (used[index]) {
+            if (keys[index] == key) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return missing;
+    }
+
+    void put(long key, long value) {
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int index = slot(key);
+        while (used[index] && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        if (!used[index]) {
+            used[index] = true;
+            size++;
+        }
+        keys[index] = key;
+        values[index] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(oldKeys.length * 2);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.stockexchange.risk;
+
+import com.example.stockexchange.engine.AmendOrder;
+import com.example.stockexchange.engine.BookDrop;
+import com.example.stockexchange.engine.BookSnapshot;
+import com.example.stockexchange.engine.ExecutionReport;
+import com.example.stockexchange.engine.ExecutionStatus;
+import com.example.stockexchange.engine.NewOrder;
+import com.example.stockexchange.engine.OrderCommand;
+import com.example.stockexchange.engine.OrderType;
+import com.example.stockexchange.engine.Positions;
+import com.example.stockexchange.engine.RejectReason;
+import com.example.stockexchange.engine.Side;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// per-user exposure counters behind the pre-trade checks:
+// - every accepted order reserves its open quantity on its side (openBuy / openSell of the user and stock)
+//   until a fill moves it into the position or a cancel releases it
+// - the position check uses the worst case, position plus every open buy (or minus every open sell), so
+//   fills that have not been settled yet can only make the check stricter, never looser
+// - positions go out with every engine snapshot and come back, with the trades replayed after it, on restart
+// not thread safe, RiskEngine serializes access
+final class RiskBook {
+
+    private final LongMap<Account> accounts = new LongMap<>(1024);
+    private final LongMap<RiskOrder> orders = new LongMap<>(16_384);
+    private final LongLongMap referencePrices = new LongLongMap(1024);
+    private final RiskLimits defaultLimits;
+    private final UtilizationListener utilizationListener;
+
+    RiskBook(RiskLimits defaultLimits, UtilizationListener utilizationListener) {
+        this.defaultLimits = defaultLimits;
+        this.utilizationListener = utilizationListener;
+    }
+
+    // null when the command stays within its owner's limits; what it may add is reserved right away
+    RejectReason check(OrderCommand command) {
+        if (command instanceof NewOrder order) {
+            return checkNew(order);
+        }
+        if (command instanceof AmendOrder amend) {
+            return checkAmend(amend);
+        }
+        return null;
+    }
+
+    void settle(OrderCommand command, ExecutionReport report) {
+        RiskOrder taker = orders.get(report.orderId());
+        for (ExecutionReport.Fill fill : report.fills()) {
+            if (taker != null) {
+                taker.exposure.position += signed(taker.side, fill.quantity());
+            }
+            RiskOrder maker = orders.get(fill.makerOrderId());
+            if (maker != null) {
+                maker.exposure.position += signed(maker.side, fill.quantity());
+                setRemaining(maker, maker.remaining - fill.quantity());
+            }
+        }
+        if (taker == null) {
+            return;
+        }
+        ExecutionStatus status = report.status();
+        if (status == ExecutionStatus.ACCEPTED || status == ExecutionStatus.PARTIALLY_FILLED) {
+            setRemaining(taker, report.remainingQuantity());
+        } else if (status != ExecutionStatus.REJECTED
+                || command instanceof NewOrder
+                || report.rejectReason() == RejectReason.UNKNOWN_ORDER) {
+            // a rejected amend or cancel leaves the order as it was, unless it no longer exists
+            setRemaining(taker, 0);
+        }
+    }
+
+    void restore(List<BookSnapshot> books, Positions positions) {
+        orders.clear();
+        accounts.forEachValue(account -> {
+            account.openOrders = 0;
+            account.exposures.forEachValue(exposure -> {
+                exposure.position = 0;
+                exposure.openBuy = 0;
+                exposure.openSell = 0;
+            });
+        });
+        positions.forEach((ownerId, stockId, position) -> account(ownerId).exposure(stockId).position = position);
+        for (BookSnapshot book : books) {
+            long[] resting = book.orders();
+            for (int at = 0; at < resting.length; at += BookSnapshot.ORDER_FIELDS) {
+                track(resting[at], resting[at + 1], book.stockExchangeId(), book.stockId(),
+                        Side.values()[(int) resting[at + 2]], resting[at + 4]);
+            }
+        }
+    }
+
+    Positions positions() {
+        Positions positions = new Positions();
+        accounts.forEachValue(account -> account.exposures.forEachValue(exposure ->
+                positions.add(account.userId, exposure.stockId, exposure.position)));
+        return positions;
+    }
+
+    void drop(BookDrop drop) {
+        List<RiskOrder> dropped = new ArrayList<>();
+        orders.forEachValue(order -> {
+            if ((drop.stockExchangeId() == 0 || drop.stockExchangeId() == order.stockExchangeId)
+                    && (drop.stockId() == 0 || drop.stockId() == order.stockId)) {
+                dropped.add(order);
+            }
+        });
+        dropped.forEach(order -> setRemaining(order, 0));
+    }
+
+    // null limits fall back to the defaults
+    void setLimits(long userId, RiskLimits limits) {
+        account(userId).limits = limits;
+    }
+
+    void setReferencePrice(long stockId, long price) {
+        referencePrices.put(stockId, price);
+    }
+
+    UserExposure exposure(long userId) {
+        Account account = accounts.get(userId);
+        if (account == null) {
+            return new UserExposure(userId, defaultLimits, 0, List.of());
+        }
+        List<UserExposure.StockExposure> stocks = new ArrayList<>(account.exposures.size());
+        account.exposures.forEachValue(exposure -> stocks.add(new UserExposure.StockExposure(
+                exposure.stockId, exposure.position, exposure.openBuy, exposure.openSell)));
+        return new UserExposure(userId, limitsOf(account), account.openOrders, stocks);
+    }
+
+    int openOrderCount() {
+        return orders.size();
+    }
+
+    private RejectReason checkNew(NewOrder order) {
+        if (order.quantity() <= 0) {
+            // the book rejects it, nothing to reserve
+            return null;
+        }
+        Account account = account(order.ownerId());
+        RiskLimits limits = limitsOf(account);
+        Exposure exposure = account.exposure(order.stockId());
+
+        long price = order.type() == OrderType.LIMIT ? order.price() : referencePrice(order.stockId());
+        long notional = notional(price, order.quantity());
+        if (notional > limits.maxOrderNotional()) {
+            return RejectReason.RISK_ORDER_NOTIONAL;
+        }
+        if (account.openOrders >= limits.maxOpenOrders()) {
+            return RejectReason.RISK_OPEN_ORDERS;
+        }
+        long worstPosition = worstPosition(exposure, order.side(), order.quantity());
+        if (worstPosition > limits.maxPosition()) {
+            return RejectReason.RISK_POSITION;
+        }
+
+        track(order.orderId(), account, exposure, order.stockExchangeId(), order.side(), order.quantity());
+        utilizationListener.onAccepted(ratio(notional, limits.maxOrderNotional()),
+                ratio(account.openOrders, limits.maxOpenOrders()), ratio(worstPosition, limits.maxPosition()));
+        return null;
+    }
+
+    private RejectReason checkAmend(AmendOrder amend) {
+        RiskOrder order = orders.get(amend.orderId());
+        if (order == null || order.account.userId != amend.ownerId() || amend.quantity() <= 0 || amend.price() <= 0) {
+            // the book answers for orders it does not know or that belong to someone else
+            return null;
+        }
+        RiskLimits limits = limitsOf(order.account);
+        if (notional(amend.price(), amend.quantity()) > limits.maxOrderNotional()) {
+            return RejectReason.RISK_ORDER_NOTIONAL;
+        }
+        long increase = amend.quantity() - order.remaining;
+        if (increase > 0) {
+            if (worstPosition(order.exposure, order.side, increase) > limits.maxPosition()) {
+                return RejectReason.RISK_POSITION;
+            }
+            // decreases are only released once the book has applied them
+            setRemaining(order, amend.quantity());
+        }
+        return null;
+    }
+
+    private long referencePrice(long stockId) {
+        return referencePrices.get(stockId, 0);
+    }
+
+    private void track(long orderId, long ownerId, long stockExchangeId, long stockId, Side side, long quantity) {
+        Account account = account(ownerId);
+        track(orderId, account, account.exposure(stockId), stockExchangeId, side, quantity);
+    }
+
+    private void track(long orderId, Account account, Exposure exposure, long stockExchangeId, Side side, long quantity) {
+        RiskOrder order = new RiskOrder(orderId, account, exposure, stockExchangeId, exposure.stockId, side);
+        orders.put(orderId, order);
+        account.openOrders++;
+        setRemaining(order, quantity);
+    }
+
+    private void setRemaining(RiskOrder order, long remaining) {
+        long released = order.remaining - Math.max(remaining, 0);
+        if (order.side == Side.BUY) {
+            order.exposure.openBuy -= released;
+        } else {
+            order.exposure.openSell -= released;
+        }
+        order.remaining = Math.max(remaining, 0);
+        if (order.remaining == 0 && orders.remove(order.orderId) != null) {
+            order.account.openOrders--;
+        }
+    }
+
+    private Account account(long userId) {
+        Account account = accounts.get(userId);
+        if (account == null) {
+            account = new Account(userId);
+            accounts.put(userId, account);
+        }
+        return account;
+    }
+
+    private RiskLimits limitsOf(Account account) {
+        return account.limits == null ? defaultLimits : account.limits;
+    }
+
+    // long side for buys, short side for sells, after adding quantity to the open orders
+    private static long worstPosition(Exposure exposure, Side side, long quantity) {
+        return side == Side.BUY
+                ? exposure.position + exposure.openBuy + quantity
+                : exposure.openSell + quantity - exposure.position;
+    }
+
+    private static long notional(long price, long quantity) {
+        try {
+            return Math.multiplyExact(price, quantity);
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static long signed(Side side, long quantity) {
+        return side == Side.BUY ? quantity : -quantity;
+    }
+
+    private static double ratio(long used, long limit) {
+        return limit <= 0 ? 1.0 : (double) used / limit;
+    }
+
+    interface UtilizationListener {
+
+        // share of each limit an accepted order uses, 1.0 is at the limit
+        void onAccepted(double orderNotional, double openOrders, double position);
+    }
+
+    private static final class Account {
+
+        private final long userId;
+        private final LongMap<Exposure> exposures = new LongMap<>(8);
+        private RiskLimits limits;
+        private int openOrders;
+
+        private Account(long userId) {
+            this.userId = userId;
+        }
+
+        private Exposure exposure(long stockId) {
+            Exposure exposure = exposures.get(stockId);
+            if (exposure == null) {
+                exposure = new Exposure(stockId);
+                exposures.put(stockId, exposure);
+            }
+            return exposure;
+        }
+    }
+
+    private static final class Exposure {
+
+        private final long stockId;
+        private long position;
+        private long openBuy;
+        private long openSell;
+
+        private Exposure(long stockId) {
+            this.stockId = stockId;
+        }
+    }
+
+    private static final class RiskOrder {
+
+        private final long orderId;
+        private final Account account;
+        private final Exposure exposure;
+        private final long stockExchangeId;
+        private final long stockId;
+        private final Side side;
+        private long remaining;
+
+        private RiskOrder(long orderId, Account account, Exposure exposure, long stockExchangeId, long stockId, Side side) {
+            this.orderId = orderId;
+            this.account = account;
+            this.exposure = exposure;
+            this.stockExchangeId = stockExchangeId;
+            this.stockId = stockId;
+            this.side = side;
+        }
+    }
+}
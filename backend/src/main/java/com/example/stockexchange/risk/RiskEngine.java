@@ -0,0 +1,211 @@
+package com.example.stockexchange.risk;
+
+import com.example.stockexchange.engine.BookDrop;
+import com.example.stockexchange.engine.BookSnapshot;
+import com.example.stockexchange.engine.ExecutionReport;
+import com.example.stockexchange.engine.OrderCommand;
+import com.example.stockexchange.engine.Positions;
+import com.example.stockexchange.engine.PreTradeCheck;
+import com.example.stockexchange.engine.Prices;
+import com.example.stockexchange.engine.RejectReason;
+import com.example.stockexchange.entity.RiskLimit;
+import com.example.stockexchange.event.RiskLimitChangedEvent;
+import com.example.stockexchange.event.StockListedEvent;
+import com.example.stockexchange.event.StockPriceChangedEvent;
+import com.example.stockexchange.repository.ListedStockView;
+import com.example.stockexchange.repository.RiskLimitRepository;
+import com.example.stockexchange.repository.StockListingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// pre-trade risk checks of the order sequencer: max order notional, max open orders and max position per
+// stock of every user, answered from in-memory counters (RiskBook) without touching the database.
+// the sequencer thread checks, the partition threads settle executions; one short critical section
+// serializes them. limits come from risk_limit (defaults from app.risk) and change without a restart
+@Slf4j
+@Component
+public class RiskEngine implements PreTradeCheck {
+
+    private static final String UTILIZATION = "stockexchange.risk.utilization";
+    private static final String REJECTIONS = "stockexchange.risk.rejections";
+
+    private final RiskLimitRepository riskLimitRepository;
+    private final StockListingRepository stockListingRepository;
+    private final boolean enabled;
+    private final RiskLimits defaultLimits;
+    private final RiskBook book;
+    private final Map<RejectReason, Counter> rejections = new EnumMap<>(RejectReason.class);
+
+    public RiskEngine(RiskLimitRepository riskLimitRepository,
+                      StockListingRepository stockListingRepository,
+                      MeterRegistry meterRegistry,
+                      @Value("${app.risk.enabled:true}") boolean enabled,
+                      @Value("${app.risk.default-max-order-notional:1000000}") BigDecimal defaultMaxOrderNotional,
+                      @Value("${app.risk.default-max-open-orders:200}") int defaultMaxOpenOrders,
+                      @Value("${app.risk.default-max-position:100000}") long defaultMaxPosition) {
+        this.riskLimitRepository = riskLimitRepository;
+        this.stockListingRepository = stockListingRepository;
+        this.enabled = enabled;
+        this.defaultLimits = new RiskLimits(toNotional(defaultMaxOrderNotional), defaultMaxOpenOrders, defaultMaxPosition);
+
+        DistributionSummary notional = utilization(meterRegistry, "order_notional");
+        DistributionSummary openOrders = utilization(meterRegistry, "open_orders");
+        DistributionSummary position = utilization(meterRegistry, "position");
+        this.book = new RiskBook(defaultLimits, (notionalShare, openOrdersShare, positionShare) -> {
+            notional.record(notionalShare);
+            openOrders.record(openOrdersShare);
+            position.record(positionShare);
+        });
+
+        rejections.put(RejectReason.RISK_ORDER_NOTIONAL, rejections(meterRegistry, "order_notional"));
+        rejections.put(RejectReason.RISK_OPEN_ORDERS, rejections(meterRegistry, "open_orders"));
+        rejections.put(RejectReason.RISK_POSITION, rejections(meterRegistry, "position"));
+        Gauge.builder("stockexchange.risk.open.orders", this, RiskEngine::openOrderCount)
+                .description("Orders currently reserving exposure")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public RejectReason check(OrderCommand command) {
+        if (!enabled) {
+            return null;
+        }
+        RejectReason reason;
+        synchronized (book) {
+            reason = book.check(command);
+        }
+        if (reason != null) {
+            rejections.get(reason).increment();
+        }
+        return reason;
+    }
+
+    @Override
+    public void settle(OrderCommand command, ExecutionReport report) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (book) {
+            book.settle(command, report);
+        }
+    }
+
+    // called by the sequencer while it starts, so limits and reference prices are in place before the first order
+    @Override
+    public void restore(List<BookSnapshot> books, Positions positions) {
+        if (!enabled) {
+            return;
+        }
+        List<RiskLimit> limits = riskLimitRepository.findAll();
+        List<ListedStockView> listed = stockListingRepository.findAllListedStocks();
+        synchronized (book) {
+            limits.forEach(limit -> book.setLimits(limit.getUserId(),
+                    toLimits(limit.getMaxOrderNotional(), limit.getMaxOpenOrders(), limit.getMaxPosition())));
+            listed.forEach(stock -> book.setReferencePrice(stock.getStockId(), Prices.roundToTicks(stock.getCurrentPrice())));
+            book.restore(books, positions);
+        }
+        log.info("Risk engine loaded {} user limits, {} open orders, {} positions", limits.size(), openOrderCount(),
+                positions.size());
+    }
+
+    @Override
+    public Positions positions() {
+        synchronized (book) {
+            return book.positions();
+        }
+    }
+
+    @Override
+    public void drop(BookDrop drop) {
+        synchronized (book) {
+            book.drop(drop);
+        }
+    }
+
+    public UserExposure exposure(long userId) {
+        synchronized (book) {
+            return book.exposure(userId);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRiskLimitChanged(RiskLimitChangedEvent event) {
+        RiskLimits limits = toLimits(event.getMaxOrderNotional(), event.getMaxOpenOrders(), event.getMaxPosition());
+        synchronized (book) {
+            book.setLimits(event.getUserId(), limits);
+        }
+        log.info("Risk limits of user {} changed to {}", event.getUserId(), limits);
+    }
+
+    // market orders are valued at the last known price of their stock
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockPriceChanged(StockPriceChangedEvent event) {
+        setReferencePrice(event.getStockId(), event.getCurrentPrice());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockListed(StockListedEvent event) {
+        setReferencePrice(event.getStockId(), event.getCurrentPrice());
+    }
+
+    private void setReferencePrice(Long stockId, BigDecimal price) {
+        long ticks = Prices.roundToTicks(price);
+        synchronized (book) {
+            book.setReferencePrice(stockId, ticks);
+        }
+    }
+
+    private int openOrderCount() {
+        synchronized (book) {
+            return book.openOrderCount();
+        }
+    }
+
+    public RiskLimits effectiveLimits(BigDecimal maxOrderNotional, Integer maxOpenOrders, Long maxPosition) {
+        RiskLimits limits = toLimits(maxOrderNotional, maxOpenOrders, maxPosition);
+        return limits == null ? defaultLimits : limits;
+    }
+
+    // a user row only overrides the limits it sets
+    private RiskLimits toLimits(BigDecimal maxOrderNotional, Integer maxOpenOrders, Long maxPosition) {
+        if (maxOrderNotional == null && maxOpenOrders == null && maxPosition == null) {
+            return null;
+        }
+        return new RiskLimits(
+                maxOrderNotional == null ? defaultLimits.maxOrderNotional() : toNotional(maxOrderNotional),
+                maxOpenOrders == null ? defaultLimits.maxOpenOrders() : maxOpenOrders,
+                maxPosition == null ? defaultLimits.maxPosition() : maxPosition);
+    }
+
+    // notional limits are compared with price ticks times quantity
+    private static long toNotional(BigDecimal amount) {
+        return Prices.toTicks(amount.setScale(Prices.SCALE, RoundingMode.DOWN));
+    }
+
+    private static DistributionSummary utilization(MeterRegistry registry, String limit) {
+        return DistributionSummary.builder(UTILIZATION)
+                .description("Share of a user limit used by an accepted order (1.0 = at the limit)")
+                .tag("limit", limit)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    private static Counter rejections(MeterRegistry registry, String limit) {
+        return Counter.builder(REJECTIONS)
+                .description("Orders rejected by a pre-trade risk limit")
+                .tag("limit", limit)
+                .register(registry);
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.stockexchange.risk;
+
+// limits of one user: notional in price ticks times quantity (see Prices), position in shares per stock
+// summed over every exchange listing it, counted long or short
+public record RiskLimits(long maxOrderNotional, int maxOpenOrders, long maxPosition) {
+}
@@ -0,0 +1,10 @@
+package com.example.stockexchange.risk;
+
+import java.util.List;
+
+// point in time copy of one user's risk counters
+public record UserExposure(long userId, RiskLimits limits, int openOrders, List<StockExposure> stocks) {
+
+    public record StockExposure(long stockId, long position, long openBuy, long openSell) {
+    }
+}
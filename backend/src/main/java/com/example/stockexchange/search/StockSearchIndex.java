@@ -0,0 +1,427 @@
+package com.example.stockexchange.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongPredicate;
+
+// in-memory inverted index over stock names and descriptions.
+// - a sorted token dictionary answers prefix lookups with a range scan
+// - a trigram index over the dictionary finds typo candidates, verified with a bounded edit distance
+// - postings are copy-on-write sorted long[] so readers never lock; writers (create/delete) are serialized
+public class StockSearchIndex {
+
+    // ids scored per query, across the prefix walk and the typo expansion, so a short prefix like "a" stays
+    // bounded at any index size. a filter runs while walking, the ids it rejects cost only the filter call
+    static final int MAX_CANDIDATES = 1_000;
+    // dictionary tokens counted through their trigrams per typo expansion
+    static final int MAX_FUZZY_TOKENS = 2_000;
+
+    private static final int NAME_EXACT = 10;
+    private static final int NAME_PREFIX = 6;
+    private static final int NAME_FUZZY = 3;
+    private static final int DESCRIPTION_EXACT = 3;
+    private static final int DESCRIPTION_PREFIX = 2;
+    private static final int DESCRIPTION_FUZZY = 1;
+    private static final int NAME_STARTS_WITH_QUERY = 20;
+    private static final int NAME_EQUALS_QUERY = 50;
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingInt(Hit::score).reversed()
+            .thenComparingInt((Hit hit) -> hit.name().length())
+            .thenComparingLong(Hit::stockId);
+
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, long[]> postings = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<String>> tokensByTrigram = new ConcurrentHashMap<>();
+
+    public synchronized void add(long stockId, String name, String description) {
+        remove(stockId);
+        Document document = new Document(stockId, name, description,
+                normalize(name), tokenize(name).toArray(String[]::new), tokenize(description).toArray(String[]::new));
+        documents.put(stockId, document);
+        for (String token : document.allTokens()) {
+            long[] ids = postings.get(token);
+            if (ids == null) {
+                postings.put(token, new long[]{stockId});
+                trigrams(token).forEach(gram -> tokensByTrigram
+                        .computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(token));
+            } else {
+                postings.put(token, insertSorted(ids, stockId));
+            }
+        }
+    }
+
+    public synchronized void remove(long stockId) {
+        Document document = documents.remove(stockId);
+        if (document == null) {
+            return;
+        }
+        for (String token : document.allTokens()) {
+            long[] ids = postings.get(token);
+            if (ids == null) {
+                continue;
+            }
+            long[] remaining = removeSorted(ids, stockId);
+            if (remaining.length > 0) {
+                postings.put(token, remaining);
+                continue;
+            }
+            postings.remove(token);
+            trigrams(token).forEach(gram -> tokensByTrigram.computeIfPresent(gram, (g, tokens) -> {
+                tokens.remove(token);
+                return tokens.isEmpty() ? null : tokens;
+            }));
+        }
+    }
+
+    public synchronized void clear() {
+        documents.clear();
+        postings.clear();
+        tokensByTrigram.clear();
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    // every query term must match the document (exactly, as a prefix or within the typo budget);
+    // results are ranked by score, then shorter name, then id
+    public List<Hit> search(String query, int limit, LongPredicate filter) {
+        return search(query, limit, null, filter);
+    }
+
+    // restricted to the given stocks, e.g. the listings of one exchange. a small scope with fewer stocks than
+    // the ids the query's prefix covers is scored directly; otherwise the postings are walked and filtered,
+    // and only ids inside the scope count against the candidate budget
+    public List<Hit> searchWithin(String query, int limit, Set<Long> stockIds) {
+        return search(query, limit, stockIds, stockIds::contains);
+    }
+
+    private List<Hit> search(String query, int limit, Set<Long> scope, LongPredicate filter) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        // the longest term is usually the most selective one, so it seeds the candidates
+        String seed = terms.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+        Candidates candidates = new Candidates(terms, normalize(query), limit, filter);
+
+        if (scope != null && scope.size() <= MAX_CANDIDATES && scope.size() < prefixPostings(seed, scope.size())) {
+            scope.forEach(candidates::score);
+            return candidates.hits();
+        }
+
+        // exact token first, then the prefix range in dictionary order, until the budget is spent
+        if (!candidates.offer(postings.get(seed))) {
+            return candidates.hits();
+        }
+        for (long[] ids : postings.subMap(seed, false, seed + Character.MAX_VALUE, false).values()) {
+            if (!candidates.offer(ids)) {
+                return candidates.hits();
+            }
+        }
+        // trigram expansion is the slow path, only taken while exact and prefix matches are short of the limit
+        if (candidates.isShort()) {
+            for (String token : fuzzyTokens(seed)) {
+                if (!candidates.offer(postings.get(token))) {
+                    break;
+                }
+            }
+        }
+        return candidates.hits();
+    }
+
+    // ids in the postings of the term and its prefix range, counted up to just past atMost
+    private int prefixPostings(String term, int atMost) {
+        long[] exact = postings.get(term);
+        int count = exact == null ? 0 : exact.length;
+        for (long[] ids : postings.subMap(term, false, term + Character.MAX_VALUE, false).values()) {
+            if (count > atMost) {
+                break;
+            }
+            count += ids.length;
+        }
+        return count;
+    }
+
+    // dictionary tokens within the typo budget of the term, found through shared trigrams. the rarest trigrams
+    // are counted first and the walk ends before MAX_FUZZY_TOKENS dictionary tokens; every trigram left out
+    // lowers what a token must share, the edit distance check still decides
+    private List<String> fuzzyTokens(String term) {
+        int maxEdits = maxEdits(term);
+        if (maxEdits == 0) {
+            return List.of();
+        }
+        List<String> grams = trigrams(term);
+        // every edit destroys at most four trigrams (a transposition), and a prefix match loses the closing one
+        int minShared = grams.size() - 4 * maxEdits - 1;
+
+        List<Set<String>> rarestFirst = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            Set<String> tokens = tokensByTrigram.get(gram);
+            if (tokens != null) {
+                rarestFirst.add(tokens);
+            }
+        }
+        rarestFirst.sort(Comparator.comparingInt(Set::size));
+
+        Map<String, Integer> shared = new HashMap<>();
+        int visited = 0;
+        int counted = 0;
+        for (Set<String> tokens : rarestFirst) {
+            visited += tokens.size();
+            if (visited > MAX_FUZZY_TOKENS) {
+                break;
+            }
+            tokens.forEach(token -> shared.merge(token, 1, Integer::sum));
+            counted++;
+        }
+        int required = Math.max(minShared - (rarestFirst.size() - counted), 1);
+
+        List<String> result = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+            String token = entry.getKey();
+            if (entry.getValue() >= required && !token.startsWith(term) && fuzzyMatches(term, token, maxEdits)) {
+                result.add(token);
+            }
+        }
+        return result;
+    }
+
+    private static int score(Document document, List<String> terms, String normalizedQuery) {
+        int total = 0;
+        for (String term : terms) {
+            int best = Math.max(
+                    match(term, document.nameTokens(), NAME_EXACT, NAME_PREFIX, NAME_FUZZY),
+                    match(term, document.descriptionTokens(), DESCRIPTION_EXACT, DESCRIPTION_PREFIX, DESCRIPTION_FUZZY));
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        if (document.normalizedName().equals(normalizedQuery)) {
+            total += NAME_EQUALS_QUERY;
+        } else if (document.normalizedName().startsWith(normalizedQuery)) {
+            total += NAME_STARTS_WITH_QUERY;
+        }
+        return total;
+    }
+
+    private static int match(String term, String[] tokens, int exact, int prefix, int fuzzy) {
+        int best = 0;
+        for (String token : tokens) {
+            if (token.equals(term)) {
+                return exact;
+            }
+            if (token.startsWith(term)) {
+                best = prefix;
+            }
+        }
+        if (best > 0) {
+            return best;
+        }
+        int maxEdits = maxEdits(term);
+        if (maxEdits > 0) {
+            for (String token : tokens) {
+                if (fuzzyMatches(term, token, maxEdits)) {
+                    return fuzzy;
+                }
+            }
+        }
+        return 0;
+    }
+
+    // the term is a typo of the whole token or of its beginning ("mircos" still finds "microsoft")
+    private static boolean fuzzyMatches(String term, String token, int maxEdits) {
+        if (editDistance(term, token, maxEdits) <= maxEdits) {
+            return true;
+        }
+        return token.length() > term.length()
+                && editDistance(term, token.substring(0, term.length()), maxEdits) <= maxEdits;
+    }
+
+    // short terms are too ambiguous to correct
+    static int maxEdits(String term) {
+        if (term.length() < 4) {
+            return 0;
+        }
+        return term.length() < 8 ? 1 : 2;
+    }
+
+    // optimal string alignment distance (insert, delete, substitute, transpose),
+    // returns max + 1 as soon as the distance is known to exceed max
+    static int editDistance(String a, String b, int max) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > max) {
+            return max + 1;
+        }
+        int[] previous2 = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[m];
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static String normalize(String text) {
+        return String.join(" ", tokenize(text));
+    }
+
+    private static List<String> trigrams(String token) {
+        String padded = "$" + token + "$";
+        List<String> grams = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private static long[] insertSorted(long[] ids, long id) {
+        int index = Arrays.binarySearch(ids, id);
+        if (index >= 0) {
+            return ids;
+        }
+        int insertAt = -index - 1;
+        long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, insertAt);
+        result[insertAt] = id;
+        System.arraycopy(ids, insertAt, result, insertAt + 1, ids.length - insertAt);
+        return result;
+    }
+
+    private static long[] removeSorted(long[] ids, long id) {
+        int index = Arrays.binarySearch(ids, id);
+        if (index < 0) {
+            return ids;
+        }
+        long[] result = new long[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, index);
+        System.arraycopy(ids, index + 1, result, index, ids.length - index - 1);
+        return result;
+    }
+
+    private record Document(long stockId, String name, String description, String normalizedName,
+                            String[] nameTokens, String[] descriptionTokens) {
+
+        Set<String> allTokens() {
+            Set<String> tokens = new LinkedHashSet<>(Arrays.asList(nameTokens));
+            tokens.addAll(Arrays.asList(descriptionTokens));
+            return tokens;
+        }
+    }
+
+    public record Hit(long stockId, String name, String description, int score) {
+    }
+
+    // the ids of one query: filtered and scored as they are offered, the best kept in a bounded top-k heap
+    private final class Candidates {
+
+        private final List<String> terms;
+        private final String normalizedQuery;
+        private final int limit;
+        private final LongPredicate filter;
+        private final PriorityQueue<Hit> best;
+        private final Set<Long> seen = new HashSet<>();
+        private int budget = MAX_CANDIDATES;
+
+        private Candidates(List<String> terms, String normalizedQuery, int limit, LongPredicate filter) {
+            this.terms = terms;
+            this.normalizedQuery = normalizedQuery;
+            this.limit = limit;
+            this.filter = filter;
+            this.best = new PriorityQueue<>(limit, RANKING.reversed());
+        }
+
+        // false once the budget is spent. ids the filter rejects are skipped without being charged, so a scope
+        // whose stocks sit late in a long posting list is still reached
+        private boolean offer(long[] ids) {
+            if (ids == null) {
+                return budget > 0;
+            }
+            for (long stockId : ids) {
+                if (budget <= 0) {
+                    return false;
+                }
+                if ((filter == null || filter.test(stockId)) && seen.add(stockId)) {
+                    budget--;
+                    score(stockId);
+                }
+            }
+            return budget > 0;
+        }
+
+        private void score(long stockId) {
+            Document document = documents.get(stockId);
+            if (document == null) {
+                return;
+            }
+            int score = StockSearchIndex.score(document, terms, normalizedQuery);
+            if (score == 0) {
+                return;
+            }
+            Hit hit = new Hit(document.stockId(), document.name(), document.description(), score);
+            // a full heap only takes hits that rank above its worst one
+            if (best.size() < limit) {
+                best.add(hit);
+            } else if (RANKING.compare(hit, best.peek()) < 0) {
+                best.poll();
+                best.add(hit);
+            }
+        }
+
+        private boolean isShort() {
+            return best.size() < limit;
+        }
+
+        private List<Hit> hits() {
+            List<Hit> hits = new ArrayList<>(best);
+            hits.sort(RANKING);
+            return hits;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.stockexchange.service;
 
+import com.example.stockexchange.config.MetricsConfig;
 import com.example.stockexchange.entity.Authority;
+import com.example.stockexchange.entity.RefreshToken;
 import com.example.stockexchange.entity.User;
 import com.example.stockexchange.entity.UserCredintials;
 import com.example.stockexchange.exception.InvalidCredentialException;
@@ -8,29 +10,36 @@ import com.example.stockexchange.repository.UserRepository;
 import com.example.stockexchange.request.AuthenticationRequest;
 import com.example.stockexchange.request.RegisterRequest;
 import com.example.stockexchange.response.AuthenticationResponse;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Optional;
 
+@Slf4j
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true, percentiles = {0.5, 0.95, 0.99})
 public class AuthenticationService {
 
+    // checked against for unknown emails, so they take as long as a wrong password
+    private static final String UNKNOWN_USER_PASSWORD = "unknown-user";
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
+    private volatile String unknownUserHash;
 
-    public AuthenticationService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager, JwtService jwtService) {
+    public AuthenticationService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService,
+                                 RefreshTokenService refreshTokenService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.authenticationManager = authenticationManager;
         this.jwtService = jwtService;
+        this.refreshTokenService = refreshTokenService;
     }
 
     @Transactional
@@ -42,23 +51,66 @@ public class AuthenticationService {
         userRepository.save(user);
     }
 
-    @Transactional(readOnly = true)
+    // not transactional: the lookup returns its connection before the hash is checked on the hashing threads
+    // (PasswordHashingEncoder), so a login holds a connection for a query instead of a hash
     public AuthenticationResponse login(AuthenticationRequest request) {
-        try {
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
+        Optional<User> found = userRepository.findByEmail(request.getEmail());
+        String hash = found.map(User::getPassword).orElseGet(this::unknownUserHash);
+        if (!passwordEncoder.matches(request.getPassword(), hash) || found.isEmpty()) {
+            throw new InvalidCredentialException("Invalid email or password");
+        }
+
+        User user = found.get();
+        if (passwordEncoder.upgradeEncoding(hash)) {
+            rehash(user, request.getPassword());
+        }
+        return issueTokens(user, null);
+    }
+
+    // a new access token and the successor of the refresh token, which is used up
+    public AuthenticationResponse refresh(String refreshToken) {
+        RefreshToken rotated = refreshTokenService.rotate(refreshToken);
+        User user = userRepository.findById(rotated.getUserId())
+                .orElseThrow(() -> new InvalidCredentialException("Invalid refresh token"));
+        return issueTokens(user, rotated);
+    }
 
-            User user = userRepository.findByEmail(request.getEmail())
-                    .orElseThrow(() -> new InvalidCredentialException("Invalid email or password"));
+    // revokes the refresh token and every access token of its login
+    public void logout(String refreshToken) {
+        if (refreshToken != null) {
+            refreshTokenService.revoke(refreshToken);
+        }
+    }
 
-            UserCredintials userCredintials = new UserCredintials(user);
+    private AuthenticationResponse issueTokens(User user, RefreshToken previous) {
+        JwtService.AccessToken accessToken = jwtService.issueToken(new UserCredintials(user));
+        String refreshToken = previous == null
+                ? refreshTokenService.issue(user.getId(), null, null, accessToken)
+                : refreshTokenService.issue(user.getId(), previous.getFamilyId(), previous.getExpiresAt(), accessToken);
+        return new AuthenticationResponse(accessToken.value(), refreshToken);
+    }
 
-            String jwtToken = jwtService.generateToken(new HashMap<>(), userCredintials);
-            return new AuthenticationResponse(jwtToken);
+    // moves the stored hash to the configured encoder and cost; only replaces the hash that was just checked,
+    // a password changed in the meantime wins
+    private void rehash(User user, String rawPassword) {
+        try {
+            String upgraded = passwordEncoder.encode(rawPassword);
+            if (userRepository.updatePassword(user.getId(), user.getPassword(), upgraded) == 1) {
+                log.info("Rehashed the password of user {}", user.getId());
+            }
+        } catch (RuntimeException e) {
+            // the old hash still works, the next login tries again
+            log.warn("Could not rehash the password of user {}", user.getId(), e);
+        }
+    }
 
-        } catch (Exception e) {
-            throw new InvalidCredentialException("Invalid email or password");
+    private String unknownUserHash() {
+        String hash = unknownUserHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode(UNKNOWN_USER_PASSWORD);
+            unknownUserHash = hash;
         }
+        return hash;
     }
 
     private boolean isEmailTaken(String email) {
@@ -0,0 +1,226 @@
+package com.example.stockexchange.service;
+
+import com.example.stockexchange.entity.JwtPublicKey;
+import com.example.stockexchange.repository.JwtPublicKeyRepository;
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// asymmetric signing (jwt.algorithm RS256 or EdDSA): every instance signs with a key pair of its own, generated on
+// start and on every rotation. the private key never leaves memory; the public key is published to jwt_public_key,
+// where the other instances and /.well-known/jwks.json pick it up. verification finds the key by the kid header
+// among the keys parsed so far, an unknown kid (a key newer than the last sync) reloads them once
+@Slf4j
+@Component
+@ConditionalOnExpression("'${jwt.algorithm:HS256}' != 'HS256'")
+public class JwtKeyRing implements SmartLifecycle {
+
+    // before the web server and the gateway, so every token is signed with a published key
+    public static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    // between two reloads for an unknown kid, so forged kids cannot turn into a query per request
+    private static final long RELOAD_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final JwtPublicKeyRepository repository;
+    private final Algorithm algorithm;
+    private final Duration rotationInterval;
+    private final Duration accessExpiration;
+    private final Map<String, PublicKey> publicKeys = new ConcurrentHashMap<>();
+    private final AtomicLong lastLookupReload = new AtomicLong(System.nanoTime() - RELOAD_BACKOFF_NANOS);
+    private final JwtParser parser;
+    private volatile SigningKey current;
+    private volatile String jwks = "{\"keys\":[]}";
+    private volatile boolean running;
+
+    public JwtKeyRing(JwtPublicKeyRepository repository,
+                      @Value("${jwt.algorithm}") String algorithm,
+                      @Value("${jwt.signing.rotation-interval:24h}") Duration rotationInterval,
+                      @Value("${jwt.expiration}") long accessExpiration) {
+        this.repository = repository;
+        this.algorithm = Algorithm.valueOf(algorithm);
+        this.rotationInterval = rotationInterval;
+        this.accessExpiration = Duration.ofMillis(accessExpiration);
+        this.parser = Jwts.parser().keyLocator(this::locate).build();
+    }
+
+    public enum Algorithm {
+        RS256("RSA", 2048),
+        EdDSA("Ed25519", 0);
+
+        private final String keyAlgorithm;
+        private final int keySize;
+
+        Algorithm(String keyAlgorithm, int keySize) {
+            this.keyAlgorithm = keyAlgorithm;
+            this.keySize = keySize;
+        }
+
+        SignatureAlgorithm signature() {
+            return this == RS256 ? Jwts.SIG.RS256 : Jwts.SIG.EdDSA;
+        }
+    }
+
+    record SigningKey(String kid, PrivateKey privateKey) {
+    }
+
+    // the key pair is generated again on every start, so instances restored from one CRaC checkpoint do not
+    // share a private key
+    @Override
+    public void start() {
+        rotate();
+        reload();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    public JwtBuilder sign(JwtBuilder builder) {
+        SigningKey key = current;
+        return builder.header().keyId(key.kid()).and().signWith(key.privateKey(), algorithm.signature());
+    }
+
+    // built once, the keys are looked up per token
+    public JwtParser parser() {
+        return parser;
+    }
+
+    // the public keys of every instance that are still in use, as a JWK set
+    public String jwks() {
+        return jwks;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.signing.rotation-interval:24h}", initialDelayString = "${jwt.signing.rotation-interval:24h}")
+    public void scheduledRotate() {
+        if (running) {
+            rotate();
+            repository.deleteExpired(Instant.now());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.signing.sync-interval:30s}")
+    public void sync() {
+        if (running) {
+            reload();
+        }
+    }
+
+    // the new key is published before it signs anything. the old one keeps verifying until its last token
+    // expires: a key signs for one rotation interval at most, a second one covers a late rotation
+    synchronized void rotate() {
+        KeyPair keyPair = generateKeyPair();
+        Instant now = Instant.now();
+        String kid = UUID.randomUUID().toString();
+        repository.save(new JwtPublicKey(kid, algorithm.name(),
+                Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()),
+                now, now.plus(rotationInterval.multipliedBy(2)).plus(accessExpiration)));
+        publicKeys.put(kid, keyPair.getPublic());
+        current = new SigningKey(kid, keyPair.getPrivate());
+        jwks = toJwks(publicKeys);
+        log.info("Signing tokens with {} key {}", algorithm, kid);
+    }
+
+    // a key that is known already is not parsed again
+    synchronized void reload() {
+        List<JwtPublicKey> stored = repository.findByExpiresAtAfter(Instant.now());
+        for (JwtPublicKey key : stored) {
+            publicKeys.computeIfAbsent(key.getKid(), kid -> parsePublicKey(key));
+        }
+        Set<String> live = stored.stream().map(JwtPublicKey::getKid).collect(Collectors.toCollection(HashSet::new));
+        if (current != null) {
+            live.add(current.kid());
+        }
+        publicKeys.keySet().retainAll(live);
+        jwks = toJwks(publicKeys);
+    }
+
+    private Key locate(Header header) {
+        String kid = header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null;
+        if (kid == null) {
+            throw new MalformedJwtException("Token has no key id");
+        }
+        PublicKey key = publicKeys.get(kid);
+        long last = lastLookupReload.get();
+        if (key == null && System.nanoTime() - last >= RELOAD_BACKOFF_NANOS
+                && lastLookupReload.compareAndSet(last, System.nanoTime())) {
+            reload();
+            key = publicKeys.get(kid);
+        }
+        if (key == null) {
+            throw new MalformedJwtException("Unknown signing key " + kid);
+        }
+        return key;
+    }
+
+    private KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm.keyAlgorithm);
+            if (algorithm.keySize > 0) {
+                generator.initialize(algorithm.keySize);
+            }
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(algorithm.keyAlgorithm + " keys are not available", e);
+        }
+    }
+
+    private static PublicKey parsePublicKey(JwtPublicKey key) {
+        try {
+            return KeyFactory.getInstance(Algorithm.valueOf(key.getAlgorithm()).keyAlgorithm)
+                    .generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(key.getEncodedKey())));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unreadable public key " + key.getKid(), e);
+        }
+    }
+
+    // serialized once per change, the endpoint hands out the same string
+    private static String toJwks(Map<String, PublicKey> keys) {
+        return keys.entrySet().stream()
+                .map(entry -> Jwks.json(Jwks.builder().key(entry.getValue()).id(entry.getKey()).publicKeyUse("sig").build()))
+                .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+    }
+}
@@ -1,31 +1,50 @@
 package com.example.stockexchange.service;
 
+import com.example.stockexchange.config.MetricsConfig;
+import com.example.stockexchange.entity.Authority;
+import com.example.stockexchange.entity.User;
+import com.example.stockexchange.entity.UserCredintials;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import java.security.Key;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true, percentiles = {0.5, 0.95, 0.99})
 @RequiredArgsConstructor
 public class JwtService{
 
+    private static final String AUTHORITIES_CLAIM = "authorities";
+    private static final String USER_ID_CLAIM = "uid";
+
     @Value("${jwt.secret}")
     private String SECRET_KEY;
 
     @Value("${jwt.expiration}")
     private long JWT_EXPIRATION;
 
+    // present with jwt.algorithm RS256 or EdDSA, tokens are then signed and verified with its keys instead of the secret
+    @Autowired(required = false)
+    private JwtKeyRing keyRing;
+
     public String extractUsername(String token) {
 
         return extractClaim(token, Claims::getSubject);
@@ -39,6 +58,9 @@ public class JwtService{
     // ? deprecated but we may update it later when we read the docs
 
     private Claims extractAllClaims(String token) {
+        if (keyRing != null) {
+            return keyRing.parser().parseSignedClaims(token).getPayload();
+        }
         return Jwts.parser()
                 .setSigningKey(getSigningKey()) // get the key we used the first time
                 .build()
@@ -60,20 +82,60 @@ public class JwtService{
     }
 
     public String generateToken(Map<String, Object> s, UserDetails userDetails){
+        return issueToken(userDetails).value();
+    }
+
+    // the token carries the user id and authorities, so a request is authenticated from the token alone
+    // (toUserDetails); its id (jti) is what gets revoked on logout
+    public AccessToken issueToken(UserDetails userDetails) {
 
         Map<String, Object> claims = new HashMap<>();
 
-        claims.put("authorities", userDetails.getAuthorities().stream()
+        claims.put(AUTHORITIES_CLAIM, userDetails.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(java.util.stream.Collectors.toList()));
-
-        return Jwts.builder()
+        if (userDetails instanceof UserCredintials credentials) {
+            claims.put(USER_ID_CLAIM, credentials.getId());
+        }
+
+        String id = UUID.randomUUID().toString();
+        long now = System.currentTimeMillis();
+        // exp is in whole seconds, the expiry handed back must be the one in the token
+        Date expiration = new Date((now + JWT_EXPIRATION) / 1000 * 1000);
+        JwtBuilder builder = Jwts.builder()
                 .setClaims(claims) // empty hashmap
+                .setId(id)
                 .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + JWT_EXPIRATION))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(new Date(now))
+                .setExpiration(expiration);
+        String token = (keyRing != null ? keyRing.sign(builder) : builder.signWith(getSigningKey(), SignatureAlgorithm.HS256))
                 .compact();
+        return new AccessToken(token, id, expiration.toInstant());
+    }
+
+    // verifies the signature and expiry, throws JwtException (ExpiredJwtException, SignatureException ...) otherwise
+    public Claims parseToken(String token) {
+        return extractAllClaims(token);
+    }
+
+    // the principal of a verified token, without a user lookup. authorities are as of the token's issue,
+    // a role change applies with the next access token
+    public UserCredintials toUserDetails(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        if (userId == null) {
+            throw new MalformedJwtException("Token carries no user id");
+        }
+        List<?> authorities = claims.get(AUTHORITIES_CLAIM, List.class);
+        User user = new User();
+        user.setId(userId.longValue());
+        user.setEmail(claims.getSubject());
+        user.setAuthorities(authorities == null ? List.of() : authorities.stream()
+                .map(authority -> new Authority(authority.toString()))
+                .toList());
+        return new UserCredintials(user);
+    }
+
+    public record AccessToken(String value, String id, Instant expiresAt) {
     }
 
     private Key getSigningKey() {
@@ -0,0 +1,274 @@
+package com.example.stockexchange.service;
+
+import com.example.stockexchange.engine.Prices;
+import com.example.stockexchange.event.StockDelistedEvent;
+import com.example.stockexchange.event.StockDeletedEvent;
+import com.example.stockexchange.event.StockExchangeDeletedEvent;
+import com.example.stockexchange.event.StockListedEvent;
+import com.example.stockexchange.event.StockPriceChangedEvent;
+import com.example.stockexchange.exception.ResourceNotFoundException;
+import com.example.stockexchange.market.ListingRegistry;
+import com.example.stockexchange.market.MarketDataChannel;
+import com.example.stockexchange.market.MarketDataCodec;
+import com.example.stockexchange.market.MarketDataDelta;
+import com.example.stockexchange.market.MarketDataSnapshot;
+import com.example.stockexchange.repository.ListedStockView;
+import com.example.stockexchange.repository.StockExchangeRepository;
+import com.example.stockexchange.repository.StockListingRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// market data distribution: one MarketDataChannel per exchange, fed from the listing and price events.
+// a subscriber starts from a snapshot (or resumes after the sequence it last saw, when the channel still
+// has the deltas since then) and then receives every delta in sequence order. a subscriber that falls
+// behind further than the replay ring, or resumes with another epoch, is sent a fresh snapshot instead
+// of a stream with a gap in it. a scheduled tick hands every idle subscriber to the sender threads, so a
+// slow client only delays itself: writes block, so the pool grows past sender-threads while some are stuck
+// in a write, and a subscriber whose write takes longer than write-timeout is dropped
+@Slf4j
+@Service
+public class MarketDataService {
+
+    private static final MediaType MARKET_DATA = MediaType.parseMediaType(MarketDataCodec.MEDIA_TYPE);
+
+    private final StockListingRepository stockListingRepository;
+    private final StockExchangeRepository stockExchangeRepository;
+    private final ListingRegistry listingRegistry;
+    private final int replayCapacity;
+    private final int maxDeltasPerFrame;
+    private final long heartbeatNanos;
+    private final long streamTimeoutMillis;
+    private final long writeTimeoutNanos;
+    private final ThreadPoolExecutor senders;
+
+    private final ConcurrentHashMap<Long, MarketDataChannel> channels = new ConcurrentHashMap<>();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    public MarketDataService(StockListingRepository stockListingRepository,
+                             StockExchangeRepository stockExchangeRepository,
+                             ListingRegistry listingRegistry,
+                             @Value("${app.market-data.replay-capacity:16384}") int replayCapacity,
+                             @Value("${app.market-data.max-deltas-per-frame:1024}") int maxDeltasPerFrame,
+                             @Value("${app.market-data.heartbeat-interval:5s}") Duration heartbeatInterval,
+                             @Value("${app.market-data.stream-timeout:30m}") Duration streamTimeout,
+                             @Value("${app.market-data.sender-threads:2}") int senderThreads,
+                             @Value("${app.market-data.max-sender-threads:32}") int maxSenderThreads,
+                             @Value("${app.market-data.write-timeout:5s}") Duration writeTimeout) {
+        this.stockListingRepository = stockListingRepository;
+        this.stockExchangeRepository = stockExchangeRepository;
+        this.listingRegistry = listingRegistry;
+        this.replayCapacity = replayCapacity;
+        this.maxDeltasPerFrame = maxDeltasPerFrame;
+        this.heartbeatNanos = heartbeatInterval.toNanos();
+        this.streamTimeoutMillis = streamTimeout.toMillis();
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        AtomicInteger threads = new AtomicInteger();
+        // no queue: a send either finds an idle sender or starts one, up to max-sender-threads. beyond that the
+        // subscriber is skipped until the next tick instead of waiting behind stuck writes
+        this.senders = new ThreadPoolExecutor(senderThreads, Math.max(senderThreads, maxSenderThreads),
+                60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "market-data-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Order(2)
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        channels.clear();
+        for (ListedStockView listed : stockListingRepository.findAllListedStocks()) {
+            channel(listed.getStockExchangeId()).listed(listed.getStockId(), listed.getName(), Prices.roundToTicks(listed.getCurrentPrice()));
+        }
+        log.info("Market data channels loaded for {} exchanges", channels.size());
+    }
+
+    public byte[] getSnapshot(Long stockExchangeId) {
+        return MarketDataCodec.encodeSnapshot(existingChannel(stockExchangeId).snapshot());
+    }
+
+    // epoch and fromSequence are what the client saw last, without them the stream starts with a snapshot
+    public ResponseBodyEmitter subscribe(Long stockExchangeId, Long epoch, Long fromSequence) {
+        MarketDataChannel channel = existingChannel(stockExchangeId);
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(streamTimeoutMillis);
+        boolean resume = epoch != null && fromSequence != null && epoch == channel.epoch();
+        Subscriber subscriber = new Subscriber(emitter, stockExchangeId, channel.epoch(), resume ? fromSequence : -1);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${app.market-data.publish-interval:100ms}")
+    public void publish() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long writeStartedAt = subscriber.writeStartedAt;
+            if (writeStartedAt != 0 && now - writeStartedAt > writeTimeoutNanos) {
+                // the emitter is locked by the stuck write, so the subscriber only leaves the list; the write
+                // completes the stream if it ever returns, otherwise the connection timeout releases the sender
+                log.debug("Market data subscriber of exchange {} dropped: write timed out", subscriber.stockExchangeId);
+                subscriber.dropped = true;
+                subscribers.remove(subscriber);
+                continue;
+            }
+            if (subscriber.busy.compareAndSet(false, true)) {
+                try {
+                    senders.execute(() -> send(subscriber));
+                } catch (RejectedExecutionException e) {
+                    subscriber.busy.set(false);
+                }
+            }
+        }
+    }
+
+    private void send(Subscriber subscriber) {
+        try {
+            MarketDataChannel channel = channels.get(subscriber.stockExchangeId);
+            if (channel == null) {
+                // the exchange is gone
+                subscriber.emitter.complete();
+                subscribers.remove(subscriber);
+                return;
+            }
+            List<MarketDataDelta> deltas = subscriber.cursor < 0 || subscriber.epoch != channel.epoch()
+                    ? null
+                    : channel.since(subscriber.cursor, maxDeltasPerFrame);
+            long now = System.nanoTime();
+            if (deltas == null) {
+                MarketDataSnapshot snapshot = channel.snapshot();
+                write(subscriber, MarketDataCodec.encodeSnapshot(snapshot), now);
+                subscriber.epoch = snapshot.epoch();
+                subscriber.cursor = snapshot.sequence();
+            } else if (!deltas.isEmpty()) {
+                write(subscriber, MarketDataCodec.encodeDeltas(channel.stockExchangeId(), channel.epoch(), deltas), now);
+                subscriber.cursor = deltas.get(deltas.size() - 1).sequence();
+            } else if (now - subscriber.lastSentNanos >= heartbeatNanos) {
+                write(subscriber, MarketDataCodec.encodeHeartbeat(channel.stockExchangeId(), channel.epoch(), subscriber.cursor), now);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // the client went away, the emitter callbacks drop the subscriber
+            log.debug("Market data subscriber of exchange {} dropped: {}", subscriber.stockExchangeId, e.getMessage());
+            subscribers.remove(subscriber);
+        } finally {
+            subscriber.busy.set(false);
+        }
+    }
+
+    private static void write(Subscriber subscriber, byte[] frame, long now) throws IOException {
+        subscriber.writeStartedAt = now;
+        try {
+            subscriber.emitter.send(frame, MARKET_DATA);
+        } finally {
+            subscriber.writeStartedAt = 0;
+        }
+        if (subscriber.dropped) {
+            subscriber.emitter.complete();
+        }
+        subscriber.lastSentNanos = now;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockPriceChanged(StockPriceChangedEvent event) {
+        long price = Prices.roundToTicks(event.getCurrentPrice());
+        for (Long stockExchangeId : listingRegistry.exchangesOf(event.getStockId())) {
+            MarketDataChannel channel = channels.get(stockExchangeId);
+            if (channel != null) {
+                channel.priceChanged(event.getStockId(), price);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockListed(StockListedEvent event) {
+        channel(event.getStockExchangeId()).listed(event.getStockId(), event.getStockName(), Prices.roundToTicks(event.getCurrentPrice()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDelisted(StockDelistedEvent event) {
+        MarketDataChannel channel = channels.get(event.getStockExchangeId());
+        if (channel != null) {
+            channel.delisted(event.getStockId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDeleted(StockDeletedEvent event) {
+        // the listing registry may already have forgotten the stock, so sweep every channel
+        channels.values().forEach(channel -> channel.delisted(event.getStockId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockExchangeDeleted(StockExchangeDeletedEvent event) {
+        // its subscribers are completed with the next tick
+        channels.remove(event.getStockExchangeId());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    // exchanges without listings have no channel until they are asked for
+    private MarketDataChannel existingChannel(Long stockExchangeId) {
+        MarketDataChannel channel = channels.get(stockExchangeId);
+        if (channel != null) {
+            return channel;
+        }
+        if (!stockExchangeRepository.existsById(stockExchangeId)) {
+            throw new ResourceNotFoundException("Stock Exchange not found with id: " + stockExchangeId);
+        }
+        return channel(stockExchangeId);
+    }
+
+    private MarketDataChannel channel(Long stockExchangeId) {
+        return channels.computeIfAbsent(stockExchangeId,
+                id -> new MarketDataChannel(id, System.currentTimeMillis(), replayCapacity));
+    }
+
+    private static final class Subscriber {
+
+        private final ResponseBodyEmitter emitter;
+        private final long stockExchangeId;
+        private final AtomicBoolean busy = new AtomicBoolean();
+        // System.nanoTime() when the running write started, 0 between writes
+        private volatile long writeStartedAt;
+        private volatile boolean dropped;
+        // only touched by the sender holding busy
+        private long epoch;
+        private long cursor;
+        private long lastSentNanos;
+
+        private Subscriber(ResponseBodyEmitter emitter, long stockExchangeId, long epoch, long cursor) {
+            this.emitter = emitter;
+            this.stockExchangeId = stockExchangeId;
+            this.epoch = epoch;
+            this.cursor = cursor;
+            this.lastSentNanos = System.nanoTime();
+        }
+    }
+}
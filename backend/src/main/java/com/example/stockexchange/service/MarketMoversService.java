@@ -0,0 +1,121 @@
+package com.example.stockexchange.service;
+
+import com.example.stockexchange.dto.StockMoverDto;
+import com.example.stockexchange.event.StockDelistedEvent;
+import com.example.stockexchange.event.StockDeletedEvent;
+import com.example.stockexchange.event.StockExchangeDeletedEvent;
+import com.example.stockexchange.event.StockListedEvent;
+import com.example.stockexchange.event.StockPriceChangedEvent;
+import com.example.stockexchange.exception.ResourceNotFoundException;
+import com.example.stockexchange.market.ListingRegistry;
+import com.example.stockexchange.market.MoversDirection;
+import com.example.stockexchange.market.TopMoversBoard;
+import com.example.stockexchange.repository.ListedStockView;
+import com.example.stockexchange.repository.StockExchangeRepository;
+import com.example.stockexchange.repository.StockListingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// keeps one TopMoversBoard per exchange, fed from the price update path, so "top k gainers/losers"
+// never scans the stock table
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MarketMoversService {
+
+    private static final BigDecimal PPM_PER_PERCENT = BigDecimal.valueOf(10_000);
+
+    private final StockListingRepository stockListingRepository;
+    private final StockExchangeRepository stockExchangeRepository;
+    private final ListingRegistry listingRegistry;
+
+    private final ConcurrentHashMap<Long, TopMoversBoard> boards = new ConcurrentHashMap<>();
+
+    @Order(1)
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        boards.clear();
+        for (ListedStockView listed : stockListingRepository.findAllListedStocks()) {
+            board(listed.getStockExchangeId()).put(listed.getStockId(), listed.getName(), listed.getCurrentPrice());
+        }
+        log.info("Top movers boards loaded for {} exchanges", boards.size());
+    }
+
+    public List<StockMoverDto> getTopMovers(Long stockExchangeId, int k, MoversDirection direction) {
+        TopMoversBoard board = boards.get(stockExchangeId);
+        if (board == null) {
+            // only an empty or unknown exchange has no board, so this is the only path that touches the database
+            if (!stockExchangeRepository.existsById(stockExchangeId)) {
+                throw new ResourceNotFoundException("Stock Exchange not found with id: " + stockExchangeId);
+            }
+            return List.of();
+        }
+
+        List<TopMoversBoard.Entry> entries = direction.top(board, k);
+
+        return entries.stream()
+                .map(entry -> new StockMoverDto(
+                        entry.stockId(),
+                        entry.name(),
+                        entry.openPrice(),
+                        entry.currentPrice(),
+                        BigDecimal.valueOf(entry.changePpm()).divide(PPM_PER_PERCENT, 4, RoundingMode.HALF_UP)))
+                .toList();
+    }
+
+    // a new trading session starts from the last known prices
+    @Scheduled(cron = "${app.market.session-open-cron:0 0 0 * * *}", zone = "${app.market.session-zone:UTC}")
+    public void resetSession() {
+        boards.values().forEach(TopMoversBoard::resetSession);
+        log.info("Top movers session reset for {} exchanges", boards.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockPriceChanged(StockPriceChangedEvent event) {
+        for (Long stockExchangeId : listingRegistry.exchangesOf(event.getStockId())) {
+            TopMoversBoard board = boards.get(stockExchangeId);
+            if (board != null) {
+                board.updatePrice(event.getStockId(), event.getCurrentPrice());
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockListed(StockListedEvent event) {
+        board(event.getStockExchangeId()).put(event.getStockId(), event.getStockName(), event.getCurrentPrice());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDelisted(StockDelistedEvent event) {
+        TopMoversBoard board = boards.get(event.getStockExchangeId());
+        if (board != null) {
+            board.remove(event.getStockId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDeleted(StockDeletedEvent event) {
+        // the listing registry may already have forgotten the stock, so sweep every board
+        boards.values().forEach(board -> board.remove(event.getStockId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockExchangeDeleted(StockExchangeDeletedEvent event) {
+        boards.remove(event.getStockExchangeId());
+    }
+
+    private TopMoversBoard board(Long stockExchangeId) {
+        return boards.computeIfAbsent(stockExchangeId, id -> new TopMoversBoard());
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.stockexchange.service;
+
+import com.example.stockexchange.dto.OrderExecutionDto;
+import com.example.stockexchange.engine.AmendOrder;
+import com.example.stockexchange.engine.CancelOrder;
+import com.example.stockexchange.engine.ExecutionReport;
+import com.example.stockexchange.engine.ExecutionStatus;
+import com.example.stockexchange.engine.NewOrder;
+import com.example.stockexchange.engine.OrderCommand;
+import com.example.stockexchange.engine.OrderSequencer;
+import com.example.stockexchange.engine.OrderType;
+import com.example.stockexchange.engine.Prices;
+import com.example.stockexchange.engine.RejectReason;
+import com.example.stockexchange.exception.OrderRejectedException;
+import com.example.stockexchange.request.OrderAmendRequest;
+import com.example.stockexchange.request.OrderRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// REST entry to the order sequencer: converts prices to engine ticks and waits for the execution report
+@Service
+public class OrderService {
+
+    private final OrderSequencer orderSequencer;
+    private final long responseTimeoutMillis;
+
+    public OrderService(OrderSequencer orderSequencer,
+                        @Value("${app.engine.response-timeout:2s}") Duration responseTimeout) {
+        this.orderSequencer = orderSequencer;
+        this.responseTimeoutMillis = responseTimeout.toMillis();
+    }
+
+    public OrderExecutionDto placeOrder(Long stockExchangeId, Long ownerId, OrderRequest request) {
+        long price = 0;
+        if (request.getType() == OrderType.LIMIT) {
+            if (request.getPrice() == null) {
+                throw new OrderRejectedException(RejectReason.INVALID_PRICE, "Price is required for LIMIT orders");
+            }
+            price = toTicks(request.getPrice());
+        }
+        return execute(new NewOrder(0, stockExchangeId, request.getStockId(), ownerId,
+                request.getSide(), request.getType(), price, request.getQuantity()));
+    }
+
+    public OrderExecutionDto amendOrder(Long stockExchangeId, Long orderId, Long ownerId, OrderAmendRequest request) {
+        return execute(new AmendOrder(orderId, stockExchangeId, request.getStockId(), ownerId,
+                toTicks(request.getPrice()), request.getQuantity()));
+    }
+
+    public OrderExecutionDto cancelOrder(Long stockExchangeId, Long orderId, Long ownerId, Long stockId) {
+        return execute(new CancelOrder(orderId, stockExchangeId, stockId, ownerId));
+    }
+
+    private OrderExecutionDto execute(OrderCommand command) {
+        ExecutionReport report = await(command);
+        if (report.status() == ExecutionStatus.REJECTED) {
+            throw new OrderRejectedException(report.rejectReason(), rejectMessage(command, report.rejectReason()));
+        }
+        return toDto(command, report);
+    }
+
+    private ExecutionReport await(OrderCommand command) {
+        try {
+            return orderSequencer.submit(command).get(responseTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OrderRejectedException(RejectReason.ENGINE_UNAVAILABLE);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new OrderRejectedException(RejectReason.ENGINE_UNAVAILABLE,
+                    "Matching engine did not answer in time, the order state is unknown");
+        }
+    }
+
+    private static long toTicks(BigDecimal price) {
+        try {
+            return Prices.toTicks(price);
+        } catch (ArithmeticException e) {
+            throw new OrderRejectedException(RejectReason.INVALID_PRICE, "Price must have at most 4 decimal places");
+        }
+    }
+
+    private static String rejectMessage(OrderCommand command, RejectReason reason) {
+        return switch (reason) {
+            case NOT_TRADABLE -> "Stock " + command.stockId() + " is not listed on live Stock Exchange "
+                    + command.stockExchangeId();
+            case UNKNOWN_ORDER -> "Order not found with id: " + command.orderId();
+            case NOT_ORDER_OWNER -> "Order " + command.orderId() + " belongs to another user";
+            case RISK_ORDER_NOTIONAL -> "Order value exceeds your maximum order notional";
+            case RISK_OPEN_ORDERS -> "You have reached your maximum number of open orders";
+            case RISK_POSITION -> "Order would exceed your maximum position in stock " + command.stockId();
+            default -> "Order rejected: " + reason;
+        };
+    }
+
+    private static OrderExecutionDto toDto(OrderCommand command, ExecutionReport report) {
+        BigDecimal notional = BigDecimal.ZERO;
+        List<OrderExecutionDto.FillDto> fills = new ArrayList<>(report.fills().size());
+        for (ExecutionReport.Fill fill : report.fills()) {
+            BigDecimal price = Prices.toPrice(fill.price());
+            notional = notional.add(price.multiply(BigDecimal.valueOf(fill.quantity())));
+            fills.add(new OrderExecutionDto.FillDto(price, fill.quantity()));
+        }
+        BigDecimal averagePrice = report.filledQuantity() == 0 ? null
+                : notional.divide(BigDecimal.valueOf(report.filledQuantity()), Prices.SCALE, RoundingMode.HALF_UP);
+        return new OrderExecutionDto(report.orderId(), command.stockExchangeId(), command.stockId(), report.status(),
+                report.filledQuantity(), report.remainingQuantity(), averagePrice, fills);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.stockexchange.service;
+
+import com.example.stockexchange.config.MetricsConfig;
+import com.example.stockexchange.entity.RefreshToken;
+import com.example.stockexchange.exception.InvalidCredentialException;
+import com.example.stockexchange.repository.RefreshTokenRepository;
+import com.example.stockexchange.revocation.TokenRevocationList;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+// rotating refresh tokens: every refresh hands out a new token and uses up the old one. a used token presented
+// again means it was copied, so the whole family (every token since the login) is revoked along with the
+// access tokens issued with it
+@Slf4j
+@Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true, percentiles = {0.5, 0.95, 0.99})
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenRevocationList revocationList;
+    private final long refreshExpiration;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               TokenRevocationList revocationList,
+                               @Value("${jwt.refresh-expiration}") long refreshExpiration) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.revocationList = revocationList;
+        this.refreshExpiration = refreshExpiration;
+    }
+
+    // a new token for the access token just issued, in a new family when familyId is null (a login).
+    // a refresh keeps the expiry of the family, so refreshing cannot extend a login forever
+    public String issue(Long userId, String familyId, Instant familyExpiresAt, JwtService.AccessToken accessToken) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setUserId(userId);
+        refreshToken.setFamilyId(familyId == null ? UUID.randomUUID().toString() : familyId);
+        refreshToken.setAccessTokenId(accessToken.id());
+        refreshToken.setAccessExpiresAt(accessToken.expiresAt());
+        refreshToken.setExpiresAt(familyExpiresAt == null ? Instant.now().plusMillis(refreshExpiration) : familyExpiresAt);
+        refreshTokenRepository.save(refreshToken);
+        return token;
+    }
+
+    // uses the token up and returns it, the caller issues its successor in the same family.
+    // the revocation of a reused family is kept although the refresh fails
+    @Transactional(noRollbackFor = InvalidCredentialException.class)
+    public RefreshToken rotate(String token) {
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(() -> new InvalidCredentialException("Invalid refresh token"));
+        Instant now = Instant.now();
+        if (refreshToken.getRevokedAt() != null || !refreshToken.getExpiresAt().isAfter(now)) {
+            throw new InvalidCredentialException("Refresh token expired or revoked");
+        }
+        if (refreshToken.getUsedAt() != null || refreshTokenRepository.markUsed(refreshToken.getId(), now) == 0) {
+            log.warn("Refresh token of user {} was reused, revoking its family", refreshToken.getUserId());
+            revokeFamily(refreshToken.getFamilyId(), now);
+            throw new InvalidCredentialException("Refresh token reused");
+        }
+        return refreshToken;
+    }
+
+    // logout: the family of the token is revoked, an unknown token is ignored
+    @Transactional
+    public void revoke(String token) {
+        refreshTokenRepository.findByTokenHash(hash(token))
+                .ifPresent(refreshToken -> revokeFamily(refreshToken.getFamilyId(), Instant.now()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.token-revocation.purge-interval:1h}")
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            log.info("Purged {} expired refresh tokens", purged);
+        }
+    }
+
+    // listed here right away, the other instances pick it up on their next sync
+    private void revokeFamily(String familyId, Instant now) {
+        refreshTokenRepository.revokeFamily(familyId, now);
+        for (RefreshToken member : refreshTokenRepository.findByFamilyId(familyId)) {
+            revocationList.revoke(member.getAccessTokenId(), member.getAccessExpiresAt());
+        }
+    }
+
+    // the token is 256 random bits, a plain digest is enough to make a stolen table useless
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.stockexchange.service;
+
+import com.example.stockexchange.config.MetricsConfig;
+import com.example.stockexchange.dto.RiskExposureDto;
+import com.example.stockexchange.engine.Prices;
+import com.example.stockexchange.entity.RiskLimit;
+import com.example.stockexchange.event.RiskLimitChangedEvent;
+import com.example.stockexchange.exception.ResourceNotFoundException;
+import com.example.stockexchange.repository.RiskLimitRepository;
+import com.example.stockexchange.repository.UserRepository;
+import com.example.stockexchange.request.RiskLimitRequest;
+import com.example.stockexchange.risk.RiskEngine;
+import com.example.stockexchange.risk.RiskLimits;
+import com.example.stockexchange.risk.UserExposure;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+
+// admin view of the risk engine: current exposure of a user and changes to the limits, which the engine
+// picks up from RiskLimitChangedEvent once the change is committed
+@Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true, percentiles = {0.5, 0.95, 0.99})
+@RequiredArgsConstructor
+public class RiskService {
+
+    private final RiskEngine riskEngine;
+    private final RiskLimitRepository riskLimitRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public RiskExposureDto getExposure(Long userId) {
+        requireUser(userId);
+        UserExposure exposure = riskEngine.exposure(userId);
+        return toDto(exposure, exposure.limits());
+    }
+
+    @Transactional
+    public RiskExposureDto updateLimits(Long userId, RiskLimitRequest request) {
+        requireUser(userId);
+        RiskLimit limit = riskLimitRepository.findById(userId).orElseGet(() -> {
+            RiskLimit created = new RiskLimit();
+            created.setUserId(userId);
+            return created;
+        });
+        limit.setMaxOrderNotional(request.getMaxOrderNotional());
+        limit.setMaxOpenOrders(request.getMaxOpenOrders());
+        limit.setMaxPosition(request.getMaxPosition());
+        riskLimitRepository.save(limit);
+
+        eventPublisher.publishEvent(new RiskLimitChangedEvent(userId, request.getMaxOrderNotional(),
+                request.getMaxOpenOrders(), request.getMaxPosition()));
+        // the engine applies the change after commit, so answer with the limits as they will be
+        RiskLimits limits = riskEngine.effectiveLimits(request.getMaxOrderNotional(), request.getMaxOpenOrders(),
+                request.getMaxPosition());
+        return toDto(riskEngine.exposure(userId), limits);
+    }
+
+    private void requireUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+    }
+
+    private static RiskExposureDto toDto(UserExposure exposure, RiskLimits limits) {
+        List<RiskExposureDto.PositionDto> positions = exposure.stocks().stream()
+                .sorted(Comparator.comparingLong(UserExposure.StockExposure::stockId))
+                .map(stock -> new RiskExposureDto.PositionDto(stock.stockId(), stock.position(), stock.openBuy(),
+                        stock.openSell(), share(Math.max(stock.position() + stock.openBuy(),
+                        stock.openSell() - stock.position()), limits.maxPosition())))
+                .toList();
+        return new RiskExposureDto(exposure.userId(),
+                BigDecimal.valueOf(limits.maxOrderNotional(), Prices.SCALE),
+                limits.maxOpenOrders(), limits.maxPosition(), exposure.openOrders(),
+                share(exposure.openOrders(), limits.maxOpenOrders()), positions);
+    }
+
+    private static double share(long used, long limit) {
+        return limit <= 0 ? 1.0 : (double) used / limit;
+    }
+}
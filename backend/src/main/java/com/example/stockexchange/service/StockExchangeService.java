@@ -1,5 +1,6 @@
 package com.example.stockexchange.service;
 
+import com.example.stockexchange.config.MetricsConfig;
 import com.example.stockexchange.dto.StockDto;
 import com.example.stockexchange.dto.StockExchangeDto;
 import com.example.stockexchange.dto.StockListingDto;
@@ -7,6 +8,10 @@ import com.example.stockexchange.entity.Stock;
 import com.example.stockexchange.entity.StockExchange;
 import com.example.stockexchange.entity.StockListing;
 import com.example.stockexchange.entity.StockListingId;
+import com.example.stockexchange.event.StockDelistedEvent;
+import com.example.stockexchange.event.StockExchangeDeletedEvent;
+import com.example.stockexchange.event.StockExchangeStatusChangedEvent;
+import com.example.stockexchange.event.StockListedEvent;
 import com.example.stockexchange.exception.DuplicateResourceException;
 import com.example.stockexchange.exception.ResourceNotFoundException;
 import com.example.stockexchange.mapper.StockExchangeMapper;
@@ -16,7 +21,9 @@ import com.example.stockexchange.repository.StockListingRepository;
 import com.example.stockexchange.repository.StockRepository;
 import com.example.stockexchange.request.StockExchangeCreationRequest;
 import com.example.stockexchange.request.StockExchangeUpdateRequest;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -30,6 +37,7 @@ import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true, percentiles = {0.5, 0.95, 0.99})
 public class StockExchangeService {
 
     private final StockExchangeRepository stockExchangeRepository;
@@ -37,6 +45,7 @@ public class StockExchangeService {
     private final StockListingRepository stockListingRepository;
     private final StockExchangeMapper stockExchangeMapper;
     private final StockMapper stockMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Page<StockExchangeDto> getAllStockExchanges(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
@@ -97,6 +106,7 @@ public class StockExchangeService {
         stockExchangeRepository.delete(stockExchange);
         // StockListings are automatically deleted due to cascade
         // Stocks remain untouched
+        eventPublisher.publishEvent(new StockExchangeDeletedEvent(stockExchangeId));
     }
 
     public Page<StockDto> getAllStocksByExchange(Long stockExchangeId, int page, int size, String sortBy) {
@@ -172,6 +182,7 @@ public class StockExchangeService {
         
         stockListingRepository.saveAll(listings);
         updateLiveMarketStatus(stockExchange);
+        listings.forEach(listing -> publishListed(stockExchange, listing.getStock()));
 
         // Convert to DTOs
         return listings.stream()
@@ -192,6 +203,7 @@ public class StockExchangeService {
         stockListingRepository.save(stockListing);
 
         updateLiveMarketStatus(stockExchange);
+        publishListed(stockExchange, stock);
 
         return new StockListingDto(stockExchangeMapper.map(stockExchange), stockMapper.map(stock));
     }
@@ -232,6 +244,7 @@ public class StockExchangeService {
         // Delete all listings in batch
         stockListingRepository.deleteAllInBatch(listings);
         updateLiveMarketStatus(stockExchange);
+        stockIds.forEach(stockId -> eventPublisher.publishEvent(new StockDelistedEvent(stockExchangeId, stockId)));
     }
 
     @Transactional
@@ -247,6 +260,12 @@ public class StockExchangeService {
 
         stockListingRepository.delete(stockListing);
         updateLiveMarketStatus(stockExchange);
+        eventPublisher.publishEvent(new StockDelistedEvent(stockExchangeId, stockId));
+    }
+
+    private void publishListed(StockExchange stockExchange, Stock stock) {
+        eventPublisher.publishEvent(new StockListedEvent(
+                stockExchange.getStockExchangeId(), stock.getStockId(), stock.getName(), stock.getCurrentPrice()));
     }
 
     public void updateLiveMarketStatus(StockExchange stockExchange) {
@@ -256,6 +275,7 @@ public class StockExchangeService {
         if (stockExchange.isLiveInMarket() != shouldBeLive) {
             stockExchange.setLiveInMarket(shouldBeLive);
             // No need to call save() if using @Transactional - changes are auto-detected
+            eventPublisher.publishEvent(new StockExchangeStatusChangedEvent(stockExchange.getStockExchangeId(), shouldBeLive));
         }
     }
 }
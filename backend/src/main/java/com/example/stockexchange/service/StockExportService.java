@@ -0,0 +1,99 @@
+package com.example.stockexchange.service;
+
+import com.example.stockexchange.exception.ResourceNotFoundException;
+import com.example.stockexchange.export.ExportFormat;
+import com.example.stockexchange.export.StockExportWriter;
+import com.example.stockexchange.repository.StockExchangeRepository;
+import com.example.stockexchange.repository.StockExportView;
+import com.example.stockexchange.repository.StockListingRepository;
+import com.example.stockexchange.repository.StockRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+// catalog exports: rows go from a forward-only cursor straight into the (optionally gzipped) response
+// while it is being sent, so memory stays the same for ten rows or ten million and no COUNT(*) runs.
+// the cursor needs a transaction, which is opened on the thread that writes the response
+@Slf4j
+@Service
+public class StockExportService {
+
+    private static final int GZIP_BUFFER = 64 * 1024;
+
+    private final StockRepository stockRepository;
+    private final StockListingRepository stockListingRepository;
+    private final StockExchangeRepository stockExchangeRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final JsonFactory jsonFactory;
+
+    public StockExportService(StockRepository stockRepository,
+                              StockListingRepository stockListingRepository,
+                              StockExchangeRepository stockExchangeRepository,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper) {
+        this.stockRepository = stockRepository;
+        this.stockListingRepository = stockListingRepository;
+        this.stockExchangeRepository = stockExchangeRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public StreamingResponseBody exportStocks(ExportFormat format, boolean gzip) {
+        return output -> export("stocks", stockRepository::streamAllForExport, format, gzip, output);
+    }
+
+    // the exchange is checked up front so an unknown id is still a 404 and not a broken stream
+    public StreamingResponseBody exportListedStocks(Long stockExchangeId, ExportFormat format, boolean gzip) {
+        if (!stockExchangeRepository.existsById(stockExchangeId)) {
+            throw new ResourceNotFoundException("Stock Exchange not found with id: " + stockExchangeId);
+        }
+        return output -> export("stocks of exchange " + stockExchangeId,
+                () -> stockListingRepository.streamListedStocksForExport(stockExchangeId), format, gzip, output);
+    }
+
+    private void export(String what, Supplier<Stream<StockExportView>> rows, ExportFormat format, boolean gzip,
+                        OutputStream response) throws IOException {
+        long started = System.nanoTime();
+        OutputStream output = gzip ? new GZIPOutputStream(response, GZIP_BUFFER) : response;
+        long count;
+        try {
+            count = readOnlyTransaction.execute(status -> write(rows, format, output));
+        } catch (UncheckedIOException e) {
+            // most likely the client went away
+            throw e.getCause();
+        }
+        if (output instanceof GZIPOutputStream compressed) {
+            compressed.finish();
+        }
+        output.flush();
+        log.info("Exported {} {} as {} in {} ms", count, what, format, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private long write(Supplier<Stream<StockExportView>> rows, ExportFormat format, OutputStream output) {
+        long count = 0;
+        try (Stream<StockExportView> stocks = rows.get();
+             StockExportWriter writer = StockExportWriter.of(format, output, jsonFactory)) {
+            Iterator<StockExportView> iterator = stocks.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.stockexchange.service;
+
+import com.example.stockexchange.dto.StockSearchHitDto;
+import com.example.stockexchange.event.StockCreatedEvent;
+import com.example.stockexchange.event.StockDeletedEvent;
+import com.example.stockexchange.exception.ResourceNotFoundException;
+import com.example.stockexchange.market.ListingRegistry;
+import com.example.stockexchange.repository.StockExchangeRepository;
+import com.example.stockexchange.repository.StockRepository;
+import com.example.stockexchange.repository.StockSummaryView;
+import com.example.stockexchange.search.StockSearchIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Set;
+
+// serves stock search from an in-memory index built at startup and maintained incrementally on create/delete
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockSearchService {
+
+    private final StockRepository stockRepository;
+    private final StockExchangeRepository stockExchangeRepository;
+    private final ListingRegistry listingRegistry;
+
+    private final StockSearchIndex index = new StockSearchIndex();
+
+    @Order(3)
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        index.clear();
+        for (StockSummaryView stock : stockRepository.findAllProjectedBy()) {
+            index.add(stock.getStockId(), stock.getName(), stock.getDescription());
+        }
+        log.info("Stock search index loaded {} stocks", index.size());
+    }
+
+    // an exchange narrows the search to its listings, which seed the candidates when there are fewer of them
+    public List<StockSearchHitDto> search(String query, Long stockExchangeId, int limit) {
+        List<StockSearchIndex.Hit> hits = stockExchangeId == null
+                ? index.search(query, limit, null)
+                : index.searchWithin(query, limit, listingsOf(stockExchangeId));
+        return hits.stream()
+                .map(hit -> new StockSearchHitDto(hit.stockId(), hit.name(), hit.description(), hit.score()))
+                .toList();
+    }
+
+    // an exchange with listings exists, only an empty one is looked up so an unknown id is a 404
+    private Set<Long> listingsOf(Long stockExchangeId) {
+        Set<Long> stockIds = listingRegistry.stocksOf(stockExchangeId);
+        if (stockIds.isEmpty() && !stockExchangeRepository.existsById(stockExchangeId)) {
+            throw new ResourceNotFoundException("Stock Exchange not found with id: " + stockExchangeId);
+        }
+        return stockIds;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockCreated(StockCreatedEvent event) {
+        index.add(event.getStockId(), event.getName(), event.getDescription());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDeleted(StockDeletedEvent event) {
+        index.remove(event.getStockId());
+    }
+}
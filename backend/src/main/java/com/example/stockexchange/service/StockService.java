@@ -1,10 +1,14 @@
 package com.example.stockexchange.service;
 
+import com.example.stockexchange.config.MetricsConfig;
 import com.example.stockexchange.dto.StockDto;
 import com.example.stockexchange.dto.StockExchangeDto;
 import com.example.stockexchange.entity.Stock;
 import com.example.stockexchange.entity.StockExchange;
 import com.example.stockexchange.entity.StockListing;
+import com.example.stockexchange.event.StockCreatedEvent;
+import com.example.stockexchange.event.StockDeletedEvent;
+import com.example.stockexchange.event.StockPriceChangedEvent;
 import com.example.stockexchange.exception.DuplicateResourceException;
 import com.example.stockexchange.exception.ResourceNotFoundException;
 import com.example.stockexchange.mapper.StockExchangeMapper;
@@ -13,7 +17,9 @@ import com.example.stockexchange.repository.StockListingRepository;
 import com.example.stockexchange.repository.StockRepository;
 import com.example.stockexchange.request.StockCreationRequest;
 import com.example.stockexchange.request.StockPriceUpdateRequest;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -21,13 +27,13 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true, percentiles = {0.5, 0.95, 0.99})
 @RequiredArgsConstructor
 public class StockService {
 
@@ -36,6 +42,7 @@ public class StockService {
     private final StockMapper stockMapper;
     private final StockExchangeMapper stockExchangeMapper;
     private final StockExchangeService stockExchangeService;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     public Page<StockDto> getAllStocks(
@@ -74,6 +81,8 @@ public class StockService {
 
         Stock stock = stockMapper.map(stockCreationRequest);
         Stock savedStock = stockRepository.save(stock);
+        eventPublisher.publishEvent(new StockCreatedEvent(
+                savedStock.getStockId(), savedStock.getName(), savedStock.getDescription(), savedStock.getCurrentPrice()));
         return stockMapper.map(savedStock);
     }
 
@@ -85,6 +94,8 @@ public class StockService {
         // Update only the price field
         stock.setCurrentPrice(stockPriceUpdateRequest.getCurrentPrice());
         // No need to call save() - @Transactional handles it with dirty checking
+        eventPublisher.publishEvent(new StockPriceChangedEvent(stock.getStockId(), stock.getCurrentPrice(),
+                StockPriceChangedEvent.Source.MANUAL));
         return stockMapper.map(stock);
     }
 
@@ -108,5 +119,6 @@ public class StockService {
         stockRepository.delete(stock);
 
         affectedExchanges.forEach(stockExchangeService::updateLiveMarketStatus);
+        eventPublisher.publishEvent(new StockDeletedEvent(stockId));
     }
 }
@@ -0,0 +1,79 @@
+package com.example.stockexchange.service;
+
+import com.example.stockexchange.engine.Prices;
+import com.example.stockexchange.engine.Trade;
+import com.example.stockexchange.engine.TradeListener;
+import com.example.stockexchange.event.StockDeletedEvent;
+import com.example.stockexchange.event.StockPriceChangedEvent;
+import com.example.stockexchange.market.PriceConflator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// drives Stock.currentPrice from executions: the matching threads only drop the trade price into the
+// conflator, a scheduled flush writes the latest price of every stock that traded in one transaction and
+// StockPriceChangedEvent (source TRADE) tells the subscribers after commit.
+// manual price updates take precedence over trades executed before them (see PriceConflator); the write itself
+// is guarded as well (TradePriceWriter), for a manual update that commits after the drain took the trade price
+@Slf4j
+@Service
+public class TradePriceFeed implements TradeListener {
+
+    private final TradePriceWriter tradePriceWriter;
+    private final PriceConflator conflator;
+
+    public TradePriceFeed(TradePriceWriter tradePriceWriter,
+                          @Value("${app.market.price-feed.manual-hold:0s}") Duration manualHold) {
+        this.tradePriceWriter = tradePriceWriter;
+        this.conflator = new PriceConflator(manualHold.toNanos());
+    }
+
+    @Override
+    public void onTrade(Trade trade) {
+        conflator.onTrade(trade.stockId(), trade.price(), System.nanoTime());
+    }
+
+    @Scheduled(fixedDelayString = "${app.market.price-feed.flush-interval:250ms}")
+    public void flush() {
+        long nowNanos = System.nanoTime();
+        List<PriceConflator.PriceUpdate> updates = conflator.drain(nowNanos);
+        if (updates.isEmpty()) {
+            return;
+        }
+        // the stamps turn into wall clock trade times, the clock the manual updates are stamped with
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, TradePriceWriter.TradePrice> prices = new LinkedHashMap<>();
+        for (PriceConflator.PriceUpdate update : updates) {
+            prices.put(update.stockId(), new TradePriceWriter.TradePrice(Prices.toPrice(update.ticks()),
+                    now.minusNanos(nowNanos - update.stamp())));
+        }
+        try {
+            tradePriceWriter.applyTradePrices(prices);
+            conflator.published(updates);
+        } catch (RuntimeException e) {
+            // the prices stay pending and go out with the next flush
+            conflator.requeue(updates);
+            log.warn("Writing {} last trade prices failed, retrying with the next flush", updates.size(), e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockPriceChanged(StockPriceChangedEvent event) {
+        if (event.getSource() == StockPriceChangedEvent.Source.MANUAL) {
+            conflator.onManualUpdate(event.getStockId(), System.nanoTime());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockDeleted(StockDeletedEvent event) {
+        conflator.forget(event.getStockId());
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.stockexchange.service;
+
+import com.example.stockexchange.event.EngineRecoveredEvent;
+import com.example.stockexchange.event.StockPriceChangedEvent;
+import com.example.stockexchange.repository.StockRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// the write side of TradePriceFeed: last trade prices go straight through the guarded update of
+// StockRepository, so a manual price set after the trade is never overwritten
+@Service
+@RequiredArgsConstructor
+public class TradePriceWriter {
+
+    private final StockRepository stockRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // the journal is the record of trading, so after a restart the last trade of every stock that traded
+    // becomes its current price again, unless the stock was manually priced after that trade
+    @EventListener
+    @Transactional
+    public void onEngineRecovered(EngineRecoveredEvent event) {
+        event.getLastTradePrices().forEach((stockId, trade) ->
+                stockRepository.updateTradePrice(stockId, trade.price(), trade.tradedAt()));
+    }
+
+    // one transaction for a whole conflated batch of last trade prices; listeners see the changes after commit
+    @Transactional
+    public int applyTradePrices(Map<Long, TradePrice> prices) {
+        int updated = 0;
+        for (Map.Entry<Long, TradePrice> price : prices.entrySet()) {
+            // a stock deleted meanwhile or manually priced after the trade updates nothing and must not be announced
+            if (stockRepository.updateTradePrice(price.getKey(), price.getValue().price(), price.getValue().tradedAt()) > 0) {
+                eventPublisher.publishEvent(new StockPriceChangedEvent(price.getKey(), price.getValue().price(),
+                        StockPriceChangedEvent.Source.TRADE));
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    public record TradePrice(BigDecimal price, LocalDateTime tradedAt) {
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.stockexchange.warmup;
+
+import com.example.stockexchange.engine.OrderSequencer;
+import com.example.stockexchange.market.ListingRegistry;
+import com.example.stockexchange.service.MarketDataService;
+import com.example.stockexchange.service.MarketMoversService;
+import com.example.stockexchange.service.StockSearchService;
+import lombok.extern.slf4j.Slf4j;
+import org.crac.CheckpointException;
+import org.crac.Core;
+import org.crac.RestoreException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Coordinated Restore at Checkpoint, needs a CRaC JDK (scripts/crac-checkpoint.sh builds the image).
+// with app.crac.checkpoint-after-warm-up the application warms itself up once it is ready, then checkpoints
+// and the JVM exits; a restored process carries on right after the checkpoint with a warm JIT.
+// around the checkpoint Spring stops and restarts the lifecycle beans, which closes and reopens what CRaC
+// cannot keep: the web server and gateway sockets, the Hikari connections (H2 releases its files with the
+// last one) and the journal files of the sequencer. the in-memory views were loaded from the database of
+// the checkpoint run, so a restart reloads them before the sequencer and the web server come back
+@Slf4j
+@Component
+public class CheckpointCoordinator implements SmartLifecycle {
+
+    // after the Hikari pool (phase 0), right before the sequencer
+    public static final int PHASE = OrderSequencer.PHASE - 1;
+
+    private final WarmUpRoutine warmUpRoutine;
+    private final ListingRegistry listingRegistry;
+    private final MarketMoversService marketMoversService;
+    private final MarketDataService marketDataService;
+    private final StockSearchService stockSearchService;
+    private final boolean checkpointAfterWarmUp;
+    private final int warmUpIterations;
+
+    private volatile boolean running;
+    private volatile boolean stopped;
+
+    public CheckpointCoordinator(WarmUpRoutine warmUpRoutine,
+                                 ListingRegistry listingRegistry,
+                                 MarketMoversService marketMoversService,
+                                 MarketDataService marketDataService,
+                                 StockSearchService stockSearchService,
+                                 @Value("${app.crac.checkpoint-after-warm-up:false}") boolean checkpointAfterWarmUp,
+                                 @Value("${app.crac.warm-up-iterations:1000}") int warmUpIterations) {
+        this.warmUpRoutine = warmUpRoutine;
+        this.listingRegistry = listingRegistry;
+        this.marketMoversService = marketMoversService;
+        this.marketDataService = marketDataService;
+        this.stockSearchService = stockSearchService;
+        this.checkpointAfterWarmUp = checkpointAfterWarmUp;
+        this.warmUpIterations = warmUpIterations;
+    }
+
+    // after the loaders, the views must be complete for the warm-up
+    @Order(10)
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkpoint() {
+        if (!checkpointAfterWarmUp) {
+            return;
+        }
+        try {
+            long started = System.nanoTime();
+            int requests = warmUpRoutine.run(warmUpIterations);
+            log.info("Warm-up sent {} requests in {} ms, taking the checkpoint",
+                    requests, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            Core.checkpointRestore();
+            log.info("Restored from checkpoint");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during the warm-up", e);
+        } catch (IOException e) {
+            throw new IllegalStateException("Warm-up failed", e);
+        } catch (CheckpointException | RestoreException | UnsupportedOperationException e) {
+            // the checkpoint run exists to produce the image, so it must not look like it succeeded
+            throw new IllegalStateException("Checkpoint failed, is this a CRaC JDK with -XX:CRaCCheckpointTo?", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (stopped) {
+            // restored, the database behind the pool may not be the one the views were loaded from
+            listingRegistry.load();
+            marketMoversService.load();
+            marketDataService.load();
+            stockSearchService.load();
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        stopped = true;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
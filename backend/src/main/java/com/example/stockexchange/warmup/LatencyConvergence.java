@@ -0,0 +1,40 @@
+package com.example.stockexchange.warmup;
+
+// decides when warm-up rounds stop getting faster: a round more than tolerance faster than the best one so far
+// is progress, the warm-up has converged after stableRounds rounds in a row without progress.
+// comparing with the best round instead of the previous one keeps a single slow round (a GC, a compilation
+// finishing) from counting as stable or as progress
+final class LatencyConvergence {
+
+    private final double tolerance;
+    private final int stableRounds;
+
+    private long best = Long.MAX_VALUE;
+    private int stable;
+    private int rounds;
+
+    LatencyConvergence(double tolerance, int stableRounds) {
+        this.tolerance = tolerance;
+        this.stableRounds = stableRounds;
+    }
+
+    // true once the latency has stabilized
+    boolean record(long roundNanos) {
+        rounds++;
+        if (best == Long.MAX_VALUE || roundNanos < best * (1 - tolerance)) {
+            stable = 0;
+        } else {
+            stable++;
+        }
+        best = Math.min(best, roundNanos);
+        return stable >= stableRounds;
+    }
+
+    int rounds() {
+        return rounds;
+    }
+
+    long best() {
+        return rounds == 0 ? 0 : best;
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.stockexchange.warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// the warm-up workload: the main read endpoints over loopback HTTP, so the JIT compiles the whole request path
+// a client takes: the security filter chain with JwtAuthenticationFilter (token parsing, the revocation check,
+// the principal from the claims), MVC, Jackson and the binary encodings, Hibernate. WarmUpRunner replays it
+// before readiness with a token it issues itself, the checkpoint run (run) with a user it signs up, so only
+// where the database is thrown away afterwards
+@Slf4j
+@Component
+public class WarmUpRoutine {
+
+    private static final List<String> ENCODINGS = List.of(
+            MediaType.APPLICATION_JSON_VALUE, "application/x-jackson-smile", "application/cbor");
+    private static final String PROTOBUF = "application/x-protobuf";
+    private static final String[] QUERIES = {"a", "te", "ban", "micro", "xyz"};
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+    private final String apiBase;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    public WarmUpRoutine(ObjectMapper objectMapper,
+                         Environment environment,
+                         @Value("${app.paths.api-base}${app.paths.api-version}") String apiBase) {
+        this.objectMapper = objectMapper;
+        this.environment = environment;
+        this.apiBase = apiBase;
+    }
+
+    // returns the number of requests sent
+    public int run(int iterations) throws IOException, InterruptedException {
+        Session session = open(signUp(base()));
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            pass(session, iteration);
+        }
+        if (session.failed > 0) {
+            log.warn("{} of {} warm-up requests failed", session.failed, session.sent);
+        }
+        return session.sent;
+    }
+
+    // the ids the workload reads, looked up once with the token every request carries
+    public Session open(String token) throws IOException, InterruptedException {
+        String base = base();
+        Long stockId = firstId(get(base + "/stock?size=1", token, MediaType.APPLICATION_JSON_VALUE), "stockId");
+        Long stockExchangeId = firstId(get(base + "/stockExchange?size=1", token, MediaType.APPLICATION_JSON_VALUE),
+                "stockExchangeId");
+        return new Session(base, token, stockId, stockExchangeId);
+    }
+
+    // one iteration of the workload, returns the time spent in requests (waits for the rate limit excluded)
+    public long pass(Session session, int iteration) throws IOException, InterruptedException {
+        long elapsed = 0;
+        for (String[] request : requests(session.stockId, session.stockExchangeId, iteration)) {
+            long started = System.nanoTime();
+            HttpResponse<byte[]> response = get(session.base + request[0], session.token, request[1]);
+            elapsed += System.nanoTime() - started;
+            // the rate limit applies to this user like any other: wait for its bucket instead of warming up 429s
+            while (response.statusCode() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                Thread.sleep(Duration.ofSeconds(response.headers()
+                        .firstValueAsLong(HttpHeaders.RETRY_AFTER).orElse(1)).toMillis());
+                started = System.nanoTime();
+                response = get(session.base + request[0], session.token, request[1]);
+                elapsed += System.nanoTime() - started;
+            }
+            session.sent++;
+            if (response.statusCode() >= 400) {
+                session.failed++;
+            }
+        }
+        return elapsed;
+    }
+
+    // path and Accept of every request of one iteration
+    private List<String[]> requests(Long stockId, Long stockExchangeId, int iteration) {
+        String encoding = ENCODINGS.get(iteration % ENCODINGS.size());
+        int page = iteration % 5;
+        List<String[]> requests = new ArrayList<>();
+        requests.add(new String[]{"/stock?page=" + page + "&size=20", encoding});
+        requests.add(new String[]{"/stock?page=" + page + "&size=20&sortBy=currentPrice&direction=desc", PROTOBUF});
+        requests.add(new String[]{"/stock/search?q=" + QUERIES[iteration % QUERIES.length], encoding});
+        requests.add(new String[]{"/stockExchange?page=" + page + "&size=10", encoding});
+        requests.add(new String[]{"/stockExchange/live", encoding});
+        if (stockId != null) {
+            requests.add(new String[]{"/stock/" + stockId, iteration % 2 == 0 ? encoding : PROTOBUF});
+            requests.add(new String[]{"/stock/stocks/" + stockId + "/exchanges", encoding});
+        }
+        if (stockExchangeId != null) {
+            requests.add(new String[]{"/stockExchange/" + stockExchangeId + "/stocks?page=" + page + "&size=20", encoding});
+            requests.add(new String[]{"/stockExchange/" + stockExchangeId + "/movers", encoding});
+            requests.add(new String[]{"/stockExchange/" + stockExchangeId + "/market-data/snapshot", MediaType.ALL_VALUE});
+        }
+        return requests;
+    }
+
+    // registers a throwaway user and returns the token its login sets as the jwt cookie
+    private String signUp(String base) throws IOException, InterruptedException {
+        String email = "warm-up-" + UUID.randomUUID() + "@stockexchange.local";
+        String password = UUID.randomUUID().toString().substring(0, 20);
+        post(base + "/auth/register", Map.of("firstName", "Warm", "lastName", "Up", "email", email, "password", password));
+        HttpResponse<byte[]> login = post(base + "/auth/login", Map.of("email", email, "password", password));
+        return login.headers().allValues(HttpHeaders.SET_COOKIE).stream()
+                .filter(cookie -> cookie.startsWith("jwt="))
+                .map(cookie -> cookie.substring("jwt=".length(), cookie.indexOf(';')))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Warm-up login failed with status " + login.statusCode()));
+    }
+
+    private String base() {
+        return "http://127.0.0.1:" + environment.getRequiredProperty("local.server.port") + apiBase;
+    }
+
+    private Long firstId(HttpResponse<byte[]> page, String field) throws IOException {
+        JsonNode content = objectMapper.readTree(page.body()).path("data").path("content");
+        return content.isArray() && !content.isEmpty() ? content.get(0).path(field).asLong() : null;
+    }
+
+    private HttpResponse<byte[]> get(String uri, String token, String accept) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create(uri))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .header(HttpHeaders.ACCEPT, accept)
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private HttpResponse<byte[]> post(String uri, Map<String, String> body) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create(uri))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .timeout(REQUEST_TIMEOUT)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    // one client's view of the workload: where it sends, as whom, and how it went
+    @Getter
+    public static final class Session {
+
+        private final String base;
+        private final String token;
+        private final Long stockId;
+        private final Long stockExchangeId;
+        private int sent;
+        private int failed;
+
+        private Session(String base, String token, Long stockId, Long stockExchangeId) {
+            this.base = base;
+            this.token = token;
+            this.stockId = stockId;
+            this.stockExchangeId = stockExchangeId;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.stockexchange.warmup;
+
+import com.example.stockexchange.entity.Authority;
+import com.example.stockexchange.entity.User;
+import com.example.stockexchange.entity.UserCredintials;
+import com.example.stockexchange.service.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// replays the read workload of WarmUpRoutine over loopback HTTP before the application reports ready, with an
+// access token issued for a warm-up principal: every request takes the path a client's does, through
+// JwtAuthenticationFilter (parseToken, the revocation check, toUserDetails), MVC, the services and the JSON,
+// Smile, CBOR and protobuf encodings. the web server is already listening, and readiness only flips to
+// ACCEPTING_TRAFFIC once every ApplicationReadyEvent listener has returned, so the first routed request finds
+// warm code paths. it stops when the round latency stops improving (LatencyConvergence) or when the time
+// budget is spent, and records how long it took as stockexchange.warmup.duration. it never writes
+@Slf4j
+@Component
+public class WarmUpRunner {
+
+    private static final String DURATION = "stockexchange.warmup.duration";
+
+    private final WarmUpRoutine warmUpRoutine;
+    private final JwtService jwtService;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration maxDuration;
+    private final int passesPerRound;
+    private final LatencyConvergence convergence;
+
+    public WarmUpRunner(WarmUpRoutine warmUpRoutine,
+                        JwtService jwtService,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.warm-up.enabled:true}") boolean enabled,
+                        @Value("${app.warm-up.max-duration:30s}") Duration maxDuration,
+                        @Value("${app.warm-up.passes-per-round:20}") int passesPerRound,
+                        @Value("${app.warm-up.tolerance:0.05}") double tolerance,
+                        @Value("${app.warm-up.stable-rounds:5}") int stableRounds) {
+        this.warmUpRoutine = warmUpRoutine;
+        this.jwtService = jwtService;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxDuration = maxDuration;
+        this.passesPerRound = passesPerRound;
+        this.convergence = new LatencyConvergence(tolerance, stableRounds);
+    }
+
+    // after the in-memory views are loaded, before a checkpoint (CheckpointCoordinator)
+    @Order(5)
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        long deadline = started + maxDuration.toNanos();
+        String outcome = "budget";
+        WarmUpRoutine.Session session = null;
+        try {
+            session = warmUpRoutine.open(jwtService.issueToken(principal()).value());
+            int pass = 0;
+            while (System.nanoTime() < deadline) {
+                long round = 0;
+                for (int i = 0; i < passesPerRound; i++) {
+                    round += warmUpRoutine.pass(session, pass++);
+                }
+                if (convergence.record(round / passesPerRound)) {
+                    outcome = "stable";
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = "failed";
+            log.warn("Warm-up interrupted");
+        } catch (RuntimeException | IOException e) {
+            // a cold start is slower, not broken, so the application still becomes ready
+            outcome = "failed";
+            log.warn("Warm-up stopped early", e);
+        }
+        if (session != null && session.getFailed() > 0) {
+            log.warn("{} of {} warm-up requests failed", session.getFailed(), session.getSent());
+        }
+
+        long elapsed = System.nanoTime() - started;
+        Timer.builder(DURATION)
+                .description("Time spent warming up before reporting ready")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Warm-up {} after {} rounds in {} ms, best pass {} us", outcome, convergence.rounds(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed), TimeUnit.NANOSECONDS.toMicros(convergence.best()));
+    }
+
+    // no such user: toUserDetails needs an id, and nothing the workload reads is per user
+    private UserCredintials principal() {
+        User user = new User();
+        user.setId(0L);
+        user.setEmail("warm-up@stockexchange.local");
+        user.setAuthorities(List.of(new Authority("ROLE_USER")));
+        return new UserCredintials(user);
+    }
+}
@@ -3,7 +3,12 @@ package com.example.stockexchange;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+        "app.sql-monitor.fail-on-violation=true",
+        "app.gateway.port=0",
+        "app.journal.enabled=false",
+        "app.warm-up.enabled=false"
+})
 class StockExchangeApplicationTests {
 
     @Test
@@ -0,0 +1,82 @@
+package com.example.stockexchange;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+// a JDK proxy answering an interface by method name and recording every call, for unit tests that also run as a
+// native image (mvn -PnativeTest test), where Mockito cannot define its mock classes. a method without an answer
+// throws, default methods included. every stubbed interface is listed in
+// META-INF/native-image/com.example/stock-exchange-tests/proxy-config.json
+public final class Stub<T> {
+
+    private final T instance;
+    private final Map<String, Function<Object[], Object>> answers = new ConcurrentHashMap<>();
+    private final List<Call> calls = new CopyOnWriteArrayList<>();
+
+    private Stub(Class<T> type) {
+        instance = type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "Stub of " + type.getSimpleName();
+                    default -> {
+                        Object[] arguments = args == null ? new Object[0] : args;
+                        calls.add(new Call(method.getName(), arguments));
+                        Function<Object[], Object> answer = answers.get(method.getName());
+                        if (answer == null) {
+                            throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+                        }
+                        yield answer.apply(arguments);
+                    }
+                }));
+    }
+
+    public static <T> Stub<T> of(Class<T> type) {
+        return new Stub<>(type);
+    }
+
+    public T get() {
+        return instance;
+    }
+
+    // replaces the answer of every overload of the method
+    public Stub<T> answer(String method, Function<Object[], Object> answer) {
+        answers.put(method, answer);
+        return this;
+    }
+
+    public Stub<T> returns(String method, Object value) {
+        return answer(method, args -> value);
+    }
+
+    // a void method, only recorded
+    public Stub<T> accepts(String method) {
+        return answer(method, args -> null);
+    }
+
+    public List<Object[]> calls(String method) {
+        return calls.stream()
+                .filter(call -> call.method().equals(method))
+                .map(Call::arguments)
+                .toList();
+    }
+
+    public int count(String method) {
+        return calls(method).size();
+    }
+
+    // the first argument of every call of the method, in call order
+    @SuppressWarnings("unchecked")
+    public <A> List<A> arguments(String method) {
+        return calls(method).stream()
+                .map(args -> (A) args[0])
+                .toList();
+    }
+
+    private record Call(String method, Object[] arguments) {
+    }
+}
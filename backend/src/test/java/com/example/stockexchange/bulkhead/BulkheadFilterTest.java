@@ -0,0 +1,33 @@
+package com.example.stockexchange.bulkhead;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BulkheadFilter Tests")
+class BulkheadFilterTest {
+
+    private final BulkheadFilter filter = new BulkheadFilter(new Bulkheads(Map.of()), new ObjectMapper(), true,
+            "/api", "/api/v1/auth");
+
+    @Test
+    @DisplayName("Should put sign-up and login in the auth workload whatever the method")
+    void classify_Auth() {
+        assertEquals(Workload.AUTH, filter.classify("POST", "/api/v1/auth/login"));
+        assertEquals(Workload.AUTH, filter.classify("POST", "/api/v1/auth/register"));
+    }
+
+    @Test
+    @DisplayName("Should split the rest of the API by method")
+    void classify_ReadWrite() {
+        assertEquals(Workload.READ, filter.classify("GET", "/api/v1/stock"));
+        assertEquals(Workload.READ, filter.classify("HEAD", "/api/v1/stock/1"));
+        assertEquals(Workload.WRITE, filter.classify("PUT", "/api/v1/stock/1/price"));
+        assertEquals(Workload.WRITE, filter.classify("POST", "/api/v1/stockExchange/1/orders"));
+        assertEquals(Workload.WRITE, filter.classify("DELETE", "/api/v1/stock/1"));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.stockexchange.bulkhead;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Bulkhead Tests")
+class BulkheadTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private Bulkhead bulkhead(int maxConcurrent, int maxQueue, Duration maxWait) {
+        return new Bulkhead("auth", new BulkheadLimits(maxConcurrent, maxQueue, maxWait, 1, Duration.ofSeconds(1)),
+                meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should admit up to max-concurrent requests and report the saturation")
+    void tryEnter_UpToLimit() throws InterruptedException {
+        // Arrange
+        Bulkhead bulkhead = bulkhead(2, 0, Duration.ZERO);
+
+        // Act
+        boolean first = bulkhead.tryEnter();
+        boolean second = bulkhead.tryEnter();
+        boolean third = bulkhead.tryEnter();
+
+        // Assert
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third);
+        assertEquals(1.0, meterRegistry.get("stockexchange.bulkhead.saturation").tag("bulkhead", "auth").gauge().value());
+        assertEquals(1.0, meterRegistry.get("stockexchange.bulkhead.rejections").tag("bulkhead", "auth").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should let a waiting request in once a permit is released")
+    void tryEnter_WaitsForPermit() throws Exception {
+        // Arrange
+        Bulkhead bulkhead = bulkhead(1, 1, Duration.ofSeconds(5));
+        assertTrue(bulkhead.tryEnter());
+
+        // Act
+        CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return bulkhead.tryEnter();
+            } catch (InterruptedException e) {
+                return false;
+            }
+        });
+        while (meterRegistry.get("stockexchange.bulkhead.queued").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+        bulkhead.exit();
+
+        // Assert
+        assertTrue(waiting.get(5, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.get("stockexchange.bulkhead.active").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should turn a request away at once when the queue is full")
+    void tryEnter_QueueFull() throws Exception {
+        // Arrange
+        Bulkhead bulkhead = bulkhead(1, 1, Duration.ofSeconds(5));
+        assertTrue(bulkhead.tryEnter());
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> {
+            try {
+                return bulkhead.tryEnter();
+            } catch (InterruptedException e) {
+                return false;
+            }
+        });
+        while (meterRegistry.get("stockexchange.bulkhead.queued").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // Act
+        long started = System.nanoTime();
+        boolean entered = bulkhead.tryEnter();
+        long elapsed = System.nanoTime() - started;
+
+        // Assert
+        assertFalse(entered);
+        assertTrue(elapsed < TimeUnit.SECONDS.toNanos(1));
+        bulkhead.exit();
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+}
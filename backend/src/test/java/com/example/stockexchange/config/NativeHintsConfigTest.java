@@ -0,0 +1,57 @@
+package com.example.stockexchange.config;
+
+import com.example.stockexchange.dto.StockDto;
+import com.example.stockexchange.monitoring.SqlTimingSessionListener;
+import com.example.stockexchange.repository.StockExportView;
+import com.example.stockexchange.response.PageResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.SpringProxy;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.data.projection.TargetAware;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("NativeHintsConfig Tests")
+class NativeHintsConfigTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new NativeHintsConfig.Hints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    @DisplayName("Should let Jackson bind the untyped payloads of ApiRespond")
+    void registerHints_ResponsePayloads() {
+        // Assert
+        assertTrue(RuntimeHintsPredicates.reflection().onType(StockDto.class)
+                .withMemberCategories(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(PageResponse.class).test(hints));
+    }
+
+    @Test
+    @DisplayName("Should register the proxies of interface projections")
+    void registerHints_Projections() {
+        // Assert
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(
+                StockExportView.class, TargetAware.class, SpringProxy.class, DecoratingProxy.class).test(hints));
+    }
+
+    @Test
+    @DisplayName("Should register what jjwt and hibernate instantiate by name")
+    void registerHints_CreatedByName() {
+        // Assert
+        assertTrue(RuntimeHintsPredicates.reflection().onType(TypeReference.of("io.jsonwebtoken.impl.DefaultJwtBuilder"))
+                .withMemberCategories(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(SqlTimingSessionListener.class)
+                .withMemberCategories(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+    }
+}
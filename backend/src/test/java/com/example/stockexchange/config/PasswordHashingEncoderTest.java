@@ -0,0 +1,134 @@
+package com.example.stockexchange.config;
+
+import com.example.stockexchange.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PasswordHashingEncoder Tests")
+class PasswordHashingEncoderTest {
+
+    private PasswordHashingEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.destroy();
+    }
+
+    @Test
+    @DisplayName("Should hash on the hashing threads and return the delegate's result")
+    void encodeAndMatches_RunOnHashingThreads() {
+        // Arrange
+        RecordingEncoder delegate = new RecordingEncoder(null);
+        encoder = new PasswordHashingEncoder(delegate, 1, 4, new SimpleMeterRegistry());
+
+        // Act
+        String hash = encoder.encode("secret");
+        boolean matches = encoder.matches("secret", hash);
+
+        // Assert
+        assertEquals("hashed:secret", hash);
+        assertTrue(matches);
+        assertFalse(encoder.matches("other", hash));
+        assertTrue(delegate.lastThread.startsWith("password-hashing-"));
+    }
+
+    @Test
+    @DisplayName("Should check for an outdated hash on the calling thread")
+    void upgradeEncoding_StaysOnCaller() {
+        // Arrange
+        RecordingEncoder delegate = new RecordingEncoder(null);
+        encoder = new PasswordHashingEncoder(delegate, 1, 4, new SimpleMeterRegistry());
+
+        // Act
+        boolean upgrade = encoder.upgradeEncoding("old:secret");
+
+        // Assert
+        assertTrue(upgrade);
+        assertEquals(Thread.currentThread().getName(), delegate.lastThread);
+    }
+
+    @Test
+    @DisplayName("Should reject a hash once the queue is full")
+    void matches_QueueFull() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEncoder delegate = new RecordingEncoder(release);
+        encoder = new PasswordHashingEncoder(delegate, 1, 1, new SimpleMeterRegistry());
+        Thread running = new Thread(() -> encoder.matches("a", "hashed:a"));
+        Thread queued = new Thread(() -> encoder.matches("b", "hashed:b"));
+        running.start();
+        assertTrue(delegate.started.await(5, TimeUnit.SECONDS));
+        queued.start();
+        while (queued.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+
+        // Act & Assert
+        assertThrows(PasswordHashingBusyException.class, () -> encoder.matches("c", "hashed:c"));
+
+        release.countDown();
+        running.join(5000);
+        queued.join(5000);
+    }
+
+    @Test
+    @DisplayName("Should rethrow what the delegate throws")
+    void matches_DelegateFails() {
+        // Arrange
+        RecordingEncoder delegate = new RecordingEncoder(null);
+        encoder = new PasswordHashingEncoder(delegate, 1, 4, new SimpleMeterRegistry());
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> encoder.matches("secret", "garbage"));
+        assertEquals("Not a hash", exception.getMessage());
+    }
+
+    private static class RecordingEncoder implements PasswordEncoder {
+
+        private final CountDownLatch release;
+        private final CountDownLatch started = new CountDownLatch(1);
+        private volatile String lastThread;
+
+        RecordingEncoder(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            lastThread = Thread.currentThread().getName();
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            lastThread = Thread.currentThread().getName();
+            started.countDown();
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (!encodedPassword.startsWith("hashed:")) {
+                throw new IllegalArgumentException("Not a hash");
+            }
+            return encodedPassword.equals("hashed:" + rawPassword);
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            lastThread = Thread.currentThread().getName();
+            return encodedPassword.startsWith("old:");
+        }
+    }
+}
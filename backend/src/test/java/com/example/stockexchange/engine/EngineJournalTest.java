@@ -0,0 +1,405 @@
+package com.example.stockexchange.engine;
+
+import com.example.stockexchange.entity.StockListingId;
+import com.example.stockexchange.event.EngineRecoveredEvent;
+import com.example.stockexchange.event.StockExchangeStatusChangedEvent;
+import com.example.stockexchange.event.StockListedEvent;
+import com.example.stockexchange.market.ListingRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("EngineJournal Tests")
+class EngineJournalTest {
+
+    private static final long EXCHANGE = 1;
+    private static final long STOCK = 10;
+    private static final long OTHER_STOCK = 20;
+    private static final long ALICE = 1;
+    private static final long BOB = 2;
+
+    private Path directory;
+    private EngineJournal journal;
+    private long sequence;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("engine-journal");
+        journal = newJournal();
+        journal.start(journal.recover(16, 8));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        journal.stop();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private EngineJournal newJournal() {
+        return new EngineJournal(true, directory.toString(), DataSize.ofMegabytes(1), Duration.ofMillis(10), 1024, 2, 64);
+    }
+
+    private JournalRecovery restart() {
+        journal.stop();
+        journal = newJournal();
+        JournalRecovery recovery = journal.recover(16, 8);
+        journal.start(recovery);
+        return recovery;
+    }
+
+    private void append(OrderCommand command) {
+        journal.append(new SequencedCommand(++sequence, System.currentTimeMillis(), command));
+    }
+
+    private NewOrder limit(long orderId, long stockId, long ownerId, Side side, long price, long quantity) {
+        return new NewOrder(orderId, EXCHANGE, stockId, ownerId, side, OrderType.LIMIT, price, quantity);
+    }
+
+    private OrderBook book(JournalRecovery recovery, long stockId) {
+        return recovery.books().books.get(new StockListingId(EXCHANGE, stockId));
+    }
+
+    @Nested
+    @DisplayName("Replay Tests")
+    class ReplayTests {
+
+        @Test
+        @DisplayName("Should rebuild books, last trades and the sequence from the journal alone")
+        void recover_WithoutSnapshot() {
+            // Arrange
+            append(limit(1, STOCK, ALICE, Side.SELL, 101_0000, 10));
+            append(limit(2, STOCK, ALICE, Side.SELL, 102_0000, 10));
+            append(limit(3, STOCK, BOB, Side.BUY, 101_0000, 4));
+            append(new AmendOrder(2, EXCHANGE, STOCK, ALICE, 103_0000, 10));
+
+            // Act
+            JournalRecovery recovery = restart();
+
+            // Assert
+            OrderBook book = book(recovery, STOCK);
+            assertEquals(4, recovery.sequence());
+            assertEquals(0, recovery.snapshotSequence());
+            assertEquals(3, recovery.lastOrderId());
+            assertEquals(0, recovery.gaps());
+            assertEquals(6, book.remainingOf(1));
+            assertEquals(103_0000, book.priceAt(Side.SELL, 1));
+            assertEquals(new BigDecimal("101.0000"), recovery.lastTradePrices().get(STOCK).price());
+        }
+
+        @Test
+        @DisplayName("Should drop books at the point the drop was sequenced")
+        void recover_ReplaysDrops() {
+            // Arrange
+            append(limit(1, STOCK, ALICE, Side.SELL, 101_0000, 10));
+            journal.appendDrop(++sequence, System.currentTimeMillis(), BookDrop.stock(STOCK));
+            append(limit(2, STOCK, BOB, Side.BUY, 101_0000, 5));
+
+            // Act
+            JournalRecovery recovery = restart();
+
+            // Assert
+            OrderBook book = book(recovery, STOCK);
+            assertFalse(book.contains(1));
+            assertEquals(101_0000, book.bestBid());
+            assertNull(recovery.lastTradePrices().get(STOCK));
+        }
+
+        @Test
+        @DisplayName("Should keep the same state over repeated restarts")
+        void recover_Repeatedly() {
+            // Arrange
+            append(limit(1, STOCK, ALICE, Side.SELL, 101_0000, 10));
+            restart();
+            append(limit(2, STOCK, BOB, Side.BUY, 101_0000, 3));
+
+            // Act
+            JournalRecovery recovery = restart();
+
+            // Assert
+            assertEquals(2, recovery.sequence());
+            assertEquals(7, book(recovery, STOCK).remainingOf(1));
+        }
+    }
+
+    @Nested
+    @DisplayName("Snapshot Tests")
+    class SnapshotTests {
+
+        @Test
+        @DisplayName("Should resume from the snapshot and replay only what came after it")
+        void recover_FromSnapshot() {
+            // Arrange
+            BookSet live = new BookSet(16, 8);
+            List<OrderCommand> before = List.of(
+                    limit(1, STOCK, ALICE, Side.SELL, 101_0000, 10),
+                    limit(2, OTHER_STOCK, ALICE, Side.BUY, 50_0000, 5),
+                    limit(3, STOCK, BOB, Side.BUY, 101_0000, 2));
+            for (OrderCommand command : before) {
+                append(command);
+                live.apply(command, new RecordingListener());
+            }
+            journal.appendExecution(3, System.currentTimeMillis(), before.get(2), new ExecutionReport(3, ExecutionStatus.FILLED, 2, 0,
+                    List.of(new ExecutionReport.Fill(1, 101_0000, 2)), null));
+            journal.snapshot(sequence, 3, live.snapshot(), new Positions());
+            append(limit(4, STOCK, BOB, Side.BUY, 101_0000, 1));
+
+            // Act
+            JournalRecovery recovery = restart();
+
+            // Assert
+            assertEquals(3, recovery.snapshotSequence());
+            assertEquals(1, recovery.replayedRecords());
+            assertEquals(4, recovery.sequence());
+            assertEquals(7, book(recovery, STOCK).remainingOf(1));
+            assertEquals(50_0000, book(recovery, OTHER_STOCK).bestBid());
+            assertEquals(new BigDecimal("101.0000"), recovery.lastTradePrices().get(STOCK).price());
+        }
+
+        @Test
+        @DisplayName("Should keep the time of the last trade through a snapshot")
+        void recover_SnapshotKeepsTradeTime() {
+            // Arrange
+            BookSet live = new BookSet(16, 8);
+            List<OrderCommand> before = List.of(
+                    limit(1, STOCK, ALICE, Side.SELL, 101_0000, 10),
+                    limit(2, STOCK, BOB, Side.BUY, 101_0000, 2));
+            for (OrderCommand command : before) {
+                append(command);
+                live.apply(command, new RecordingListener());
+            }
+            long tradedAtMillis = 1_700_000_000_000L;
+            journal.appendExecution(2, tradedAtMillis, before.get(1), new ExecutionReport(2, ExecutionStatus.FILLED, 2, 0,
+                    List.of(new ExecutionReport.Fill(1, 101_0000, 2)), null));
+            journal.snapshot(sequence, 2, live.snapshot(), new Positions());
+
+            // Act
+            JournalRecovery recovery = restart();
+
+            // Assert
+            assertEquals(2, recovery.snapshotSequence());
+            assertEquals(0, recovery.replayedRecords());
+            assertEquals(LocalDateTime.ofInstant(Instant.ofEpochMilli(tradedAtMillis), ZoneId.systemDefault()),
+                    recovery.lastTradePrices().get(STOCK).tradedAt());
+        }
+
+        @Test
+        @DisplayName("Should rebuild positions from the snapshot and the trades replayed after it")
+        void recover_Positions() {
+            // Arrange
+            Positions settled = new Positions();
+            settled.add(ALICE, STOCK, -2);
+            settled.add(BOB, STOCK, 2);
+            append(limit(1, STOCK, ALICE, Side.SELL, 101_0000, 10));
+            journal.snapshot(sequence, 1, List.of(), settled);
+            append(limit(2, OTHER_STOCK, ALICE, Side.BUY, 50_0000, 5));
+            append(limit(3, OTHER_STOCK, BOB, Side.SELL, 50_0000, 3));
+
+            // Act
+            JournalRecovery recovery = restart();
+
+            // Assert
+            List<String> positions = new ArrayList<>();
+            recovery.positions().forEach((ownerId, stockId, position) ->
+                    positions.add(ownerId + "/" + stockId + "=" + position));
+            assertEquals(4, recovery.positions().size());
+            assertTrue(positions.containsAll(List.of(
+                    ALICE + "/" + STOCK + "=-2", BOB + "/" + STOCK + "=2",
+                    ALICE + "/" + OTHER_STOCK + "=3", BOB + "/" + OTHER_STOCK + "=-3")));
+        }
+
+        @Test
+        @DisplayName("Should keep time priority of resting orders through a snapshot")
+        void recover_SnapshotKeepsPriority() {
+            // Arrange
+            BookSet live = new BookSet(16, 8);
+            for (OrderCommand command : List.of(
+                    limit(1, STOCK, ALICE, Side.SELL, 101_0000, 5),
+                    limit(2, STOCK, BOB, Side.SELL, 101_0000, 5))) {
+                append(command);
+                live.apply(command, new RecordingListener());
+            }
+            journal.snapshot(sequence, 2, live.snapshot(), new Positions());
+            append(limit(3, STOCK, BOB, Side.BUY, 101_0000, 5));
+
+            // Act
+            JournalRecovery recovery = restart();
+
+            // Assert
+            OrderBook book = book(recovery, STOCK);
+            assertFalse(book.contains(1));
+            assertEquals(5, book.remainingOf(2));
+        }
+    }
+
+    @Nested
+    @DisplayName("Crash Tests")
+    class CrashTests {
+
+        @Test
+        @DisplayName("Should cut a torn record off the last segment and keep appending after it")
+        void recover_TornTail() throws IOException {
+            // Arrange
+            append(limit(1, STOCK, ALICE, Side.SELL, 101_0000, 10));
+            journal.stop();
+            Path segment = lastSegment();
+            long intact = Files.size(segment);
+            Files.write(segment, new byte[]{0, 0, 0, 60, 1, 2, 3}, StandardOpenOption.APPEND);
+
+            // Act
+            JournalRecovery recovery = restart();
+            append(limit(2, STOCK, BOB, Side.BUY, 100_0000, 1));
+            JournalRecovery second = restart();
+
+            // Assert
+            assertEquals(1, recovery.sequence());
+            assertTrue(Files.size(segment) >= intact);
+            assertEquals(2, second.sequence());
+            assertEquals(0, second.gaps());
+            assertEquals(100_0000, book(second, STOCK).bestBid());
+        }
+    }
+
+    @Nested
+    @DisplayName("Sequencer Restart Tests")
+    class SequencerRestartTests {
+
+        @Test
+        @DisplayName("Should restore books and continue order ids after a restart through the sequencer")
+        void sequencer_RestartsFromJournal() throws Exception {
+            // Arrange
+            journal.stop();
+            ListingRegistry registry = new ListingRegistry(null, null);
+            registry.onStockExchangeStatusChanged(new StockExchangeStatusChangedEvent(EXCHANGE, true));
+            registry.onStockListed(new StockListedEvent(EXCHANGE, STOCK, "Stock", BigDecimal.TEN));
+
+            MatchingEngine engine = new MatchingEngine(registry, null, 2, 16, 8);
+            OrderSequencer sequencer = new OrderSequencer(engine, newJournal(), PreTradeCheck.NONE, event -> {
+            }, 1024, 1_000_000, Duration.ofMinutes(5));
+            sequencer.start();
+            ExecutionReport resting = sequencer.submit(limit(0, STOCK, ALICE, Side.SELL, 101_0000, 10)).get(5, TimeUnit.SECONDS);
+            sequencer.submit(limit(0, STOCK, BOB, Side.BUY, 101_0000, 4)).get(5, TimeUnit.SECONDS);
+            sequencer.stop();
+            engine.shutdown();
+
+            // Act
+            MatchingEngine restarted = new MatchingEngine(registry, null, 2, 16, 8);
+            List<Object> events = new ArrayList<>();
+            journal = newJournal();
+            OrderSequencer next = new OrderSequencer(restarted, journal, PreTradeCheck.NONE, events::add, 1024, 1_000_000, Duration.ofMinutes(5));
+            next.start();
+            ExecutionReport taking = next.submit(limit(0, STOCK, BOB, Side.BUY, 101_0000, 6)).get(5, TimeUnit.SECONDS);
+            next.stop();
+            restarted.shutdown();
+
+            // Assert
+            assertEquals(ExecutionStatus.FILLED, taking.status());
+            assertEquals(resting.orderId(), taking.fills().get(0).makerOrderId());
+            assertEquals(3, taking.orderId());
+            EngineRecoveredEvent recovered = (EngineRecoveredEvent) events.get(0);
+            assertEquals(2, recovered.getSequence());
+            assertEquals(new BigDecimal("101.0000"), recovered.getLastTradePrices().get(STOCK).price());
+        }
+        @Test
+        @DisplayName("Should leave a command the engine failed on out of the replay")
+        void sequencer_EngineFailure_NotReplayed() throws Exception {
+            // Arrange
+            journal.stop();
+            ListingRegistry registry = new ListingRegistry(null, null);
+            registry.onStockExchangeStatusChanged(new StockExchangeStatusChangedEvent(EXCHANGE, true));
+            registry.onStockListed(new StockListedEvent(EXCHANGE, STOCK, "Stock", BigDecimal.TEN));
+
+            MatchingEngine failing = new MatchingEngine(registry, null, 2, 16, 8) {
+                @Override
+                public CompletableFuture<ExecutionReport> execute(OrderCommand command) {
+                    if (command instanceof NewOrder order && order.quantity() == 13) {
+                        return CompletableFuture.failedFuture(new IllegalStateException("partition lost"));
+                    }
+                    return super.execute(command);
+                }
+            };
+            OrderSequencer sequencer = new OrderSequencer(failing, newJournal(), PreTradeCheck.NONE, event -> {
+            }, 1024, 1_000_000, Duration.ofMinutes(5));
+            sequencer.start();
+            ExecutionReport failed = sequencer.submit(limit(0, STOCK, ALICE, Side.SELL, 101_0000, 13)).get(5, TimeUnit.SECONDS);
+            ExecutionReport resting = sequencer.submit(limit(0, STOCK, ALICE, Side.SELL, 102_0000, 5)).get(5, TimeUnit.SECONDS);
+            sequencer.stop();
+            failing.shutdown();
+            // without the shutdown snapshot the recovery has to replay the failed command's segment
+            deleteSnapshots();
+
+            // Act
+            journal = newJournal();
+            JournalRecovery recovery = journal.recover(16, 8);
+
+            // Assert
+            OrderBook book = book(recovery, STOCK);
+            assertEquals(RejectReason.ENGINE_UNAVAILABLE, failed.rejectReason());
+            assertEquals(2, recovery.sequence());
+            assertEquals(0, recovery.gaps());
+            assertFalse(book.contains(failed.orderId()));
+            assertEquals(102_0000, book.bestAsk());
+            assertEquals(5, book.remainingOf(resting.orderId()));
+            assertEquals(2, recovery.lastOrderId());
+        }
+    }
+
+    private Path lastSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log"))
+                    .max(Comparator.naturalOrder())
+                    .orElseThrow();
+        }
+    }
+
+    private void deleteSnapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(file -> file.getFileName().toString().endsWith(".snap")).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static final class RecordingListener implements MatchListener {
+
+        @Override
+        public void onTrade(long takerOrderId, long makerOrderId, long makerOwnerId, Side takerSide, long price, long quantity) {
+        }
+
+        @Override
+        public void onRested(long orderId, long price, long remainingQuantity) {
+        }
+
+        @Override
+        public void onCancelled(long orderId, long remainingQuantity) {
+        }
+
+        @Override
+        public void onRejected(long orderId, RejectReason reason) {
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.stockexchange.engine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OrderBook Tests")
+class OrderBookTest {
+
+    private static final long ALICE = 1;
+    private static final long BOB = 2;
+
+    private OrderBook book;
+    private RecordingListener listener;
+
+    @BeforeEach
+    void setUp() {
+        book = new OrderBook(16, 8);
+        listener = new RecordingListener();
+    }
+
+    private void limit(long orderId, long ownerId, Side side, long price, long quantity) {
+        book.submit(orderId, ownerId, side, OrderType.LIMIT, price, quantity, listener);
+    }
+
+    @Nested
+    @DisplayName("Resting Tests")
+    class RestingTests {
+
+        @Test
+        @DisplayName("Should rest non crossing limit orders and expose the best prices")
+        void submit_RestsLimitOrders() {
+            // Act
+            limit(1, ALICE, Side.BUY, 99_0000, 10);
+            limit(2, ALICE, Side.BUY, 100_0000, 5);
+            limit(3, BOB, Side.SELL, 101_0000, 7);
+
+            // Assert
+            assertEquals(100_0000, book.bestBid());
+            assertEquals(101_0000, book.bestAsk());
+            assertEquals(3, book.orderCount());
+            assertEquals(2, book.levelCount(Side.BUY));
+            assertEquals(99_0000, book.priceAt(Side.BUY, 1));
+            assertTrue(listener.trades.isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should aggregate orders at the same price into one level")
+        void submit_SamePriceSameLevel() {
+            // Act
+            limit(1, ALICE, Side.SELL, 101_0000, 7);
+            limit(2, BOB, Side.SELL, 101_0000, 3);
+
+            // Assert
+            assertEquals(1, book.levelCount(Side.SELL));
+            assertEquals(10, book.quantityAt(Side.SELL, 0));
+        }
+    }
+
+    @Nested
+    @DisplayName("Matching Tests")
+    class MatchingTests {
+
+        @Test
+        @DisplayName("Should trade at the maker price in time priority")
+        void submit_PriceTimePriority() {
+            // Arrange
+            limit(1, ALICE, Side.SELL, 101_0000, 5);
+            limit(2, BOB, Side.SELL, 101_0000, 5);
+            limit(3, BOB, Side.SELL, 100_5000, 5);
+
+            // Act
+            limit(4, ALICE, Side.BUY, 102_0000, 8);
+
+            // Assert
+            assertEquals(List.of("4x3@1005000:5", "4x1@1010000:3"), listener.trades);
+            assertEquals(2, book.remainingOf(1));
+            assertEquals(5, book.remainingOf(2));
+            assertFalse(book.contains(3));
+            assertFalse(book.contains(4));
+            assertEquals(101_0000, book.lastTradePrice());
+        }
+
+        @Test
+        @DisplayName("Should rest the unfilled part of a crossing limit order")
+        void submit_PartialFillRests() {
+            // Arrange
+            limit(1, ALICE, Side.SELL, 101_0000, 5);
+
+            // Act
+            limit(2, BOB, Side.BUY, 101_0000, 12);
+
+            // Assert
+            assertEquals(List.of("2x1@1010000:5"), listener.trades);
+            assertEquals(List.of("rested 1@1010000:5", "rested 2@1010000:7"), listener.events);
+            assertEquals(101_0000, book.bestBid());
+            assertEquals(0, book.bestAsk());
+        }
+
+        @Test
+        @DisplayName("Should sweep levels with a market order and cancel what is left")
+        void submit_MarketOrderSweeps() {
+            // Arrange
+            limit(1, ALICE, Side.BUY, 100_0000, 5);
+            limit(2, ALICE, Side.BUY, 99_0000, 5);
+
+            // Act
+            book.submit(3, BOB, Side.SELL, OrderType.MARKET, 0, 12, listener);
+
+            // Assert
+            assertEquals(List.of("3x1@1000000:5", "3x2@990000:5"), listener.trades);
+            assertEquals("cancelled 3:2", listener.events.get(listener.events.size() - 1));
+            assertEquals(0, book.orderCount());
+            assertEquals(0, book.levelCount(Side.BUY));
+        }
+
+        @Test
+        @DisplayName("Should not trade a limit order that does not cross")
+        void submit_NoCross() {
+            // Arrange
+            limit(1, ALICE, Side.SELL, 101_0000, 5);
+
+            // Act
+            limit(2, BOB, Side.BUY, 100_9999, 5);
+
+            // Assert
+            assertTrue(listener.trades.isEmpty());
+            assertEquals(2, book.orderCount());
+        }
+    }
+
+    @Nested
+    @DisplayName("Cancel And Amend Tests")
+    class CancelAmendTests {
+
+        @Test
+        @DisplayName("Should cancel a resting order and drop its empty level")
+        void cancel_RemovesOrder() {
+            // Arrange
+            limit(1, ALICE, Side.BUY, 100_0000, 5);
+
+            // Act
+            boolean cancelled = book.cancel(1, listener);
+
+            // Assert
+            assertTrue(cancelled);
+            assertEquals(List.of("rested 1@1000000:5", "cancelled 1:5"), listener.events);
+            assertEquals(0, book.levelCount(Side.BUY));
+            assertEquals(0, book.bestBid());
+        }
+
+        @Test
+        @DisplayName("Should reject cancelling an unknown order")
+        void cancel_UnknownOrder() {
+            // Act
+            boolean cancelled = book.cancel(42, listener);
+
+            // Assert
+            assertFalse(cancelled);
+            assertEquals(List.of("rejected 42:UNKNOWN_ORDER"), listener.events);
+        }
+
+        @Test
+        @DisplayName("Should keep time priority when only reducing the quantity")
+        void amend_ReduceKeepsPriority() {
+            // Arrange
+            limit(1, ALICE, Side.SELL, 101_0000, 10);
+            limit(2, BOB, Side.SELL, 101_0000, 10);
+
+            // Act
+            book.amend(1, 101_0000, 4, listener);
+            limit(3, BOB, Side.BUY, 101_0000, 4);
+
+            // Assert
+            assertEquals(List.of("3x1@1010000:4"), listener.trades);
+            assertEquals(10, book.quantityAt(Side.SELL, 0));
+        }
+
+        @Test
+        @DisplayName("Should lose time priority when the price changes")
+        void amend_PriceChangeLosesPriority() {
+            // Arrange
+            limit(1, ALICE, Side.SELL, 102_0000, 10);
+            limit(2, BOB, Side.SELL, 101_0000, 10);
+
+            // Act
+            book.amend(1, 101_0000, 10, listener);
+            limit(3, BOB, Side.BUY, 101_0000, 10);
+
+            // Assert
+            assertEquals(List.of("3x2@1010000:10"), listener.trades);
+            assertTrue(book.contains(1));
+        }
+    }
+
+    @Nested
+    @DisplayName("Validation Tests")
+    class ValidationTests {
+
+        @Test
+        @DisplayName("Should reject invalid quantities, prices and duplicate ids")
+        void submit_Rejects() {
+            // Act
+            limit(1, ALICE, Side.BUY, 100_0000, 0);
+            limit(2, ALICE, Side.BUY, 0, 5);
+            limit(3, ALICE, Side.BUY, 100_0000, 5);
+            limit(3, ALICE, Side.BUY, 100_0000, 5);
+
+            // Assert
+            assertEquals(List.of(
+                    "rejected 1:INVALID_QUANTITY",
+                    "rejected 2:INVALID_PRICE",
+                    "rested 3@1000000:5",
+                    "rejected 3:DUPLICATE_ORDER_ID"), listener.events);
+        }
+    }
+
+    @Nested
+    @DisplayName("Pooling Tests")
+    class PoolingTests {
+
+        @Test
+        @DisplayName("Should reuse pooled orders and levels instead of allocating")
+        void submit_ReusesPools() {
+            // Act
+            for (long id = 1; id <= 10_000; id++) {
+                limit(id, ALICE, Side.BUY, 100_0000 + (id % 8), 1);
+                book.cancel(id, listener);
+            }
+
+            // Assert
+            assertEquals(0, book.poolMisses());
+            assertEquals(0, book.orderCount());
+        }
+
+        @Test
+        @DisplayName("Should keep working beyond the pre-allocated capacity")
+        void submit_GrowsBeyondCapacity() {
+            // Act
+            for (long id = 1; id <= 100; id++) {
+                limit(id, ALICE, Side.BUY, 100_0000 - id, 1);
+            }
+            book.submit(1_000, BOB, Side.SELL, OrderType.MARKET, 0, 100, listener);
+
+            // Assert
+            assertTrue(book.poolMisses() > 0);
+            assertEquals(100, listener.trades.size());
+            assertEquals(0, book.orderCount());
+        }
+    }
+
+    private static final class RecordingListener implements MatchListener {
+
+        private final List<String> trades = new ArrayList<>();
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onTrade(long takerOrderId, long makerOrderId, long makerOwnerId, Side takerSide, long price, long quantity) {
+            trades.add(takerOrderId + "x" + makerOrderId + "@" + price + ":" + quantity);
+        }
+
+        @Override
+        public void onRested(long orderId, long price, long remainingQuantity) {
+            events.add("rested " + orderId + "@" + price + ":" + remainingQuantity);
+        }
+
+        @Override
+        public void onCancelled(long orderId, long remainingQuantity) {
+            events.add("cancelled " + orderId + ":" + remainingQuantity);
+        }
+
+        @Override
+        public void onRejected(long orderId, RejectReason reason) {
+            events.add("rejected " + orderId + ":" + reason);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.stockexchange.engine;
+
+import com.example.stockexchange.event.StockDelistedEvent;
+import com.example.stockexchange.event.StockExchangeStatusChangedEvent;
+import com.example.stockexchange.event.StockListedEvent;
+import com.example.stockexchange.market.ListingRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OrderSequencer Tests")
+class OrderSequencerTest {
+
+    private static final long EXCHANGE = 1;
+    private static final long STOCK = 10;
+    private static final long UNLISTED_STOCK = 11;
+    private static final long ALICE = 1;
+    private static final long BOB = 2;
+
+    private MatchingEngine engine;
+    private EngineJournal journal;
+    private OrderSequencer sequencer;
+
+    @BeforeEach
+    void setUp() {
+        // the registry is fed through its events, so it needs no repositories here
+        ListingRegistry registry = new ListingRegistry(null, null);
+        registry.onStockExchangeStatusChanged(new StockExchangeStatusChangedEvent(EXCHANGE, true));
+        registry.onStockListed(new StockListedEvent(EXCHANGE, STOCK, "Stock", BigDecimal.TEN));
+
+        engine = new MatchingEngine(registry, null, 2, 16, 8);
+        journal = new EngineJournal(false, "unused", DataSize.ofMegabytes(1), Duration.ofMillis(50), 1024, 2, 64);
+        sequencer = new OrderSequencer(engine, journal, PreTradeCheck.NONE, event -> {
+        }, 1024, 1_000_000, Duration.ofMinutes(5));
+        sequencer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        sequencer.stop();
+        engine.shutdown();
+    }
+
+    private ExecutionReport submit(OrderCommand command) throws Exception {
+        return sequencer.submit(command).get(5, TimeUnit.SECONDS);
+    }
+
+    private NewOrder limit(long stockId, long ownerId, Side side, long price, long quantity) {
+        return new NewOrder(0, EXCHANGE, stockId, ownerId, side, OrderType.LIMIT, price, quantity);
+    }
+
+    @Nested
+    @DisplayName("Sequencing Tests")
+    class SequencingTests {
+
+        @Test
+        @DisplayName("Should assign order ids and journal accepted commands in one total order")
+        void submit_SequencesCommands() throws Exception {
+            // Arrange
+            List<CompletableFuture<ExecutionReport>> futures = new ArrayList<>();
+
+            // Act
+            for (int i = 0; i < 100; i++) {
+                futures.add(sequencer.submit(limit(STOCK, ALICE, Side.BUY, 100_0000 - i, 1)));
+            }
+            for (CompletableFuture<ExecutionReport> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+
+            // Assert
+            List<SequencedCommand> recent = journal.recent(100);
+            assertEquals(100, journal.lastSequence());
+            assertEquals(64, recent.size());
+            for (int i = 0; i < recent.size(); i++) {
+                SequencedCommand command = recent.get(i);
+                assertEquals(37 + i, command.sequence());
+                assertEquals(command.sequence(), command.command().orderId());
+            }
+        }
+
+        @Test
+        @DisplayName("Should match orders in sequence order")
+        void submit_MatchesInOrder() throws Exception {
+            // Arrange
+            ExecutionReport resting = submit(limit(STOCK, ALICE, Side.SELL, 101_0000, 5));
+
+            // Act
+            ExecutionReport taking = submit(limit(STOCK, BOB, Side.BUY, 101_0000, 5));
+
+            // Assert
+            assertEquals(ExecutionStatus.ACCEPTED, resting.status());
+            assertEquals(ExecutionStatus.FILLED, taking.status());
+            assertEquals(resting.orderId(), taking.fills().get(0).makerOrderId());
+        }
+    }
+
+    @Nested
+    @DisplayName("Book Drop Tests")
+    class BookDropTests {
+
+        @Test
+        @DisplayName("Should sequence a delisting behind the orders before it and drop the book")
+        void onStockDelisted_DropsBookInSequence() throws Exception {
+            // Arrange
+            ExecutionReport resting = submit(limit(STOCK, ALICE, Side.BUY, 100_0000, 1));
+
+            // Act
+            sequencer.onStockDelisted(new StockDelistedEvent(EXCHANGE, STOCK));
+            ExecutionReport cancel = submit(new CancelOrder(resting.orderId(), EXCHANGE, STOCK, ALICE));
+
+            // Assert
+            // the cancel is sequenced too, only the book can tell the order is gone
+            assertEquals(RejectReason.UNKNOWN_ORDER, cancel.rejectReason());
+            assertEquals(3, journal.lastSequence());
+            assertNull(engine.query(EXCHANGE, STOCK, book -> book).get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Nested
+    @DisplayName("Pre-Trade Check Tests")
+    class PreTradeCheckTests {
+
+        @Test
+        @DisplayName("Should reject what the pre-trade check refuses and settle what it accepted")
+        void submit_ConsultsPreTradeCheck() throws Exception {
+            // Arrange
+            List<ExecutionReport> settled = new CopyOnWriteArrayList<>();
+            PreTradeCheck check = new PreTradeCheck() {
+                @Override
+                public RejectReason check(OrderCommand command) {
+                    return command instanceof NewOrder order && order.quantity() > 10 ? RejectReason.RISK_POSITION : null;
+                }
+
+                @Override
+                public void settle(OrderCommand command, ExecutionReport report) {
+                    settled.add(report);
+                }
+            };
+            EngineJournal checkedJournal = new EngineJournal(false, "unused", DataSize.ofMegabytes(1),
+                    Duration.ofMillis(50), 1024, 2, 64);
+            OrderSequencer checked = new OrderSequencer(engine, checkedJournal, check, event -> {
+            }, 1024, 1_000_000, Duration.ofMinutes(5));
+            checked.start();
+
+            // Act
+            ExecutionReport refused = checked.submit(limit(STOCK, ALICE, Side.BUY, 100_0000, 11)).get(5, TimeUnit.SECONDS);
+            ExecutionReport accepted = checked.submit(limit(STOCK, ALICE, Side.BUY, 100_0000, 10)).get(5, TimeUnit.SECONDS);
+            checked.stop();
+
+            // Assert
+            assertEquals(RejectReason.RISK_POSITION, refused.rejectReason());
+            assertEquals(ExecutionStatus.ACCEPTED, accepted.status());
+            assertEquals(1, checkedJournal.lastSequence());
+            assertEquals(List.of(accepted), settled);
+        }
+    }
+
+    @Nested
+    @DisplayName("Failure Tests")
+    class FailureTests {
+
+        @Test
+        @DisplayName("Should answer a command that fails with engine unavailable and keep sequencing the batch")
+        void submit_FailingCommand_CompletesEveryFuture() throws Exception {
+            // Arrange
+            PreTradeCheck failing = new PreTradeCheck() {
+                @Override
+                public RejectReason check(OrderCommand command) {
+                    if (command instanceof NewOrder order && order.quantity() == 13) {
+                        throw new IllegalStateException("risk state corrupted");
+                    }
+                    return null;
+                }
+
+                @Override
+                public void settle(OrderCommand command, ExecutionReport report) {
+                }
+            };
+            EngineJournal failingJournal = new EngineJournal(false, "unused", DataSize.ofMegabytes(1),
+                    Duration.ofMillis(50), 1024, 2, 64);
+            OrderSequencer failingSequencer = new OrderSequencer(engine, failingJournal, failing, event -> {
+            }, 1024, 1_000_000, Duration.ofMinutes(5));
+            failingSequencer.start();
+
+            // Act
+            CompletableFuture<ExecutionReport> before = failingSequencer.submit(limit(STOCK, ALICE, Side.BUY, 100_0000, 1));
+            CompletableFuture<ExecutionReport> failed = failingSequencer.submit(limit(STOCK, ALICE, Side.BUY, 100_0000, 13));
+            CompletableFuture<ExecutionReport> after = failingSequencer.submit(limit(STOCK, ALICE, Side.BUY, 100_0000, 2));
+            ExecutionReport failedReport = failed.get(5, TimeUnit.SECONDS);
+            ExecutionReport afterReport = after.get(5, TimeUnit.SECONDS);
+            ExecutionReport beforeReport = before.get(5, TimeUnit.SECONDS);
+            failingSequencer.stop();
+
+            // Assert
+            assertEquals(RejectReason.ENGINE_UNAVAILABLE, failedReport.rejectReason());
+            assertEquals(ExecutionStatus.ACCEPTED, beforeReport.status());
+            assertEquals(ExecutionStatus.ACCEPTED, afterReport.status());
+            assertEquals(2, failingJournal.lastSequence());
+        }
+    }
+
+    @Nested
+    @DisplayName("Rejection Tests")
+    class RejectionTests {
+
+        @Test
+        @DisplayName("Should reject orders for stocks not listed on the exchange without sequencing them")
+        void submit_NotListed_Rejected() throws Exception {
+            // Act
+            ExecutionReport report = submit(limit(UNLISTED_STOCK, ALICE, Side.BUY, 100_0000, 1));
+
+            // Assert
+            assertEquals(ExecutionStatus.REJECTED, report.status());
+            assertEquals(RejectReason.NOT_TRADABLE, report.rejectReason());
+            assertEquals(0, journal.lastSequence());
+        }
+
+        @Test
+        @DisplayName("Should reject cancels from someone else than the order owner")
+        void submit_CancelByOtherUser_Rejected() throws Exception {
+            // Arrange
+            ExecutionReport resting = submit(limit(STOCK, ALICE, Side.BUY, 100_0000, 1));
+
+            // Act
+            ExecutionReport report = submit(new CancelOrder(resting.orderId(), EXCHANGE, STOCK, BOB));
+
+            // Assert
+            assertEquals(RejectReason.NOT_ORDER_OWNER, report.rejectReason());
+        }
+
+        @Test
+        @DisplayName("Should reject commands once the sequencer is shut down")
+        void submit_AfterShutdown_Rejected() throws Exception {
+            // Arrange
+            sequencer.stop();
+
+            // Act
+            ExecutionReport report = submit(limit(STOCK, ALICE, Side.BUY, 100_0000, 1));
+
+            // Assert
+            assertEquals(RejectReason.ENGINE_UNAVAILABLE, report.rejectReason());
+        }
+    }
+}
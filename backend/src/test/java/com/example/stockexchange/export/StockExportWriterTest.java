@@ -0,0 +1,123 @@
+package com.example.stockexchange.export;
+
+import com.example.stockexchange.repository.StockExportView;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StockExportWriter Tests")
+class StockExportWriterTest {
+
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2025, 1, 1, 9, 30);
+
+    private record Row(Long stockId, String name, String description, BigDecimal currentPrice,
+                       LocalDateTime updatedAt) implements StockExportView {
+
+        @Override
+        public Long getStockId() {
+            return stockId;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public BigDecimal getCurrentPrice() {
+            return currentPrice;
+        }
+
+        @Override
+        public LocalDateTime getUpdatedAt() {
+            return updatedAt;
+        }
+    }
+
+    private static String export(ExportFormat format, List<Row> rows) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (StockExportWriter writer = StockExportWriter.of(format, output, new JsonFactory())) {
+            for (Row row : rows) {
+                writer.write(row);
+            }
+        }
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    @Nested
+    @DisplayName("NDJSON Tests")
+    class NdjsonTests {
+
+        @Test
+        @DisplayName("Should write one JSON object per line named like StockDto")
+        void write_OneObjectPerLine() throws IOException {
+            // Act
+            String ndjson = export(ExportFormat.NDJSON, List.of(
+                    new Row(1L, "Acme", "Line\nbreak", new BigDecimal("101.2500"), UPDATED_AT),
+                    new Row(2L, "Beta", null, null, null)));
+
+            // Assert
+            String[] lines = ndjson.split("\n");
+            assertEquals(2, lines.length);
+            assertTrue(ndjson.endsWith("\n"));
+            JsonNode first = new ObjectMapper().readTree(lines[0]);
+            assertEquals(1, first.get("stockId").asLong());
+            assertEquals("Line\nbreak", first.get("description").asText());
+            assertTrue(lines[0].contains("\"currentPrice\":101.2500"));
+            assertEquals("2025-01-01T09:30:00", first.get("updatedAt").asText());
+            assertTrue(new ObjectMapper().readTree(lines[1]).get("currentPrice").isNull());
+        }
+    }
+
+    @Nested
+    @DisplayName("CSV Tests")
+    class CsvTests {
+
+        @Test
+        @DisplayName("Should write a header and quote only fields that need it")
+        void write_Quoting() throws IOException {
+            // Act
+            String csv = export(ExportFormat.CSV, List.of(
+                    new Row(1L, "Acme, Inc.", "The \"best\"", new BigDecimal("1E+2"), UPDATED_AT),
+                    new Row(2L, "Beta", null, new BigDecimal("5.5000"), null)));
+
+            // Assert
+            assertEquals("stockId,name,description,currentPrice,updatedAt\r\n"
+                    + "1,\"Acme, Inc.\",\"The \"\"best\"\"\",100,2025-01-01T09:30:00\r\n"
+                    + "2,Beta,,5.5000,\r\n", csv);
+        }
+    }
+
+    @Nested
+    @DisplayName("Format Tests")
+    class FormatTests {
+
+        @Test
+        @DisplayName("Should resolve formats case-insensitively and reject unknown ones")
+        void of_Formats() {
+            // Act & Assert
+            assertEquals(ExportFormat.CSV, ExportFormat.of("CSV"));
+            assertEquals(ExportFormat.NDJSON, ExportFormat.of("ndjson"));
+            assertThrows(RuntimeException.class, () -> ExportFormat.of("xml"));
+            assertTrue(ExportFormat.acceptsGzip("br, GZIP;q=0.8"));
+            assertFalse(ExportFormat.acceptsGzip(null));
+        }
+    }
+}
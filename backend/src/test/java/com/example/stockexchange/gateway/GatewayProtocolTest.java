@@ -0,0 +1,174 @@
+package com.example.stockexchange.gateway;
+
+import com.example.stockexchange.engine.AmendOrder;
+import com.example.stockexchange.engine.CancelOrder;
+import com.example.stockexchange.engine.ExecutionReport;
+import com.example.stockexchange.engine.ExecutionStatus;
+import com.example.stockexchange.engine.NewOrder;
+import com.example.stockexchange.engine.OrderType;
+import com.example.stockexchange.engine.RejectReason;
+import com.example.stockexchange.engine.Side;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("GatewayProtocol Tests")
+class GatewayProtocolTest {
+
+    private static final long OWNER = 42;
+
+    private ByteBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = ByteBuffer.allocateDirect(8192);
+    }
+
+    @Nested
+    @DisplayName("Decoding Tests")
+    class DecodingTests {
+
+        @Test
+        @DisplayName("Should decode a new order in place")
+        void decodeNewOrder_RoundTrip() {
+            // Arrange
+            GatewayProtocol.encodeNewOrder(buffer, 7, 1, 10, Side.SELL, OrderType.LIMIT, 101_2500, 300);
+            buffer.flip();
+
+            // Act
+            int frameLength = GatewayProtocol.frameLength(buffer);
+            NewOrder order = GatewayProtocol.decodeNewOrder(buffer, OWNER);
+
+            // Assert
+            assertEquals(buffer.limit(), frameLength);
+            assertEquals(GatewayProtocol.NEW_ORDER, GatewayProtocol.typeOf(buffer));
+            assertEquals(7, GatewayProtocol.clientOrderIdOf(buffer));
+            assertEquals(new NewOrder(0, 1, 10, OWNER, Side.SELL, OrderType.LIMIT, 101_2500, 300), order);
+            assertEquals(0, buffer.position());
+        }
+
+        @Test
+        @DisplayName("Should decode cancels and amends")
+        void decodeCancelAndAmend_RoundTrip() {
+            // Arrange
+            GatewayProtocol.encodeCancel(buffer, 8, 1, 10, 555);
+            int amendAt = buffer.position();
+            GatewayProtocol.encodeAmend(buffer, 9, 1, 10, 556, 99_0000, 20);
+            buffer.flip();
+
+            // Act
+            CancelOrder cancel = GatewayProtocol.decodeCancel(buffer, OWNER);
+            buffer.position(buffer.position() + GatewayProtocol.frameLength(buffer));
+            AmendOrder amend = GatewayProtocol.decodeAmend(buffer, OWNER);
+
+            // Assert
+            assertEquals(amendAt, buffer.position());
+            assertEquals(new CancelOrder(555, 1, 10, OWNER), cancel);
+            assertEquals(new AmendOrder(556, 1, 10, OWNER, 99_0000, 20), amend);
+        }
+
+        @Test
+        @DisplayName("Should decode the logon token")
+        void decodeLogon_RoundTrip() {
+            // Arrange
+            GatewayProtocol.encodeLogon(buffer, "header.payload.signature");
+            buffer.flip();
+
+            // Act & Assert
+            assertEquals(GatewayProtocol.LOGON, GatewayProtocol.typeOf(buffer));
+            assertEquals("header.payload.signature", GatewayProtocol.decodeLogon(buffer));
+        }
+    }
+
+    @Nested
+    @DisplayName("Framing Tests")
+    class FramingTests {
+
+        @Test
+        @DisplayName("Should wait for the rest of a partially received frame")
+        void frameLength_PartialFrame() {
+            // Arrange
+            GatewayProtocol.encodeCancel(buffer, 8, 1, 10, 555);
+            buffer.flip();
+            buffer.limit(buffer.limit() - 1);
+
+            // Act & Assert
+            assertEquals(-1, GatewayProtocol.frameLength(buffer));
+        }
+
+        @Test
+        @DisplayName("Should refuse impossible frame lengths")
+        void frameLength_InvalidLength() {
+            // Arrange
+            buffer.putInt(GatewayProtocol.MAX_FRAME_LENGTH + 1).put(GatewayProtocol.NEW_ORDER);
+            buffer.flip();
+
+            // Act & Assert
+            assertThrows(IllegalArgumentException.class, () -> GatewayProtocol.frameLength(buffer));
+        }
+
+        @Test
+        @DisplayName("Should refuse a frame whose length does not match its type")
+        void decode_WrongLength() {
+            // Arrange
+            GatewayProtocol.encodeCancel(buffer, 8, 1, 10, 555);
+            buffer.flip();
+
+            // Act & Assert
+            assertThrows(IllegalArgumentException.class, () -> GatewayProtocol.decodeNewOrder(buffer, OWNER));
+        }
+    }
+
+    @Nested
+    @DisplayName("Encoding Tests")
+    class EncodingTests {
+
+        @Test
+        @DisplayName("Should encode an execution report with its fills")
+        void encodeExecutionReport_WithFills() {
+            // Arrange
+            ExecutionReport report = new ExecutionReport(77, ExecutionStatus.PARTIALLY_FILLED, 15, 5,
+                    List.of(new ExecutionReport.Fill(3, 100_0000, 10), new ExecutionReport.Fill(4, 100_5000, 5)), null);
+
+            // Act
+            GatewayProtocol.encodeExecutionReport(buffer, 12, report);
+            buffer.flip();
+
+            // Assert
+            assertEquals(GatewayProtocol.executionReportFrameLength(report), buffer.limit());
+            assertEquals(buffer.limit(), GatewayProtocol.frameLength(buffer));
+            assertEquals(GatewayProtocol.EXECUTION_REPORT, GatewayProtocol.typeOf(buffer));
+            buffer.position(GatewayProtocol.LENGTH_FIELD + 1);
+            assertEquals(12, buffer.getLong());
+            assertEquals(77, buffer.getLong());
+            assertEquals(ExecutionStatus.PARTIALLY_FILLED.ordinal(), buffer.get());
+            assertNull(GatewayProtocol.rejectReasonOf(buffer.get()));
+            assertEquals(15, buffer.getLong());
+            assertEquals(5, buffer.getLong());
+            assertEquals(2, buffer.getShort());
+            assertEquals(3, buffer.getLong());
+            assertEquals(100_0000, buffer.getLong());
+            assertEquals(10, buffer.getLong());
+        }
+
+        @Test
+        @DisplayName("Should carry the reject reason of a rejected order")
+        void encodeExecutionReport_Rejected() {
+            // Arrange
+            ExecutionReport report = ExecutionReport.rejected(78, RejectReason.NOT_TRADABLE);
+
+            // Act
+            GatewayProtocol.encodeExecutionReport(buffer, 13, report);
+
+            // Assert
+            assertEquals(RejectReason.NOT_TRADABLE,
+                    GatewayProtocol.rejectReasonOf(buffer.get(GatewayProtocol.LENGTH_FIELD + 1 + 2 * Long.BYTES + 1)));
+        }
+    }
+}
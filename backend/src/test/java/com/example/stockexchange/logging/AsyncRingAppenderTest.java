@@ -0,0 +1,135 @@
+package com.example.stockexchange.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AsyncRingAppender Tests")
+class AsyncRingAppenderTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final Logger logger = context.getLogger("test");
+    private final GatedAppender delegate = new GatedAppender();
+    private final AsyncRingAppender appender = new AsyncRingAppender();
+
+    @BeforeEach
+    void setUp() {
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        delegate.setContext(context);
+        delegate.start();
+        appender.setContext(context);
+        appender.setName("ASYNC");
+        appender.setCapacity(8);
+        appender.setDiscardingThreshold(0.5);
+        appender.addAppender(delegate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        delegate.open();
+        appender.stop();
+    }
+
+    @Test
+    @DisplayName("Should hand the events to the attached appender in order and flush them on stop")
+    void append_InOrder() {
+        // Arrange
+        delegate.open();
+        appender.start();
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            appender.doAppend(event(Level.INFO, "event " + i));
+        }
+        appender.stop();
+
+        // Assert
+        assertEquals(100, delegate.events.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("event " + i, delegate.events.get(i).getFormattedMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop DEBUG past the discarding threshold and keep INFO")
+    void append_DropsDebugWhenFull() throws InterruptedException {
+        // Arrange
+        appender.start();
+        appender.doAppend(event(Level.INFO, "blocks the worker"));
+        assertTrue(delegate.entered.await(5, TimeUnit.SECONDS));
+
+        // Act
+        for (int i = 0; i < 4; i++) {
+            appender.doAppend(event(Level.INFO, "info " + i));
+        }
+        for (int i = 0; i < 10; i++) {
+            appender.doAppend(event(Level.DEBUG, "debug " + i));
+        }
+        appender.doAppend(event(Level.WARN, "warn"));
+        delegate.open();
+        appender.stop();
+
+        // Assert
+        assertEquals(10, appender.getDropped(Level.DEBUG));
+        assertEquals(0, appender.getDropped(Level.TRACE));
+        assertEquals(6, delegate.events.size());
+        assertEquals("warn", delegate.events.get(5).getFormattedMessage());
+        assertTrue(delegate.events.stream().noneMatch(e -> e.getLevel() == Level.DEBUG));
+    }
+
+    @Test
+    @DisplayName("Should not start without an attached appender")
+    void start_WithoutAppender() {
+        // Arrange
+        AsyncRingAppender lonely = new AsyncRingAppender();
+        lonely.setContext(context);
+
+        // Act
+        lonely.start();
+
+        // Assert
+        assertFalse(lonely.isStarted());
+    }
+
+    private ILoggingEvent event(Level level, String message) {
+        return new LoggingEvent(Logger.class.getName(), logger, level, message, null, null);
+    }
+
+    // holds the worker on the first event until opened, so the ring fills up
+    private static final class GatedAppender extends AppenderBase<ILoggingEvent> {
+
+        private final List<ILoggingEvent> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch gate = new CountDownLatch(1);
+
+        void open() {
+            gate.countDown();
+        }
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            entered.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.stockexchange.market;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MarketDataChannel Tests")
+class MarketDataChannelTest {
+
+    private MarketDataChannel channel;
+
+    @BeforeEach
+    void setUp() {
+        channel = new MarketDataChannel(1, 42, 4);
+        channel.listed(20, "Beta", 50_0000);
+        channel.listed(10, "Alpha", 100_0000);
+    }
+
+    @Nested
+    @DisplayName("Snapshot Tests")
+    class SnapshotTests {
+
+        @Test
+        @DisplayName("Should hold every listed stock ordered by id at the current sequence")
+        void snapshot_CurrentState() {
+            // Arrange
+            channel.priceChanged(10, 101_0000);
+            channel.delisted(20);
+
+            // Act
+            MarketDataSnapshot snapshot = channel.snapshot();
+
+            // Assert
+            assertEquals(4, snapshot.sequence());
+            assertEquals(42, snapshot.epoch());
+            assertEquals(List.of(new MarketDataSnapshot.Entry(10, "Alpha", 101_0000)), snapshot.entries());
+        }
+
+        @Test
+        @DisplayName("Should not sequence unchanged prices or unknown stocks")
+        void priceChanged_NoChange() {
+            // Act
+            channel.priceChanged(10, 100_0000);
+            channel.priceChanged(99, 1_0000);
+            channel.delisted(99);
+
+            // Assert
+            assertEquals(2, channel.sequence());
+        }
+    }
+
+    @Nested
+    @DisplayName("Delta Tests")
+    class DeltaTests {
+
+        @Test
+        @DisplayName("Should return the deltas after a sequence in order, capped at max")
+        void since_InOrder() {
+            // Arrange
+            channel.priceChanged(10, 101_0000);
+            channel.priceChanged(20, 51_0000);
+
+            // Act
+            List<MarketDataDelta> deltas = channel.since(1, 2);
+
+            // Assert
+            assertEquals(2, deltas.size());
+            assertEquals(new MarketDataDelta(2, MarketDataDelta.Kind.LISTED, 10, 100_0000, "Alpha"), deltas.get(0));
+            assertEquals(new MarketDataDelta(3, MarketDataDelta.Kind.PRICE, 10, 101_0000, null), deltas.get(1));
+            assertTrue(channel.since(4, 10).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should report a gap once the deltas have left the ring")
+        void since_Gap() {
+            // Arrange
+            for (long price = 1; price <= 4; price++) {
+                channel.priceChanged(10, price);
+            }
+
+            // Act & Assert
+            assertNull(channel.since(1, 10));
+            assertEquals(4, channel.since(2, 10).size());
+            assertNull(channel.since(7, 10));
+        }
+
+        @Test
+        @DisplayName("Should rebuild the state from a snapshot and the deltas after it")
+        void snapshotPlusDeltas_MatchesState() {
+            // Arrange
+            MarketDataSnapshot snapshot = channel.snapshot();
+            channel.priceChanged(20, 55_0000);
+            channel.listed(30, "Gamma", 7_0000);
+            channel.delisted(10);
+
+            // Act
+            TreeMap<Long, MarketDataSnapshot.Entry> state = new TreeMap<>();
+            snapshot.entries().forEach(entry -> state.put(entry.stockId(), entry));
+            for (MarketDataDelta delta : channel.since(snapshot.sequence(), 10)) {
+                if (delta.kind() == MarketDataDelta.Kind.DELISTED) {
+                    state.remove(delta.stockId());
+                } else {
+                    String name = delta.kind() == MarketDataDelta.Kind.LISTED ? delta.name() : state.get(delta.stockId()).name();
+                    state.put(delta.stockId(), new MarketDataSnapshot.Entry(delta.stockId(), name, delta.price()));
+                }
+            }
+
+            // Assert
+            assertEquals(channel.snapshot().entries(), List.copyOf(state.values()));
+        }
+    }
+}
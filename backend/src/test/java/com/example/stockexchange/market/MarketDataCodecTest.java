@@ -0,0 +1,118 @@
+package com.example.stockexchange.market;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MarketDataCodec Tests")
+class MarketDataCodecTest {
+
+    private static List<Object> decodeAll(ByteBuffer buffer) {
+        List<Object> decoded = new ArrayList<>();
+        MarketDataCodec.Listener listener = new MarketDataCodec.Listener() {
+            @Override
+            public void onSnapshot(MarketDataSnapshot snapshot) {
+                decoded.add(snapshot);
+            }
+
+            @Override
+            public void onDeltas(long stockExchangeId, long epoch, List<MarketDataDelta> deltas) {
+                decoded.add(deltas);
+            }
+
+            @Override
+            public void onHeartbeat(long stockExchangeId, long epoch, long sequence) {
+                decoded.add(sequence);
+            }
+        };
+        while (MarketDataCodec.decode(buffer, listener)) {
+            // keep going
+        }
+        return decoded;
+    }
+
+    @Nested
+    @DisplayName("Round Trip Tests")
+    class RoundTripTests {
+
+        @Test
+        @DisplayName("Should decode a snapshot to what was encoded")
+        void snapshot_RoundTrip() {
+            // Arrange
+            MarketDataSnapshot snapshot = new MarketDataSnapshot(3, 1_700_000_000_000L, 123_456, List.of(
+                    new MarketDataSnapshot.Entry(7, "Acme", 101_2345),
+                    new MarketDataSnapshot.Entry(1_000_000, "Z\u00fcrich Versicherung", Long.MAX_VALUE)));
+
+            // Act
+            List<Object> decoded = decodeAll(ByteBuffer.wrap(MarketDataCodec.encodeSnapshot(snapshot)));
+
+            // Assert
+            assertEquals(List.of(snapshot), decoded);
+        }
+
+        @Test
+        @DisplayName("Should decode deltas and heartbeats with their sequence numbers")
+        void deltasAndHeartbeat_RoundTrip() {
+            // Arrange
+            List<MarketDataDelta> deltas = List.of(
+                    new MarketDataDelta(41, MarketDataDelta.Kind.PRICE, 7, 99_0000, null),
+                    new MarketDataDelta(42, MarketDataDelta.Kind.LISTED, 8, 5_0000, "New"),
+                    new MarketDataDelta(43, MarketDataDelta.Kind.DELISTED, 7, 0, null));
+            byte[] first = MarketDataCodec.encodeDeltas(3, 9, deltas);
+            byte[] second = MarketDataCodec.encodeHeartbeat(3, 9, 43);
+            ByteBuffer buffer = ByteBuffer.allocate(first.length + second.length).put(first).put(second).flip();
+
+            // Act
+            List<Object> decoded = decodeAll(buffer);
+
+            // Assert
+            assertEquals(List.of(deltas, 43L), decoded);
+            assertFalse(buffer.hasRemaining());
+        }
+
+        @Test
+        @DisplayName("Should encode a price delta in a few bytes")
+        void deltas_Compact() {
+            // Act
+            byte[] frame = MarketDataCodec.encodeDeltas(3, 9, List.of(
+                    new MarketDataDelta(200, MarketDataDelta.Kind.PRICE, 1_500, 101_2500, null)));
+
+            // Assert
+            // length, type, exchange, epoch, sequence (2), count, then kind, stock (2), price (3)
+            assertEquals(13, frame.length);
+        }
+    }
+
+    @Nested
+    @DisplayName("Framing Tests")
+    class FramingTests {
+
+        @Test
+        @DisplayName("Should wait for a frame that has not fully arrived")
+        void decode_PartialFrame() {
+            // Arrange
+            byte[] frame = MarketDataCodec.encodeHeartbeat(1, 2, 3);
+            ByteBuffer buffer = ByteBuffer.wrap(frame, 0, frame.length - 1);
+
+            // Act & Assert
+            assertTrue(decodeAll(buffer).isEmpty());
+            assertEquals(0, buffer.position());
+        }
+
+        @Test
+        @DisplayName("Should reject an unknown frame type")
+        void decode_UnknownType() {
+            // Arrange
+            ByteBuffer buffer = ByteBuffer.wrap(new byte[]{4, 9, 1, 1, 1});
+
+            // Act & Assert
+            assertThrows(IllegalArgumentException.class, () -> decodeAll(buffer));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.stockexchange.market;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PriceConflator Tests")
+class PriceConflatorTest {
+
+    private PriceConflator conflator;
+
+    @BeforeEach
+    void setUp() {
+        conflator = new PriceConflator(0);
+    }
+
+    private static List<Long> ticks(List<PriceConflator.PriceUpdate> updates) {
+        return updates.stream().map(PriceConflator.PriceUpdate::ticks).toList();
+    }
+
+    @Nested
+    @DisplayName("Conflation Tests")
+    class ConflationTests {
+
+        @Test
+        @DisplayName("Should keep only the latest trade price of a stock between drains")
+        void drain_KeepsLatestPerStock() {
+            // Arrange
+            conflator.onTrade(1L, 100, 10);
+            conflator.onTrade(1L, 101, 20);
+            conflator.onTrade(2L, 50, 15);
+
+            // Act
+            List<PriceConflator.PriceUpdate> updates = conflator.drain(30);
+
+            // Assert
+            assertEquals(2, updates.size());
+            assertTrue(updates.contains(new PriceConflator.PriceUpdate(1L, 101, 20)));
+            assertEquals(0, conflator.pendingCount());
+        }
+
+        @Test
+        @DisplayName("Should prefer the later stamp when trades of one stock arrive out of order")
+        void drain_LatestStampWins() {
+            // Arrange
+            conflator.onTrade(1L, 101, 20);
+            conflator.onTrade(1L, 100, 10);
+
+            // Act & Assert
+            assertEquals(List.of(101L), ticks(conflator.drain(30)));
+        }
+
+        @Test
+        @DisplayName("Should not write a price again that was already published")
+        void drain_SkipsUnchangedPrice() {
+            // Arrange
+            conflator.onTrade(1L, 100, 10);
+            conflator.published(conflator.drain(20));
+            conflator.onTrade(1L, 100, 30);
+
+            // Act & Assert
+            assertTrue(conflator.drain(40).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should put back a failed batch without overwriting newer trades")
+        void requeue_KeepsNewerTrades() {
+            // Arrange
+            conflator.onTrade(1L, 100, 10);
+            conflator.onTrade(2L, 50, 10);
+            List<PriceConflator.PriceUpdate> failed = conflator.drain(20);
+            conflator.onTrade(1L, 102, 30);
+
+            // Act
+            conflator.requeue(failed);
+
+            // Assert
+            List<PriceConflator.PriceUpdate> updates = conflator.drain(40);
+            assertTrue(updates.contains(new PriceConflator.PriceUpdate(1L, 102, 30)));
+            assertTrue(updates.contains(new PriceConflator.PriceUpdate(2L, 50, 10)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Manual Precedence Tests")
+    class ManualPrecedenceTests {
+
+        @Test
+        @DisplayName("Should drop trade prices executed before a manual update")
+        void drain_ManualUpdateSupersedesOlderTrades() {
+            // Arrange
+            conflator.onTrade(1L, 100, 10);
+            conflator.onManualUpdate(1L, 20);
+
+            // Act & Assert
+            assertTrue(conflator.drain(30).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should let a trade after the manual update overwrite it, even at the previously published price")
+        void drain_LaterTradeWins() {
+            // Arrange
+            conflator.onTrade(1L, 100, 10);
+            conflator.published(conflator.drain(15));
+            conflator.onManualUpdate(1L, 20);
+            conflator.onTrade(1L, 100, 30);
+
+            // Act & Assert
+            assertEquals(List.of(100L), ticks(conflator.drain(40)));
+        }
+
+        @Test
+        @DisplayName("Should ignore trades within the manual hold")
+        void drain_ManualHold() {
+            // Arrange
+            PriceConflator held = new PriceConflator(100);
+            held.onManualUpdate(1L, 20);
+            held.onTrade(1L, 100, 50);
+
+            // Act
+            List<PriceConflator.PriceUpdate> duringHold = held.drain(60);
+            held.onTrade(1L, 101, 130);
+
+            // Assert
+            assertTrue(duringHold.isEmpty());
+            assertEquals(List.of(101L), ticks(held.drain(140)));
+        }
+
+        @Test
+        @DisplayName("Should forget everything about a deleted stock")
+        void forget_DropsPendingPrice() {
+            // Arrange
+            conflator.onTrade(1L, 100, 10);
+
+            // Act
+            conflator.forget(1L);
+
+            // Assert
+            assertTrue(conflator.drain(20).isEmpty());
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.stockexchange.market;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TopMoversBoard Tests")
+class TopMoversBoardTest {
+
+    private TopMoversBoard board;
+
+    @BeforeEach
+    void setUp() {
+        board = new TopMoversBoard();
+        board.put(1L, "Apple Inc.", BigDecimal.valueOf(100));
+        board.put(2L, "Microsoft Corporation", BigDecimal.valueOf(200));
+        board.put(3L, "Tesla Inc.", BigDecimal.valueOf(50));
+    }
+
+    @Nested
+    @DisplayName("Ranking Tests")
+    class RankingTests {
+
+        @Test
+        @DisplayName("Should return no movers when no price changed since the open")
+        void top_NoChanges() {
+            // Assert
+            assertTrue(board.topGainers(10).isEmpty());
+            assertTrue(board.topLosers(10).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should rank gainers by percentage change, not absolute change")
+        void topGainers_RankedByPercentage() {
+            // Arrange
+            board.updatePrice(1L, BigDecimal.valueOf(110)); // +10%
+            board.updatePrice(2L, BigDecimal.valueOf(210)); // +5%
+            board.updatePrice(3L, BigDecimal.valueOf(60));  // +20%
+
+            // Act
+            List<TopMoversBoard.Entry> gainers = board.topGainers(10);
+
+            // Assert
+            assertEquals(List.of(3L, 1L, 2L), gainers.stream().map(TopMoversBoard.Entry::stockId).toList());
+            assertEquals(200_000, gainers.get(0).changePpm());
+        }
+
+        @Test
+        @DisplayName("Should rank losers from the biggest drop")
+        void topLosers_RankedByDrop() {
+            // Arrange
+            board.updatePrice(1L, BigDecimal.valueOf(90));  // -10%
+            board.updatePrice(2L, BigDecimal.valueOf(100)); // -50%
+            board.updatePrice(3L, BigDecimal.valueOf(55));  // +10%
+
+            // Act
+            List<TopMoversBoard.Entry> losers = board.topLosers(10);
+
+            // Assert
+            assertEquals(List.of(2L, 1L), losers.stream().map(TopMoversBoard.Entry::stockId).toList());
+        }
+
+        @Test
+        @DisplayName("Should limit the result to k entries")
+        void topGainers_LimitedToK() {
+            // Arrange
+            board.updatePrice(1L, BigDecimal.valueOf(110));
+            board.updatePrice(2L, BigDecimal.valueOf(210));
+            board.updatePrice(3L, BigDecimal.valueOf(60));
+
+            // Assert
+            assertEquals(1, board.topGainers(1).size());
+            assertEquals(3L, board.topGainers(1).get(0).stockId());
+        }
+
+        @Test
+        @DisplayName("Should reposition a stock when its price moves again")
+        void updatePrice_Repositions() {
+            // Arrange
+            board.updatePrice(1L, BigDecimal.valueOf(110));
+            board.updatePrice(3L, BigDecimal.valueOf(60));
+
+            // Act
+            board.updatePrice(3L, BigDecimal.valueOf(45));
+
+            // Assert
+            assertEquals(List.of(1L), board.topGainers(10).stream().map(TopMoversBoard.Entry::stockId).toList());
+            assertEquals(List.of(3L), board.topLosers(10).stream().map(TopMoversBoard.Entry::stockId).toList());
+        }
+    }
+
+    @Nested
+    @DisplayName("Membership Tests")
+    class MembershipTests {
+
+        @Test
+        @DisplayName("Should ignore price updates for stocks not on the board")
+        void updatePrice_UnknownStock() {
+            // Act
+            board.updatePrice(99L, BigDecimal.valueOf(1));
+
+            // Assert
+            assertEquals(3, board.size());
+        }
+
+        @Test
+        @DisplayName("Should drop removed stocks from the ranking")
+        void remove_DropsFromRanking() {
+            // Arrange
+            board.updatePrice(1L, BigDecimal.valueOf(110));
+
+            // Act
+            board.remove(1L);
+
+            // Assert
+            assertTrue(board.topGainers(10).isEmpty());
+            assertEquals(2, board.size());
+        }
+
+        @Test
+        @DisplayName("Should keep the open price when a stock is put again")
+        void put_KeepsOpenPrice() {
+            // Act
+            board.put(1L, "Apple Inc.", BigDecimal.valueOf(120));
+
+            // Assert
+            assertEquals(BigDecimal.valueOf(100), board.topGainers(1).get(0).openPrice());
+        }
+    }
+
+    @Test
+    @DisplayName("Should rebase every open price on session reset")
+    void resetSession_RebasesOpenPrices() {
+        // Arrange
+        board.updatePrice(1L, BigDecimal.valueOf(110));
+        board.updatePrice(2L, BigDecimal.valueOf(150));
+
+        // Act
+        board.resetSession();
+        board.updatePrice(1L, BigDecimal.valueOf(121));
+
+        // Assert
+        List<TopMoversBoard.Entry> gainers = board.topGainers(10);
+        assertEquals(1, gainers.size());
+        assertEquals(BigDecimal.valueOf(110), gainers.get(0).openPrice());
+        assertEquals(100_000, gainers.get(0).changePpm());
+        assertTrue(board.topLosers(10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should resolve directions case-insensitively and reject unknown ones")
+    void direction_Of() {
+        // Arrange
+        board.updatePrice(1L, BigDecimal.valueOf(110));
+        board.updatePrice(3L, BigDecimal.valueOf(40));
+
+        // Act & Assert
+        assertEquals(1L, MoversDirection.of("Gainers").top(board, 1).get(0).stockId());
+        assertEquals(3L, MoversDirection.of("losers").top(board, 1).get(0).stockId());
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> MoversDirection.of("loosers"));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.stockexchange.monitoring;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// the list endpoints against the seeded catalog with fail-on-violation on: a request over the statement budget
+// or with a repeated statement (the N+1 signature) answers 500 instead of 200 and records the violation
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sqlbudget;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.sql.init.mode=always",
+        "app.sql-monitor.fail-on-violation=true",
+        "app.gateway.port=0",
+        "app.journal.enabled=false",
+        "app.warm-up.enabled=false"
+})
+@AutoConfigureMockMvc
+@WithMockUser(roles = {"USER", "ADMIN"})
+@DisplayName("SQL Statement Budget Tests")
+class SqlStatementBudgetTests {
+
+    private static final String API = "/api/v1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private void assertWithinBudget(String path) throws Exception {
+        mockMvc.perform(get(API + path).param("size", "50"))
+                .andExpect(request().attribute(SqlStatementMonitoringFilter.VIOLATION_ATTRIBUTE, nullValue()))
+                .andExpect(status().isOk());
+    }
+
+    @Nested
+    @DisplayName("Stock Exchange List Tests")
+    class StockExchangeListTests {
+
+        @Test
+        @DisplayName("Should list the stock exchanges within the budget")
+        void getAllStockExchanges() throws Exception {
+            assertWithinBudget("/stockExchange");
+        }
+
+        @Test
+        @DisplayName("Should list the live stock exchanges within the budget")
+        void getAllStockExchangesLiveInMarket() throws Exception {
+            assertWithinBudget("/stockExchange/live");
+        }
+
+        @Test
+        @DisplayName("Should list the stocks of an exchange within the budget")
+        void getAllStocksByExchange() throws Exception {
+            assertWithinBudget("/stockExchange/1/stocks");
+        }
+
+        @Test
+        @DisplayName("Should list the stocks not listed on an exchange within the budget")
+        void getStocksNotInExchange() throws Exception {
+            assertWithinBudget("/stockExchange/1/stocks/not-listed");
+        }
+    }
+
+    @Nested
+    @DisplayName("Stock List Tests")
+    class StockListTests {
+
+        @Test
+        @DisplayName("Should list the stocks within the budget")
+        void getAllStocks() throws Exception {
+            assertWithinBudget("/stock");
+        }
+
+        @Test
+        @DisplayName("Should list the exchanges of a stock within the budget")
+        void getExchangesOfStock() throws Exception {
+            assertWithinBudget("/stock/stocks/1/exchanges");
+        }
+    }
+}
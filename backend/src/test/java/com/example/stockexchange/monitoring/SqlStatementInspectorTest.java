@@ -0,0 +1,93 @@
+package com.example.stockexchange.monitoring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SqlStatementInspector Tests")
+class SqlStatementInspectorTest {
+
+    private final SqlStatementInspector inspector = new SqlStatementInspector();
+
+    @AfterEach
+    void tearDown() {
+        SqlStatementTracker.end();
+    }
+
+    @Nested
+    @DisplayName("Statement Shape Tests")
+    class ShapeTests {
+
+        @Test
+        @DisplayName("Should give the same shape to statements that only differ in literals")
+        void shapeOf_IgnoresLiterals() {
+            // Act
+            String first = SqlStatementInspector.shapeOf("select * from stock where stock_id = 1 and name = 'Apple'");
+            String second = SqlStatementInspector.shapeOf("select * from stock where stock_id = 42 and name = 'O''Reilly'");
+
+            // Assert
+            assertEquals("select * from stock where stock_id = ? and name = ?", first);
+            assertEquals(first, second);
+        }
+
+        @Test
+        @DisplayName("Should collapse IN lists of any size")
+        void shapeOf_CollapsesInLists() {
+            // Act
+            String shape = SqlStatementInspector.shapeOf("select * from stock where stock_id in (?, ?, ?)");
+
+            // Assert
+            assertEquals("select * from stock where stock_id in (?)", shape);
+        }
+
+        @Test
+        @DisplayName("Should strip comments, whitespace and case")
+        void shapeOf_NormalizesFormatting() {
+            // Act
+            String shape = SqlStatementInspector.shapeOf("/* load Stock */ SELECT s.name\n    FROM stock s\n  WHERE s.stock_id=?");
+
+            // Assert
+            assertEquals("select s.name from stock s where s.stock_id=?", shape);
+        }
+    }
+
+    @Nested
+    @DisplayName("Tracking Tests")
+    class TrackingTests {
+
+        @Test
+        @DisplayName("Should count statements and report the most repeated shape")
+        void inspect_CountsPerRequest() {
+            // Arrange
+            SqlStatementStats stats = SqlStatementTracker.begin();
+
+            // Act
+            inspector.inspect("select * from stock_exchange where stock_exchange_id = 1");
+            inspector.inspect("select * from stock_exchange where stock_exchange_id = 2");
+            inspector.inspect("select * from stock_exchange where stock_exchange_id = 3");
+            inspector.inspect("select * from stock where stock_id = 1");
+
+            // Assert
+            assertEquals(4, stats.getStatementCount());
+            Map.Entry<String, Integer> mostRepeated = stats.mostRepeated();
+            assertEquals("select * from stock_exchange where stock_exchange_id = ?", mostRepeated.getKey());
+            assertEquals(3, mostRepeated.getValue());
+        }
+
+        @Test
+        @DisplayName("Should leave the statement untouched and ignore it outside a request")
+        void inspect_OutsideRequest() {
+            // Act
+            String sql = inspector.inspect("select 1");
+
+            // Assert
+            assertEquals("select 1", sql);
+            assertNull(SqlStatementTracker.current());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.stockexchange.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RateLimiter Tests")
+class RateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RateLimiter limiter(int maxBuckets) {
+        return new RateLimiter(List.of(
+                new RateLimitRoute("login", "POST", "/api/v1/auth/login", RateLimitRoute.Key.IP, 2, Duration.ofSeconds(1)),
+                new RateLimitRoute("api", null, "/api/**", RateLimitRoute.Key.USER, 5, Duration.ofMillis(10))),
+                maxBuckets, meterRegistry);
+    }
+
+    @Nested
+    @DisplayName("match Tests")
+    class MatchTests {
+
+        @Test
+        @DisplayName("Should apply the first route matching method and path")
+        void match_FirstRoute() {
+            // Arrange
+            RateLimiter limiter = limiter(100);
+
+            // Act & Assert
+            assertEquals("login", limiter.match("POST", "/api/v1/auth/login").config().name());
+            assertEquals("api", limiter.match("GET", "/api/v1/auth/login").config().name());
+            assertEquals("api", limiter.match("PUT", "/api/v1/stock/7/price").config().name());
+            assertNull(limiter.match("GET", "/actuator/health"));
+        }
+    }
+
+    @Nested
+    @DisplayName("tryAcquire Tests")
+    class TryAcquireTests {
+
+        @Test
+        @DisplayName("Should keep a bucket per key and count the rejections of the route")
+        void tryAcquire_PerKey() {
+            // Arrange
+            RateLimiter limiter = limiter(100);
+            RateLimiter.Route login = limiter.match("POST", "/api/v1/auth/login");
+
+            // Act
+            long first = limiter.tryAcquire(login, "ip:10.0.0.1", 0);
+            long second = limiter.tryAcquire(login, "ip:10.0.0.1", 0);
+            long third = limiter.tryAcquire(login, "ip:10.0.0.1", 0);
+            long otherClient = limiter.tryAcquire(login, "ip:10.0.0.2", 0);
+
+            // Assert
+            assertEquals(0, first);
+            assertEquals(0, second);
+            assertEquals(Duration.ofSeconds(1).toNanos(), third);
+            assertEquals(0, otherClient);
+            assertEquals(1.0, meterRegistry.get("stockexchange.ratelimit.rejections").tag("route", "login").counter().count());
+        }
+
+        @Test
+        @DisplayName("Should share one bucket between new keys once max-buckets is reached")
+        void tryAcquire_Overflow() {
+            // Arrange
+            RateLimiter limiter = limiter(1);
+            RateLimiter.Route login = limiter.match("POST", "/api/v1/auth/login");
+            limiter.tryAcquire(login, "ip:10.0.0.1", System.nanoTime());
+
+            // Act
+            long now = System.nanoTime();
+            long second = limiter.tryAcquire(login, "ip:10.0.0.2", now);
+            long third = limiter.tryAcquire(login, "ip:10.0.0.3", now);
+            long fourth = limiter.tryAcquire(login, "ip:10.0.0.4", now);
+
+            // Assert
+            assertEquals(1, limiter.bucketCount());
+            assertEquals(0, second);
+            assertEquals(0, third);
+            assertTrue(fourth > 0);
+        }
+    }
+
+    @Nested
+    @DisplayName("evictFullBuckets Tests")
+    class EvictTests {
+
+        @Test
+        @DisplayName("Should drop the buckets that have refilled and keep the others")
+        void evictFullBuckets() {
+            // Arrange
+            RateLimiter limiter = limiter(100);
+            RateLimiter.Route login = limiter.match("POST", "/api/v1/auth/login");
+            RateLimiter.Route api = limiter.match("GET", "/api/v1/stock");
+            long longAgo = System.nanoTime() - Duration.ofMinutes(1).toNanos();
+            limiter.tryAcquire(api, "user:idle@example.com", longAgo);
+            limiter.tryAcquire(login, "ip:10.0.0.1", System.nanoTime());
+
+            // Act
+            limiter.evictFullBuckets();
+
+            // Assert
+            assertEquals(1, limiter.bucketCount());
+        }
+    }
+}
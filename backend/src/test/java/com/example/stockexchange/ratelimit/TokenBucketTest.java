@@ -0,0 +1,73 @@
+package com.example.stockexchange.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TokenBucket Tests")
+class TokenBucketTest {
+
+    private static final long INTERVAL = 100;
+
+    @Test
+    @DisplayName("Should allow a burst of capacity requests and then ask to wait one interval")
+    void tryTake_Burst() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(3, INTERVAL, 1000);
+
+        // Act & Assert
+        assertEquals(0, bucket.tryTake(1000));
+        assertEquals(0, bucket.tryTake(1000));
+        assertEquals(0, bucket.tryTake(1000));
+        assertEquals(INTERVAL, bucket.tryTake(1000));
+        assertEquals(40, bucket.tryTake(1060));
+    }
+
+    @Test
+    @DisplayName("Should give back one token per interval")
+    void tryTake_Refill() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(2, INTERVAL, 0);
+        bucket.tryTake(0);
+        bucket.tryTake(0);
+
+        // Act & Assert
+        assertEquals(0, bucket.tryTake(100));
+        assertTrue(bucket.tryTake(100) > 0);
+        assertEquals(0, bucket.tryTake(200));
+    }
+
+    @Test
+    @DisplayName("Should not save up more than capacity tokens while idle")
+    void tryTake_IdleCapped() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(2, INTERVAL, 0);
+
+        // Act
+        long first = bucket.tryTake(10_000);
+        long second = bucket.tryTake(10_000);
+        long third = bucket.tryTake(10_000);
+
+        // Assert
+        assertEquals(0, first);
+        assertEquals(0, second);
+        assertTrue(third > 0);
+    }
+
+    @Test
+    @DisplayName("Should report full only once every token is back")
+    void isFull() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(2, INTERVAL, 0);
+        assertTrue(bucket.isFull(0));
+
+        // Act
+        bucket.tryTake(0);
+        bucket.tryTake(0);
+
+        // Assert
+        assertFalse(bucket.isFull(150));
+        assertTrue(bucket.isFull(200));
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.stockexchange.response;
+
+import com.example.stockexchange.dto.StockDto;
+import com.example.stockexchange.dto.StockExchangeDto;
+import com.example.stockexchange.dto.StockListingDto;
+import com.example.stockexchange.dto.StockMoverDto;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.Message;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static com.example.stockexchange.response.ProtoSchema.field;
+import static com.example.stockexchange.response.ProtoSchema.has;
+import static com.example.stockexchange.response.ProtoSchema.repeated;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ApiRespondProtobufConverter Tests")
+class ApiRespondProtobufConverterTest {
+
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2025, 3, 1, 12, 30);
+
+    private static final ProtoSchema SCHEMA = ProtoSchema.load();
+
+    private static StockDto stock(long id) {
+        return new StockDto(id, "Stock " + id, "Description " + id, new BigDecimal("101.25"), UPDATED_AT);
+    }
+
+    @Nested
+    @DisplayName("Encoding Tests")
+    class EncodingTests {
+
+        @Test
+        @DisplayName("Should encode the envelope and a stock with its price in ticks")
+        void encode_Stock() throws IOException {
+            // Arrange
+            ApiRespond<StockDto> respond = new ApiRespond<>(HttpStatus.OK, "Stock retrieved successfully", stock(7));
+
+            // Act
+            DynamicMessage response = SCHEMA.parseResponse(ApiRespondProtobufConverter.encode(respond));
+
+            // Assert
+            assertEquals(200, field(response, "status"));
+            assertEquals("Stock retrieved successfully", field(response, "message"));
+            assertEquals(respond.getTimestamp(), field(response, "timestamp"));
+            Message stock = (Message) field(response, "stock");
+            assertEquals(7L, field(stock, "stock_id"));
+            assertEquals("Stock 7", field(stock, "name"));
+            assertEquals("Description 7", field(stock, "description"));
+            assertEquals(101_2500L, field(stock, "current_price"));
+            assertEquals(UPDATED_AT.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), field(stock, "updated_at"));
+        }
+
+        @Test
+        @DisplayName("Should encode a page of exchanges with its paging fields")
+        void encode_Page() throws IOException {
+            // Arrange
+            List<StockExchangeDto> exchanges = List.of(
+                    new StockExchangeDto(1L, "NYSE", "New York", true),
+                    new StockExchangeDto(2L, "LSE", null, false));
+            ApiRespond<?> respond = new ApiRespond<>(HttpStatus.OK, "Stock Exchanges retrieved successfully",
+                    PageResponse.of(new PageImpl<>(exchanges, PageRequest.of(1, 2), 6)));
+
+            // Act
+            DynamicMessage response = SCHEMA.parseResponse(ApiRespondProtobufConverter.encode(respond));
+
+            // Assert
+            Message page = (Message) field(response, "page");
+            assertEquals(1, field(page, "number"));
+            assertEquals(2, field(page, "size"));
+            assertEquals(6L, field(page, "total_elements"));
+            assertEquals(3, field(page, "total_pages"));
+            assertEquals(2, repeated(page, "stock_exchanges").size());
+            assertTrue(repeated(page, "stocks").isEmpty());
+            Message second = repeated(page, "stock_exchanges").get(1);
+            assertEquals("LSE", field(second, "name"));
+            assertFalse(has(second, "description"));
+            assertFalse(has(second, "live_in_market"));
+        }
+
+        @Test
+        @DisplayName("Should encode a list of listings as a single page")
+        void encode_ListingList() throws IOException {
+            // Arrange
+            StockListingDto listing = new StockListingDto(new StockExchangeDto(1L, "NYSE", "New York", true), stock(3));
+            ApiRespond<?> respond = new ApiRespond<>(HttpStatus.CREATED, "Stocks added", List.of(listing, listing));
+
+            // Act
+            DynamicMessage response = SCHEMA.parseResponse(ApiRespondProtobufConverter.encode(respond));
+
+            // Assert
+            Message page = (Message) field(response, "page");
+            assertEquals(2L, field(page, "total_elements"));
+            assertEquals(2, repeated(page, "stock_listings").size());
+            Message first = repeated(page, "stock_listings").get(0);
+            assertEquals(3L, field((Message) field(first, "stock"), "stock_id"));
+            assertEquals("NYSE", field((Message) field(first, "stock_exchange"), "name"));
+        }
+
+        @Test
+        @DisplayName("Should encode error details and leave out missing data")
+        void encode_Errors() throws IOException {
+            // Act
+            DynamicMessage detail = SCHEMA.parseResponse(ApiRespondProtobufConverter.encode(
+                    new ApiRespond<>(HttpStatus.BAD_REQUEST, "Invalid JSON format or data type", "Unexpected token")));
+            DynamicMessage empty = SCHEMA.parseResponse(ApiRespondProtobufConverter.encode(
+                    new ApiRespond<>(HttpStatus.NOT_FOUND, "Stock not found", null)));
+
+            // Assert
+            assertEquals("Unexpected token", field(detail, "detail"));
+            assertEquals(404, field(empty, "status"));
+            assertEquals(3, empty.getAllFields().size());
+        }
+
+        @Test
+        @DisplayName("Should refuse data without a schema")
+        void encode_UnsupportedData() {
+            // Arrange
+            ApiRespond<?> respond = new ApiRespond<>(HttpStatus.OK, "Top movers retrieved successfully",
+                    List.of(new StockMoverDto(1L, "Stock", BigDecimal.ONE, BigDecimal.TEN, BigDecimal.TEN)));
+
+            // Act & Assert
+            assertThrows(IllegalArgumentException.class, () -> ApiRespondProtobufConverter.encode(respond));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.stockexchange.response;
+
+import com.example.stockexchange.dto.StockExchangeDto;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PageResponse Tests")
+class PageResponseTest {
+
+    @Test
+    @DisplayName("Should keep the content and the paging totals of a page")
+    void of_CopiesPaging() {
+        // Arrange
+        List<StockExchangeDto> exchanges = List.of(new StockExchangeDto(1L, "NYSE", "New York", true));
+
+        // Act
+        PageResponse<StockExchangeDto> page = PageResponse.of(
+                new PageImpl<>(exchanges, PageRequest.of(2, 5, Sort.by("name")), 11));
+
+        // Assert
+        assertSame(exchanges.get(0), page.content().get(0));
+        assertEquals(2, page.number());
+        assertEquals(5, page.size());
+        assertEquals(11L, page.totalElements());
+        assertEquals(3, page.totalPages());
+    }
+
+    @Test
+    @DisplayName("Should serialize to the content and totals only")
+    void serialize_LeanFields() throws Exception {
+        // Arrange
+        PageResponse<StockExchangeDto> page = PageResponse.of(new PageImpl<>(
+                List.of(new StockExchangeDto(1L, "NYSE", "New York", true)), PageRequest.of(0, 5, Sort.by("name")), 1));
+
+        // Act
+        JsonNode json = new ObjectMapper().valueToTree(page);
+
+        // Assert
+        List<String> fields = new ArrayList<>();
+        json.fieldNames().forEachRemaining(fields::add);
+        assertEquals(List.of("content", "number", "size", "totalElements", "totalPages"), fields);
+        assertEquals("NYSE", json.get("content").get(0).get("name").asText());
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.stockexchange.response;
+
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.OneofDescriptorProto;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// descriptors read from src/main/proto/stock_exchange.proto itself, so the converter tests decode with the
+// schema clients generate from and fail when the encoder and the file drift apart. covers what the file
+// uses: messages, scalar and message fields, repeated and oneof
+final class ProtoSchema {
+
+    static final Path FILE = Path.of("src/main/proto/stock_exchange.proto");
+
+    private static final Pattern TOKEN = Pattern.compile("\"[^\"]*\"|[A-Za-z_][\\w.]*|\\d+|[{}=;]");
+    private static final Map<String, FieldDescriptorProto.Type> SCALARS = Map.of(
+            "int32", FieldDescriptorProto.Type.TYPE_INT32,
+            "int64", FieldDescriptorProto.Type.TYPE_INT64,
+            "uint32", FieldDescriptorProto.Type.TYPE_UINT32,
+            "uint64", FieldDescriptorProto.Type.TYPE_UINT64,
+            "bool", FieldDescriptorProto.Type.TYPE_BOOL,
+            "string", FieldDescriptorProto.Type.TYPE_STRING,
+            "bytes", FieldDescriptorProto.Type.TYPE_BYTES,
+            "double", FieldDescriptorProto.Type.TYPE_DOUBLE,
+            "float", FieldDescriptorProto.Type.TYPE_FLOAT);
+
+    private final Descriptors.FileDescriptor file;
+
+    private ProtoSchema(Descriptors.FileDescriptor file) {
+        this.file = file;
+    }
+
+    static ProtoSchema load() {
+        try {
+            return new ProtoSchema(Descriptors.FileDescriptor.buildFrom(
+                    parse(Files.readString(FILE)), new Descriptors.FileDescriptor[0]));
+        } catch (IOException | Descriptors.DescriptorValidationException e) {
+            throw new IllegalStateException("Cannot read " + FILE, e);
+        }
+    }
+
+    // a Response decoded strictly: fields the schema does not know fail the test instead of being skipped
+    DynamicMessage parseResponse(byte[] bytes) throws InvalidProtocolBufferException {
+        DynamicMessage response = DynamicMessage.parseFrom(file.findMessageTypeByName("Response"), bytes);
+        assertKnownFieldsOnly(response);
+        return response;
+    }
+
+    static Object field(Message message, String name) {
+        return message.getField(message.getDescriptorForType().findFieldByName(name));
+    }
+
+    static boolean has(Message message, String name) {
+        return message.hasField(message.getDescriptorForType().findFieldByName(name));
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<Message> repeated(Message message, String name) {
+        return (List<Message>) field(message, name);
+    }
+
+    private static void assertKnownFieldsOnly(Message message) {
+        if (!message.getUnknownFields().asMap().isEmpty()) {
+            throw new AssertionError(message.getDescriptorForType().getName() + " has fields outside the schema: "
+                    + message.getUnknownFields().asMap().keySet());
+        }
+        message.getAllFields().forEach((field, value) -> {
+            if (value instanceof Message nested) {
+                assertKnownFieldsOnly(nested);
+            } else if (value instanceof List<?> values) {
+                values.stream().filter(Message.class::isInstance).map(Message.class::cast)
+                        .forEach(ProtoSchema::assertKnownFieldsOnly);
+            }
+        });
+    }
+
+    private static FileDescriptorProto parse(String source) {
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = TOKEN.matcher(source.replaceAll("//[^\n]*", ""));
+        while (matcher.find()) {
+            tokens.add(matcher.group());
+        }
+        FileDescriptorProto.Builder file = FileDescriptorProto.newBuilder().setName(FILE.getFileName().toString());
+        for (int i = 0; i < tokens.size(); ) {
+            switch (tokens.get(i)) {
+                case "syntax" -> {
+                    file.setSyntax(tokens.get(i + 2).replace("\"", ""));
+                    i += 4;
+                }
+                case "package" -> {
+                    file.setPackage(tokens.get(i + 1));
+                    i += 3;
+                }
+                case "message" -> {
+                    DescriptorProto.Builder message = DescriptorProto.newBuilder().setName(tokens.get(i + 1));
+                    i = fields(tokens, i + 3, message, file.getPackage(), -1);
+                    file.addMessageType(message);
+                }
+                default -> throw new IllegalStateException("Unexpected token " + tokens.get(i) + " in " + FILE);
+            }
+        }
+        return file.build();
+    }
+
+    // reads fields up to the closing brace of the message or oneof, returns the index after it
+    private static int fields(List<String> tokens, int i, DescriptorProto.Builder message, String pkg, int oneof) {
+        while (!tokens.get(i).equals("}")) {
+            if (tokens.get(i).equals("oneof")) {
+                message.addOneofDecl(OneofDescriptorProto.newBuilder().setName(tokens.get(i + 1)));
+                i = fields(tokens, i + 3, message, pkg, message.getOneofDeclCount() - 1);
+                continue;
+            }
+            boolean repeated = tokens.get(i).equals("repeated");
+            if (repeated) {
+                i++;
+            }
+            String type = tokens.get(i);
+            FieldDescriptorProto.Builder field = FieldDescriptorProto.newBuilder()
+                    .setName(tokens.get(i + 1))
+                    .setNumber(Integer.parseInt(tokens.get(i + 3)))
+                    .setLabel(repeated ? FieldDescriptorProto.Label.LABEL_REPEATED : FieldDescriptorProto.Label.LABEL_OPTIONAL);
+            if (SCALARS.containsKey(type)) {
+                field.setType(SCALARS.get(type));
+            } else {
+                field.setType(FieldDescriptorProto.Type.TYPE_MESSAGE).setTypeName("." + pkg + "." + type);
+            }
+            if (oneof >= 0) {
+                field.setOneofIndex(oneof);
+            }
+            message.addField(field);
+            i += 5;
+        }
+        return i + 1;
+    }
+}
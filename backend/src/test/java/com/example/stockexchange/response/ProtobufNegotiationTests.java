@@ -0,0 +1,68 @@
+package com.example.stockexchange.response;
+
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.Message;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static com.example.stockexchange.response.ProtoSchema.field;
+import static com.example.stockexchange.response.ProtoSchema.repeated;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Accept: application/x-protobuf end to end, decoded with the schema of src/main/proto
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sqlbudget;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.sql.init.mode=always",
+        "app.sql-monitor.fail-on-violation=true",
+        "app.gateway.port=0",
+        "app.journal.enabled=false",
+        "app.warm-up.enabled=false"
+})
+@AutoConfigureMockMvc
+@WithMockUser(roles = "USER")
+@DisplayName("Protobuf Negotiation Tests")
+class ProtobufNegotiationTests {
+
+    private static final ProtoSchema SCHEMA = ProtoSchema.load();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Should serve a page of stocks as protobuf")
+    void getAllStocks_Protobuf() throws Exception {
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/v1/stock").param("size", "3")
+                        .accept(ApiRespondProtobufConverter.APPLICATION_PROTOBUF))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Assert
+        DynamicMessage response = SCHEMA.parseResponse(result.getResponse().getContentAsByteArray());
+        Message page = (Message) field(response, "page");
+        assertEquals(200, field(response, "status"));
+        assertEquals(3, repeated(page, "stocks").size());
+    }
+
+    @Test
+    @DisplayName("Should answer 406 for data without a protobuf schema")
+    void searchStocks_NotAcceptable() throws Exception {
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/v1/stock/search").param("q", "apple")
+                        .accept(ApiRespondProtobufConverter.APPLICATION_PROTOBUF))
+                .andExpect(status().isNotAcceptable())
+                .andReturn();
+
+        // Assert
+        DynamicMessage response = SCHEMA.parseResponse(result.getResponse().getContentAsByteArray());
+        assertEquals(406, field(response, "status"));
+    }
+}
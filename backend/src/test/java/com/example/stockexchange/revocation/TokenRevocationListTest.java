@@ -0,0 +1,128 @@
+package com.example.stockexchange.revocation;
+
+import com.example.stockexchange.Stub;
+import com.example.stockexchange.entity.RefreshToken;
+import com.example.stockexchange.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TokenRevocationList Tests")
+class TokenRevocationListTest {
+
+    private static final long ACCESS_EXPIRATION = 900_000;
+
+    private final List<RefreshToken> stored = new ArrayList<>();
+    private final List<Instant> syncedFrom = new ArrayList<>();
+
+    @Test
+    @DisplayName("Should report revoked tokens only")
+    void isRevoked_RevokedOnly() {
+        // Arrange
+        TokenRevocationList list = revocationList(100);
+
+        // Act
+        list.revoke("revoked", Instant.now().plusSeconds(60));
+
+        // Assert
+        assertTrue(list.isRevoked("revoked"));
+        assertFalse(list.isRevoked("other"));
+        assertFalse(list.isRevoked(null));
+    }
+
+    @Test
+    @DisplayName("Should not list a token that has already expired")
+    void revoke_AlreadyExpired() {
+        // Arrange
+        TokenRevocationList list = revocationList(100);
+
+        // Act
+        list.revoke("expired", Instant.now().minusSeconds(1));
+
+        // Assert
+        assertFalse(list.isRevoked("expired"));
+        assertEquals(0, list.size());
+    }
+
+    @Test
+    @DisplayName("Should keep finding every token after outgrowing the filter")
+    void revoke_BeyondCapacity() {
+        // Arrange
+        TokenRevocationList list = revocationList(10);
+        Instant expiresAt = Instant.now().plusSeconds(60);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            list.revoke("token-" + i, expiresAt);
+        }
+
+        // Assert
+        for (int i = 0; i < 100; i++) {
+            assertTrue(list.isRevoked("token-" + i));
+        }
+        assertEquals(100, list.size());
+    }
+
+    @Test
+    @DisplayName("Should drop expired tokens on sweep and keep the others")
+    void sweep_DropsExpired() throws InterruptedException {
+        // Arrange
+        TokenRevocationList list = revocationList(100);
+        list.revoke("short", Instant.now().plusMillis(20));
+        list.revoke("long", Instant.now().plusSeconds(60));
+        Thread.sleep(50);
+
+        // Act
+        list.sweep();
+
+        // Assert
+        assertFalse(list.isRevoked("short"));
+        assertTrue(list.isRevoked("long"));
+        assertEquals(1, list.size());
+    }
+
+    @Test
+    @DisplayName("Should pick up revocations written by any instance, from where the last sync started")
+    void sync_ReadsStoredRevocations() {
+        // Arrange
+        TokenRevocationList list = revocationList(100);
+        stored.add(revokedToken("access-1"));
+        stored.add(revokedToken("access-2"));
+
+        // Act
+        list.sync();
+        list.sync();
+
+        // Assert
+        assertTrue(list.isRevoked("access-1"));
+        assertTrue(list.isRevoked("access-2"));
+        assertEquals(2, list.size());
+        assertTrue(syncedFrom.get(0).isBefore(Instant.now().minusMillis(ACCESS_EXPIRATION - 1000)));
+        assertTrue(syncedFrom.get(1).isAfter(syncedFrom.get(0)));
+    }
+
+    private TokenRevocationList revocationList(int expectedRevocations) {
+        RefreshTokenRepository repository = Stub.of(RefreshTokenRepository.class)
+                .answer("findByRevokedAtGreaterThanEqualAndAccessExpiresAtAfter", args -> {
+                    syncedFrom.add((Instant) args[0]);
+                    return stored;
+                })
+                .get();
+        return new TokenRevocationList(repository, new SimpleMeterRegistry(), ACCESS_EXPIRATION,
+                expectedRevocations, 0.01);
+    }
+
+    private static RefreshToken revokedToken(String accessTokenId) {
+        RefreshToken token = new RefreshToken();
+        token.setAccessTokenId(accessTokenId);
+        token.setAccessExpiresAt(Instant.now().plusSeconds(600));
+        token.setRevokedAt(Instant.now());
+        return token;
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.stockexchange.risk;
+
+import com.example.stockexchange.engine.AmendOrder;
+import com.example.stockexchange.engine.BookDrop;
+import com.example.stockexchange.engine.BookSnapshot;
+import com.example.stockexchange.engine.CancelOrder;
+import com.example.stockexchange.engine.ExecutionReport;
+import com.example.stockexchange.engine.ExecutionStatus;
+import com.example.stockexchange.engine.NewOrder;
+import com.example.stockexchange.engine.OrderType;
+import com.example.stockexchange.engine.Positions;
+import com.example.stockexchange.engine.RejectReason;
+import com.example.stockexchange.engine.Side;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RiskBook Tests")
+class RiskBookTest {
+
+    private static final long EXCHANGE = 1;
+    private static final long STOCK = 10;
+    private static final long ALICE = 1;
+    private static final long BOB = 2;
+
+    // 10_000 notional in ticks, 3 open orders, 100 shares
+    private static final RiskLimits DEFAULTS = new RiskLimits(10_000 * 10_000L, 3, 100);
+
+    private RiskBook book;
+
+    @BeforeEach
+    void setUp() {
+        book = new RiskBook(DEFAULTS, (notional, openOrders, position) -> {
+        });
+    }
+
+    private static NewOrder limit(long orderId, long ownerId, Side side, long price, long quantity) {
+        return new NewOrder(orderId, EXCHANGE, STOCK, ownerId, side, OrderType.LIMIT, price * 10_000, quantity);
+    }
+
+    private static ExecutionReport rested(long orderId, long remaining) {
+        return new ExecutionReport(orderId, ExecutionStatus.ACCEPTED, 0, remaining, List.of(), null);
+    }
+
+    private UserExposure.StockExposure stock(long userId) {
+        return book.exposure(userId).stocks().get(0);
+    }
+
+    @Nested
+    @DisplayName("Limit Tests")
+    class LimitTests {
+
+        @Test
+        @DisplayName("Should reject an order above the max order notional")
+        void check_OrderNotional() {
+            // Act & Assert
+            assertEquals(RejectReason.RISK_ORDER_NOTIONAL, book.check(limit(1, ALICE, Side.BUY, 101, 100)));
+            assertNull(book.check(limit(2, ALICE, Side.BUY, 100, 100)));
+        }
+
+        @Test
+        @DisplayName("Should value market orders at the reference price")
+        void check_MarketOrderNotional() {
+            // Arrange
+            book.setReferencePrice(STOCK, 200 * 10_000L);
+
+            // Act
+            RejectReason reason = book.check(new NewOrder(1, EXCHANGE, STOCK, ALICE, Side.BUY, OrderType.MARKET, 0, 60));
+
+            // Assert
+            assertEquals(RejectReason.RISK_ORDER_NOTIONAL, reason);
+        }
+
+        @Test
+        @DisplayName("Should reject an order beyond the max open orders until one is gone")
+        void check_OpenOrders() {
+            // Arrange
+            for (long orderId = 1; orderId <= 3; orderId++) {
+                assertNull(book.check(limit(orderId, ALICE, Side.BUY, 10, 1)));
+                book.settle(limit(orderId, ALICE, Side.BUY, 10, 1), rested(orderId, 1));
+            }
+
+            // Act
+            RejectReason full = book.check(limit(4, ALICE, Side.BUY, 10, 1));
+            CancelOrder cancel = new CancelOrder(1, EXCHANGE, STOCK, ALICE);
+            book.settle(cancel, new ExecutionReport(1, ExecutionStatus.CANCELLED, 0, 0, List.of(), null));
+
+            // Assert
+            assertEquals(RejectReason.RISK_OPEN_ORDERS, full);
+            assertNull(book.check(limit(5, ALICE, Side.BUY, 10, 1)));
+            assertNull(book.check(limit(6, BOB, Side.BUY, 10, 1)));
+        }
+
+        @Test
+        @DisplayName("Should count open orders at their worst case against the max position")
+        void check_PositionIncludesOpenOrders() {
+            // Arrange
+            assertNull(book.check(limit(1, ALICE, Side.BUY, 10, 60)));
+
+            // Act & Assert
+            assertEquals(RejectReason.RISK_POSITION, book.check(limit(2, ALICE, Side.BUY, 10, 50)));
+            assertNull(book.check(limit(3, ALICE, Side.SELL, 10, 100)));
+        }
+
+        @Test
+        @DisplayName("Should apply per-user limits instead of the defaults")
+        void check_UserLimits() {
+            // Arrange
+            book.setLimits(ALICE, new RiskLimits(DEFAULTS.maxOrderNotional(), 3, 500));
+
+            // Act & Assert
+            assertNull(book.check(limit(1, ALICE, Side.BUY, 1, 400)));
+            assertEquals(RejectReason.RISK_POSITION, book.check(limit(2, BOB, Side.BUY, 1, 400)));
+            assertEquals(500, book.exposure(ALICE).limits().maxPosition());
+        }
+    }
+
+    @Nested
+    @DisplayName("Settlement Tests")
+    class SettlementTests {
+
+        @Test
+        @DisplayName("Should move fills of taker and maker from open quantity into their positions")
+        void settle_Fill() {
+            // Arrange
+            NewOrder sell = limit(1, ALICE, Side.SELL, 10, 40);
+            book.check(sell);
+            book.settle(sell, rested(1, 40));
+            NewOrder buy = limit(2, BOB, Side.BUY, 10, 30);
+            book.check(buy);
+
+            // Act
+            book.settle(buy, new ExecutionReport(2, ExecutionStatus.FILLED, 30, 0,
+                    List.of(new ExecutionReport.Fill(1, 10 * 10_000, 30)), null));
+
+            // Assert
+            assertEquals(-30, stock(ALICE).position());
+            assertEquals(10, stock(ALICE).openSell());
+            assertEquals(1, book.exposure(ALICE).openOrders());
+            assertEquals(30, stock(BOB).position());
+            assertEquals(0, stock(BOB).openBuy());
+            assertEquals(0, book.exposure(BOB).openOrders());
+        }
+
+        @Test
+        @DisplayName("Should release what a rejected new order reserved")
+        void settle_RejectedNewOrder() {
+            // Arrange
+            NewOrder order = limit(1, ALICE, Side.BUY, 10, 40);
+            book.check(order);
+
+            // Act
+            book.settle(order, ExecutionReport.rejected(1, RejectReason.NOT_TRADABLE));
+
+            // Assert
+            assertEquals(0, stock(ALICE).openBuy());
+            assertEquals(0, book.openOrderCount());
+        }
+
+        @Test
+        @DisplayName("Should reserve an amend increase right away and release a decrease once applied")
+        void checkAndSettle_Amend() {
+            // Arrange
+            NewOrder order = limit(1, ALICE, Side.BUY, 10, 40);
+            book.check(order);
+            book.settle(order, rested(1, 40));
+
+            // Act
+            AmendOrder up = new AmendOrder(1, EXCHANGE, STOCK, ALICE, 10 * 10_000, 90);
+            RejectReason upReason = book.check(up);
+            long reservedBeforeReport = stock(ALICE).openBuy();
+            book.settle(up, rested(1, 90));
+            AmendOrder tooFar = new AmendOrder(1, EXCHANGE, STOCK, ALICE, 10 * 10_000, 120);
+            RejectReason tooFarReason = book.check(tooFar);
+            AmendOrder down = new AmendOrder(1, EXCHANGE, STOCK, ALICE, 10 * 10_000, 20);
+            book.check(down);
+            long reservedBeforeDecrease = stock(ALICE).openBuy();
+            book.settle(down, rested(1, 20));
+
+            // Assert
+            assertNull(upReason);
+            assertEquals(90, reservedBeforeReport);
+            assertEquals(RejectReason.RISK_POSITION, tooFarReason);
+            assertEquals(90, reservedBeforeDecrease);
+            assertEquals(20, stock(ALICE).openBuy());
+        }
+
+        @Test
+        @DisplayName("Should keep an order reserved when its amend is rejected by the book")
+        void settle_RejectedAmendKeepsOrder() {
+            // Arrange
+            NewOrder order = limit(1, ALICE, Side.BUY, 10, 40);
+            book.check(order);
+            book.settle(order, rested(1, 40));
+            AmendOrder amend = new AmendOrder(1, EXCHANGE, STOCK, ALICE, 10 * 10_000, 50);
+            book.check(amend);
+
+            // Act
+            book.settle(amend, ExecutionReport.rejected(1, RejectReason.INVALID_PRICE));
+
+            // Assert
+            assertEquals(1, book.openOrderCount());
+        }
+    }
+
+    @Nested
+    @DisplayName("Recovery Tests")
+    class RecoveryTests {
+
+        @Test
+        @DisplayName("Should rebuild open orders from recovered books")
+        void restore_RestingOrders() {
+            // Arrange
+            long[] resting = {
+                    1, ALICE, Side.BUY.ordinal(), 10 * 10_000, 70,
+                    2, BOB, Side.SELL.ordinal(), 11 * 10_000, 5};
+
+            // Act
+            book.restore(List.of(new BookSnapshot(EXCHANGE, STOCK, 0, resting)), new Positions());
+
+            // Assert
+            assertEquals(2, book.openOrderCount());
+            assertEquals(70, stock(ALICE).openBuy());
+            assertEquals(RejectReason.RISK_POSITION, book.check(limit(3, ALICE, Side.BUY, 10, 40)));
+        }
+
+        @Test
+        @DisplayName("Should keep filled positions through a restart")
+        void restore_Positions() {
+            // Arrange
+            NewOrder sell = limit(1, BOB, Side.SELL, 10, 80);
+            book.check(sell);
+            book.settle(sell, rested(1, 80));
+            NewOrder buy = limit(2, ALICE, Side.BUY, 10, 80);
+            book.check(buy);
+            book.settle(buy, new ExecutionReport(2, ExecutionStatus.FILLED, 80, 0,
+                    List.of(new ExecutionReport.Fill(1, 10 * 10_000, 80)), null));
+            Positions positions = book.positions();
+            RiskBook restarted = new RiskBook(DEFAULTS, (notional, openOrders, position) -> {
+            });
+
+            // Act
+            restarted.restore(List.of(), positions);
+
+            // Assert
+            assertEquals(80, restarted.exposure(ALICE).stocks().get(0).position());
+            assertEquals(-80, restarted.exposure(BOB).stocks().get(0).position());
+            assertEquals(RejectReason.RISK_POSITION, restarted.check(limit(3, ALICE, Side.BUY, 10, 21)));
+            assertNull(restarted.check(limit(4, ALICE, Side.BUY, 10, 20)));
+        }
+
+        @Test
+        @DisplayName("Should release the orders of dropped books")
+        void drop_ReleasesOrders() {
+            // Arrange
+            NewOrder order = limit(1, ALICE, Side.BUY, 10, 40);
+            book.check(order);
+            book.settle(order, rested(1, 40));
+
+            // Act
+            book.drop(BookDrop.stock(STOCK));
+
+            // Assert
+            assertEquals(0, book.openOrderCount());
+            assertEquals(0, stock(ALICE).openBuy());
+            assertEquals(0, book.exposure(ALICE).openOrders());
+        }
+    }
+}
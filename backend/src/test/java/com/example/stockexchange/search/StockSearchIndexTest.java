@@ -0,0 +1,275 @@
+package com.example.stockexchange.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StockSearchIndex Tests")
+class StockSearchIndexTest {
+
+    private StockSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new StockSearchIndex();
+        index.add(1L, "Apple Inc.", "Technology company specializing in consumer electronics");
+        index.add(2L, "Microsoft Corporation", "Technology company developing computer software and services");
+        index.add(3L, "Amazon.com Inc.", "E-commerce and cloud computing company");
+        index.add(4L, "Applied Materials", "Semiconductor equipment manufacturer");
+    }
+
+    private List<Long> ids(List<StockSearchIndex.Hit> hits) {
+        return hits.stream().map(StockSearchIndex.Hit::stockId).toList();
+    }
+
+    @Nested
+    @DisplayName("Prefix Search Tests")
+    class PrefixSearchTests {
+
+        @Test
+        @DisplayName("Should match name prefixes case-insensitively")
+        void search_CaseInsensitivePrefix() {
+            // Act
+            List<StockSearchIndex.Hit> hits = index.search("APPL", 10, null);
+
+            // Assert
+            assertEquals(List.of(1L, 4L), ids(hits));
+        }
+
+        @Test
+        @DisplayName("Should rank an exact name match above a prefix match")
+        void search_ExactNameFirst() {
+            // Act
+            List<StockSearchIndex.Hit> hits = index.search("apple inc", 10, null);
+
+            // Assert
+            assertEquals(1L, hits.get(0).stockId());
+        }
+
+        @Test
+        @DisplayName("Should rank name matches above description matches")
+        void search_NameAboveDescription() {
+            // Arrange
+            index.add(5L, "Cloudflare", "Web infrastructure company");
+
+            // Act
+            List<StockSearchIndex.Hit> hits = index.search("cloud", 10, null);
+
+            // Assert
+            assertEquals(List.of(5L, 3L), ids(hits));
+        }
+
+        @Test
+        @DisplayName("Should require every query term to match")
+        void search_AllTermsMustMatch() {
+            // Act
+            List<StockSearchIndex.Hit> hits = index.search("technology software", 10, null);
+
+            // Assert
+            assertEquals(List.of(2L), ids(hits));
+        }
+
+        @Test
+        @DisplayName("Should honour the result limit")
+        void search_Limit() {
+            // Act
+            List<StockSearchIndex.Hit> hits = index.search("company", 2, null);
+
+            // Assert
+            assertEquals(2, hits.size());
+        }
+
+        @Test
+        @DisplayName("Should return nothing for a blank query")
+        void search_BlankQuery() {
+            assertTrue(index.search("  ", 10, null).isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Typo Tolerance Tests")
+    class TypoToleranceTests {
+
+        @Test
+        @DisplayName("Should find a name with a transposed letter")
+        void search_Transposition() {
+            // Act
+            List<StockSearchIndex.Hit> hits = index.search("amzaon", 10, null);
+
+            // Assert
+            assertEquals(List.of(3L), ids(hits));
+        }
+
+        @Test
+        @DisplayName("Should find a name from a misspelled prefix")
+        void search_MisspelledPrefix() {
+            // Act
+            List<StockSearchIndex.Hit> hits = index.search("mircos", 10, null);
+
+            // Assert
+            assertEquals(List.of(2L), ids(hits));
+        }
+
+        @Test
+        @DisplayName("Should not correct very short terms")
+        void search_ShortTermsAreExact() {
+            assertTrue(index.search("xpp", 10, null).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should compute a bounded edit distance")
+        void editDistance_Bounded() {
+            assertEquals(1, StockSearchIndex.editDistance("amazon", "amzaon", 2));
+            assertEquals(2, StockSearchIndex.editDistance("apple", "ample", 1) + 1);
+            assertEquals(3, StockSearchIndex.editDistance("tesla", "nvidia", 2));
+        }
+    }
+
+    @Nested
+    @DisplayName("Maintenance Tests")
+    class MaintenanceTests {
+
+        @Test
+        @DisplayName("Should apply the filter to every candidate")
+        void search_Filter() {
+            // Act
+            List<StockSearchIndex.Hit> hits = index.search("appl", 10, stockId -> stockId == 4L);
+
+            // Assert
+            assertEquals(List.of(4L), ids(hits));
+        }
+
+        @Test
+        @DisplayName("Should find every stock of a small scope, however many stocks match the query")
+        void searchWithin_ScopeBeyondCommonTerm() {
+            // Arrange
+            for (long id = 100; id < 6_100; id++) {
+                index.add(id, "Fund " + id, "Index fund");
+            }
+            Set<Long> listed = LongStream.range(6_090, 6_100).boxed().collect(Collectors.toSet());
+
+            // Act
+            List<StockSearchIndex.Hit> hits = index.searchWithin("fund", 50, listed);
+
+            // Assert
+            assertEquals(10, hits.size());
+        }
+
+        @Test
+        @DisplayName("Should walk a large scope through the postings")
+        void searchWithin_LargeScope() {
+            // Arrange
+            Set<Long> listed = LongStream.range(0, 10_000).boxed().collect(Collectors.toSet());
+
+            // Act
+            List<StockSearchIndex.Hit> hits = index.searchWithin("appl", 10, listed);
+
+            // Assert
+            assertEquals(List.of(1L, 4L), ids(hits));
+        }
+
+        @Test
+        @DisplayName("Should find the stocks of a scope larger than the candidate budget behind other matches")
+        void searchWithin_ScopeBeyondBudget() {
+            // Arrange
+            for (long id = 100; id < 20_100; id++) {
+                index.add(id, "Fund " + id, "Index fund");
+            }
+            Set<Long> listed = LongStream.range(17_100, 20_100).boxed().collect(Collectors.toSet());
+
+            // Act
+            List<StockSearchIndex.Hit> hits = index.searchWithin("fund", 10, listed);
+
+            // Assert
+            assertTrue(listed.size() > StockSearchIndex.MAX_CANDIDATES);
+            assertEquals(10, hits.size());
+            assertTrue(listed.containsAll(ids(hits)));
+        }
+
+        @Test
+        @DisplayName("Should look at no more than the candidate budget for a one-letter prefix")
+        void search_ShortPrefixBounded() {
+            // Arrange
+            for (long id = 100; id < 20_100; id++) {
+                index.add(id, "Fund " + id, "Index fund");
+            }
+            AtomicInteger filtered = new AtomicInteger();
+
+            // Act
+            List<StockSearchIndex.Hit> hits = index.search("f", 10, stockId -> filtered.incrementAndGet() > 0);
+
+            // Assert
+            assertEquals(10, hits.size());
+            assertTrue(filtered.get() <= StockSearchIndex.MAX_CANDIDATES);
+        }
+
+        @Test
+        @DisplayName("Should skip typo expansion once prefix matches fill the limit")
+        void search_NoFuzzyWhenLimitFilled() {
+            // Arrange
+            for (long id = 100; id < 120; id++) {
+                index.add(id, "Microcap " + id, "Small company fund");
+            }
+            index.add(999L, "Mikro Holdings", "Holding company");
+            AtomicInteger fuzzyOffered = new AtomicInteger();
+
+            // Act
+            List<StockSearchIndex.Hit> hits = index.search("micro", 10, stockId -> {
+                if (stockId == 999L) {
+                    fuzzyOffered.incrementAndGet();
+                }
+                return true;
+            });
+
+            // Assert
+            assertEquals(10, hits.size());
+            assertEquals(0, fuzzyOffered.get());
+        }
+
+        @Test
+        @DisplayName("Should still correct typos when the prefix alone matches many stocks")
+        void search_FuzzyBesidesManyPrefixMatches() {
+            // Arrange
+            for (long id = 100; id < 300; id++) {
+                index.add(id, "Microcap " + id, "Small company fund");
+            }
+            index.add(999L, "Mikro Holdings", "Holding company");
+
+            // Act
+            List<StockSearchIndex.Hit> hits = index.search("micro", 10, stockId -> stockId == 999L);
+
+            // Assert
+            assertEquals(List.of(999L), ids(hits));
+        }
+
+        @Test
+        @DisplayName("Should stop returning removed stocks")
+        void remove_Stock() {
+            // Act
+            index.remove(4L);
+
+            // Assert
+            assertEquals(List.of(1L), ids(index.search("appl", 10, null)));
+            assertEquals(3, index.size());
+        }
+
+        @Test
+        @DisplayName("Should find stocks added after the initial load")
+        void add_Stock() {
+            // Act
+            index.add(6L, "Tesla Inc.", "Electric vehicle company");
+
+            // Assert
+            assertEquals(List.of(6L), ids(index.search("tesl", 10, null)));
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.example.stockexchange.service;
 
+import com.example.stockexchange.Stub;
 import com.example.stockexchange.entity.Authority;
+import com.example.stockexchange.entity.RefreshToken;
 import com.example.stockexchange.entity.User;
-import com.example.stockexchange.entity.UserCredintials;
 import com.example.stockexchange.exception.InvalidCredentialException;
+import com.example.stockexchange.exception.PasswordHashingBusyException;
 import com.example.stockexchange.repository.UserRepository;
 import com.example.stockexchange.request.AuthenticationRequest;
 import com.example.stockexchange.request.RegisterRequest;
@@ -12,40 +14,25 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.*;
 
-@ExtendWith(MockitoExtension.class)
 @DisplayName("AuthenticationService Tests")
 class AuthenticationServiceTest {
 
-    @Mock
-    private UserRepository userRepository;
+    private final Stub<UserRepository> userRepository = Stub.of(UserRepository.class);
+    private final Stub<PasswordEncoder> passwordEncoder = Stub.of(PasswordEncoder.class);
+    private final FakeJwtService jwtService = new FakeJwtService();
+    private final FakeRefreshTokenService refreshTokenService = new FakeRefreshTokenService();
 
-    @Mock
-    private PasswordEncoder passwordEncoder;
-
-    @Mock
-    private AuthenticationManager authenticationManager;
-
-    @Mock
-    private JwtService jwtService;
-
-    @InjectMocks
     private AuthenticationService authenticationService;
 
     private RegisterRequest registerRequest;
@@ -54,6 +41,10 @@ class AuthenticationServiceTest {
 
     @BeforeEach
     void setUp() {
+        authenticationService = new AuthenticationService(userRepository.get(), passwordEncoder.get(), jwtService,
+                refreshTokenService);
+        userRepository.answer("save", args -> args[0]);
+        passwordEncoder.returns("upgradeEncoding", false);
 
         registerRequest = new RegisterRequest();
         registerRequest.setFirstName("John");
@@ -76,6 +67,14 @@ class AuthenticationServiceTest {
         user.setAuthorities(List.of(new Authority("ROLE_USER")));
     }
 
+    private static JwtService.AccessToken accessToken(String value) {
+        return new JwtService.AccessToken(value, "access-token-id", Instant.now().plusSeconds(900));
+    }
+
+    private User savedUser() {
+        return userRepository.<User>arguments("save").get(0);
+    }
+
     @Nested
     @DisplayName("Register Tests")
     class RegisterTests {
@@ -84,25 +83,24 @@ class AuthenticationServiceTest {
         @DisplayName("Should register new user successfully")
         void register_Success() {
             // Arrange
-            when(userRepository.findByEmail(registerRequest.getEmail())).thenReturn(Optional.empty());
-            when(userRepository.count()).thenReturn(1L); // Not first user
-            when(passwordEncoder.encode(registerRequest.getPassword())).thenReturn("encodedPassword");
-            when(userRepository.save(any(User.class))).thenReturn(user);
+            userRepository.returns("findByEmail", Optional.empty());
+            userRepository.returns("count", 1L); // Not first user
+            passwordEncoder.returns("encode", "encodedPassword");
 
             // Act
             assertDoesNotThrow(() -> authenticationService.register(registerRequest));
 
             // Assert
-            verify(userRepository).findByEmail(registerRequest.getEmail());
-            verify(passwordEncoder).encode(registerRequest.getPassword());
-            verify(userRepository).save(any(User.class));
+            assertEquals(List.of(registerRequest.getEmail()), userRepository.arguments("findByEmail"));
+            assertEquals(List.of(registerRequest.getPassword()), passwordEncoder.arguments("encode"));
+            assertEquals(1, userRepository.count("save"));
         }
 
         @Test
         @DisplayName("Should throw exception when email already taken")
         void register_EmailAlreadyTaken() {
             // Arrange
-            when(userRepository.findByEmail(registerRequest.getEmail())).thenReturn(Optional.of(user));
+            userRepository.returns("findByEmail", Optional.of(user));
 
             // Act & Assert
             RuntimeException exception = assertThrows(
@@ -112,87 +110,82 @@ class AuthenticationServiceTest {
 
             assertEquals("Email already taken", exception.getMessage());
 
-            verify(userRepository).findByEmail(registerRequest.getEmail());
-            verify(userRepository, never()).save(any(User.class));
-            verify(passwordEncoder, never()).encode(anyString());
+            assertEquals(List.of(registerRequest.getEmail()), userRepository.arguments("findByEmail"));
+            assertEquals(0, userRepository.count("save"));
+            assertEquals(0, passwordEncoder.count("encode"));
         }
 
         @Test
         @DisplayName("Should assign ROLE_USER to new user")
         void register_AssignsUserRole() {
             // Arrange
-            when(userRepository.findByEmail(registerRequest.getEmail())).thenReturn(Optional.empty());
-            when(userRepository.count()).thenReturn(1L); // Not first user
-            when(passwordEncoder.encode(registerRequest.getPassword())).thenReturn("encodedPassword");
+            userRepository.returns("findByEmail", Optional.empty());
+            userRepository.returns("count", 1L); // Not first user
+            passwordEncoder.returns("encode", "encodedPassword");
 
             // Act
             authenticationService.register(registerRequest);
 
             // Assert
-            verify(userRepository).save(argThat(savedUser -> {
-                boolean hasUserRole = savedUser.getAuthorities().stream()
-                        .anyMatch(auth -> auth.getAuthority().equals("ROLE_USER"));
-                return hasUserRole && savedUser.getAuthorities().size() == 1;
-            }));
+            User savedUser = savedUser();
+            assertEquals(1, savedUser.getAuthorities().size());
+            assertTrue(savedUser.getAuthorities().stream()
+                    .anyMatch(auth -> auth.getAuthority().equals("ROLE_USER")));
         }
 
         @Test
         @DisplayName("Should assign ROLE_USER and ROLE_ADMIN to first user")
         void register_FirstUserGetsAdminRole() {
             // Arrange
-            when(userRepository.findByEmail(registerRequest.getEmail())).thenReturn(Optional.empty());
-            when(userRepository.count()).thenReturn(0L); // First user
-            when(passwordEncoder.encode(registerRequest.getPassword())).thenReturn("encodedPassword");
+            userRepository.returns("findByEmail", Optional.empty());
+            userRepository.returns("count", 0L); // First user
+            passwordEncoder.returns("encode", "encodedPassword");
 
             // Act
             authenticationService.register(registerRequest);
 
             // Assert
-            verify(userRepository).save(argThat(savedUser -> {
-                boolean hasUserRole = savedUser.getAuthorities().stream()
-                        .anyMatch(auth -> auth.getAuthority().equals("ROLE_USER"));
-                boolean hasAdminRole = savedUser.getAuthorities().stream()
-                        .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN"));
-                return hasUserRole && hasAdminRole && savedUser.getAuthorities().size() == 2;
-            }));
+            User savedUser = savedUser();
+            assertEquals(2, savedUser.getAuthorities().size());
+            assertTrue(savedUser.getAuthorities().stream()
+                    .anyMatch(auth -> auth.getAuthority().equals("ROLE_USER")));
+            assertTrue(savedUser.getAuthorities().stream()
+                    .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN")));
         }
 
         @Test
         @DisplayName("Should encode password before saving")
         void register_EncodesPassword() {
             // Arrange
-            when(userRepository.findByEmail(registerRequest.getEmail())).thenReturn(Optional.empty());
-            when(userRepository.count()).thenReturn(1L);
-            when(passwordEncoder.encode(registerRequest.getPassword())).thenReturn("encodedPassword123");
+            userRepository.returns("findByEmail", Optional.empty());
+            userRepository.returns("count", 1L);
+            passwordEncoder.returns("encode", "encodedPassword123");
 
             // Act
             authenticationService.register(registerRequest);
 
             // Assert
-            verify(passwordEncoder).encode("password123");
-            verify(userRepository).save(argThat(savedUser ->
-                    savedUser.getPassword().equals("encodedPassword123")
-            ));
+            assertEquals(List.of("password123"), passwordEncoder.arguments("encode"));
+            assertEquals("encodedPassword123", savedUser().getPassword());
         }
 
         @Test
         @DisplayName("Should save user with correct details")
         void register_SavesCorrectUserDetails() {
             // Arrange
-            when(userRepository.findByEmail(registerRequest.getEmail())).thenReturn(Optional.empty());
-            when(userRepository.count()).thenReturn(1L);
-            when(passwordEncoder.encode(registerRequest.getPassword())).thenReturn("encodedPassword");
+            userRepository.returns("findByEmail", Optional.empty());
+            userRepository.returns("count", 1L);
+            passwordEncoder.returns("encode", "encodedPassword");
 
             // Act
             authenticationService.register(registerRequest);
 
             // Assert
-            verify(userRepository).save(argThat(savedUser ->
-                    savedUser.getFirstName().equals("John") &&
-                            savedUser.getLastName().equals("Doe") &&
-                            savedUser.getEmail().equals("john.doe@example.com") &&
-                            savedUser.getPassword().equals("encodedPassword")
-            ));
+            User savedUser = savedUser();
+            assertEquals("John", savedUser.getFirstName());
+            assertEquals("Doe", savedUser.getLastName());
+            assertEquals("john.doe@example.com", savedUser.getEmail());
+            assertEquals("encodedPassword", savedUser.getPassword());
         }
 
         @Test
@@ -202,18 +195,17 @@ class AuthenticationServiceTest {
             registerRequest.setFirstName("José");
             registerRequest.setLastName("O'Brien");
 
-            when(userRepository.findByEmail(registerRequest.getEmail())).thenReturn(Optional.empty());
-            when(userRepository.count()).thenReturn(1L);
-            when(passwordEncoder.encode(registerRequest.getPassword())).thenReturn("encodedPassword");
+            userRepository.returns("findByEmail", Optional.empty());
+            userRepository.returns("count", 1L);
+            passwordEncoder.returns("encode", "encodedPassword");
 
             // Act
             assertDoesNotThrow(() -> authenticationService.register(registerRequest));
 
             // Assert
-            verify(userRepository).save(argThat(savedUser ->
-                    savedUser.getFirstName().equals("José") &&
-                            savedUser.getLastName().equals("O'Brien")
-            ));
+            User savedUser = savedUser();
+            assertEquals("José", savedUser.getFirstName());
+            assertEquals("O'Brien", savedUser.getLastName());
         }
 
         @Test
@@ -222,16 +214,16 @@ class AuthenticationServiceTest {
             // Arrange
             registerRequest.setEmail("john+test@example.com");
 
-            when(userRepository.findByEmail("john+test@example.com")).thenReturn(Optional.empty());
-            when(userRepository.count()).thenReturn(1L);
-            when(passwordEncoder.encode(registerRequest.getPassword())).thenReturn("encodedPassword");
+            userRepository.returns("findByEmail", Optional.empty());
+            userRepository.returns("count", 1L);
+            passwordEncoder.returns("encode", "encodedPassword");
 
             // Act
             assertDoesNotThrow(() -> authenticationService.register(registerRequest));
 
             // Assert
-            verify(userRepository).findByEmail("john+test@example.com");
-            verify(userRepository).save(any(User.class));
+            assertEquals(List.of("john+test@example.com"), userRepository.arguments("findByEmail"));
+            assertEquals(1, userRepository.count("save"));
         }
     }
 
@@ -245,12 +237,9 @@ class AuthenticationServiceTest {
             // Arrange
             String expectedToken = "jwt.token.here";
 
-            when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                    .thenReturn(null);
-            when(userRepository.findByEmail(authenticationRequest.getEmail()))
-                    .thenReturn(Optional.of(user));
-            when(jwtService.generateToken(any(), any(UserCredintials.class)))
-                    .thenReturn(expectedToken);
+            userRepository.returns("findByEmail", Optional.of(user));
+            passwordEncoder.returns("matches", true);
+            jwtService.accessToken = accessToken(expectedToken);
 
             // Act
             AuthenticationResponse response = authenticationService.login(authenticationRequest);
@@ -259,19 +248,18 @@ class AuthenticationServiceTest {
             assertNotNull(response);
             assertEquals(expectedToken, response.getToken());
 
-            verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-            verify(userRepository).findByEmail(authenticationRequest.getEmail());
-            verify(jwtService).generateToken(any(), any(UserCredintials.class));
+            assertEquals(List.of(authenticationRequest.getEmail()), userRepository.arguments("findByEmail"));
+            assertArrayEquals(new Object[]{"password123", "encodedPassword"}, passwordEncoder.calls("matches").get(0));
+            assertEquals(1, jwtService.issuedFor.size());
         }
 
         @Test
-        @DisplayName("Should throw exception when email not found")
+        @DisplayName("Should throw exception when email not found, after checking a hash all the same")
         void login_EmailNotFound() {
             // Arrange
-            when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                    .thenReturn(null);
-            when(userRepository.findByEmail(authenticationRequest.getEmail()))
-                    .thenReturn(Optional.empty());
+            userRepository.returns("findByEmail", Optional.empty());
+            passwordEncoder.returns("encode", "unknownUserHash");
+            passwordEncoder.returns("matches", false);
 
             // Act & Assert
             InvalidCredentialException exception = assertThrows(
@@ -281,17 +269,17 @@ class AuthenticationServiceTest {
 
             assertEquals("Invalid email or password", exception.getMessage());
 
-            verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-            verify(userRepository).findByEmail(authenticationRequest.getEmail());
-            verify(jwtService, never()).generateToken(any(), any());
+            assertEquals(List.of(authenticationRequest.getEmail()), userRepository.arguments("findByEmail"));
+            assertArrayEquals(new Object[]{"password123", "unknownUserHash"}, passwordEncoder.calls("matches").get(0));
+            assertTrue(jwtService.issuedFor.isEmpty());
         }
 
         @Test
         @DisplayName("Should throw exception when password is incorrect")
         void login_IncorrectPassword() {
             // Arrange
-            when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                    .thenThrow(new BadCredentialsException("Bad credentials"));
+            userRepository.returns("findByEmail", Optional.of(user));
+            passwordEncoder.returns("matches", false);
 
             // Act & Assert
             InvalidCredentialException exception = assertThrows(
@@ -301,66 +289,97 @@ class AuthenticationServiceTest {
 
             assertEquals("Invalid email or password", exception.getMessage());
 
-            verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-            verify(userRepository, never()).findByEmail(anyString());
-            verify(jwtService, never()).generateToken(any(), any());
+            assertTrue(jwtService.issuedFor.isEmpty());
+            assertEquals(0, userRepository.count("updatePassword"));
+        }
+
+        @Test
+        @DisplayName("Should rehash an outdated hash with the submitted password")
+        void login_RehashesOutdatedHash() {
+            // Arrange
+            userRepository.returns("findByEmail", Optional.of(user));
+            passwordEncoder.returns("matches", true);
+            passwordEncoder.returns("upgradeEncoding", true);
+            passwordEncoder.returns("encode", "{bcrypt}upgradedPassword");
+            userRepository.returns("updatePassword", 1);
+            jwtService.accessToken = accessToken("token");
+
+            // Act
+            AuthenticationResponse response = authenticationService.login(authenticationRequest);
+
+            // Assert
+            assertEquals("token", response.getToken());
+            assertEquals(List.of("encodedPassword"), passwordEncoder.arguments("upgradeEncoding"));
+            assertEquals(List.of("password123"), passwordEncoder.arguments("encode"));
+            assertArrayEquals(new Object[]{1L, "encodedPassword", "{bcrypt}upgradedPassword"},
+                    userRepository.calls("updatePassword").get(0));
         }
 
         @Test
-        @DisplayName("Should authenticate with correct credentials")
-        void login_AuthenticatesWithCorrectCredentials() {
+        @DisplayName("Should leave a current hash alone")
+        void login_KeepsCurrentHash() {
             // Arrange
-            when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                    .thenReturn(null);
-            when(userRepository.findByEmail(authenticationRequest.getEmail()))
-                    .thenReturn(Optional.of(user));
-            when(jwtService.generateToken(any(), any(UserCredintials.class)))
-                    .thenReturn("token");
+            userRepository.returns("findByEmail", Optional.of(user));
+            passwordEncoder.returns("matches", true);
+            passwordEncoder.returns("upgradeEncoding", false);
+            jwtService.accessToken = accessToken("token");
 
             // Act
             authenticationService.login(authenticationRequest);
 
             // Assert
-            verify(authenticationManager).authenticate(argThat(auth ->
-                    auth.getPrincipal().equals("john.doe@example.com") &&
-                            auth.getCredentials().equals("password123")
-            ));
+            assertEquals(0, passwordEncoder.count("encode"));
+            assertEquals(0, userRepository.count("updatePassword"));
+        }
+
+        @Test
+        @DisplayName("Should still login when the rehash fails")
+        void login_RehashFailure() {
+            // Arrange
+            userRepository.returns("findByEmail", Optional.of(user));
+            passwordEncoder.returns("matches", true);
+            passwordEncoder.returns("upgradeEncoding", true);
+            passwordEncoder.returns("encode", "{bcrypt}upgradedPassword");
+            userRepository.answer("updatePassword", args -> {
+                throw new RuntimeException("Database down");
+            });
+            jwtService.accessToken = accessToken("token");
+
+            // Act
+            AuthenticationResponse response = authenticationService.login(authenticationRequest);
+
+            // Assert
+            assertEquals("token", response.getToken());
         }
 
         @Test
         @DisplayName("Should generate JWT token with user credentials")
         void login_GeneratesJwtToken() {
             // Arrange
-            when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                    .thenReturn(null);
-            when(userRepository.findByEmail(authenticationRequest.getEmail()))
-                    .thenReturn(Optional.of(user));
-            when(jwtService.generateToken(any(), any(UserCredintials.class)))
-                    .thenReturn("generated.jwt.token");
+            userRepository.returns("findByEmail", Optional.of(user));
+            passwordEncoder.returns("matches", true);
+            jwtService.accessToken = accessToken("generated.jwt.token");
 
             // Act
             AuthenticationResponse response = authenticationService.login(authenticationRequest);
 
             // Assert
             assertEquals("generated.jwt.token", response.getToken());
-            verify(jwtService).generateToken(any(), any(UserCredintials.class));
+            assertEquals("john.doe@example.com", jwtService.issuedFor.get(0).getUsername());
         }
 
         @Test
-        @DisplayName("Should handle authentication manager exceptions")
-        void login_HandlesAuthenticationManagerExceptions() {
+        @DisplayName("Should not report a full hashing queue as invalid credentials")
+        void login_HashingQueueFull() {
             // Arrange
-            when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                    .thenThrow(new RuntimeException("Authentication failed"));
+            userRepository.returns("findByEmail", Optional.of(user));
+            passwordEncoder.answer("matches", args -> {
+                throw new PasswordHashingBusyException();
+            });
 
             // Act & Assert
-            InvalidCredentialException exception = assertThrows(
-                    InvalidCredentialException.class,
-                    () -> authenticationService.login(authenticationRequest)
-            );
-
-            assertEquals("Invalid email or password", exception.getMessage());
-            verify(jwtService, never()).generateToken(any(), any());
+            assertThrows(PasswordHashingBusyException.class, () -> authenticationService.login(authenticationRequest));
+            assertTrue(jwtService.issuedFor.isEmpty());
         }
 
         @Test
@@ -369,12 +388,9 @@ class AuthenticationServiceTest {
             // Arrange
             String expectedToken = "sample.jwt.token";
 
-            when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                    .thenReturn(null);
-            when(userRepository.findByEmail(authenticationRequest.getEmail()))
-                    .thenReturn(Optional.of(user));
-            when(jwtService.generateToken(any(), any(UserCredintials.class)))
-                    .thenReturn(expectedToken);
+            userRepository.returns("findByEmail", Optional.of(user));
+            passwordEncoder.returns("matches", true);
+            jwtService.accessToken = accessToken(expectedToken);
 
             // Act
             AuthenticationResponse response = authenticationService.login(authenticationRequest);
@@ -384,24 +400,106 @@ class AuthenticationServiceTest {
             assertInstanceOf(AuthenticationResponse.class, response);
             assertEquals(expectedToken, response.getToken());
         }
+    }
+
+    @Nested
+    @DisplayName("Refresh Tests")
+    class RefreshTests {
 
         @Test
-        @DisplayName("Should handle null authentication result")
-        void login_HandlesNullAuthenticationResult() {
+        @DisplayName("Should issue a refresh token of a new family on login")
+        void login_IssuesRefreshToken() {
             // Arrange
-            when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                    .thenReturn(null);
-            when(userRepository.findByEmail(authenticationRequest.getEmail()))
-                    .thenReturn(Optional.of(user));
-            when(jwtService.generateToken(any(), any(UserCredintials.class)))
-                    .thenReturn("token");
+            JwtService.AccessToken accessToken = accessToken("jwt.token");
+            userRepository.returns("findByEmail", Optional.of(user));
+            passwordEncoder.returns("matches", true);
+            jwtService.accessToken = accessToken;
+            refreshTokenService.refreshToken = "refresh.token";
 
             // Act
             AuthenticationResponse response = authenticationService.login(authenticationRequest);
 
             // Assert
-            assertNotNull(response);
-            assertNotNull(response.getToken());
+            assertEquals("jwt.token", response.getToken());
+            assertEquals("refresh.token", response.getRefreshToken());
+            assertEquals(List.of(new Issue(1L, null, null, accessToken)), refreshTokenService.issued);
+        }
+
+        @Test
+        @DisplayName("Should rotate the refresh token within its family")
+        void refresh_Success() {
+            // Arrange
+            Instant familyExpiry = Instant.now().plusSeconds(3600);
+            RefreshToken rotated = new RefreshToken();
+            rotated.setUserId(1L);
+            rotated.setFamilyId("family");
+            rotated.setExpiresAt(familyExpiry);
+            JwtService.AccessToken accessToken = accessToken("new.jwt.token");
+
+            refreshTokenService.rotation = token -> rotated;
+            userRepository.returns("findById", Optional.of(user));
+            jwtService.accessToken = accessToken;
+            refreshTokenService.refreshToken = "new.refresh.token";
+
+            // Act
+            AuthenticationResponse response = authenticationService.refresh("old.refresh.token");
+
+            // Assert
+            assertEquals("new.jwt.token", response.getToken());
+            assertEquals("new.refresh.token", response.getRefreshToken());
+            assertEquals(List.of("old.refresh.token"), refreshTokenService.rotated);
+            assertEquals(List.of(new Issue(1L, "family", familyExpiry, accessToken)), refreshTokenService.issued);
+            assertEquals(List.of(1L), userRepository.arguments("findById"));
+            assertEquals(0, passwordEncoder.count("matches"));
+        }
+
+        @Test
+        @DisplayName("Should not issue tokens when the refresh token is rejected")
+        void refresh_Rejected() {
+            // Arrange
+            refreshTokenService.rotation = token -> {
+                throw new InvalidCredentialException("Refresh token reused");
+            };
+
+            // Act & Assert
+            assertThrows(InvalidCredentialException.class, () -> authenticationService.refresh("reused.token"));
+            assertTrue(jwtService.issuedFor.isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should reject a refresh token of a deleted user")
+        void refresh_UserDeleted() {
+            // Arrange
+            RefreshToken rotated = new RefreshToken();
+            rotated.setUserId(1L);
+            refreshTokenService.rotation = token -> rotated;
+            userRepository.returns("findById", Optional.empty());
+
+            // Act & Assert
+            assertThrows(InvalidCredentialException.class, () -> authenticationService.refresh("refresh.token"));
+            assertTrue(jwtService.issuedFor.isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should revoke the refresh token on logout")
+        void logout_RevokesRefreshToken() {
+            // Act
+            authenticationService.logout("refresh.token");
+
+            // Assert
+            assertEquals(List.of("refresh.token"), refreshTokenService.revoked);
+        }
+
+        @Test
+        @DisplayName("Should logout without a refresh token")
+        void logout_NoRefreshToken() {
+            // Act
+            authenticationService.logout(null);
+
+            // Assert
+            assertTrue(refreshTokenService.revoked.isEmpty());
+            assertTrue(refreshTokenService.rotated.isEmpty());
+            assertTrue(refreshTokenService.issued.isEmpty());
         }
     }
 
@@ -413,21 +511,17 @@ class AuthenticationServiceTest {
         @DisplayName("Should register and then login successfully")
         void registerThenLogin_Success() {
             // Arrange - Register
-            when(userRepository.findByEmail(registerRequest.getEmail())).thenReturn(Optional.empty());
-            when(userRepository.count()).thenReturn(1L);
-            when(passwordEncoder.encode(registerRequest.getPassword())).thenReturn("encodedPassword");
-            when(userRepository.save(any(User.class))).thenReturn(user);
+            userRepository.returns("findByEmail", Optional.empty());
+            userRepository.returns("count", 1L);
+            passwordEncoder.returns("encode", "encodedPassword");
 
             // Act - Register
             authenticationService.register(registerRequest);
 
             // Arrange - Login
-            when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                    .thenReturn(null);
-            when(userRepository.findByEmail(authenticationRequest.getEmail()))
-                    .thenReturn(Optional.of(user));
-            when(jwtService.generateToken(any(), any(UserCredintials.class)))
-                    .thenReturn("jwt.token");
+            userRepository.returns("findByEmail", Optional.of(user));
+            passwordEncoder.returns("matches", true);
+            jwtService.accessToken = accessToken("jwt.token");
 
             // Act - Login
             AuthenticationResponse response = authenticationService.login(authenticationRequest);
@@ -435,20 +529,18 @@ class AuthenticationServiceTest {
             // Assert
             assertNotNull(response);
             assertNotNull(response.getToken());
-            verify(userRepository).save(any(User.class));
-            verify(jwtService).generateToken(any(), any(UserCredintials.class));
+            assertEquals(1, userRepository.count("save"));
+            assertEquals(1, jwtService.issuedFor.size());
         }
 
         @Test
         @DisplayName("Should prevent duplicate registration")
         void preventDuplicateRegistration() {
-            // Arrange
-            when(userRepository.findByEmail(registerRequest.getEmail()))
-                    .thenReturn(Optional.empty())
-                    .thenReturn(Optional.of(user));
-            when(userRepository.count()).thenReturn(1L);
-            when(passwordEncoder.encode(registerRequest.getPassword())).thenReturn("encodedPassword");
-            when(userRepository.save(any(User.class))).thenReturn(user);
+            // Arrange: the email is free on the first lookup only
+            userRepository.answer("findByEmail", args ->
+                    userRepository.count("findByEmail") == 1 ? Optional.empty() : Optional.of(user));
+            userRepository.returns("count", 1L);
+            passwordEncoder.returns("encode", "encodedPassword");
 
             // Act - First registration
             authenticationService.register(registerRequest);
@@ -458,7 +550,7 @@ class AuthenticationServiceTest {
                     authenticationService.register(registerRequest)
             );
 
-            verify(userRepository, times(1)).save(any(User.class));
+            assertEquals(1, userRepository.count("save"));
         }
 
         @Test
@@ -471,17 +563,16 @@ class AuthenticationServiceTest {
             upperCaseRequest.setEmail("JOHN.DOE@EXAMPLE.COM");
             upperCaseRequest.setPassword("password123");
 
-            when(userRepository.findByEmail("JOHN.DOE@EXAMPLE.COM")).thenReturn(Optional.empty());
-            when(userRepository.count()).thenReturn(1L);
-            when(passwordEncoder.encode(upperCaseRequest.getPassword())).thenReturn("encodedPassword");
+            userRepository.returns("findByEmail", Optional.empty());
+            userRepository.returns("count", 1L);
+            passwordEncoder.returns("encode", "encodedPassword");
 
             // Act
             assertDoesNotThrow(() -> authenticationService.register(upperCaseRequest));
 
             // Assert
-            verify(userRepository).save(argThat(savedUser ->
-                    savedUser.getEmail().equals("JOHN.DOE@EXAMPLE.COM")
-            ));
+            assertEquals(List.of("JOHN.DOE@EXAMPLE.COM"), userRepository.arguments("findByEmail"));
+            assertEquals("JOHN.DOE@EXAMPLE.COM", savedUser().getEmail());
         }
     }
 
@@ -496,15 +587,15 @@ class AuthenticationServiceTest {
             String longPassword = "a".repeat(100);
             registerRequest.setPassword(longPassword);
 
-            when(userRepository.findByEmail(registerRequest.getEmail())).thenReturn(Optional.empty());
-            when(userRepository.count()).thenReturn(1L);
-            when(passwordEncoder.encode(longPassword)).thenReturn("encodedLongPassword");
+            userRepository.returns("findByEmail", Optional.empty());
+            userRepository.returns("count", 1L);
+            passwordEncoder.returns("encode", "encodedLongPassword");
 
             // Act
             assertDoesNotThrow(() -> authenticationService.register(registerRequest));
 
             // Assert
-            verify(passwordEncoder).encode(longPassword);
+            assertEquals(List.of(longPassword), passwordEncoder.arguments("encode"));
         }
 
         @Test
@@ -513,17 +604,15 @@ class AuthenticationServiceTest {
             // Arrange
             registerRequest.setFirstName("");
 
-            when(userRepository.findByEmail(registerRequest.getEmail())).thenReturn(Optional.empty());
-            when(userRepository.count()).thenReturn(1L);
-            when(passwordEncoder.encode(registerRequest.getPassword())).thenReturn("encodedPassword");
+            userRepository.returns("findByEmail", Optional.empty());
+            userRepository.returns("count", 1L);
+            passwordEncoder.returns("encode", "encodedPassword");
 
             // Act
             assertDoesNotThrow(() -> authenticationService.register(registerRequest));
 
             // Assert
-            verify(userRepository).save(argThat(savedUser ->
-                    savedUser.getFirstName().isEmpty()
-            ));
+            assertTrue(savedUser().getFirstName().isEmpty());
         }
 
         @Test
@@ -535,39 +624,81 @@ class AuthenticationServiceTest {
                     new Authority("ROLE_ADMIN")
             ));
 
-            when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                    .thenReturn(null);
-            when(userRepository.findByEmail(authenticationRequest.getEmail()))
-                    .thenReturn(Optional.of(user));
-            when(jwtService.generateToken(any(), any(UserCredintials.class)))
-                    .thenReturn("token");
+            userRepository.returns("findByEmail", Optional.of(user));
+            passwordEncoder.returns("matches", true);
+            jwtService.accessToken = accessToken("token");
 
             // Act
             AuthenticationResponse response = authenticationService.login(authenticationRequest);
 
             // Assert
             assertNotNull(response);
-            verify(jwtService).generateToken(any(), argThat(userCreds ->
-                    userCreds.getAuthorities().size() == 2
-            ));
+            assertEquals(2, jwtService.issuedFor.get(0).getAuthorities().size());
         }
 
         @Test
         @DisplayName("Should handle concurrent first user registration")
         void register_ConcurrentFirstUser() {
             // Arrange
-            when(userRepository.findByEmail(registerRequest.getEmail())).thenReturn(Optional.empty());
-            when(userRepository.count()).thenReturn(0L); // Both think they're first
-            when(passwordEncoder.encode(registerRequest.getPassword())).thenReturn("encodedPassword");
+            userRepository.returns("findByEmail", Optional.empty());
+            userRepository.returns("count", 0L); // Both think they're first
+            passwordEncoder.returns("encode", "encodedPassword");
 
             // Act
             authenticationService.register(registerRequest);
 
             // Assert
-            verify(userRepository).save(argThat(savedUser ->
-                    savedUser.getAuthorities().stream()
-                            .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN"))
-            ));
+            assertTrue(savedUser().getAuthorities().stream()
+                    .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN")));
+        }
+    }
+
+    // hands out the access token a test sets and keeps the users it was issued for
+    private static final class FakeJwtService extends JwtService {
+
+        private final List<UserDetails> issuedFor = new ArrayList<>();
+        private AccessToken accessToken;
+
+        @Override
+        public AccessToken issueToken(UserDetails userDetails) {
+            issuedFor.add(userDetails);
+            return accessToken;
+        }
+    }
+
+    private record Issue(Long userId, String familyId, Instant familyExpiresAt, JwtService.AccessToken accessToken) {
+    }
+
+    // rotates with the function a test sets (unknown tokens by default) and keeps every call
+    private static final class FakeRefreshTokenService extends RefreshTokenService {
+
+        private final List<Issue> issued = new ArrayList<>();
+        private final List<String> rotated = new ArrayList<>();
+        private final List<String> revoked = new ArrayList<>();
+        private String refreshToken;
+        private Function<String, RefreshToken> rotation = token -> {
+            throw new InvalidCredentialException("Invalid refresh token");
+        };
+
+        private FakeRefreshTokenService() {
+            super(null, null, 0);
+        }
+
+        @Override
+        public String issue(Long userId, String familyId, Instant familyExpiresAt, JwtService.AccessToken accessToken) {
+            issued.add(new Issue(userId, familyId, familyExpiresAt, accessToken));
+            return refreshToken;
+        }
+
+        @Override
+        public RefreshToken rotate(String token) {
+            rotated.add(token);
+            return rotation.apply(token);
+        }
+
+        @Override
+        public void revoke(String token) {
+            revoked.add(token);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,214 @@
+package com.example.stockexchange.service;
+
+import com.example.stockexchange.Stub;
+import com.example.stockexchange.entity.JwtPublicKey;
+import com.example.stockexchange.repository.JwtPublicKeyRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.ProtectedHeader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JwtKeyRing Tests")
+class JwtKeyRingTest {
+
+    private static final String TEST_SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    private static final long ACCESS_EXPIRATION = 900_000;
+
+    // the jwt_public_key table every instance shares
+    private final Map<String, JwtPublicKey> stored = new ConcurrentHashMap<>();
+
+    private final UserDetails userDetails = User.builder()
+            .username("testuser@example.com")
+            .password("password123")
+            .authorities(List.of(new SimpleGrantedAuthority("ROLE_USER")))
+            .build();
+
+    @Nested
+    @DisplayName("Signing Tests")
+    class SigningTests {
+
+        @Test
+        @DisplayName("Should sign with EdDSA and name the key in the header")
+        void sign_EdDSA() {
+            // Arrange
+            JwtKeyRing keyRing = started(JwtKeyRing.Algorithm.EdDSA);
+            JwtService jwtService = jwtService(keyRing);
+
+            // Act
+            String token = jwtService.issueToken(userDetails).value();
+
+            // Assert
+            ProtectedHeader header = (ProtectedHeader) keyRing.parser().parseSignedClaims(token).getHeader();
+            assertEquals("EdDSA", header.getAlgorithm());
+            assertTrue(stored.containsKey(header.getKeyId()));
+            assertEquals(userDetails.getUsername(), jwtService.extractUsername(token));
+        }
+
+        @Test
+        @DisplayName("Should sign with RS256")
+        void sign_RS256() {
+            // Arrange
+            JwtKeyRing keyRing = started(JwtKeyRing.Algorithm.RS256);
+            JwtService jwtService = jwtService(keyRing);
+
+            // Act
+            String token = jwtService.issueToken(userDetails).value();
+
+            // Assert
+            assertEquals("RS256", keyRing.parser().parseSignedClaims(token).getHeader().getAlgorithm());
+            assertTrue(jwtService.isTokenValid(token, userDetails));
+        }
+
+        @Test
+        @DisplayName("Should verify a token signed by another instance with a key it has not seen yet")
+        void parse_OtherInstance() {
+            // Arrange
+            JwtKeyRing verifier = started(JwtKeyRing.Algorithm.EdDSA);
+            JwtService signer = jwtService(started(JwtKeyRing.Algorithm.EdDSA));
+            String token = signer.issueToken(userDetails).value();
+
+            // Act
+            Claims claims = jwtService(verifier).parseToken(token);
+
+            // Assert
+            assertEquals(userDetails.getUsername(), claims.getSubject());
+        }
+
+        @Test
+        @DisplayName("Should reject a key that was never published")
+        void parse_UnknownKey() {
+            // Arrange
+            JwtKeyRing verifier = started(JwtKeyRing.Algorithm.EdDSA);
+            Map<String, JwtPublicKey> elsewhere = new ConcurrentHashMap<>();
+            JwtKeyRing unpublished = keyRing(JwtKeyRing.Algorithm.EdDSA, elsewhere);
+            unpublished.start();
+            String token = jwtService(unpublished).issueToken(userDetails).value();
+
+            // Act & Assert
+            assertThrows(JwtException.class, () -> jwtService(verifier).parseToken(token));
+        }
+
+        @Test
+        @DisplayName("Should reject a token signed with the shared secret")
+        void parse_SecretSigned() {
+            // Arrange
+            JwtKeyRing keyRing = started(JwtKeyRing.Algorithm.EdDSA);
+            String token = jwtService(null).issueToken(userDetails).value();
+
+            // Act & Assert
+            assertThrows(JwtException.class, () -> jwtService(keyRing).parseToken(token));
+        }
+    }
+
+    @Nested
+    @DisplayName("Rotation Tests")
+    class RotationTests {
+
+        @Test
+        @DisplayName("Should sign with the new key and keep verifying tokens of the old one")
+        void rotate_KeepsOldKey() {
+            // Arrange
+            JwtKeyRing keyRing = started(JwtKeyRing.Algorithm.EdDSA);
+            JwtService jwtService = jwtService(keyRing);
+            String before = jwtService.issueToken(userDetails).value();
+
+            // Act
+            keyRing.rotate();
+            String after = jwtService.issueToken(userDetails).value();
+
+            // Assert
+            assertNotEquals(kid(keyRing, before), kid(keyRing, after));
+            assertEquals(userDetails.getUsername(), jwtService.extractUsername(before));
+            assertEquals(userDetails.getUsername(), jwtService.extractUsername(after));
+            assertEquals(2, stored.size());
+        }
+
+        @Test
+        @DisplayName("Should drop a key once no token signed with it can be valid")
+        void reload_DropsExpiredKey() {
+            // Arrange
+            JwtKeyRing keyRing = started(JwtKeyRing.Algorithm.EdDSA);
+            JwtService jwtService = jwtService(keyRing);
+            String token = jwtService.issueToken(userDetails).value();
+            String kid = kid(keyRing, token);
+            keyRing.rotate();
+            stored.get(kid).setExpiresAt(Instant.now().minusSeconds(1));
+
+            // Act
+            keyRing.reload();
+
+            // Assert
+            assertThrows(JwtException.class, () -> jwtService.parseToken(token));
+            assertFalse(keyRing.jwks().contains(kid));
+        }
+    }
+
+    @Nested
+    @DisplayName("JWKS Tests")
+    class JwksTests {
+
+        @Test
+        @DisplayName("Should list the public keys of every instance")
+        void jwks_ListsAllInstances() {
+            // Arrange
+            JwtKeyRing first = started(JwtKeyRing.Algorithm.RS256);
+            started(JwtKeyRing.Algorithm.RS256);
+
+            // Act
+            first.reload();
+            String jwks = first.jwks();
+
+            // Assert
+            assertEquals(2, stored.size());
+            stored.keySet().forEach(kid -> assertTrue(jwks.contains("\"kid\":\"" + kid + "\""), jwks));
+            assertTrue(jwks.contains("\"kty\":\"RSA\""));
+            assertFalse(jwks.contains("\"d\""));
+        }
+    }
+
+    private String kid(JwtKeyRing keyRing, String token) {
+        return ((ProtectedHeader) keyRing.parser().parseSignedClaims(token).getHeader()).getKeyId();
+    }
+
+    private JwtKeyRing started(JwtKeyRing.Algorithm algorithm) {
+        JwtKeyRing keyRing = keyRing(algorithm, stored);
+        keyRing.start();
+        return keyRing;
+    }
+
+    private JwtService jwtService(JwtKeyRing keyRing) {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "SECRET_KEY", TEST_SECRET);
+        ReflectionTestUtils.setField(jwtService, "JWT_EXPIRATION", ACCESS_EXPIRATION);
+        ReflectionTestUtils.setField(jwtService, "keyRing", keyRing);
+        return jwtService;
+    }
+
+    private static JwtKeyRing keyRing(JwtKeyRing.Algorithm algorithm, Map<String, JwtPublicKey> table) {
+        JwtPublicKeyRepository repository = Stub.of(JwtPublicKeyRepository.class)
+                .answer("save", args -> {
+                    JwtPublicKey key = (JwtPublicKey) args[0];
+                    table.put(key.getKid(), key);
+                    return key;
+                })
+                .answer("findByExpiresAtAfter", args -> table.values().stream()
+                        .filter(key -> key.getExpiresAt().isAfter((Instant) args[0]))
+                        .toList())
+                .get();
+        return new JwtKeyRing(repository, algorithm.name(), Duration.ofHours(24), ACCESS_EXPIRATION);
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.stockexchange.service;
 
+import com.example.stockexchange.entity.Authority;
+import com.example.stockexchange.entity.UserCredintials;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
@@ -444,4 +446,61 @@ class JwtServiceTest {
             assertFalse(isValid);
         }
     }
-}
\ No newline at end of file
+    @Nested
+    @DisplayName("Access Token Tests")
+    class AccessTokenTests {
+
+        private UserCredintials credentials;
+
+        @BeforeEach
+        void setUp() {
+            com.example.stockexchange.entity.User user = new com.example.stockexchange.entity.User();
+            user.setId(42L);
+            user.setEmail("trader@example.com");
+            user.setPassword("encodedPassword");
+            user.setAuthorities(List.of(new Authority("ROLE_USER"), new Authority("ROLE_ADMIN")));
+            credentials = new UserCredintials(user);
+        }
+
+        @Test
+        @DisplayName("Should give every token an id of its own and report its expiry")
+        void issueToken_UniqueIdAndExpiry() {
+            // Act
+            JwtService.AccessToken first = jwtService.issueToken(credentials);
+            JwtService.AccessToken second = jwtService.issueToken(credentials);
+
+            // Assert
+            assertNotEquals(first.id(), second.id());
+            assertEquals(first.id(), jwtService.parseToken(first.value()).getId());
+            assertEquals(jwtService.parseToken(first.value()).getExpiration().toInstant(), first.expiresAt());
+        }
+
+        @Test
+        @DisplayName("Should rebuild the principal from the claims alone")
+        void toUserDetails_FromClaims() {
+            // Arrange
+            String token = jwtService.issueToken(credentials).value();
+
+            // Act
+            UserCredintials principal = jwtService.toUserDetails(jwtService.parseToken(token));
+
+            // Assert
+            assertEquals(Long.valueOf(42), principal.getId());
+            assertEquals("trader@example.com", principal.getUsername());
+            assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), principal.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .collect(java.util.stream.Collectors.toSet()));
+            assertNull(principal.getPassword());
+        }
+
+        @Test
+        @DisplayName("Should reject a token without a user id")
+        void toUserDetails_NoUserId() {
+            // Arrange
+            Claims claims = jwtService.parseToken(validToken);
+
+            // Act & Assert
+            assertThrows(MalformedJwtException.class, () -> jwtService.toUserDetails(claims));
+        }
+    }
+}
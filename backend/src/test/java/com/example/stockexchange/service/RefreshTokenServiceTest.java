@@ -0,0 +1,214 @@
+package com.example.stockexchange.service;
+
+import com.example.stockexchange.Stub;
+import com.example.stockexchange.entity.RefreshToken;
+import com.example.stockexchange.exception.InvalidCredentialException;
+import com.example.stockexchange.repository.RefreshTokenRepository;
+import com.example.stockexchange.revocation.TokenRevocationList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RefreshTokenService Tests")
+class RefreshTokenServiceTest {
+
+    private static final long REFRESH_EXPIRATION = 1_209_600_000;
+    private static final long ACCESS_EXPIRATION = 900_000;
+
+    private final Stub<RefreshTokenRepository> refreshTokenRepository = Stub.of(RefreshTokenRepository.class);
+
+    // the database sync never runs here, revocations only come from the service
+    private TokenRevocationList revocationList;
+    private RefreshTokenService refreshTokenService;
+    private JwtService.AccessToken accessToken;
+
+    @BeforeEach
+    void setUp() {
+        revocationList = new TokenRevocationList(null, new SimpleMeterRegistry(), ACCESS_EXPIRATION, 100, 0.01);
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository.get(), revocationList, REFRESH_EXPIRATION);
+        accessToken = new JwtService.AccessToken("jwt.token", "access-id", Instant.now().plusSeconds(900));
+        refreshTokenRepository.answer("save", args -> args[0]);
+        refreshTokenRepository.returns("revokeFamily", 1);
+        refreshTokenRepository.returns("findByFamilyId", List.of());
+    }
+
+    private RefreshToken saved() {
+        List<RefreshToken> saved = refreshTokenRepository.arguments("save");
+        assertFalse(saved.isEmpty());
+        return saved.get(saved.size() - 1);
+    }
+
+    // the token just issued, which the repository finds again from now on
+    private RefreshToken stored() {
+        RefreshToken refreshToken = saved();
+        refreshToken.setId(7L);
+        refreshTokenRepository.answer("findByTokenHash", args ->
+                args[0].equals(refreshToken.getTokenHash()) ? Optional.of(refreshToken) : Optional.empty());
+        return refreshToken;
+    }
+
+    @Nested
+    @DisplayName("Issue Tests")
+    class IssueTests {
+
+        @Test
+        @DisplayName("Should store a hash of the token, never the token")
+        void issue_StoresHash() {
+            // Act
+            String token = refreshTokenService.issue(1L, null, null, accessToken);
+
+            // Assert
+            RefreshToken stored = saved();
+            assertNotEquals(token, stored.getTokenHash());
+            assertEquals(64, stored.getTokenHash().length());
+            assertEquals("access-id", stored.getAccessTokenId());
+            assertEquals(1L, stored.getUserId());
+            assertNotNull(stored.getFamilyId());
+        }
+
+        @Test
+        @DisplayName("Should hand out a different token every time")
+        void issue_UniqueTokens() {
+            // Act
+            String first = refreshTokenService.issue(1L, null, null, accessToken);
+            String second = refreshTokenService.issue(1L, null, null, accessToken);
+
+            // Assert
+            assertNotEquals(first, second);
+        }
+
+        @Test
+        @DisplayName("Should keep the family and its expiry on a refresh")
+        void issue_KeepsFamily() {
+            // Arrange
+            Instant familyExpiry = Instant.now().plusSeconds(3600);
+
+            // Act
+            refreshTokenService.issue(1L, "family", familyExpiry, accessToken);
+
+            // Assert
+            RefreshToken stored = saved();
+            assertEquals("family", stored.getFamilyId());
+            assertEquals(familyExpiry, stored.getExpiresAt());
+        }
+    }
+
+    @Nested
+    @DisplayName("Rotate Tests")
+    class RotateTests {
+
+        @Test
+        @DisplayName("Should use up a valid token")
+        void rotate_Success() {
+            // Arrange
+            String token = refreshTokenService.issue(1L, null, null, accessToken);
+            RefreshToken stored = stored();
+            refreshTokenRepository.returns("markUsed", 1);
+
+            // Act
+            RefreshToken rotated = refreshTokenService.rotate(token);
+
+            // Assert
+            assertSame(stored, rotated);
+            assertEquals(List.of(7L), refreshTokenRepository.arguments("markUsed"));
+            assertEquals(0, refreshTokenRepository.count("revokeFamily"));
+        }
+
+        @Test
+        @DisplayName("Should revoke the family when a used token comes back")
+        void rotate_Reused() {
+            // Arrange
+            String token = refreshTokenService.issue(1L, null, null, accessToken);
+            RefreshToken stored = stored();
+            stored.setUsedAt(Instant.now().minusSeconds(60));
+            refreshTokenRepository.returns("findByFamilyId", List.of(stored));
+
+            // Act & Assert
+            InvalidCredentialException exception = assertThrows(InvalidCredentialException.class,
+                    () -> refreshTokenService.rotate(token));
+            assertEquals("Refresh token reused", exception.getMessage());
+            assertEquals(List.of(stored.getFamilyId()), refreshTokenRepository.arguments("revokeFamily"));
+            assertTrue(revocationList.isRevoked("access-id"));
+        }
+
+        @Test
+        @DisplayName("Should treat losing a concurrent rotation as reuse")
+        void rotate_ConcurrentUse() {
+            // Arrange
+            String token = refreshTokenService.issue(1L, null, null, accessToken);
+            RefreshToken stored = stored();
+            refreshTokenRepository.returns("markUsed", 0);
+
+            // Act & Assert
+            assertThrows(InvalidCredentialException.class, () -> refreshTokenService.rotate(token));
+            assertEquals(List.of(stored.getFamilyId()), refreshTokenRepository.arguments("revokeFamily"));
+        }
+
+        @Test
+        @DisplayName("Should reject an expired token")
+        void rotate_Expired() {
+            // Arrange
+            String token = refreshTokenService.issue(1L, null, null, accessToken);
+            stored().setExpiresAt(Instant.now().minusSeconds(1));
+
+            // Act & Assert
+            assertThrows(InvalidCredentialException.class, () -> refreshTokenService.rotate(token));
+            assertEquals(0, refreshTokenRepository.count("markUsed"));
+        }
+
+        @Test
+        @DisplayName("Should reject an unknown token")
+        void rotate_Unknown() {
+            // Arrange
+            refreshTokenRepository.returns("findByTokenHash", Optional.empty());
+
+            // Act & Assert
+            InvalidCredentialException exception = assertThrows(InvalidCredentialException.class,
+                    () -> refreshTokenService.rotate("unknown"));
+            assertEquals("Invalid refresh token", exception.getMessage());
+        }
+    }
+
+    @Nested
+    @DisplayName("Revoke Tests")
+    class RevokeTests {
+
+        @Test
+        @DisplayName("Should revoke the family and its access tokens on logout")
+        void revoke_Family() {
+            // Arrange
+            String token = refreshTokenService.issue(1L, null, null, accessToken);
+            RefreshToken stored = stored();
+            refreshTokenRepository.returns("findByFamilyId", List.of(stored));
+
+            // Act
+            refreshTokenService.revoke(token);
+
+            // Assert
+            assertEquals(List.of(stored.getFamilyId()), refreshTokenRepository.arguments("revokeFamily"));
+            assertTrue(revocationList.isRevoked("access-id"));
+        }
+
+        @Test
+        @DisplayName("Should ignore an unknown token on logout")
+        void revoke_Unknown() {
+            // Arrange
+            refreshTokenRepository.returns("findByTokenHash", Optional.empty());
+
+            // Act
+            refreshTokenService.revoke("unknown");
+
+            // Assert
+            assertEquals(0, refreshTokenRepository.count("revokeFamily"));
+            assertEquals(0, refreshTokenRepository.count("findByFamilyId"));
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.stockexchange.service;
 
+import com.example.stockexchange.Stub;
 import com.example.stockexchange.dto.StockDto;
 import com.example.stockexchange.dto.StockExchangeDto;
 import com.example.stockexchange.entity.Stock;
@@ -7,8 +8,9 @@ import com.example.stockexchange.entity.StockExchange;
 import com.example.stockexchange.entity.StockListing;
 import com.example.stockexchange.exception.DuplicateResourceException;
 import com.example.stockexchange.exception.ResourceNotFoundException;
-import com.example.stockexchange.mapper.StockExchangeMapper;
-import com.example.stockexchange.mapper.StockMapper;
+import com.example.stockexchange.mapper.StockExchangeMapperImpl;
+import com.example.stockexchange.mapper.StockMapperImpl;
+import com.example.stockexchange.repository.StockExchangeRepository;
 import com.example.stockexchange.repository.StockListingRepository;
 import com.example.stockexchange.repository.StockRepository;
 import com.example.stockexchange.request.StockCreationRequest;
@@ -17,10 +19,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 
 import java.math.BigDecimal;
@@ -29,41 +27,32 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.Mockito.*;
 
-@ExtendWith(MockitoExtension.class)
 @DisplayName("StockService Tests")
 class StockServiceTest {
 
-    @Mock
-    private StockRepository stockRepository;
+    private final Stub<StockRepository> stockRepository = Stub.of(StockRepository.class);
+    private final Stub<StockListingRepository> stockListingRepository = Stub.of(StockListingRepository.class);
+    private final Stub<StockExchangeRepository> stockExchangeRepository = Stub.of(StockExchangeRepository.class);
+    private final List<Object> events = new ArrayList<>();
 
-    @Mock
-    private StockListingRepository stockListingRepository;
-
-    @Mock
-    private StockMapper stockMapper;
-
-    @Mock
-    private StockExchangeMapper stockExchangeMapper;
-
-    @Mock
-    private StockExchangeService stockExchangeService;
-
-    @InjectMocks
     private StockService stockService;
 
     private Stock stock;
-    private StockDto stockDto;
     private StockExchange stockExchange;
-    private StockExchangeDto stockExchangeDto;
     private StockCreationRequest stockCreationRequest;
     private StockPriceUpdateRequest stockPriceUpdateRequest;
 
     @BeforeEach
     void setUp() {
+        StockExchangeMapperImpl stockExchangeMapper = new StockExchangeMapperImpl();
+        StockMapperImpl stockMapper = new StockMapperImpl();
+        // a real exchange service, the live market status of the affected exchanges is counted through the stubs
+        StockExchangeService stockExchangeService = new StockExchangeService(stockExchangeRepository.get(),
+                stockRepository.get(), stockListingRepository.get(), stockExchangeMapper, stockMapper, events::add);
+        stockService = new StockService(stockRepository.get(), stockListingRepository.get(), stockMapper,
+                stockExchangeMapper, stockExchangeService, events::add);
+
         // Setup Stock entity
         stock = new Stock();
         stock.setStockId(1L);
@@ -72,25 +61,12 @@ class StockServiceTest {
         stock.setCurrentPrice(BigDecimal.valueOf(150.00));
         stock.setStockListings(new ArrayList<>());
 
-        // Setup StockDto
-        stockDto = new StockDto();
-        stockDto.setStockId(1L);
-        stockDto.setName("Apple Inc.");
-        stockDto.setDescription("Technology company");
-        stockDto.setCurrentPrice(BigDecimal.valueOf(150.00));
-
         // Setup StockExchange
         stockExchange = new StockExchange();
         stockExchange.setStockExchangeId(1L);
         stockExchange.setName("NYSE");
         stockExchange.setLiveInMarket(true);
 
-        // Setup StockExchangeDto
-        stockExchangeDto = new StockExchangeDto();
-        stockExchangeDto.setStockExchangeId(1L);
-        stockExchangeDto.setName("NYSE");
-        stockExchangeDto.setLiveInMarket(true);
-
         // Setup requests
         stockCreationRequest = new StockCreationRequest();
         stockCreationRequest.setName("Apple Inc.");
@@ -112,8 +88,7 @@ class StockServiceTest {
             List<Stock> stocks = List.of(stock);
             Page<Stock> stockPage = new PageImpl<>(stocks, PageRequest.of(0, 10), 1);
 
-            when(stockRepository.findAll(any(Pageable.class))).thenReturn(stockPage);
-            when(stockMapper.map(any(Stock.class))).thenReturn(stockDto);
+            stockRepository.returns("findAll", stockPage);
 
             // Act
             Page<StockDto> result = stockService.getAllStocks(0, 10, "name", "asc");
@@ -124,8 +99,8 @@ class StockServiceTest {
             assertEquals(1, result.getContent().size());
             assertEquals("Apple Inc.", result.getContent().get(0).getName());
 
-            verify(stockRepository, times(1)).findAll(any(Pageable.class));
-            verify(stockMapper, times(1)).map(any(Stock.class));
+            assertEquals(List.of(PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "name"))),
+                    stockRepository.arguments("findAll"));
         }
 
         @Test
@@ -135,8 +110,7 @@ class StockServiceTest {
             List<Stock> stocks = List.of(stock);
             Page<Stock> stockPage = new PageImpl<>(stocks, PageRequest.of(0, 10), 1);
 
-            when(stockRepository.findAll(any(Pageable.class))).thenReturn(stockPage);
-            when(stockMapper.map(any(Stock.class))).thenReturn(stockDto);
+            stockRepository.returns("findAll", stockPage);
 
             // Act
             Page<StockDto> result = stockService.getAllStocks(0, 10, "stockName", "asc");
@@ -147,8 +121,7 @@ class StockServiceTest {
             assertEquals(1, result.getContent().size());
             assertEquals("Apple Inc.", result.getContent().get(0).getName());
 
-            verify(stockRepository, times(1)).findAll(any(Pageable.class));
-            verify(stockMapper, times(1)).map(any(Stock.class));
+            assertEquals(1, stockRepository.count("findAll"));
         }
 
         @Test
@@ -156,7 +129,7 @@ class StockServiceTest {
         void shouldReturnEmptyPageWhenNoStocks() {
             // Arrange
             Page<Stock> emptyPage = new PageImpl<>(List.of(), PageRequest.of(0, 10), 0);
-            when(stockRepository.findAll(any(Pageable.class))).thenReturn(emptyPage);
+            stockRepository.returns("findAll", emptyPage);
 
             // Act
             Page<StockDto> result = stockService.getAllStocks(0, 10, "name", "asc");
@@ -166,8 +139,7 @@ class StockServiceTest {
             assertEquals(0, result.getTotalElements());
             assertTrue(result.getContent().isEmpty());
 
-            verify(stockRepository, times(1)).findAll(any(Pageable.class));
-            verify(stockMapper, never()).map(any(Stock.class));
+            assertEquals(1, stockRepository.count("findAll"));
         }
 
         @Test
@@ -177,8 +149,7 @@ class StockServiceTest {
             List<Stock> stocks = List.of(stock);
             Page<Stock> stockPage = new PageImpl<>(stocks, PageRequest.of(0, 10), 1);
 
-            when(stockRepository.findAll(any(Pageable.class))).thenReturn(stockPage);
-            when(stockMapper.map(any(Stock.class))).thenReturn(stockDto);
+            stockRepository.returns("findAll", stockPage);
 
             // Act
             Page<StockDto> result = stockService.getAllStocks(0, 10, "currentPrice", "desc");
@@ -187,7 +158,8 @@ class StockServiceTest {
             assertNotNull(result);
             assertEquals(1, result.getTotalElements());
 
-            verify(stockRepository, times(1)).findAll(any(Pageable.class));
+            assertEquals(List.of(PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "currentPrice"))),
+                    stockRepository.arguments("findAll"));
         }
     }
 
@@ -202,10 +174,8 @@ class StockServiceTest {
             List<StockExchange> exchanges = List.of(stockExchange);
             Page<StockExchange> exchangePage = new PageImpl<>(exchanges, PageRequest.of(0, 10), 1);
 
-            when(stockRepository.existsById(1L)).thenReturn(true);
-            when(stockListingRepository.findStockExchangesByStockId(anyLong(), any(Pageable.class)))
-                    .thenReturn(exchangePage);
-            when(stockExchangeMapper.map(any(StockExchange.class))).thenReturn(stockExchangeDto);
+            stockRepository.returns("existsById", true);
+            stockListingRepository.returns("findStockExchangesByStockId", exchangePage);
 
             // Act
             Page<StockExchangeDto> result = stockService.getAllStockExchangesByStock(1L, 0, 10);
@@ -215,17 +185,15 @@ class StockServiceTest {
             assertEquals(1, result.getTotalElements());
             assertEquals("NYSE", result.getContent().get(0).getName());
 
-            verify(stockRepository, times(1)).existsById(1L);
-            verify(stockListingRepository, times(1))
-                    .findStockExchangesByStockId(anyLong(), any(Pageable.class));
-            verify(stockExchangeMapper, times(1)).map(any(StockExchange.class));
+            assertEquals(List.of(1L), stockRepository.arguments("existsById"));
+            assertEquals(List.of(1L), stockListingRepository.arguments("findStockExchangesByStockId"));
         }
 
         @Test
         @DisplayName("Should throw exception when stock not found")
         void shouldThrowExceptionWhenStockNotFound() {
             // Arrange
-            when(stockRepository.existsById(999L)).thenReturn(false);
+            stockRepository.returns("existsById", false);
 
             // Act & Assert
             ResourceNotFoundException exception = assertThrows(
@@ -235,9 +203,8 @@ class StockServiceTest {
 
             assertEquals("Stock not found with id: 999", exception.getMessage());
 
-            verify(stockRepository, times(1)).existsById(999L);
-            verify(stockListingRepository, never())
-                    .findStockExchangesByStockId(anyLong(), any(Pageable.class));
+            assertEquals(List.of(999L), stockRepository.arguments("existsById"));
+            assertEquals(0, stockListingRepository.count("findStockExchangesByStockId"));
         }
 
         @Test
@@ -246,9 +213,8 @@ class StockServiceTest {
             // Arrange
             Page<StockExchange> emptyPage = new PageImpl<>(List.of(), PageRequest.of(0, 10), 0);
 
-            when(stockRepository.existsById(1L)).thenReturn(true);
-            when(stockListingRepository.findStockExchangesByStockId(anyLong(), any(Pageable.class)))
-                    .thenReturn(emptyPage);
+            stockRepository.returns("existsById", true);
+            stockListingRepository.returns("findStockExchangesByStockId", emptyPage);
 
             // Act
             Page<StockExchangeDto> result = stockService.getAllStockExchangesByStock(1L, 0, 10);
@@ -258,9 +224,8 @@ class StockServiceTest {
             assertEquals(0, result.getTotalElements());
             assertTrue(result.getContent().isEmpty());
 
-            verify(stockRepository, times(1)).existsById(1L);
-            verify(stockListingRepository, times(1))
-                    .findStockExchangesByStockId(anyLong(), any(Pageable.class));
+            assertEquals(List.of(1L), stockRepository.arguments("existsById"));
+            assertEquals(1, stockListingRepository.count("findStockExchangesByStockId"));
         }
     }
 
@@ -268,34 +233,40 @@ class StockServiceTest {
     @DisplayName("createStock Tests")
     class CreateStockTests {
 
+        @BeforeEach
+        void setUp() {
+            // the id the database assigns
+            stockRepository.answer("save", args -> {
+                Stock saved = (Stock) args[0];
+                saved.setStockId(1L);
+                return saved;
+            });
+        }
+
         @Test
         @DisplayName("Should create stock successfully")
         void shouldCreateStockSuccessfully() {
             // Arrange
-            when(stockRepository.existsByName("Apple Inc.")).thenReturn(false);
-            when(stockMapper.map(any(StockCreationRequest.class))).thenReturn(stock);
-            when(stockRepository.save(any(Stock.class))).thenReturn(stock);
-            when(stockMapper.map(any(Stock.class))).thenReturn(stockDto);
+            stockRepository.returns("existsByName", false);
 
             // Act
             StockDto result = stockService.createStock(stockCreationRequest);
 
             // Assert
             assertNotNull(result);
+            assertEquals(1L, result.getStockId());
             assertEquals("Apple Inc.", result.getName());
             assertEquals(BigDecimal.valueOf(150.00), result.getCurrentPrice());
 
-            verify(stockRepository, times(1)).existsByName("Apple Inc.");
-            verify(stockRepository, times(1)).save(any(Stock.class));
-            verify(stockMapper, times(1)).map(any(StockCreationRequest.class));
-            verify(stockMapper, times(1)).map(any(Stock.class));
+            assertEquals(List.of("Apple Inc."), stockRepository.arguments("existsByName"));
+            assertEquals(1, stockRepository.count("save"));
         }
 
         @Test
         @DisplayName("Should throw exception when stock name already exists")
         void shouldThrowExceptionWhenDuplicateName() {
             // Arrange
-            when(stockRepository.existsByName("Apple Inc.")).thenReturn(true);
+            stockRepository.returns("existsByName", true);
 
             // Act & Assert
             DuplicateResourceException exception = assertThrows(
@@ -305,8 +276,8 @@ class StockServiceTest {
 
             assertEquals("Stock with name Apple Inc. already exists", exception.getMessage());
 
-            verify(stockRepository, times(1)).existsByName("Apple Inc.");
-            verify(stockRepository, never()).save(any(Stock.class));
+            assertEquals(List.of("Apple Inc."), stockRepository.arguments("existsByName"));
+            assertEquals(0, stockRepository.count("save"));
         }
 
         @Test
@@ -314,13 +285,8 @@ class StockServiceTest {
         void shouldCreateStockWithValidPrice() {
             // Arrange
             stockCreationRequest.setCurrentPrice(BigDecimal.valueOf(200.00));
-            stock.setCurrentPrice(BigDecimal.valueOf(200.00));
-            stockDto.setCurrentPrice(BigDecimal.valueOf(200.00));
 
-            when(stockRepository.existsByName("Apple Inc.")).thenReturn(false);
-            when(stockMapper.map(any(StockCreationRequest.class))).thenReturn(stock);
-            when(stockRepository.save(any(Stock.class))).thenReturn(stock);
-            when(stockMapper.map(any(Stock.class))).thenReturn(stockDto);
+            stockRepository.returns("existsByName", false);
 
             // Act
             StockDto result = stockService.createStock(stockCreationRequest);
@@ -329,7 +295,8 @@ class StockServiceTest {
             assertNotNull(result);
             assertEquals(BigDecimal.valueOf(200.00), result.getCurrentPrice());
 
-            verify(stockRepository, times(1)).save(any(Stock.class));
+            Stock saved = stockRepository.<Stock>arguments("save").get(0);
+            assertEquals(BigDecimal.valueOf(200.00), saved.getCurrentPrice());
         }
     }
 
@@ -341,8 +308,7 @@ class StockServiceTest {
         @DisplayName("Should update stock price successfully")
         void shouldUpdatePriceSuccessfully() {
             // Arrange
-            when(stockRepository.findById(1L)).thenReturn(Optional.of(stock));
-            when(stockMapper.map(any(Stock.class))).thenReturn(stockDto);
+            stockRepository.returns("findById", Optional.of(stock));
 
             // Act
             StockDto result = stockService.updatePrice(1L, stockPriceUpdateRequest);
@@ -350,16 +316,16 @@ class StockServiceTest {
             // Assert
             assertNotNull(result);
             assertEquals(BigDecimal.valueOf(160.00), stock.getCurrentPrice());
+            assertEquals(BigDecimal.valueOf(160.00), result.getCurrentPrice());
 
-            verify(stockRepository, times(1)).findById(1L);
-            verify(stockMapper, times(1)).map(any(Stock.class));
+            assertEquals(List.of(1L), stockRepository.arguments("findById"));
         }
 
         @Test
         @DisplayName("Should throw exception when updating non-existent stock")
         void shouldThrowExceptionWhenStockNotFound() {
             // Arrange
-            when(stockRepository.findById(999L)).thenReturn(Optional.empty());
+            stockRepository.returns("findById", Optional.empty());
 
             // Act & Assert
             ResourceNotFoundException exception = assertThrows(
@@ -369,8 +335,8 @@ class StockServiceTest {
 
             assertEquals("Stock not found with id: 999", exception.getMessage());
 
-            verify(stockRepository, times(1)).findById(999L);
-            verify(stockMapper, never()).map(any(Stock.class));
+            assertEquals(List.of(999L), stockRepository.arguments("findById"));
+            assertTrue(events.isEmpty());
         }
 
         @Test
@@ -379,8 +345,7 @@ class StockServiceTest {
             // Arrange
             stockPriceUpdateRequest.setCurrentPrice(BigDecimal.ZERO);
 
-            when(stockRepository.findById(1L)).thenReturn(Optional.of(stock));
-            when(stockMapper.map(any(Stock.class))).thenReturn(stockDto);
+            stockRepository.returns("findById", Optional.of(stock));
 
             // Act
             StockDto result = stockService.updatePrice(1L, stockPriceUpdateRequest);
@@ -389,7 +354,7 @@ class StockServiceTest {
             assertNotNull(result);
             assertEquals(BigDecimal.ZERO, stock.getCurrentPrice());
 
-            verify(stockRepository, times(1)).findById(1L);
+            assertEquals(List.of(1L), stockRepository.arguments("findById"));
         }
 
         @Test
@@ -398,8 +363,7 @@ class StockServiceTest {
             // Arrange
             stockPriceUpdateRequest.setCurrentPrice(BigDecimal.valueOf(999999.99));
 
-            when(stockRepository.findById(1L)).thenReturn(Optional.of(stock));
-            when(stockMapper.map(any(Stock.class))).thenReturn(stockDto);
+            stockRepository.returns("findById", Optional.of(stock));
 
             // Act
             StockDto result = stockService.updatePrice(1L, stockPriceUpdateRequest);
@@ -408,7 +372,7 @@ class StockServiceTest {
             assertNotNull(result);
             assertEquals(BigDecimal.valueOf(999999.99), stock.getCurrentPrice());
 
-            verify(stockRepository, times(1)).findById(1L);
+            assertEquals(List.of(1L), stockRepository.arguments("findById"));
         }
     }
 
@@ -416,26 +380,32 @@ class StockServiceTest {
     @DisplayName("deleteStock Tests")
     class DeleteStockTests {
 
+        @BeforeEach
+        void setUp() {
+            stockRepository.accepts("delete");
+            // the listings left on an affected exchange, which keep it live
+            stockListingRepository.returns("countByStockExchangeId", 10L);
+        }
+
         @Test
         @DisplayName("Should delete stock successfully")
         void shouldDeleteStockSuccessfully() {
             // Arrange
-            when(stockRepository.findById(1L)).thenReturn(Optional.of(stock));
-            doNothing().when(stockRepository).delete(any(Stock.class));
+            stockRepository.returns("findById", Optional.of(stock));
 
             // Act
             stockService.deleteStock(1L);
 
             // Assert
-            verify(stockRepository, times(1)).findById(1L);
-            verify(stockRepository, times(1)).delete(stock);
+            assertEquals(List.of(1L), stockRepository.arguments("findById"));
+            assertEquals(List.of(stock), stockRepository.arguments("delete"));
         }
 
         @Test
         @DisplayName("Should throw exception when deleting non-existent stock")
         void shouldThrowExceptionWhenStockNotFound() {
             // Arrange
-            when(stockRepository.findById(999L)).thenReturn(Optional.empty());
+            stockRepository.returns("findById", Optional.empty());
 
             // Act & Assert
             ResourceNotFoundException exception = assertThrows(
@@ -445,8 +415,8 @@ class StockServiceTest {
 
             assertEquals("Stock not found with id: 999", exception.getMessage());
 
-            verify(stockRepository, times(1)).findById(999L);
-            verify(stockRepository, never()).delete(any(Stock.class));
+            assertEquals(List.of(999L), stockRepository.arguments("findById"));
+            assertEquals(0, stockRepository.count("delete"));
         }
 
         @Test
@@ -467,17 +437,15 @@ class StockServiceTest {
 
             stock.setStockListings(List.of(listing1, listing2));
 
-            when(stockRepository.findById(1L)).thenReturn(Optional.of(stock));
-            doNothing().when(stockRepository).delete(any(Stock.class));
-            doNothing().when(stockExchangeService).updateLiveMarketStatus(any(StockExchange.class));
+            stockRepository.returns("findById", Optional.of(stock));
 
             // Act
             stockService.deleteStock(1L);
 
             // Assert
-            verify(stockRepository, times(1)).findById(1L);
-            verify(stockRepository, times(1)).delete(stock);
-            verify(stockExchangeService, times(2)).updateLiveMarketStatus(any(StockExchange.class));
+            assertEquals(List.of(1L), stockRepository.arguments("findById"));
+            assertEquals(List.of(stock), stockRepository.arguments("delete"));
+            assertEquals(List.of(1L, 2L), stockListingRepository.arguments("countByStockExchangeId"));
         }
 
         @Test
@@ -486,16 +454,15 @@ class StockServiceTest {
             // Arrange
             stock.setStockListings(List.of());
 
-            when(stockRepository.findById(1L)).thenReturn(Optional.of(stock));
-            doNothing().when(stockRepository).delete(any(Stock.class));
+            stockRepository.returns("findById", Optional.of(stock));
 
             // Act
             stockService.deleteStock(1L);
 
             // Assert
-            verify(stockRepository, times(1)).findById(1L);
-            verify(stockRepository, times(1)).delete(stock);
-            verify(stockExchangeService, never()).updateLiveMarketStatus(any(StockExchange.class));
+            assertEquals(List.of(1L), stockRepository.arguments("findById"));
+            assertEquals(List.of(stock), stockRepository.arguments("delete"));
+            assertEquals(0, stockListingRepository.count("countByStockExchangeId"));
         }
 
         @Test
@@ -512,18 +479,16 @@ class StockServiceTest {
 
             stock.setStockListings(List.of(listing1, listing2));
 
-            when(stockRepository.findById(1L)).thenReturn(Optional.of(stock));
-            doNothing().when(stockRepository).delete(any(Stock.class));
-            doNothing().when(stockExchangeService).updateLiveMarketStatus(any(StockExchange.class));
+            stockRepository.returns("findById", Optional.of(stock));
 
             // Act
             stockService.deleteStock(1L);
 
             // Assert
-            verify(stockRepository, times(1)).findById(1L);
-            verify(stockRepository, times(1)).delete(stock);
+            assertEquals(List.of(1L), stockRepository.arguments("findById"));
+            assertEquals(List.of(stock), stockRepository.arguments("delete"));
             // Should only update once due to distinct()
-            verify(stockExchangeService, times(1)).updateLiveMarketStatus(any(StockExchange.class));
+            assertEquals(List.of(1L), stockListingRepository.arguments("countByStockExchangeId"));
         }
     }
-}
\ No newline at end of file
+}
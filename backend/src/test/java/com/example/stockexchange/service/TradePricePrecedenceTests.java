@@ -0,0 +1,102 @@
+package com.example.stockexchange.service;
+
+import com.example.stockexchange.event.EngineRecoveredEvent;
+import com.example.stockexchange.request.StockPriceUpdateRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the write side of the manual-over-trade rule against the database (TradePriceWriter): TradePriceFeed drained a
+// trade price, a manual update commits before the flush writes it
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sqlbudget;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.sql.init.mode=always",
+        "app.sql-monitor.fail-on-violation=true",
+        "app.gateway.port=0",
+        "app.journal.enabled=false",
+        "app.warm-up.enabled=false"
+})
+// the manual update is audited, so it needs someone signed in
+@WithMockUser(roles = "ADMIN")
+@DisplayName("Trade Price Precedence Tests")
+class TradePricePrecedenceTests {
+
+    private static final long STOCK = 2L;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private TradePriceWriter tradePriceWriter;
+
+    @Test
+    @DisplayName("Should keep a manual price that committed after the trade price was drained")
+    void applyTradePrices_ManualCommittedAfterDrain() {
+        // Arrange
+        LocalDateTime tradedAt = LocalDateTime.now().minusSeconds(1);
+        stockService.updatePrice(STOCK, new StockPriceUpdateRequest(new BigDecimal("150.00")));
+
+        // Act
+        int updated = tradePriceWriter.applyTradePrices(
+                Map.of(STOCK, new TradePriceWriter.TradePrice(new BigDecimal("99.00"), tradedAt)));
+
+        // Assert
+        assertEquals(0, updated);
+        assertEquals(0, new BigDecimal("150.00").compareTo(stockService.getStockById(STOCK).getCurrentPrice()));
+    }
+
+    @Test
+    @DisplayName("Should write a trade executed after the manual update")
+    void applyTradePrices_TradeAfterManual() {
+        // Arrange
+        stockService.updatePrice(STOCK, new StockPriceUpdateRequest(new BigDecimal("150.00")));
+        LocalDateTime tradedAt = LocalDateTime.now().plusSeconds(1);
+
+        // Act
+        int updated = tradePriceWriter.applyTradePrices(
+                Map.of(STOCK, new TradePriceWriter.TradePrice(new BigDecimal("151.00"), tradedAt)));
+
+        // Assert
+        assertEquals(1, updated);
+        assertEquals(0, new BigDecimal("151.00").compareTo(stockService.getStockById(STOCK).getCurrentPrice()));
+    }
+
+    @Test
+    @DisplayName("Should keep a manual price set after the last trade when a restart replays that trade")
+    void onEngineRecovered_ManualAfterLastTrade() {
+        // Arrange
+        LocalDateTime tradedAt = LocalDateTime.now().minusSeconds(1);
+        tradePriceWriter.applyTradePrices(Map.of(STOCK, new TradePriceWriter.TradePrice(new BigDecimal("99.00"), tradedAt)));
+        stockService.updatePrice(STOCK, new StockPriceUpdateRequest(new BigDecimal("150.00")));
+
+        // Act
+        tradePriceWriter.onEngineRecovered(new EngineRecoveredEvent(1, 1,
+                Map.of(STOCK, new EngineRecoveredEvent.LastTrade(new BigDecimal("99.00"), tradedAt))));
+
+        // Assert
+        assertEquals(0, new BigDecimal("150.00").compareTo(stockService.getStockById(STOCK).getCurrentPrice()));
+    }
+
+    @Test
+    @DisplayName("Should restore a last trade that is newer than the manual price on restart")
+    void onEngineRecovered_TradeAfterManual() {
+        // Arrange
+        stockService.updatePrice(STOCK, new StockPriceUpdateRequest(new BigDecimal("150.00")));
+        LocalDateTime tradedAt = LocalDateTime.now().plusSeconds(1);
+
+        // Act
+        tradePriceWriter.onEngineRecovered(new EngineRecoveredEvent(1, 1,
+                Map.of(STOCK, new EngineRecoveredEvent.LastTrade(new BigDecimal("152.00"), tradedAt))));
+
+        // Assert
+        assertEquals(0, new BigDecimal("152.00").compareTo(stockService.getStockById(STOCK).getCurrentPrice()));
+    }
+}
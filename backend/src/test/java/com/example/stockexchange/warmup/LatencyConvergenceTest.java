@@ -0,0 +1,58 @@
+package com.example.stockexchange.warmup;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LatencyConvergence Tests")
+class LatencyConvergenceTest {
+
+    @Test
+    @DisplayName("Should keep going while rounds get faster")
+    void record_Improving() {
+        // Arrange
+        LatencyConvergence convergence = new LatencyConvergence(0.05, 2);
+
+        // Act & Assert
+        for (long nanos : new long[]{1000, 800, 600, 500, 400}) {
+            assertFalse(convergence.record(nanos));
+        }
+        assertEquals(400, convergence.best());
+    }
+
+    @Test
+    @DisplayName("Should converge after enough rounds within the tolerance of the best one")
+    void record_Stable() {
+        // Arrange
+        LatencyConvergence convergence = new LatencyConvergence(0.05, 3);
+        convergence.record(1000);
+        convergence.record(500);
+
+        // Act & Assert
+        assertFalse(convergence.record(490));
+        assertFalse(convergence.record(510));
+        assertTrue(convergence.record(480));
+        assertEquals(5, convergence.rounds());
+    }
+
+    @Test
+    @DisplayName("Should count a slow outlier as no progress and restart after a real improvement")
+    void record_OutlierAndImprovement() {
+        // Arrange
+        LatencyConvergence convergence = new LatencyConvergence(0.05, 2);
+        convergence.record(500);
+
+        // Act
+        boolean afterOutlier = convergence.record(5000);
+        boolean afterImprovement = convergence.record(300);
+        boolean stableOnce = convergence.record(310);
+        boolean stableTwice = convergence.record(305);
+
+        // Assert
+        assertFalse(afterOutlier);
+        assertFalse(afterImprovement);
+        assertFalse(stableOnce);
+        assertTrue(stableTwice);
+    }
+}
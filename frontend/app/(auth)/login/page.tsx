@@ -1,13 +1,26 @@
 "use client";
 
-import { useState } from "react";
+import { useEffect, useState } from "react";
 import { validateRequiredFields } from "@/lib/validators";
 import { loginAction } from "@/app/(auth)/login/actions";
 import { toast } from "react-hot-toast";
 import { LoginForm } from "@/components/auth/LoginForm";
+import { refreshTokens } from "@/lib/api";
 
 export default function LoginPage() {
   const [loading, setLoading] = useState(false);
+
+  // The jwt cookie expires with the access token, so the middleware sends a user here
+  // while the refresh token may still be good: try it before asking for the password
+  useEffect(() => {
+    refreshTokens().then((refreshed) => {
+      if (refreshed) {
+        const from = new URLSearchParams(window.location.search).get('from');
+        window.location.href = from && from.startsWith('/') && !from.startsWith('//') ? from : '/dashboard';
+      }
+    });
+  }, []);
+
   const handleLogin = async (formData: { email: string; password: string }) => {
     try {
       const requiredFields = {
@@ -18,6 +18,25 @@ const getApiUrl = (): string => {
 
 const API_BASE_URL = `${getApiUrl()}/api/v1`; // ← Fixed: added /
 
+// the access token lives 15 minutes; a 401 in the browser first swaps the refresh_token cookie (sent to the
+// auth endpoints only) for a new pair. concurrent 401s share one refresh, since each refresh token is single use
+let refreshing: Promise<boolean> | null = null;
+
+export const refreshTokens = (): Promise<boolean> => {
+  if (!refreshing) {
+    refreshing = fetch(`${API_BASE_URL}/auth/refresh`, {
+      method: 'POST',
+      credentials: 'include',
+    })
+      .then((response) => response.ok)
+      .catch(() => false)
+      .finally(() => {
+        refreshing = null;
+      });
+  }
+  return refreshing;
+};
+
 const fetchWithAuth = async (url: string, options: RequestInit = {}) => {
   const isServer = typeof window === 'undefined';
 
@@ -41,7 +60,7 @@ const fetchWithAuth = async (url: string, options: RequestInit = {}) => {
   const fullUrl = `${API_BASE_URL}${url}`;
   console.log(`[${isServer ? 'SERVER' : 'CLIENT'}] Fetching: ${fullUrl}`);
 
-  const response = await fetch(fullUrl, {
+  const send = () => fetch(fullUrl, {
     ...options,
     headers: {
       'Content-Type': 'application/json',
@@ -51,8 +70,16 @@ const fetchWithAuth = async (url: string, options: RequestInit = {}) => {
     credentials: 'include',
   });
 
+  let response = await send();
+
   console.log(`[${isServer ? 'SERVER' : 'CLIENT'}] Response status: ${response.status}`);
 
+  // In the browser, refresh the tokens once and retry before giving up
+  if (!isServer && response.status === 401 && !url.startsWith('/auth/') && await refreshTokens()) {
+    console.log('🔄 [CLIENT] Tokens refreshed - retrying');
+    response = await send();
+  }
+
   // Only redirect if we're in the browser
   if (!isServer && response.status === 401) {
     console.log('🔒 [CLIENT] Unauthorized - redirecting to login');